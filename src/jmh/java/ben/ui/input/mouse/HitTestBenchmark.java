@@ -0,0 +1,114 @@
+package ben.ui.input.mouse;
+
+import ben.ui.math.Vec2i;
+import ben.ui.widget.Button;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hit Test Benchmark.
+ * <p>
+ *     Moving the mouse over a container with a grid of buttons, as a high rate mouse does over a big panel.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HitTestBenchmark {
+
+    /**
+     * The number of mouse positions, a power of two.
+     */
+    private static final int POSITIONS = 1024;
+
+    /**
+     * The width of a button.
+     */
+    private static final int WIDTH = 100;
+
+    /**
+     * The height of a button.
+     */
+    private static final int HEIGHT = 30;
+
+    /**
+     * The number of buttons in each row.
+     */
+    private static final int COLUMNS = 20;
+
+    /**
+     * The number of buttons.
+     */
+    @Param({"10", "1000"})
+    public int buttons;
+
+    /**
+     * The handler.
+     */
+    private ContainerMouseHandler mouseHandler;
+
+    /**
+     * The mouse positions, spread over the buttons.
+     */
+    private Vec2i[] positions;
+
+    /**
+     * The index of the next mouse position.
+     */
+    private int index;
+
+    /**
+     * Set up the buttons and the mouse positions.
+     */
+    @Setup
+    public void setup() {
+        mouseHandler = new ContainerMouseHandler();
+        for (int i = 0; i < buttons; i++) {
+            Button button = new Button(null, "Button");
+            button.setPosition(new Vec2i((i % COLUMNS) * WIDTH, (i / COLUMNS) * HEIGHT));
+            button.setSize(new Vec2i(WIDTH, HEIGHT));
+            mouseHandler.addWidget(button);
+        }
+        int rows = (buttons + COLUMNS - 1) / COLUMNS;
+        Random random = new Random(0);
+        positions = new Vec2i[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            positions[i] = new Vec2i(random.nextInt(Math.min(buttons, COLUMNS) * WIDTH), random.nextInt(rows * HEIGHT));
+        }
+    }
+
+    /**
+     * Move the mouse.
+     * @return true if the move was consumed
+     */
+    @Benchmark
+    public boolean mouseMoved() {
+        index = (index + 1) & (POSITIONS - 1);
+        return mouseHandler.mouseMoved(positions[index]);
+    }
+
+    /**
+     * Scroll the mouse wheel, which only needs the top widget.
+     * @return true if the wheel was consumed
+     */
+    @Benchmark
+    public boolean mouseWheelMoved() {
+        index = (index + 1) & (POSITIONS - 1);
+        return mouseHandler.mouseWheelMoved(1, positions[index]);
+    }
+}
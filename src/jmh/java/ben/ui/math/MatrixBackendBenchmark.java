@@ -0,0 +1,128 @@
+package ben.ui.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matrix Backend Benchmark.
+ * <p>
+ *     Compares the scalar and vector API matrix backends. The vector one needs the JVM to have been started with
+ *     {@code --add-modules jdk.incubator.vector}, which the jmh task does on JDK 16 or later.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MatrixBackendBenchmark {
+
+    /**
+     * The number of points that are transformed at once.
+     */
+    private static final int POINTS = 4096;
+
+    /**
+     * The backend, scalar or vector.
+     */
+    @Param({"scalar", "vector"})
+    public String backendName;
+
+    /**
+     * The backend.
+     */
+    private MatrixBackend backend;
+
+    /**
+     * The first matrix.
+     */
+    private float[] m0;
+
+    /**
+     * The second matrix.
+     */
+    private float[] m1;
+
+    /**
+     * The matrix that results are written to.
+     */
+    private float[] result;
+
+    /**
+     * The points that are transformed, packed x, y, z.
+     */
+    private float[] points;
+
+    /**
+     * The transformed points, packed x, y, z, w.
+     */
+    private float[] transformed;
+
+    /**
+     * Set up the backend, matrices and points.
+     */
+    @Setup
+    public void setup() {
+        boolean vector = backendName.equals("vector");
+        backend = Matrix.createBackend(vector);
+        if (vector && backend instanceof Matrix.ScalarBackend) {
+            throw new IllegalStateException("The vector API isn't available, add the jdk.incubator.vector module");
+        }
+        Random random = new Random(0);
+        m0 = new float[Matrix.ELEMENTS];
+        m1 = new float[Matrix.ELEMENTS];
+        for (int i = 0; i < Matrix.ELEMENTS; i++) {
+            m0[i] = random.nextFloat();
+            m1[i] = random.nextFloat();
+        }
+        result = new float[Matrix.ELEMENTS];
+        points = new float[POINTS * 3];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = random.nextFloat() * 800;
+        }
+        transformed = new float[POINTS * 4];
+    }
+
+    /**
+     * Multiply two matrices.
+     * @return the product
+     */
+    @Benchmark
+    public float[] mul() {
+        backend.mul(result, m0, m1);
+        return result;
+    }
+
+    /**
+     * Invert a matrix.
+     * @return the inverse
+     */
+    @Benchmark
+    public float[] inverse() {
+        backend.inverse(result, m0);
+        return result;
+    }
+
+    /**
+     * Transform all of the points at once.
+     * @return the transformed points
+     */
+    @Benchmark
+    public float[] transform() {
+        backend.transform(m0, points, 0, transformed, 0, POINTS);
+        return transformed;
+    }
+}
@@ -0,0 +1,217 @@
+package ben.ui.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matrix Benchmark.
+ * <p>
+ *     The matrix operations that are done for every widget that is drawn, and transforming vertex arrays on the CPU.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MatrixBenchmark {
+
+    /**
+     * The number of points that are transformed at once.
+     */
+    private static final int POINTS = 4096;
+
+    /**
+     * The first matrix.
+     */
+    private Matrix m0;
+
+    /**
+     * The second matrix.
+     */
+    private Matrix m1;
+
+    /**
+     * The matrix that results are written to.
+     */
+    private Matrix result;
+
+    /**
+     * The PMV matrix.
+     */
+    private PmvMatrix pmvMatrix;
+
+    /**
+     * The first rectangle.
+     */
+    private Rect rect0;
+
+    /**
+     * The second rectangle, overlapping the first.
+     */
+    private Rect rect1;
+
+    /**
+     * The points that are transformed, packed x, y, z.
+     */
+    private float[] points;
+
+    /**
+     * The points as vectors, for transforming one at a time.
+     */
+    private Vec4f[] vectors;
+
+    /**
+     * The transformed points, packed x, y, z, w.
+     */
+    private float[] transformed;
+
+    /**
+     * The screen positions of the points, packed x, y.
+     */
+    private float[] screen;
+
+    /**
+     * Set up the matrices and points.
+     */
+    @Setup
+    public void setup() {
+        m0 = new Matrix();
+        m0.orthographic(0, 800, 600, 0, -1, 1);
+        m1 = new Matrix();
+        m1.translate(12, 34, 0);
+        m1.rotateX(0.5f);
+        result = new Matrix();
+        pmvMatrix = new PmvMatrix();
+        pmvMatrix.setScreenSize(new Vec2i(800, 600));
+        pmvMatrix.orthographic(new Rect(0, 0, 800, 600));
+        rect0 = new Rect(10, 10, 200, 100);
+        rect1 = new Rect(50, 40, 300, 300);
+        Random random = new Random(0);
+        points = new float[POINTS * 3];
+        vectors = new Vec4f[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            points[i * 3] = random.nextFloat() * 800;
+            points[i * 3 + 1] = random.nextFloat() * 600;
+            points[i * 3 + 2] = random.nextFloat();
+            vectors[i] = new Vec4f(points[i * 3], points[i * 3 + 1], points[i * 3 + 2], 1);
+        }
+        transformed = new float[POINTS * 4];
+        screen = new float[POINTS * 2];
+    }
+
+    /**
+     * Multiply into a new matrix.
+     * @return the product
+     */
+    @Benchmark
+    public Matrix mul() {
+        return Matrix.mul(m0, m1);
+    }
+
+    /**
+     * Multiply into an existing matrix.
+     * @return the product
+     */
+    @Benchmark
+    public Matrix mulInto() {
+        Matrix.mul(result, m0, m1);
+        return result;
+    }
+
+    /**
+     * Invert a matrix.
+     * @return the inverse
+     */
+    @Benchmark
+    public Matrix inverse() {
+        return m1.inverse();
+    }
+
+    /**
+     * Translate a matrix.
+     * @return the translated matrix
+     */
+    @Benchmark
+    public Matrix translate() {
+        result.set(m0);
+        result.translate(5, 6, 0);
+        return result;
+    }
+
+    /**
+     * Push, translate and pop the PMV matrix, as every widget does when it's drawn.
+     * @return the combined matrix while translated
+     */
+    @Benchmark
+    public Matrix pushTranslatePop() {
+        pmvMatrix.push();
+        pmvMatrix.translate(5, 6, 0);
+        Matrix matrix = pmvMatrix.getPmvMatrix();
+        pmvMatrix.pop();
+        return matrix;
+    }
+
+    /**
+     * Transform the points one at a time, creating a vector for each.
+     * @param blackhole consumes the transformed points
+     */
+    @Benchmark
+    public void transformEach(Blackhole blackhole) {
+        for (Vec4f vector : vectors) {
+            blackhole.consume(Matrix.mul(m0, vector));
+        }
+    }
+
+    /**
+     * Transform all of the points at once.
+     * @return the transformed points
+     */
+    @Benchmark
+    public float[] transformBatch() {
+        m0.transform(points, 0, transformed, 0, POINTS);
+        return transformed;
+    }
+
+    /**
+     * Project the points one at a time.
+     * @param blackhole consumes the screen positions
+     */
+    @Benchmark
+    public void projectEach(Blackhole blackhole) {
+        for (Vec4f vector : vectors) {
+            blackhole.consume(pmvMatrix.project(new Vec3f(vector.getX(), vector.getY(), vector.getZ())));
+        }
+    }
+
+    /**
+     * Project all of the points at once.
+     * @return the number of points that have a screen position
+     */
+    @Benchmark
+    public int projectBatch() {
+        return pmvMatrix.project(points, 0, screen, 0, POINTS);
+    }
+
+    /**
+     * Intersect two overlapping rectangles.
+     * @return the intersection
+     */
+    @Benchmark
+    public Rect intersect() {
+        return rect0.intersect(rect1);
+    }
+}
@@ -0,0 +1,74 @@
+package ben.ui.resource.font;
+
+import ben.ui.renderer.TextRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shaped Text Benchmark.
+ * <p>
+ *     The CPU side of drawing text; shaping a run and building its glyph quads. The atlas is filled in the setup, so
+ *     rasterizing glyphs isn't measured.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShapedTextBenchmark {
+
+    /**
+     * The text that is drawn.
+     */
+    private static final String TEXT = "The quick brown fox jumps over the lazy dog 0123456789";
+
+    /**
+     * The glyph atlas of the default font.
+     */
+    private GlyphAtlas atlas;
+
+    /**
+     * Counts the invocations, to make text that isn't in the cache.
+     */
+    private int counter;
+
+    /**
+     * Set up the atlas with the glyphs of the text.
+     */
+    @Setup
+    public void setup() {
+        atlas = new GlyphAtlas(TextRenderer.DEFAULT_FONT);
+        TextShaper.shape(TextRenderer.DEFAULT_FONT, TEXT).getPositions(atlas);
+    }
+
+    /**
+     * Get the quads of text that has been drawn before, the common case for labels.
+     * @return the vertex positions
+     */
+    @Benchmark
+    public float[] cached() {
+        return TextShaper.shape(TextRenderer.DEFAULT_FONT, TEXT).getPositions(atlas);
+    }
+
+    /**
+     * Shape and build the quads of text that hasn't been drawn before, like a text field being typed in.
+     * @return the vertex positions
+     */
+    @Benchmark
+    public float[] uncached() {
+        counter++;
+        return TextShaper.shape(TextRenderer.DEFAULT_FONT, TEXT + (counter % 10) + (counter / 10)).getPositions(atlas);
+    }
+}
@@ -0,0 +1,107 @@
+package ben.ui.widget;
+
+import ben.ui.math.Vec2i;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Layout Benchmark.
+ * <p>
+ *     Laying out a border pane with a long vertical list of labels in the centre and a short one on the left.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LayoutBenchmark {
+
+    /**
+     * The number of labels in the list.
+     */
+    @Param({"100", "1000"})
+    public int labels;
+
+    /**
+     * The root pane.
+     */
+    private BorderPane root;
+
+    /**
+     * The label that is changed.
+     */
+    private Label label;
+
+    /**
+     * Counts the invocations, to alternate what changes.
+     */
+    private int counter;
+
+    /**
+     * Set up the tree and lay it out once.
+     */
+    @Setup
+    public void setup() {
+        root = new BorderPane(null);
+        VerticalPane left = new VerticalPane(null, true);
+        for (int i = 0; i < 10; i++) {
+            left.add(new Button(null, "Button " + i));
+        }
+        VerticalPane list = new VerticalPane(null, true);
+        for (int i = 0; i < labels; i++) {
+            label = new Label(null, "Label " + i);
+            list.add(label);
+        }
+        root.setLeft(left);
+        root.setCenter(list);
+        root.setSize(new Vec2i(800, 600));
+        root.validateLayout();
+    }
+
+    /**
+     * Resize the root, so that everything is arranged again.
+     * @return the root
+     */
+    @Benchmark
+    public IPane resize() {
+        counter++;
+        root.setSize(new Vec2i(800 + (counter & 1), 600));
+        root.validateLayout();
+        return root;
+    }
+
+    /**
+     * Change the text of one label, so that only its ancestors are measured and arranged again.
+     * @return the root
+     */
+    @Benchmark
+    public IPane changeLabel() {
+        counter++;
+        label.setText((counter & 1) == 0 ? "Short" : "A longer label");
+        root.validateLayout();
+        return root;
+    }
+
+    /**
+     * Validate a tree that hasn't changed, the cost of layout in a frame where nothing happened.
+     * @return the root
+     */
+    @Benchmark
+    public IPane unchanged() {
+        root.validateLayout();
+        return root;
+    }
+}
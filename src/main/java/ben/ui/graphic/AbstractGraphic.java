@@ -2,7 +2,9 @@ package ben.ui.graphic;
 
 import ben.ui.math.PmvMatrix;
 import ben.ui.resource.GlResourceManager;
+import ben.ui.resource.IRepaintListener;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import com.jogamp.opengl.GL2;
 
@@ -27,8 +29,15 @@ public abstract class AbstractGraphic implements IGraphic {
      */
     private boolean isDirty = false;
 
+    /**
+     * The repaint listener from the last draw, told when the graphic changes.
+     */
+    @Nullable
+    private IRepaintListener repaintListener;
+
     @Override
     public final void draw(@Nonnull GL2 gl, @Nonnull PmvMatrix pmvMatrix, @Nonnull GlResourceManager glResourceManager) {
+        repaintListener = glResourceManager.getRepaintListener();
         if (!isInitialised) {
             initDraw(gl, glResourceManager);
             isInitialised = true;
@@ -65,11 +74,23 @@ public abstract class AbstractGraphic implements IGraphic {
      */
     protected final void setDirty() {
         isDirty = true;
+        if (repaintListener != null) {
+            repaintListener.repaintRequested();
+        }
     }
 
     @Override
     public final void remove(@Nonnull GL2 gl) {
+        if (isInitialised) {
+            preRemove(gl);
+        }
         isInitialised = false;
         isDirty = false;
     }
+
+    /**
+     * The graphic is about to be removed, free the OpenGL resources created by initDraw.
+     * @param gl the OpenGL interface
+     */
+    protected void preRemove(@Nonnull GL2 gl) { }
 }
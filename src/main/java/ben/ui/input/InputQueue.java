@@ -0,0 +1,432 @@
+package ben.ui.input;
+
+import ben.ui.input.key.IKeyHandler;
+import ben.ui.input.mouse.IMouseHandler;
+import ben.ui.input.mouse.MouseButton;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import java.awt.event.KeyEvent;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Input Queue.
+ * <p>
+ *     Hands input events from the event thread to the OpenGL thread, so that the widget tree is only ever touched by
+ *     the thread that draws it. The event thread puts events in and the OpenGL thread drains them once per frame.
+ * </p>
+ * <p>
+ *     The queue is a lock free ring buffer with one producer and one consumer. Each event is packed into a single
+ *     long; the type, the button and the position. A move or drag that arrives while the last event in the queue is
+ *     the same kind of move, and hasn't been taken yet, replaces it instead of being added, so a flood of moves costs
+ *     one event per frame. The replace is a compare and set against the consumer taking the event, so the consumer
+ *     sees either the old position or the new one, never half of each.
+ * </p>
+ */
+@ThreadSafe
+public final class InputQueue {
+
+    /**
+     * The Logger.
+     */
+    @Nonnull
+    private static final Logger LOGGER = LogManager.getLogger(InputQueue.class);
+
+    /**
+     * The number of events that the queue holds, a power of two.
+     */
+    private static final int CAPACITY = 1024;
+
+    /**
+     * The value of a slot that has been taken by the consumer.
+     */
+    private static final long TAKEN = 0;
+
+    /**
+     * The number of bits in a coordinate.
+     */
+    private static final int COORDINATE_BITS = 28;
+
+    /**
+     * The mask of a coordinate.
+     */
+    private static final long COORDINATE_MASK = (1L << COORDINATE_BITS) - 1;
+
+    /**
+     * The shift of the button.
+     */
+    private static final int BUTTON_SHIFT = 2 * COORDINATE_BITS;
+
+    /**
+     * The shift of the type.
+     */
+    private static final int TYPE_SHIFT = BUTTON_SHIFT + 4;
+
+    /**
+     * The mask of the type and of the button.
+     */
+    private static final int NIBBLE_MASK = 0xF;
+
+    /**
+     * The mouse buttons, indexed by the packed button.
+     */
+    @Nonnull
+    private static final MouseButton[] BUTTONS = MouseButton.values();
+
+    /**
+     * The values of the types, indexed by the packed type.
+     */
+    @Nonnull
+    private static final Type[] TYPES = Type.values();
+
+    /**
+     * The packed events, {@link #TAKEN} once the consumer has taken them.
+     */
+    @Nonnull
+    private final AtomicLongArray slots = new AtomicLongArray(CAPACITY);
+
+    /**
+     * The wheel rotation of wheel events, written before the event is published.
+     */
+    @Nonnull
+    private final int[] wheelRotations = new int[CAPACITY];
+
+    /**
+     * The key events, written before the event is published.
+     */
+    @Nonnull
+    private final KeyEvent[] keyEvents = new KeyEvent[CAPACITY];
+
+    /**
+     * The number of events that have been published, only written by the producer.
+     */
+    @Nonnull
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * The number of events that have been taken, only written by the consumer.
+     */
+    @Nonnull
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Queue a mouse click.
+     * @param button the button
+     * @param x the x position of the mouse
+     * @param y the y position of the mouse
+     */
+    public void mouseClicked(@Nonnull MouseButton button, int x, int y) {
+        put(pack(Type.CLICKED, button, x, y), 0, null);
+    }
+
+    /**
+     * Queue the mouse entering the window.
+     */
+    public void mouseEntered() {
+        put(pack(Type.ENTERED, null, 0, 0), 0, null);
+    }
+
+    /**
+     * Queue the mouse exiting the window.
+     */
+    public void mouseExited() {
+        put(pack(Type.EXITED, null, 0, 0), 0, null);
+    }
+
+    /**
+     * Queue a mouse press.
+     * @param button the button
+     * @param x the x position of the mouse
+     * @param y the y position of the mouse
+     */
+    public void mousePressed(@Nonnull MouseButton button, int x, int y) {
+        put(pack(Type.PRESSED, button, x, y), 0, null);
+    }
+
+    /**
+     * Queue a mouse release.
+     * @param button the button
+     * @param x the x position of the mouse
+     * @param y the y position of the mouse
+     */
+    public void mouseReleased(@Nonnull MouseButton button, int x, int y) {
+        put(pack(Type.RELEASED, button, x, y), 0, null);
+    }
+
+    /**
+     * Queue a mouse move, replacing the last event if it's a move that hasn't been taken.
+     * @param x the x position of the mouse
+     * @param y the y position of the mouse
+     */
+    public void mouseMoved(int x, int y) {
+        putMove(pack(Type.MOVED, null, x, y));
+    }
+
+    /**
+     * Queue a mouse drag, replacing the last event if it's a drag that hasn't been taken.
+     * @param x the x position of the mouse
+     * @param y the y position of the mouse
+     */
+    public void mouseDragged(int x, int y) {
+        putMove(pack(Type.DRAGGED, null, x, y));
+    }
+
+    /**
+     * Queue a mouse wheel move.
+     * @param wheelRotation the number of clicks that the wheel was rotated
+     * @param x the x position of the mouse
+     * @param y the y position of the mouse
+     */
+    public void mouseWheelMoved(int wheelRotation, int x, int y) {
+        put(pack(Type.WHEEL_MOVED, null, x, y), wheelRotation, null);
+    }
+
+    /**
+     * Queue a key press.
+     * @param keyEvent the key event
+     */
+    public void keyPressed(@Nonnull KeyEvent keyEvent) {
+        put(pack(Type.KEY_PRESSED, null, 0, 0), 0, keyEvent);
+    }
+
+    /**
+     * Queue a key release.
+     * @param keyEvent the key event
+     */
+    public void keyReleased(@Nonnull KeyEvent keyEvent) {
+        put(pack(Type.KEY_RELEASED, null, 0, 0), 0, keyEvent);
+    }
+
+    /**
+     * Get the number of events waiting in the queue.
+     * @return the number of events
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /**
+     * Forward the queued events to the handlers, in the order that they arrived.
+     * <p>
+     *     Only events that were queued before the drain started are forwarded, so an event flood can't stall a frame.
+     * </p>
+     * @param mouseHandler the mouse handler
+     * @param keyHandler the key handler
+     * @return the number of events that were forwarded
+     */
+    public int drain(@Nonnull IMouseHandler mouseHandler, @Nonnull IKeyHandler keyHandler) {
+        long first = head.get();
+        long last = tail.get();
+        for (long i = first; i < last; i++) {
+            int index = (int) i & (CAPACITY - 1);
+            // Taking the event stops the producer replacing it.
+            long event = slots.getAndSet(index, TAKEN);
+            int wheelRotation = wheelRotations[index];
+            KeyEvent keyEvent = keyEvents[index];
+            keyEvents[index] = null;
+            head.set(i + 1);
+            dispatch(event, wheelRotation, keyEvent, mouseHandler, keyHandler);
+        }
+        return (int) (last - first);
+    }
+
+    /**
+     * Throw away the queued events, when there is nothing to forward them to.
+     */
+    public void clear() {
+        long last = tail.get();
+        for (long i = head.get(); i < last; i++) {
+            int index = (int) i & (CAPACITY - 1);
+            slots.set(index, TAKEN);
+            keyEvents[index] = null;
+        }
+        head.set(last);
+    }
+
+    /**
+     * Queue a move, replacing the last event if it's the same kind of move and hasn't been taken.
+     * @param event the packed move
+     */
+    private void putMove(long event) {
+        long published = tail.get();
+        if (published > head.get()) {
+            int index = (int) (published - 1) & (CAPACITY - 1);
+            long previous = slots.get(index);
+            if (previous != TAKEN && typeOf(previous) == typeOf(event) && slots.compareAndSet(index, previous, event)) {
+                return;
+            }
+        }
+        put(event, 0, null);
+    }
+
+    /**
+     * Publish an event at the end of the queue.
+     * @param event the packed event
+     * @param wheelRotation the wheel rotation of a wheel event
+     * @param keyEvent the key event of a key event
+     */
+    private void put(long event, int wheelRotation, @Nullable KeyEvent keyEvent) {
+        long published = tail.get();
+        if (published - head.get() >= CAPACITY) {
+            LOGGER.warn("Input queue is full, dropping " + typeOf(event));
+        }
+        else {
+            int index = (int) published & (CAPACITY - 1);
+            wheelRotations[index] = wheelRotation;
+            keyEvents[index] = keyEvent;
+            slots.set(index, event);
+            tail.set(published + 1);
+        }
+    }
+
+    /**
+     * Forward an event to the handlers.
+     * @param event the packed event
+     * @param wheelRotation the wheel rotation of a wheel event
+     * @param keyEvent the key event of a key event
+     * @param mouseHandler the mouse handler
+     * @param keyHandler the key handler
+     */
+    private static void dispatch(long event, int wheelRotation, @Nullable KeyEvent keyEvent,
+            @Nonnull IMouseHandler mouseHandler, @Nonnull IKeyHandler keyHandler) {
+        MouseButton button = BUTTONS[(int) (event >>> BUTTON_SHIFT) & NIBBLE_MASK];
+        int x = coordinate(event >>> COORDINATE_BITS);
+        int y = coordinate(event);
+        switch (typeOf(event)) {
+            case CLICKED:
+                mouseHandler.mouseClicked(button, x, y);
+                break;
+            case ENTERED:
+                mouseHandler.mouseEntered();
+                break;
+            case EXITED:
+                mouseHandler.mouseExited();
+                break;
+            case PRESSED:
+                mouseHandler.mousePressed(button, x, y);
+                break;
+            case RELEASED:
+                mouseHandler.mouseReleased(button, x, y);
+                break;
+            case MOVED:
+                mouseHandler.mouseMoved(x, y);
+                break;
+            case DRAGGED:
+                mouseHandler.mouseDragged(x, y);
+                break;
+            case WHEEL_MOVED:
+                mouseHandler.mouseWheelMoved(wheelRotation, x, y);
+                break;
+            case KEY_PRESSED:
+                assert keyEvent != null;
+                keyHandler.keyPressed(keyEvent);
+                break;
+            case KEY_RELEASED:
+                assert keyEvent != null;
+                keyHandler.keyReleased(keyEvent);
+                break;
+            default:
+                assert false : "Not an event";
+        }
+    }
+
+    /**
+     * Pack an event into a long.
+     * @param type the type of the event
+     * @param button the mouse button, null if the event doesn't have one
+     * @param x the x position of the mouse
+     * @param y the y position of the mouse
+     * @return the packed event, never {@link #TAKEN}
+     */
+    private static long pack(@Nonnull Type type, @Nullable MouseButton button, int x, int y) {
+        long packedButton = button == null ? 0 : button.ordinal();
+        return ((long) type.ordinal() << TYPE_SHIFT) | (packedButton << BUTTON_SHIFT)
+                | ((x & COORDINATE_MASK) << COORDINATE_BITS) | (y & COORDINATE_MASK);
+    }
+
+    /**
+     * Get the type of a packed event.
+     * @param event the packed event
+     * @return the type
+     */
+    @Nonnull
+    private static Type typeOf(long event) {
+        return TYPES[(int) (event >>> TYPE_SHIFT) & NIBBLE_MASK];
+    }
+
+    /**
+     * Unpack a signed coordinate.
+     * @param bits the packed coordinate in the lowest bits
+     * @return the coordinate
+     */
+    private static int coordinate(long bits) {
+        // Shift the sign bit of the coordinate up to the sign bit of the int, and back down.
+        return (int) (bits << (Integer.SIZE - COORDINATE_BITS)) >> (Integer.SIZE - COORDINATE_BITS);
+    }
+
+    /**
+     * The type of an event.
+     */
+    private enum Type {
+
+        /**
+         * Not an event, so that no packed event is zero.
+         */
+        NONE,
+
+        /**
+         * A mouse button has been clicked.
+         */
+        CLICKED,
+
+        /**
+         * The mouse has entered the window.
+         */
+        ENTERED,
+
+        /**
+         * The mouse has exited the window.
+         */
+        EXITED,
+
+        /**
+         * A mouse button has been pressed.
+         */
+        PRESSED,
+
+        /**
+         * A mouse button has been released.
+         */
+        RELEASED,
+
+        /**
+         * The mouse has moved.
+         */
+        MOVED,
+
+        /**
+         * The mouse has moved with a button down.
+         */
+        DRAGGED,
+
+        /**
+         * The mouse wheel has moved.
+         */
+        WHEEL_MOVED,
+
+        /**
+         * A key has been pressed.
+         */
+        KEY_PRESSED,
+
+        /**
+         * A key has been released.
+         */
+        KEY_RELEASED
+    }
+}
@@ -30,6 +30,11 @@ public final class BasicMouseHandler implements IMouseHandler {
 
     @Override
     public boolean mouseClicked(@Nonnull MouseButton button, @Nonnull Vec2i pos) {
+        return mouseClicked(button, pos.getX(), pos.getY());
+    }
+
+    @Override
+    public boolean mouseClicked(@Nonnull MouseButton button, int x, int y) {
         for (IMouseListener mouseListener : mouseListeners) {
             mouseListener.mouseClicked(button);
         }
@@ -55,38 +60,79 @@ public final class BasicMouseHandler implements IMouseHandler {
 
     @Override
     public boolean mousePressed(@Nonnull MouseButton button, @Nonnull Vec2i pos) {
-        for (IMouseListener mouseListener : mouseListeners) {
-            mouseListener.mousePressed(button, pos);
+        return mousePressed(button, pos.getX(), pos.getY());
+    }
+
+    @Override
+    public boolean mousePressed(@Nonnull MouseButton button, int x, int y) {
+        // Listeners take a vector, it's only created if there are any.
+        if (!mouseListeners.isEmpty()) {
+            Vec2i pos = new Vec2i(x, y);
+            for (IMouseListener mouseListener : mouseListeners) {
+                mouseListener.mousePressed(button, pos);
+            }
         }
         return true;
     }
 
     @Override
     public boolean mouseReleased(@Nonnull MouseButton button, @Nonnull Vec2i pos) {
-        for (IMouseListener mouseListener : mouseListeners) {
-            mouseListener.mouseReleased(button, pos);
+        return mouseReleased(button, pos.getX(), pos.getY());
+    }
+
+    @Override
+    public boolean mouseReleased(@Nonnull MouseButton button, int x, int y) {
+        // Listeners take a vector, it's only created if there are any.
+        if (!mouseListeners.isEmpty()) {
+            Vec2i pos = new Vec2i(x, y);
+            for (IMouseListener mouseListener : mouseListeners) {
+                mouseListener.mouseReleased(button, pos);
+            }
         }
         return true;
     }
 
     @Override
     public boolean mouseMoved(@Nonnull Vec2i pos) {
-        for (IMouseListener mouseListener : mouseListeners) {
-            mouseListener.mouseMoved(pos);
+        return mouseMoved(pos.getX(), pos.getY());
+    }
+
+    @Override
+    public boolean mouseMoved(int x, int y) {
+        // Listeners take a vector, it's only created if there are any.
+        if (!mouseListeners.isEmpty()) {
+            Vec2i pos = new Vec2i(x, y);
+            for (IMouseListener mouseListener : mouseListeners) {
+                mouseListener.mouseMoved(pos);
+            }
         }
         return true;
     }
 
     @Override
     public boolean mouseDragged(@Nonnull Vec2i pos) {
-        for (IMouseListener mouseListener : mouseListeners) {
-            mouseListener.mouseDragged(pos);
+        return mouseDragged(pos.getX(), pos.getY());
+    }
+
+    @Override
+    public boolean mouseDragged(int x, int y) {
+        // Listeners take a vector, it's only created if there are any.
+        if (!mouseListeners.isEmpty()) {
+            Vec2i pos = new Vec2i(x, y);
+            for (IMouseListener mouseListener : mouseListeners) {
+                mouseListener.mouseDragged(pos);
+            }
         }
         return true;
     }
 
     @Override
     public boolean mouseWheelMoved(float wheel, @Nonnull Vec2i pos) {
+        return mouseWheelMoved(wheel, pos.getX(), pos.getY());
+    }
+
+    @Override
+    public boolean mouseWheelMoved(float wheel, int x, int y) {
         for (IMouseListener mouseListener : mouseListeners) {
             mouseListener.mouseWheelMoved(wheel);
         }
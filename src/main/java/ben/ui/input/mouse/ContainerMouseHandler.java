@@ -17,13 +17,22 @@ import java.util.Set;
  * <p>
  *     Along with notifying mouse listeners, this handler will forward the events on to child widgets.
  * </p>
+ * <p>
+ *     The widgets are kept in a hit grid so that finding the widgets under the mouse only checks the widgets near it;
+ *     the owner of the handler must call {@link #updateWidget(IWidget)} when a widget moves or changes size.
+ * </p>
  */
 public final class ContainerMouseHandler implements IMouseHandler, IFocusManager {
 
     /**
      * The widgets that the handler will forward events to.
      */
-    private final List<IWidget> widgets = new ArrayList<>();
+    private final HitGrid widgets = new HitGrid();
+
+    /**
+     * The widgets under the mouse, from top to bottom, reused by each event.
+     */
+    private final List<IWidget> hits = new ArrayList<>();
 
     /**
      * The focus listeners.
@@ -67,7 +76,7 @@ public final class ContainerMouseHandler implements IMouseHandler, IFocusManager
      */
     public void addWidget(@Nonnull IWidget widget) {
         assert !widgets.contains(widget);
-        widgets.add(0, widget);
+        widgets.add(widget);
     }
 
     /**
@@ -79,6 +88,14 @@ public final class ContainerMouseHandler implements IMouseHandler, IFocusManager
         widgets.remove(widget);
     }
 
+    /**
+     * Update a widget that has moved or changed size.
+     * @param widget the widget
+     */
+    public void updateWidget(@Nonnull IWidget widget) {
+        widgets.update(widget);
+    }
+
     /**
      * Add a new focus listener.
      * <p>
@@ -122,14 +139,20 @@ public final class ContainerMouseHandler implements IMouseHandler, IFocusManager
 
     @Override
     public boolean mouseClicked(@Nonnull MouseButton button, @Nonnull Vec2i pos) {
+        return mouseClicked(button, pos.getX(), pos.getY());
+    }
+
+    @Override
+    public boolean mouseClicked(@Nonnull MouseButton button, int x, int y) {
         boolean consumed = false;
-        for (IWidget widget : widgets) {
-            if (widget.contains(pos)) {
-                consumed = widget.getMouseHandler().mouseClicked(button, pos.sub(widget.getPosition()));
-                setFocusedWidget(widget);
-                if (consumed) {
-                    break;
-                }
+        List<IWidget> widgetsUnderMouse = hitTest(x, y);
+        for (int i = 0; i < widgetsUnderMouse.size(); i++) {
+            IWidget widget = widgetsUnderMouse.get(i);
+            Vec2i widgetPos = widget.getPosition();
+            consumed = widget.getMouseHandler().mouseClicked(button, x - widgetPos.getX(), y - widgetPos.getY());
+            setFocusedWidget(widget);
+            if (consumed) {
+                break;
             }
         }
         if (!consumed) {
@@ -165,111 +188,129 @@ public final class ContainerMouseHandler implements IMouseHandler, IFocusManager
 
     @Override
     public boolean mousePressed(@Nonnull MouseButton button, @Nonnull Vec2i pos) {
+        return mousePressed(button, pos.getX(), pos.getY());
+    }
+
+    @Override
+    public boolean mousePressed(@Nonnull MouseButton button, int x, int y) {
         boolean consumed = false;
-        for (IWidget widget : widgets) {
-            if (widget.contains(pos)) {
-                consumed = widget.getMouseHandler().mousePressed(button, pos.sub(widget.getPosition()));
-                setFocusedWidget(widget);
-                mousePressWidget = widget;
-                if (consumed) {
-                    break;
-                }
+        List<IWidget> widgetsUnderMouse = hitTest(x, y);
+        for (int i = 0; i < widgetsUnderMouse.size(); i++) {
+            IWidget widget = widgetsUnderMouse.get(i);
+            Vec2i widgetPos = widget.getPosition();
+            consumed = widget.getMouseHandler().mousePressed(button, x - widgetPos.getX(), y - widgetPos.getY());
+            setFocusedWidget(widget);
+            mousePressWidget = widget;
+            if (consumed) {
+                break;
             }
         }
         if (!consumed) {
             setFocusedWidget(null);
         }
-        for (IMouseListener mouseListener : mouseListeners) {
-            mouseListener.mousePressed(button, pos);
+        // Listeners take a vector, it's only created if there are any.
+        if (!mouseListeners.isEmpty()) {
+            Vec2i pos = new Vec2i(x, y);
+            for (IMouseListener mouseListener : mouseListeners) {
+                mouseListener.mousePressed(button, pos);
+            }
         }
         return alwaysConsume | consumed;
     }
 
     @Override
     public boolean mouseReleased(@Nonnull MouseButton button, @Nonnull Vec2i pos) {
+        return mouseReleased(button, pos.getX(), pos.getY());
+    }
+
+    @Override
+    public boolean mouseReleased(@Nonnull MouseButton button, int x, int y) {
         boolean consumed = false;
         if (mousePressWidget != null) {
-            consumed = mousePressWidget.getMouseHandler().mouseReleased(button, pos.sub(mousePressWidget.getPosition()));
+            Vec2i widgetPos = mousePressWidget.getPosition();
+            consumed = mousePressWidget.getMouseHandler().mouseReleased(button, x - widgetPos.getX(),
+                    y - widgetPos.getY());
             mousePressWidget = null;
         }
-        for (IMouseListener mouseListener : mouseListeners) {
-            mouseListener.mouseReleased(button, pos);
+        if (!mouseListeners.isEmpty()) {
+            Vec2i pos = new Vec2i(x, y);
+            for (IMouseListener mouseListener : mouseListeners) {
+                mouseListener.mouseReleased(button, pos);
+            }
         }
         return alwaysConsume | consumed;
     }
 
     @Override
     public boolean mouseMoved(@Nonnull Vec2i pos) {
+        return mouseMoved(pos.getX(), pos.getY());
+    }
+
+    @Override
+    public boolean mouseMoved(int x, int y) {
         boolean consumed = false;
-        for (IWidget widget : widgets) {
-            if (widget.contains(pos)) {
-                consumed = widget.getMouseHandler().mouseMoved(pos.sub(widget.getPosition()));
-                if (widget != mouseOverWidget) {
-                    if (mouseOverWidget != null) {
-                        // This covers the scenario where the mouse moves from one widget to another.
-                        mouseOverWidget.getMouseHandler().mouseExited();
-                    }
-                    widget.getMouseHandler().mouseEntered();
-                    mouseOverWidget = widget;
-                }
-                if (consumed) {
-                    break;
-                }
-            }
-            else {
-                if (widget == mouseOverWidget) {
-                    widget.getMouseHandler().mouseExited();
-                    mouseOverWidget = null;
-                }
+        List<IWidget> widgetsUnderMouse = hitTest(x, y);
+        for (int i = 0; i < widgetsUnderMouse.size(); i++) {
+            IWidget widget = widgetsUnderMouse.get(i);
+            Vec2i widgetPos = widget.getPosition();
+            consumed = widget.getMouseHandler().mouseMoved(x - widgetPos.getX(), y - widgetPos.getY());
+            setMouseOverWidget(widget);
+            if (consumed) {
+                break;
             }
         }
-        for (IMouseListener mouseListener : mouseListeners) {
-            mouseListener.mouseMoved(pos);
+        exitMouseOverWidget(x, y);
+        if (!mouseListeners.isEmpty()) {
+            Vec2i pos = new Vec2i(x, y);
+            for (IMouseListener mouseListener : mouseListeners) {
+                mouseListener.mouseMoved(pos);
+            }
         }
         return alwaysConsume | consumed;
     }
 
     @Override
     public boolean mouseDragged(@Nonnull Vec2i pos) {
+        return mouseDragged(pos.getX(), pos.getY());
+    }
+
+    @Override
+    public boolean mouseDragged(int x, int y) {
         boolean consumed = false;
         // Forward the drag to the widget that received the mouse press
         if (mousePressWidget != null) {
-            consumed = mousePressWidget.getMouseHandler().mouseDragged(pos.sub(mousePressWidget.getPosition()));
+            Vec2i widgetPos = mousePressWidget.getPosition();
+            consumed = mousePressWidget.getMouseHandler().mouseDragged(x - widgetPos.getX(), y - widgetPos.getY());
         }
-        for (IWidget widget : widgets) {
-            if (widget.contains(pos)) {
-                if (widget != mouseOverWidget) {
-                    if (mouseOverWidget != null) {
-                        // This covers the scenario where the mouse moves from one widget to another.
-                        mouseOverWidget.getMouseHandler().mouseExited();
-                    }
-                    widget.getMouseHandler().mouseEntered();
-                    mouseOverWidget = widget;
-                }
-                break;
-            }
-            else {
-                if (widget == mouseOverWidget) {
-                    widget.getMouseHandler().mouseExited();
-                    mouseOverWidget = null;
-                }
-            }
+        List<IWidget> widgetsUnderMouse = hitTest(x, y);
+        if (!widgetsUnderMouse.isEmpty()) {
+            setMouseOverWidget(widgetsUnderMouse.get(0));
         }
-        for (IMouseListener mouseListener : mouseListeners) {
-            mouseListener.mouseDragged(pos);
+        exitMouseOverWidget(x, y);
+        if (!mouseListeners.isEmpty()) {
+            Vec2i pos = new Vec2i(x, y);
+            for (IMouseListener mouseListener : mouseListeners) {
+                mouseListener.mouseDragged(pos);
+            }
         }
         return alwaysConsume | consumed;
     }
 
     @Override
     public boolean mouseWheelMoved(float wheel, @Nonnull Vec2i pos) {
+        return mouseWheelMoved(wheel, pos.getX(), pos.getY());
+    }
+
+    @Override
+    public boolean mouseWheelMoved(float wheel, int x, int y) {
         boolean consumed = false;
-        for (IWidget widget : widgets) {
-            if (widget.contains(pos)) {
-                consumed = widget.getMouseHandler().mouseWheelMoved(wheel, pos.sub(widget.getPosition()));
-                if (consumed) {
-                    break;
-                }
+        List<IWidget> widgetsUnderMouse = hitTest(x, y);
+        for (int i = 0; i < widgetsUnderMouse.size(); i++) {
+            IWidget widget = widgetsUnderMouse.get(i);
+            Vec2i widgetPos = widget.getPosition();
+            consumed = widget.getMouseHandler().mouseWheelMoved(wheel, x - widgetPos.getX(), y - widgetPos.getY());
+            if (consumed) {
+                break;
             }
         }
         for (IMouseListener mouseListener : mouseListeners) {
@@ -290,6 +331,46 @@ public final class ContainerMouseHandler implements IMouseHandler, IFocusManager
         mouseListeners.remove(mouseListener);
     }
 
+    /**
+     * Find the widgets under the mouse.
+     * @param x the x coordinate of the mouse
+     * @param y the y coordinate of the mouse
+     * @return the widgets that contain the position from top to bottom, only valid until the next event
+     */
+    @Nonnull
+    private List<IWidget> hitTest(int x, int y) {
+        hits.clear();
+        widgets.hits(x, y, hits);
+        return hits;
+    }
+
+    /**
+     * Set the widget that the mouse is over, notifying the old widget that the mouse has left it.
+     * @param widget the widget under the mouse
+     */
+    private void setMouseOverWidget(@Nonnull IWidget widget) {
+        if (widget != mouseOverWidget) {
+            if (mouseOverWidget != null) {
+                // This covers the scenario where the mouse moves from one widget to another.
+                mouseOverWidget.getMouseHandler().mouseExited();
+            }
+            widget.getMouseHandler().mouseEntered();
+            mouseOverWidget = widget;
+        }
+    }
+
+    /**
+     * Notify the widget that the mouse was over if the mouse has left it.
+     * @param x the x coordinate of the mouse
+     * @param y the y coordinate of the mouse
+     */
+    private void exitMouseOverWidget(int x, int y) {
+        if (mouseOverWidget != null && !mouseOverWidget.contains(x, y)) {
+            mouseOverWidget.getMouseHandler().mouseExited();
+            mouseOverWidget = null;
+        }
+    }
+
     /**
      * Set the focused widget.
      * <p>
@@ -0,0 +1,402 @@
+package ben.ui.input.mouse;
+
+import ben.ui.math.Vec2i;
+import ben.ui.widget.IWidget;
+import net.jcip.annotations.ThreadSafe;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hit Grid.
+ * <p>
+ *     A spatial index of the widgets in a container, for finding the widgets under the mouse without checking every
+ *     one of them. The container is divided into square cells and each widget is listed in the cells that it overlaps,
+ *     so finding the widgets at a point only needs to check the widgets in one cell.
+ * </p>
+ * <p>
+ *     The widgets in each cell are kept in z order, the last widget added is on top. Widgets must be updated when they
+ *     move or change size. Widgets can be moved from any thread, so the grid is synchronized.
+ * </p>
+ * <p>
+ *     The cells are in an open addressing hash table keyed by their packed coordinates, so looking one up for a mouse
+ *     event doesn't box a key.
+ * </p>
+ */
+@ThreadSafe
+final class HitGrid {
+
+    /**
+     * The size of a cell in pixels.
+     */
+    private static final int CELL_SIZE = 128;
+
+    /**
+     * The entries of the widgets.
+     */
+    @Nonnull
+    private final Map<IWidget, Entry> entries = new IdentityHashMap<>();
+
+    /**
+     * The cells that have widgets in them.
+     */
+    @Nonnull
+    private final CellTable cells = new CellTable();
+
+    /**
+     * The z order of the next widget that is added.
+     */
+    private long nextZ;
+
+    /**
+     * Add a widget on top of the others.
+     * @param widget the widget
+     */
+    public synchronized void add(@Nonnull IWidget widget) {
+        assert !entries.containsKey(widget);
+        Entry entry = new Entry(widget, nextZ++);
+        entries.put(widget, entry);
+        insert(entry);
+    }
+
+    /**
+     * Remove a widget.
+     * @param widget the widget
+     */
+    public synchronized void remove(@Nonnull IWidget widget) {
+        Entry entry = entries.remove(widget);
+        assert entry != null;
+        erase(entry);
+    }
+
+    /**
+     * Does the grid contain a widget.
+     * @param widget the widget
+     * @return true if the widget has been added
+     */
+    public synchronized boolean contains(@Nonnull IWidget widget) {
+        return entries.containsKey(widget);
+    }
+
+    /**
+     * Update the cells of a widget that has moved or changed size.
+     * @param widget the widget
+     */
+    public synchronized void update(@Nonnull IWidget widget) {
+        Entry entry = entries.get(widget);
+        if (entry != null) {
+            Vec2i position = widget.getPosition();
+            Vec2i size = widget.getSize();
+            if (cellMin(position.getX()) != entry.minX || cellMin(position.getY()) != entry.minY
+                    || cellMax(position.getX(), size.getX()) != entry.maxX
+                    || cellMax(position.getY(), size.getY()) != entry.maxY) {
+                erase(entry);
+                insert(entry);
+            }
+        }
+    }
+
+    /**
+     * Get the widgets that contain a point, from top to bottom.
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @param hits the list to add the widgets to
+     */
+    public synchronized void hits(int x, int y, @Nonnull List<IWidget> hits) {
+        List<Entry> cell = cells.get(key(cellMin(x), cellMin(y)));
+        if (cell != null) {
+            for (int i = 0; i < cell.size(); i++) {
+                Entry entry = cell.get(i);
+                if (entry.widget.contains(x, y)) {
+                    hits.add(entry.widget);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the number of cells that have widgets in them.
+     * @return the number of cells
+     */
+    public synchronized int getCellCount() {
+        return cells.getSize();
+    }
+
+    /**
+     * Add an entry to the cells that its widget overlaps.
+     * @param entry the entry
+     */
+    private void insert(@Nonnull Entry entry) {
+        Vec2i position = entry.widget.getPosition();
+        Vec2i size = entry.widget.getSize();
+        entry.minX = cellMin(position.getX());
+        entry.minY = cellMin(position.getY());
+        entry.maxX = cellMax(position.getX(), size.getX());
+        entry.maxY = cellMax(position.getY(), size.getY());
+        for (int y = entry.minY; y <= entry.maxY; y++) {
+            for (int x = entry.minX; x <= entry.maxX; x++) {
+                List<Entry> cell = cells.getOrAdd(key(x, y));
+                // Binary search for where the entry goes, the cell is in descending z order.
+                int low = 0;
+                int high = cell.size();
+                while (low < high) {
+                    int middle = (low + high) >>> 1;
+                    if (cell.get(middle).z > entry.z) {
+                        low = middle + 1;
+                    }
+                    else {
+                        high = middle;
+                    }
+                }
+                cell.add(low, entry);
+            }
+        }
+    }
+
+    /**
+     * Remove an entry from the cells that it was added to.
+     * @param entry the entry
+     */
+    private void erase(@Nonnull Entry entry) {
+        for (int y = entry.minY; y <= entry.maxY; y++) {
+            for (int x = entry.minX; x <= entry.maxX; x++) {
+                long key = key(x, y);
+                List<Entry> cell = cells.get(key);
+                assert cell != null;
+                cell.remove(entry);
+                if (cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the cell that a coordinate is in.
+     * @param coordinate the coordinate
+     * @return the cell coordinate
+     */
+    private static int cellMin(int coordinate) {
+        return Math.floorDiv(coordinate, CELL_SIZE);
+    }
+
+    /**
+     * Get the cell that the far edge of a widget is in, the edge is inside the widget.
+     * @param coordinate the coordinate of the widget
+     * @param size the size of the widget
+     * @return the cell coordinate
+     */
+    private static int cellMax(int coordinate, int size) {
+        return Math.floorDiv(coordinate + Math.max(size, 0), CELL_SIZE);
+    }
+
+    /**
+     * Pack the coordinates of a cell into a key.
+     * @param x the x coordinate of the cell
+     * @param y the y coordinate of the cell
+     * @return the key
+     */
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * An entry in the grid.
+     */
+    private static final class Entry {
+
+        /**
+         * The widget.
+         */
+        @Nonnull
+        private final IWidget widget;
+
+        /**
+         * The z order, higher is on top.
+         */
+        private final long z;
+
+        /**
+         * The first column of cells that the widget is in.
+         */
+        private int minX;
+
+        /**
+         * The first row of cells that the widget is in.
+         */
+        private int minY;
+
+        /**
+         * The last column of cells that the widget is in.
+         */
+        private int maxX;
+
+        /**
+         * The last row of cells that the widget is in.
+         */
+        private int maxY;
+
+        /**
+         * Constructor.
+         * @param widget the widget
+         * @param z the z order
+         */
+        private Entry(@Nonnull IWidget widget, long z) {
+            this.widget = widget;
+            this.z = z;
+        }
+    }
+
+    /**
+     * A hash table of cells keyed by their packed coordinates, with linear probing.
+     */
+    private static final class CellTable {
+
+        /**
+         * The number of slots that the table starts with, a power of two.
+         */
+        private static final int INITIAL_CAPACITY = 16;
+
+        /**
+         * Multiplies a key to spread its bits, the golden ratio in fixed point.
+         */
+        private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+        /**
+         * The slots, null if empty; the length is a power of two and at least twice the number of cells.
+         */
+        @Nonnull
+        private Cell[] slots = new Cell[INITIAL_CAPACITY];
+
+        /**
+         * The number of cells.
+         */
+        private int size;
+
+        /**
+         * Get the entries of a cell.
+         * @param key the packed coordinates of the cell
+         * @return the entries from top to bottom, null if the cell is empty
+         */
+        @Nullable
+        List<Entry> get(long key) {
+            Cell cell = slots[find(slots, key)];
+            return cell != null ? cell.entries : null;
+        }
+
+        /**
+         * Get the entries of a cell, adding it if it isn't in the table.
+         * @param key the packed coordinates of the cell
+         * @return the entries from top to bottom
+         */
+        @Nonnull
+        List<Entry> getOrAdd(long key) {
+            int slot = find(slots, key);
+            Cell cell = slots[slot];
+            if (cell == null) {
+                cell = new Cell(key);
+                slots[slot] = cell;
+                size++;
+                if (size * 2 > slots.length) {
+                    grow();
+                }
+            }
+            return cell.entries;
+        }
+
+        /**
+         * Remove a cell.
+         * @param key the packed coordinates of the cell
+         */
+        void remove(long key) {
+            int mask = slots.length - 1;
+            int empty = find(slots, key);
+            assert slots[empty] != null;
+            slots[empty] = null;
+            size--;
+            // Move the cells after it back, so that none of them are after a gap from where they hash to.
+            for (int slot = (empty + 1) & mask; slots[slot] != null; slot = (slot + 1) & mask) {
+                int home = hash(slots[slot].key) & mask;
+                if (((slot - home) & mask) >= ((slot - empty) & mask)) {
+                    slots[empty] = slots[slot];
+                    slots[slot] = null;
+                    empty = slot;
+                }
+            }
+        }
+
+        /**
+         * Get the number of cells.
+         * @return the number of cells
+         */
+        int getSize() {
+            return size;
+        }
+
+        /**
+         * Double the number of slots.
+         */
+        private void grow() {
+            Cell[] grown = new Cell[slots.length * 2];
+            for (Cell cell : slots) {
+                if (cell != null) {
+                    grown[find(grown, cell.key)] = cell;
+                }
+            }
+            slots = grown;
+        }
+
+        /**
+         * Find the slot of a cell.
+         * @param slots the slots
+         * @param key the packed coordinates of the cell
+         * @return the slot that has the cell, or the empty slot where it would go
+         */
+        private static int find(@Nonnull Cell[] slots, long key) {
+            int mask = slots.length - 1;
+            int slot = hash(key) & mask;
+            while (slots[slot] != null && slots[slot].key != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Hash a key.
+         * @param key the key
+         * @return the hash, the high bits of the key multiplied
+         */
+        private static int hash(long key) {
+            return (int) ((key * HASH_MULTIPLIER) >>> 32);
+        }
+    }
+
+    /**
+     * A cell that has widgets in it.
+     */
+    private static final class Cell {
+
+        /**
+         * The packed coordinates of the cell.
+         */
+        private final long key;
+
+        /**
+         * The entries of the widgets in the cell, from top to bottom.
+         */
+        @Nonnull
+        private final List<Entry> entries = new ArrayList<>();
+
+        /**
+         * Constructor.
+         * @param key the packed coordinates of the cell
+         */
+        private Cell(long key) {
+            this.key = key;
+        }
+    }
+}
@@ -5,6 +5,11 @@ import javax.annotation.Nonnull;
 
 /**
  * Interface for a mouse handler.
+ * <p>
+ *     Each event that has a position can also be given as coordinates. Those methods create a vector and call the
+ *     ones that take a vector by default; handlers that forward events down the widget tree override them so that a
+ *     vector isn't created at each level.
+ * </p>
  */
 public interface IMouseHandler {
 
@@ -28,6 +33,17 @@ public interface IMouseHandler {
      */
     boolean mouseClicked(@Nonnull MouseButton button, @Nonnull Vec2i pos);
 
+    /**
+     * A mouse button has been clicked.
+     * @param button the mouse button that was clicked
+     * @param x the x coordinate of the mouse
+     * @param y the y coordinate of the mouse
+     * @return true if the click is consumed
+     */
+    default boolean mouseClicked(@Nonnull MouseButton button, int x, int y) {
+        return mouseClicked(button, new Vec2i(x, y));
+    }
+
     /**
      * The mouse has entered the area.
      * @return true if the event is consumed
@@ -48,6 +64,17 @@ public interface IMouseHandler {
      */
     boolean mousePressed(@Nonnull MouseButton button, @Nonnull Vec2i pos);
 
+    /**
+     * A mouse button has been pressed.
+     * @param button the mouse button that was pressed
+     * @param x the x coordinate of the mouse
+     * @param y the y coordinate of the mouse
+     * @return true if the event is consumed
+     */
+    default boolean mousePressed(@Nonnull MouseButton button, int x, int y) {
+        return mousePressed(button, new Vec2i(x, y));
+    }
+
     /**
      * A mouse button has been released.
      * @param button the mouse button that was pressed
@@ -56,6 +83,17 @@ public interface IMouseHandler {
      */
     boolean mouseReleased(@Nonnull MouseButton button, @Nonnull Vec2i pos);
 
+    /**
+     * A mouse button has been released.
+     * @param button the mouse button that was pressed
+     * @param x the x coordinate of the mouse
+     * @param y the y coordinate of the mouse
+     * @return true if the event is consumed
+     */
+    default boolean mouseReleased(@Nonnull MouseButton button, int x, int y) {
+        return mouseReleased(button, new Vec2i(x, y));
+    }
+
     /**
      * The mouse has moved.
      * @param pos the position of the mouse
@@ -63,6 +101,16 @@ public interface IMouseHandler {
      */
     boolean mouseMoved(@Nonnull Vec2i pos);
 
+    /**
+     * The mouse has moved.
+     * @param x the x coordinate of the mouse
+     * @param y the y coordinate of the mouse
+     * @return true if the event is consumed
+     */
+    default boolean mouseMoved(int x, int y) {
+        return mouseMoved(new Vec2i(x, y));
+    }
+
     /**
      * The mouse has been dragged.
      * @param pos the position of the mouse
@@ -70,6 +118,16 @@ public interface IMouseHandler {
      */
     boolean mouseDragged(@Nonnull Vec2i pos);
 
+    /**
+     * The mouse has been dragged.
+     * @param x the x coordinate of the mouse
+     * @param y the y coordinate of the mouse
+     * @return true if the event is consumed
+     */
+    default boolean mouseDragged(int x, int y) {
+        return mouseDragged(new Vec2i(x, y));
+    }
+
     /**
      * The mouse wheel has moved.
      * @param wheel how far the wheel was moved
@@ -77,4 +135,15 @@ public interface IMouseHandler {
      * @return true if the event is consumed
      */
     boolean mouseWheelMoved(float wheel, @Nonnull Vec2i pos);
+
+    /**
+     * The mouse wheel has moved.
+     * @param wheel how far the wheel was moved
+     * @param x the x coordinate of the mouse
+     * @param y the y coordinate of the mouse
+     * @return true if the event is consumed
+     */
+    default boolean mouseWheelMoved(float wheel, int x, int y) {
+        return mouseWheelMoved(wheel, new Vec2i(x, y));
+    }
 }
@@ -0,0 +1,158 @@
+package ben.ui.math;
+
+import javax.annotation.Nonnull;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Batch Projection.
+ * <p>
+ *     Projects an array of points through a PMV matrix to their screen positions. The points are transformed a chunk at
+ *     a time into a scratch array, so nothing is created per point. Large batches are split in half until they're small
+ *     enough, so that a fork join pool can project the halves at the same time.
+ * </p>
+ */
+final class BatchProjection extends RecursiveTask<Integer> {
+
+    /**
+     * The serial version, tasks are never serialised but fork join tasks are serializable.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of points that are transformed at once.
+     */
+    static final int CHUNK_POINTS = 256;
+
+    /**
+     * The number of floats in a transformed point, x, y, z, w.
+     */
+    static final int TRANSFORMED_FLOATS = 4;
+
+    /**
+     * The number of floats in a point, x, y, z.
+     */
+    private static final int POINT_FLOATS = 3;
+
+    /**
+     * The number of floats in a screen position, x, y.
+     */
+    private static final int SCREEN_FLOATS = 2;
+
+    /**
+     * Batches with more points than this are split when projected in a fork join pool.
+     */
+    private static final int SPLIT_POINTS = 16384;
+
+    /**
+     * The PMV matrix, must not change while the points are projected.
+     */
+    @Nonnull
+    private final Matrix pmvMatrix;
+
+    /**
+     * The size of the screen.
+     */
+    @Nonnull
+    private final Vec2i screenSize;
+
+    /**
+     * The points, packed x, y, z.
+     */
+    @Nonnull
+    private final float[] points;
+
+    /**
+     * The index of the first point's x coordinate.
+     */
+    private final int pointsOffset;
+
+    /**
+     * The array that the screen positions are written to, packed x, y.
+     */
+    @Nonnull
+    private final float[] screen;
+
+    /**
+     * The index that the first screen position is written to.
+     */
+    private final int screenOffset;
+
+    /**
+     * The number of points.
+     */
+    private final int count;
+
+    /**
+     * Constructor.
+     * @param pmvMatrix the PMV matrix, must not change while the points are projected
+     * @param screenSize the size of the screen
+     * @param points the points, packed x, y, z
+     * @param pointsOffset the index of the first point's x coordinate
+     * @param screen the array that the screen positions are written to, packed x, y
+     * @param screenOffset the index that the first screen position is written to
+     * @param count the number of points
+     */
+    BatchProjection(@Nonnull Matrix pmvMatrix, @Nonnull Vec2i screenSize, @Nonnull float[] points, int pointsOffset,
+            @Nonnull float[] screen, int screenOffset, int count) {
+        this.pmvMatrix = pmvMatrix;
+        this.screenSize = screenSize;
+        this.points = points;
+        this.pointsOffset = pointsOffset;
+        this.screen = screen;
+        this.screenOffset = screenOffset;
+        this.count = count;
+    }
+
+    @Nonnull
+    @Override
+    protected Integer compute() {
+        int projected;
+        if (count > SPLIT_POINTS) {
+            int half = count / 2;
+            BatchProjection first = new BatchProjection(pmvMatrix, screenSize, points, pointsOffset, screen,
+                    screenOffset, half);
+            BatchProjection second = new BatchProjection(pmvMatrix, screenSize, points,
+                    pointsOffset + half * POINT_FLOATS, screen, screenOffset + half * SCREEN_FLOATS, count - half);
+            second.fork();
+            projected = first.compute() + second.join();
+        }
+        else {
+            projected = project(new float[CHUNK_POINTS * TRANSFORMED_FLOATS]);
+        }
+        return projected;
+    }
+
+    /**
+     * Project the points on this thread.
+     * <p>
+     *     Points that are behind the camera don't have a screen position, both of their coordinates are set to NaN.
+     * </p>
+     * @param scratch the array that the points are transformed into, must hold {@link #CHUNK_POINTS} transformed points
+     * @return the number of points that have a screen position
+     */
+    int project(@Nonnull float[] scratch) {
+        float width = screenSize.getX();
+        float height = screenSize.getY();
+        int projected = 0;
+        int out = screenOffset;
+        for (int first = 0; first < count; first += CHUNK_POINTS) {
+            int chunk = Math.min(CHUNK_POINTS, count - first);
+            pmvMatrix.transform(points, pointsOffset + first * POINT_FLOATS, scratch, 0, chunk);
+            for (int i = 0; i < chunk * TRANSFORMED_FLOATS; i += TRANSFORMED_FLOATS) {
+                float w = scratch[i + 3];
+                if (w != 0.0f && scratch[i + 2] / w < 1) {
+                    screen[out] = (scratch[i] / w * 0.5f + 0.5f) * width;
+                    screen[out + 1] = height - (scratch[i + 1] / w * 0.5f + 0.5f) * height;
+                    projected++;
+                }
+                else {
+                    screen[out] = Float.NaN;
+                    screen[out + 1] = Float.NaN;
+                }
+                out += SCREEN_FLOATS;
+            }
+        }
+        return projected;
+    }
+}
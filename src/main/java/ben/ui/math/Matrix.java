@@ -1,47 +1,90 @@
 package ben.ui.math;
 
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import java.nio.FloatBuffer;
+import java.util.Arrays;
 
 /**
  * 4x4 Matrix.
+ * <p>
+ *     Multiplying, inverting and transforming arrays of points are done by a {@link MatrixBackend}. If the JVM was
+ *     started with {@code --add-modules jdk.incubator.vector} they use the vector API, otherwise scalar code. Setting
+ *     the {@code ben.ui.math.vector} system property to false always uses the scalar code.
+ * </p>
  */
 public final class Matrix {
 
-    /** m00. **/
-    private float m00;
-    /** m01. **/
-    private float m01;
-    /** m02. **/
-    private float m02;
-    /** m03. **/
-    private float m03;
-    /** m10. **/
-    private float m10;
-    /** m11. **/
-    private float m11;
-    /** m12. **/
-    private float m12;
-    /** m13. **/
-    private float m13;
-    /** m20. **/
-    private float m20;
-    /** m21. **/
-    private float m21;
-    /** m22. **/
-    private float m22;
-    /** m23. **/
-    private float m23;
-    /** m30. **/
-    private float m30;
-    /** m31. **/
-    private float m31;
-    /** m32. **/
-    private float m32;
-    /** m33. **/
-    private float m33;
+    /**
+     * The number of elements in a matrix.
+     */
+    static final int ELEMENTS = 16;
+
+    /** The index of m00. **/
+    static final int M00 = 0;
+    /** The index of m01. **/
+    static final int M01 = 1;
+    /** The index of m02. **/
+    static final int M02 = 2;
+    /** The index of m03. **/
+    static final int M03 = 3;
+    /** The index of m10. **/
+    static final int M10 = 4;
+    /** The index of m11. **/
+    static final int M11 = 5;
+    /** The index of m12. **/
+    static final int M12 = 6;
+    /** The index of m13. **/
+    static final int M13 = 7;
+    /** The index of m20. **/
+    static final int M20 = 8;
+    /** The index of m21. **/
+    static final int M21 = 9;
+    /** The index of m22. **/
+    static final int M22 = 10;
+    /** The index of m23. **/
+    static final int M23 = 11;
+    /** The index of m30. **/
+    static final int M30 = 12;
+    /** The index of m31. **/
+    static final int M31 = 13;
+    /** The index of m32. **/
+    static final int M32 = 14;
+    /** The index of m33. **/
+    static final int M33 = 15;
+
+    /**
+     * The system property that turns the vector API backend off when it's false.
+     */
+    static final String VECTOR_PROPERTY = "ben.ui.math.vector";
+
+    /**
+     * The vector API backend, built separately as it needs JDK 16 or later.
+     */
+    private static final String VECTOR_BACKEND = "ben.ui.math.VectorMatrixBackend";
+
+    /**
+     * The Logger.
+     */
+    @Nonnull
+    private static final Logger LOGGER = LogManager.getLogger(Matrix.class);
+
+    /**
+     * Does the mul, inverse and batch transform.
+     */
+    @Nonnull
+    private static final MatrixBackend BACKEND =
+            createBackend(Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true")));
+
+    /**
+     * The elements, column major; mXY is column X, row Y.
+     */
+    @Nonnull
+    private final float[] m = new float[ELEMENTS];
 
     /**
      * Constructor.
@@ -55,98 +98,42 @@ public final class Matrix {
      * @param m the matrix to copy
      */
     public Matrix(@Nonnull Matrix m) {
-        m00 = m.m00;
-        m01 = m.m01;
-        m02 = m.m02;
-        m03 = m.m03;
-        m10 = m.m10;
-        m11 = m.m11;
-        m12 = m.m12;
-        m13 = m.m13;
-        m20 = m.m20;
-        m21 = m.m21;
-        m22 = m.m22;
-        m23 = m.m23;
-        m30 = m.m30;
-        m31 = m.m31;
-        m32 = m.m32;
-        m33 = m.m33;
+        set(m);
     }
 
     @Nonnull
     @Override
     public String toString() {
-        return "Matrix { " + m00 + ", " + m10 + ", " + m20 + ", " + m30 + ",\n"
-                + "         " + m01 + ", " + m11 + ", " + m21 + ", " + m31 + ",\n"
-                + "         " + m02 + ", " + m12 + ", " + m22 + ", " + m32 + ",\n"
-                + "         " + m03 + ", " + m13 + ", " + m23 + ", " + m33 + " }\n";
+        return "Matrix { " + m[M00] + ", " + m[M10] + ", " + m[M20] + ", " + m[M30] + ",\n"
+                + "         " + m[M01] + ", " + m[M11] + ", " + m[M21] + ", " + m[M31] + ",\n"
+                + "         " + m[M02] + ", " + m[M12] + ", " + m[M22] + ", " + m[M32] + ",\n"
+                + "         " + m[M03] + ", " + m[M13] + ", " + m[M23] + ", " + m[M33] + " }\n";
     }
 
     /**
      * Set the matrix to another matrix.
      * @param m the matrix to copy
      */
-    private void set(Matrix m) {
-        this.m00 = m.m00;
-        this.m01 = m.m01;
-        this.m02 = m.m02;
-        this.m03 = m.m03;
-        this.m10 = m.m10;
-        this.m11 = m.m11;
-        this.m12 = m.m12;
-        this.m13 = m.m13;
-        this.m20 = m.m20;
-        this.m21 = m.m21;
-        this.m22 = m.m22;
-        this.m23 = m.m23;
-        this.m30 = m.m30;
-        this.m31 = m.m31;
-        this.m32 = m.m32;
-        this.m33 = m.m33;
+    public void set(@Nonnull Matrix m) {
+        System.arraycopy(m.m, 0, this.m, 0, ELEMENTS);
     }
 
     /**
      * Set all elements to zero.
      */
     public void zero() {
-        m00 = 0.0f;
-        m01 = 0.0f;
-        m02 = 0.0f;
-        m03 = 0.0f;
-        m10 = 0.0f;
-        m11 = 0.0f;
-        m12 = 0.0f;
-        m13 = 0.0f;
-        m20 = 0.0f;
-        m21 = 0.0f;
-        m22 = 0.0f;
-        m23 = 0.0f;
-        m30 = 0.0f;
-        m31 = 0.0f;
-        m32 = 0.0f;
-        m33 = 0.0f;
+        Arrays.fill(m, 0.0f);
     }
 
     /**
      * Load the identity matrix.
      */
     public void identity() {
-        m00 = 1.0f;
-        m01 = 0.0f;
-        m02 = 0.0f;
-        m03 = 0.0f;
-        m10 = 0.0f;
-        m11 = 1.0f;
-        m12 = 0.0f;
-        m13 = 0.0f;
-        m20 = 0.0f;
-        m21 = 0.0f;
-        m22 = 1.0f;
-        m23 = 0.0f;
-        m30 = 0.0f;
-        m31 = 0.0f;
-        m32 = 0.0f;
-        m33 = 1.0f;
+        zero();
+        m[M00] = 1.0f;
+        m[M11] = 1.0f;
+        m[M22] = 1.0f;
+        m[M33] = 1.0f;
     }
 
     /**
@@ -154,9 +141,7 @@ public final class Matrix {
      * @return the determinant
      */
     public float determinant() {
-        return (m00 * m11 - m01 * m10) * (m22 * m33 - m23 * m32) - (m00 * m12 - m02 * m10) * (m21 * m33 - m23 * m31)
-                + (m00 * m13 - m03 * m10) * (m21 * m32 - m22 * m31) + (m01 * m12 - m02 * m11) * (m20 * m33 - m23 * m30)
-                - (m01 * m13 - m03 * m11) * (m20 * m32 - m22 * m30) + (m02 * m13 - m03 * m12) * (m20 * m31 - m21 * m30);
+        return determinant(m);
     }
 
     /**
@@ -168,25 +153,23 @@ public final class Matrix {
     @Nonnull
     public static Matrix mul(@Nonnull Matrix m0, @Nonnull Matrix m1) {
         Matrix result = new Matrix();
-        result.m00 = m0.m00 * m1.m00 + m0.m10 * m1.m01 + m0.m20 * m1.m02 + m0.m30 * m1.m03;
-        result.m01 = m0.m01 * m1.m00 + m0.m11 * m1.m01 + m0.m21 * m1.m02 + m0.m31 * m1.m03;
-        result.m02 = m0.m02 * m1.m00 + m0.m12 * m1.m01 + m0.m22 * m1.m02 + m0.m32 * m1.m03;
-        result.m03 = m0.m03 * m1.m00 + m0.m13 * m1.m01 + m0.m23 * m1.m02 + m0.m33 * m1.m03;
-        result.m10 = m0.m00 * m1.m10 + m0.m10 * m1.m11 + m0.m20 * m1.m12 + m0.m30 * m1.m13;
-        result.m11 = m0.m01 * m1.m10 + m0.m11 * m1.m11 + m0.m21 * m1.m12 + m0.m31 * m1.m13;
-        result.m12 = m0.m02 * m1.m10 + m0.m12 * m1.m11 + m0.m22 * m1.m12 + m0.m32 * m1.m13;
-        result.m13 = m0.m03 * m1.m10 + m0.m13 * m1.m11 + m0.m23 * m1.m12 + m0.m33 * m1.m13;
-        result.m20 = m0.m00 * m1.m20 + m0.m10 * m1.m21 + m0.m20 * m1.m22 + m0.m30 * m1.m23;
-        result.m21 = m0.m01 * m1.m20 + m0.m11 * m1.m21 + m0.m21 * m1.m22 + m0.m31 * m1.m23;
-        result.m22 = m0.m02 * m1.m20 + m0.m12 * m1.m21 + m0.m22 * m1.m22 + m0.m32 * m1.m23;
-        result.m23 = m0.m03 * m1.m20 + m0.m13 * m1.m21 + m0.m23 * m1.m22 + m0.m33 * m1.m23;
-        result.m30 = m0.m00 * m1.m30 + m0.m10 * m1.m31 + m0.m20 * m1.m32 + m0.m30 * m1.m33;
-        result.m31 = m0.m01 * m1.m30 + m0.m11 * m1.m31 + m0.m21 * m1.m32 + m0.m31 * m1.m33;
-        result.m32 = m0.m02 * m1.m30 + m0.m12 * m1.m31 + m0.m22 * m1.m32 + m0.m32 * m1.m33;
-        result.m33 = m0.m03 * m1.m30 + m0.m13 * m1.m31 + m0.m23 * m1.m32 + m0.m33 * m1.m33;
+        mul(result, m0, m1);
         return result;
     }
 
+    /**
+     * Multiply two matricies into an existing matrix.
+     * <p>
+     *     The result may be one of the operands.
+     * </p>
+     * @param result the matrix that the product is stored in
+     * @param m0 the first matrix
+     * @param m1 the second matrix
+     */
+    public static void mul(@Nonnull Matrix result, @Nonnull Matrix m0, @Nonnull Matrix m1) {
+        BACKEND.mul(result.m, m0.m, m1.m);
+    }
+
     /**
      * Multiply a matrix by a vector.
      * @param m the matrix
@@ -195,45 +178,61 @@ public final class Matrix {
      */
     @Nonnull
     public static Vec4f mul(@Nonnull Matrix m, @Nonnull Vec4f v) {
-        float x = m.m00 * v.getX() + m.m10 * v.getY() + m.m20 * v.getZ() + m.m30 * v.getW();
-        float y = m.m01 * v.getX() + m.m11 * v.getY() + m.m21 * v.getZ() + m.m31 * v.getW();
-        float z = m.m02 * v.getX() + m.m12 * v.getY() + m.m22 * v.getZ() + m.m32 * v.getW();
-        float w = m.m03 * v.getX() + m.m13 * v.getY() + m.m23 * v.getZ() + m.m33 * v.getW();
+        float[] a = m.m;
+        float x = a[M00] * v.getX() + a[M10] * v.getY() + a[M20] * v.getZ() + a[M30] * v.getW();
+        float y = a[M01] * v.getX() + a[M11] * v.getY() + a[M21] * v.getZ() + a[M31] * v.getW();
+        float z = a[M02] * v.getX() + a[M12] * v.getY() + a[M22] * v.getZ() + a[M32] * v.getW();
+        float w = a[M03] * v.getX() + a[M13] * v.getY() + a[M23] * v.getZ() + a[M33] * v.getW();
         return new Vec4f(x, y, z, w);
     }
 
+    /**
+     * Transform an array of 3D points (w = 1).
+     * <p>
+     *     For transforming large vertex arrays on the CPU, e.g. for picking. Nothing is created per point.
+     * </p>
+     * @param points the points, packed x, y, z
+     * @param pointsOffset the index of the first point's x coordinate
+     * @param result the array the transformed points are written to, packed x, y, z, w; may not be the points array
+     * @param resultOffset the index that the first transformed point is written to
+     * @param count the number of points
+     */
+    public void transform(@Nonnull float[] points, int pointsOffset, @Nonnull float[] result, int resultOffset,
+            int count) {
+        BACKEND.transform(m, points, pointsOffset, result, resultOffset, count);
+    }
+
+    /**
+     * Transform a 2D point (z = 0, w = 1) and get the resulting X coordinate.
+     * <p>
+     *     Avoids creating a vector when a renderer needs to move its vertices into another space.
+     * </p>
+     * @param x the X coordinate of the point
+     * @param y the Y coordinate of the point
+     * @return the transformed X coordinate
+     */
+    public float transformX(float x, float y) {
+        return m[M00] * x + m[M10] * y + m[M30];
+    }
+
+    /**
+     * Transform a 2D point (z = 0, w = 1) and get the resulting Y coordinate.
+     * @param x the X coordinate of the point
+     * @param y the Y coordinate of the point
+     * @return the transformed Y coordinate
+     */
+    public float transformY(float x, float y) {
+        return m[M01] * x + m[M11] * y + m[M31];
+    }
+
     /**
      * Inverse the matrix.
      * @return the inverse matrix
      */
     @Nullable
     public Matrix inverse() {
-        float s = determinant();
-        if (s == 0.0f) {
-            return null;
-        }
-        s = 1.0f / s;
-
         Matrix result = new Matrix();
-
-        result.m00 = (m11 * (m22 * m33 - m23 * m32) + m12 * (m23 * m31 - m21 * m33) + m13 * (m21 * m32 - m22 * m31)) * s;
-        result.m01 = (m21 * (m02 * m33 - m03 * m32) + m22 * (m03 * m31 - m01 * m33) + m23 * (m01 * m32 - m02 * m31)) * s;
-        result.m02 = (m31 * (m02 * m13 - m03 * m12) + m32 * (m03 * m11 - m01 * m13) + m33 * (m01 * m12 - m02 * m11)) * s;
-        result.m03 = (m01 * (m13 * m22 - m12 * m23) + m02 * (m11 * m23 - m13 * m21) + m03 * (m12 * m21 - m11 * m22)) * s;
-        result.m10 = (m12 * (m20 * m33 - m23 * m30) + m13 * (m22 * m30 - m20 * m32) + m10 * (m23 * m32 - m22 * m33)) * s;
-        result.m11 = (m22 * (m00 * m33 - m03 * m30) + m23 * (m02 * m30 - m00 * m32) + m20 * (m03 * m32 - m02 * m33)) * s;
-        result.m12 = (m32 * (m00 * m13 - m03 * m10) + m33 * (m02 * m10 - m00 * m12) + m30 * (m03 * m12 - m02 * m13)) * s;
-        result.m13 = (m02 * (m13 * m20 - m10 * m23) + m03 * (m10 * m22 - m12 * m20) + m00 * (m12 * m23 - m13 * m22)) * s;
-        result.m20 = (m13 * (m20 * m31 - m21 * m30) + m10 * (m21 * m33 - m23 * m31) + m11 * (m23 * m30 - m20 * m33)) * s;
-        result.m21 = (m23 * (m00 * m31 - m01 * m30) + m20 * (m01 * m33 - m03 * m31) + m21 * (m03 * m30 - m00 * m33)) * s;
-        result.m22 = (m33 * (m00 * m11 - m01 * m10) + m30 * (m01 * m13 - m03 * m11) + m31 * (m03 * m10 - m00 * m13)) * s;
-        result.m23 = (m03 * (m11 * m20 - m10 * m21) + m00 * (m13 * m21 - m11 * m23) + m01 * (m10 * m23 - m13 * m20)) * s;
-        result.m30 = (m10 * (m22 * m31 - m21 * m32) + m11 * (m20 * m32 - m22 * m30) + m12 * (m21 * m30 - m20 * m31)) * s;
-        result.m31 = (m20 * (m02 * m31 - m01 * m32) + m21 * (m00 * m32 - m02 * m30) + m22 * (m01 * m30 - m00 * m31)) * s;
-        result.m32 = (m30 * (m02 * m11 - m01 * m12) + m31 * (m00 * m12 - m02 * m10) + m32 * (m01 * m10 - m00 * m11)) * s;
-        result.m33 = (m00 * (m11 * m22 - m12 * m21) + m01 * (m12 * m20 - m10 * m22) + m02 * (m10 * m21 - m11 * m20)) * s;
-
-        return result;
+        return BACKEND.inverse(result.m, m) ? result : null;
     }
 
     /**
@@ -248,11 +247,11 @@ public final class Matrix {
      */
     public void perspective(float fovy, float aspect, float zNear, float zFar, float yScale, float xScale, float frustrumLength) {
         zero();
-        m00 = xScale;
-        m11 = yScale;
-        m22 = -((zFar + zNear) / frustrumLength);
-        m23 = -1.0f;
-        m32 = -((2.0f * zNear * zFar) / frustrumLength);
+        m[M00] = xScale;
+        m[M11] = yScale;
+        m[M22] = -((zFar + zNear) / frustrumLength);
+        m[M23] = -1.0f;
+        m[M32] = -((2.0f * zNear * zFar) / frustrumLength);
     }
 
     /**
@@ -266,58 +265,88 @@ public final class Matrix {
      */
     public void orthographic(float left, float right, float bottom, float top, float zNear, float zFar) {
         identity();
-        m00 = 2.0f / (right - left);
-        m11 = 2.0f / (top - bottom);
-        m22 = -2.0f / (zFar - zNear);
-        m30 = -(right + left) / (right - left);
-        m31 = -(top + bottom) / (top - bottom);
-        m32 = -(zFar + zNear) / (zFar - zNear);
+        m[M00] = 2.0f / (right - left);
+        m[M11] = 2.0f / (top - bottom);
+        m[M22] = -2.0f / (zFar - zNear);
+        m[M30] = -(right + left) / (right - left);
+        m[M31] = -(top + bottom) / (top - bottom);
+        m[M32] = -(zFar + zNear) / (zFar - zNear);
     }
 
     /**
      * Translate the model view matrix.
      * @param translation the translation
      */
-    public void translate(Vec3f translation) {
-        Matrix translateMatrix = new Matrix();
-
-        translateMatrix.m30 = translation.getX();
-        translateMatrix.m31 = translation.getY();
-        translateMatrix.m32 = translation.getZ();
+    public void translate(@Nonnull Vec3f translation) {
+        translate(translation.getX(), translation.getY(), translation.getZ());
+    }
 
-        set(mul(this, translateMatrix));
+    /**
+     * Translate the model view matrix.
+     * <p>
+     *     Multiplies by the translation matrix in place, only the last column changes.
+     * </p>
+     * @param x the X translation
+     * @param y the Y translation
+     * @param z the Z translation
+     */
+    public void translate(float x, float y, float z) {
+        m[M30] += m[M00] * x + m[M10] * y + m[M20] * z;
+        m[M31] += m[M01] * x + m[M11] * y + m[M21] * z;
+        m[M32] += m[M02] * x + m[M12] * y + m[M22] * z;
+        m[M33] += m[M03] * x + m[M13] * y + m[M23] * z;
     }
 
     /**
      * Rotate the model view matrix around the x axis.
+     * <p>
+     *     Multiplies by the rotation matrix in place, only the second and third columns change.
+     * </p>
      * @param phi rotation angle around x axis
      */
     public void rotateX(float phi) {
         // http://www.cprogramming.com/tutorial/3d/rotationMatrices.html
-        Matrix rotationMatrix = new Matrix();
+        float cos = (float) Math.cos(phi);
+        float sin = (float) Math.sin(phi);
 
-        rotationMatrix.m11 = (float) Math.cos(phi);
-        rotationMatrix.m21 = (float) -Math.sin(phi);
-        rotationMatrix.m12 = (float) Math.sin(phi);
-        rotationMatrix.m22 = (float) Math.cos(phi);
-
-        set(mul(this, rotationMatrix));
+        float r10 = m[M10] * cos + m[M20] * sin;
+        float r11 = m[M11] * cos + m[M21] * sin;
+        float r12 = m[M12] * cos + m[M22] * sin;
+        float r13 = m[M13] * cos + m[M23] * sin;
+        m[M20] = m[M20] * cos - m[M10] * sin;
+        m[M21] = m[M21] * cos - m[M11] * sin;
+        m[M22] = m[M22] * cos - m[M12] * sin;
+        m[M23] = m[M23] * cos - m[M13] * sin;
+        m[M10] = r10;
+        m[M11] = r11;
+        m[M12] = r12;
+        m[M13] = r13;
     }
 
     /**
      * Rotate the model view matrix around the y axis.
+     * <p>
+     *     Multiplies by the rotation matrix in place, only the first and third columns change.
+     * </p>
      * @param theta rotation angle around y axis
      */
     public void rotateY(float theta) {
         // http://www.cprogramming.com/tutorial/3d/rotationMatrices.html
-        Matrix rotationMatrix = new Matrix();
-
-        rotationMatrix.m00 = (float) Math.cos(theta);
-        rotationMatrix.m20 = (float) Math.sin(theta);
-        rotationMatrix.m02 = (float) -Math.sin(theta);
-        rotationMatrix.m22 = (float) Math.cos(theta);
+        float cos = (float) Math.cos(theta);
+        float sin = (float) Math.sin(theta);
 
-        set(mul(this, rotationMatrix));
+        float r00 = m[M00] * cos - m[M20] * sin;
+        float r01 = m[M01] * cos - m[M21] * sin;
+        float r02 = m[M02] * cos - m[M22] * sin;
+        float r03 = m[M03] * cos - m[M23] * sin;
+        m[M20] = m[M00] * sin + m[M20] * cos;
+        m[M21] = m[M01] * sin + m[M21] * cos;
+        m[M22] = m[M02] * sin + m[M22] * cos;
+        m[M23] = m[M03] * sin + m[M23] * cos;
+        m[M00] = r00;
+        m[M01] = r01;
+        m[M02] = r02;
+        m[M03] = r03;
     }
 
     /**
@@ -326,24 +355,180 @@ public final class Matrix {
      */
     @Nonnull
     public FloatBuffer getBuffer() {
-        FloatBuffer buffer = FloatBuffer.allocate(16);
-        buffer.put(m00);
-        buffer.put(m01);
-        buffer.put(m02);
-        buffer.put(m03);
-        buffer.put(m10);
-        buffer.put(m11);
-        buffer.put(m12);
-        buffer.put(m13);
-        buffer.put(m20);
-        buffer.put(m21);
-        buffer.put(m22);
-        buffer.put(m23);
-        buffer.put(m30);
-        buffer.put(m31);
-        buffer.put(m32);
-        buffer.put(m33);
-        buffer.rewind();
+        FloatBuffer buffer = FloatBuffer.allocate(ELEMENTS);
+        get(buffer);
         return buffer;
     }
+
+    /**
+     * Put the matrix into an existing float buffer, in column major order.
+     * <p>
+     *     The buffer is written from its start and rewound, so the same buffer can be reused for every upload.
+     * </p>
+     * @param buffer the float buffer, must have room for 16 floats
+     */
+    public void get(@Nonnull FloatBuffer buffer) {
+        buffer.rewind();
+        buffer.put(m);
+        buffer.rewind();
+    }
+
+    /**
+     * Create a matrix backend.
+     * @param vector true to use the vector API if it's available
+     * @return the vector API backend, or the scalar backend if it wasn't wanted or isn't available
+     */
+    @Nonnull
+    static MatrixBackend createBackend(boolean vector) {
+        MatrixBackend backend = null;
+        if (vector) {
+            try {
+                // Loading the backend fails if the vector API module wasn't added, or the JDK doesn't have it.
+                backend = (MatrixBackend) Class.forName(VECTOR_BACKEND).getDeclaredConstructor().newInstance();
+                LOGGER.info("Using the vector API for matrices");
+            }
+            catch (ReflectiveOperationException | LinkageError e) {
+                LOGGER.debug("The vector API isn't available for matrices", e);
+            }
+        }
+        if (backend == null) {
+            backend = new ScalarBackend();
+        }
+        return backend;
+    }
+
+    /**
+     * Calculate the determinant of a matrix.
+     * @param a the matrix, column major
+     * @return the determinant
+     */
+    static float determinant(@Nonnull float[] a) {
+        return (a[M00] * a[M11] - a[M01] * a[M10]) * (a[M22] * a[M33] - a[M23] * a[M32])
+                - (a[M00] * a[M12] - a[M02] * a[M10]) * (a[M21] * a[M33] - a[M23] * a[M31])
+                + (a[M00] * a[M13] - a[M03] * a[M10]) * (a[M21] * a[M32] - a[M22] * a[M31])
+                + (a[M01] * a[M12] - a[M02] * a[M11]) * (a[M20] * a[M33] - a[M23] * a[M30])
+                - (a[M01] * a[M13] - a[M03] * a[M11]) * (a[M20] * a[M32] - a[M22] * a[M30])
+                + (a[M02] * a[M13] - a[M03] * a[M12]) * (a[M20] * a[M31] - a[M21] * a[M30]);
+    }
+
+    /**
+     * The scalar matrix backend, for when the vector API isn't available.
+     */
+    static final class ScalarBackend implements MatrixBackend {
+
+        @Override
+        public void mul(@Nonnull float[] result, @Nonnull float[] m0, @Nonnull float[] m1) {
+            float r00 = m0[M00] * m1[M00] + m0[M10] * m1[M01] + m0[M20] * m1[M02] + m0[M30] * m1[M03];
+            float r01 = m0[M01] * m1[M00] + m0[M11] * m1[M01] + m0[M21] * m1[M02] + m0[M31] * m1[M03];
+            float r02 = m0[M02] * m1[M00] + m0[M12] * m1[M01] + m0[M22] * m1[M02] + m0[M32] * m1[M03];
+            float r03 = m0[M03] * m1[M00] + m0[M13] * m1[M01] + m0[M23] * m1[M02] + m0[M33] * m1[M03];
+            float r10 = m0[M00] * m1[M10] + m0[M10] * m1[M11] + m0[M20] * m1[M12] + m0[M30] * m1[M13];
+            float r11 = m0[M01] * m1[M10] + m0[M11] * m1[M11] + m0[M21] * m1[M12] + m0[M31] * m1[M13];
+            float r12 = m0[M02] * m1[M10] + m0[M12] * m1[M11] + m0[M22] * m1[M12] + m0[M32] * m1[M13];
+            float r13 = m0[M03] * m1[M10] + m0[M13] * m1[M11] + m0[M23] * m1[M12] + m0[M33] * m1[M13];
+            float r20 = m0[M00] * m1[M20] + m0[M10] * m1[M21] + m0[M20] * m1[M22] + m0[M30] * m1[M23];
+            float r21 = m0[M01] * m1[M20] + m0[M11] * m1[M21] + m0[M21] * m1[M22] + m0[M31] * m1[M23];
+            float r22 = m0[M02] * m1[M20] + m0[M12] * m1[M21] + m0[M22] * m1[M22] + m0[M32] * m1[M23];
+            float r23 = m0[M03] * m1[M20] + m0[M13] * m1[M21] + m0[M23] * m1[M22] + m0[M33] * m1[M23];
+            float r30 = m0[M00] * m1[M30] + m0[M10] * m1[M31] + m0[M20] * m1[M32] + m0[M30] * m1[M33];
+            float r31 = m0[M01] * m1[M30] + m0[M11] * m1[M31] + m0[M21] * m1[M32] + m0[M31] * m1[M33];
+            float r32 = m0[M02] * m1[M30] + m0[M12] * m1[M31] + m0[M22] * m1[M32] + m0[M32] * m1[M33];
+            float r33 = m0[M03] * m1[M30] + m0[M13] * m1[M31] + m0[M23] * m1[M32] + m0[M33] * m1[M33];
+            result[M00] = r00;
+            result[M01] = r01;
+            result[M02] = r02;
+            result[M03] = r03;
+            result[M10] = r10;
+            result[M11] = r11;
+            result[M12] = r12;
+            result[M13] = r13;
+            result[M20] = r20;
+            result[M21] = r21;
+            result[M22] = r22;
+            result[M23] = r23;
+            result[M30] = r30;
+            result[M31] = r31;
+            result[M32] = r32;
+            result[M33] = r33;
+        }
+
+        @Override
+        public boolean inverse(@Nonnull float[] result, @Nonnull float[] a) {
+            float s = determinant(a);
+            if (s == 0.0f) {
+                return false;
+            }
+            s = 1.0f / s;
+
+            float m00 = a[M00];
+            float m01 = a[M01];
+            float m02 = a[M02];
+            float m03 = a[M03];
+            float m10 = a[M10];
+            float m11 = a[M11];
+            float m12 = a[M12];
+            float m13 = a[M13];
+            float m20 = a[M20];
+            float m21 = a[M21];
+            float m22 = a[M22];
+            float m23 = a[M23];
+            float m30 = a[M30];
+            float m31 = a[M31];
+            float m32 = a[M32];
+            float m33 = a[M33];
+
+            result[M00] = (m11 * (m22 * m33 - m23 * m32) + m12 * (m23 * m31 - m21 * m33) + m13 * (m21 * m32 - m22 * m31)) * s;
+            result[M01] = (m21 * (m02 * m33 - m03 * m32) + m22 * (m03 * m31 - m01 * m33) + m23 * (m01 * m32 - m02 * m31)) * s;
+            result[M02] = (m31 * (m02 * m13 - m03 * m12) + m32 * (m03 * m11 - m01 * m13) + m33 * (m01 * m12 - m02 * m11)) * s;
+            result[M03] = (m01 * (m13 * m22 - m12 * m23) + m02 * (m11 * m23 - m13 * m21) + m03 * (m12 * m21 - m11 * m22)) * s;
+            result[M10] = (m12 * (m20 * m33 - m23 * m30) + m13 * (m22 * m30 - m20 * m32) + m10 * (m23 * m32 - m22 * m33)) * s;
+            result[M11] = (m22 * (m00 * m33 - m03 * m30) + m23 * (m02 * m30 - m00 * m32) + m20 * (m03 * m32 - m02 * m33)) * s;
+            result[M12] = (m32 * (m00 * m13 - m03 * m10) + m33 * (m02 * m10 - m00 * m12) + m30 * (m03 * m12 - m02 * m13)) * s;
+            result[M13] = (m02 * (m13 * m20 - m10 * m23) + m03 * (m10 * m22 - m12 * m20) + m00 * (m12 * m23 - m13 * m22)) * s;
+            result[M20] = (m13 * (m20 * m31 - m21 * m30) + m10 * (m21 * m33 - m23 * m31) + m11 * (m23 * m30 - m20 * m33)) * s;
+            result[M21] = (m23 * (m00 * m31 - m01 * m30) + m20 * (m01 * m33 - m03 * m31) + m21 * (m03 * m30 - m00 * m33)) * s;
+            result[M22] = (m33 * (m00 * m11 - m01 * m10) + m30 * (m01 * m13 - m03 * m11) + m31 * (m03 * m10 - m00 * m13)) * s;
+            result[M23] = (m03 * (m11 * m20 - m10 * m21) + m00 * (m13 * m21 - m11 * m23) + m01 * (m10 * m23 - m13 * m20)) * s;
+            result[M30] = (m10 * (m22 * m31 - m21 * m32) + m11 * (m20 * m32 - m22 * m30) + m12 * (m21 * m30 - m20 * m31)) * s;
+            result[M31] = (m20 * (m02 * m31 - m01 * m32) + m21 * (m00 * m32 - m02 * m30) + m22 * (m01 * m30 - m00 * m31)) * s;
+            result[M32] = (m30 * (m02 * m11 - m01 * m12) + m31 * (m00 * m12 - m02 * m10) + m32 * (m01 * m10 - m00 * m11)) * s;
+            result[M33] = (m00 * (m11 * m22 - m12 * m21) + m01 * (m12 * m20 - m10 * m22) + m02 * (m10 * m21 - m11 * m20)) * s;
+            return true;
+        }
+
+        @Override
+        public void transform(@Nonnull float[] matrix, @Nonnull float[] points, int pointsOffset,
+                @Nonnull float[] result, int resultOffset, int count) {
+            // The matrix is read into locals once, so the loop only touches the arrays.
+            float a00 = matrix[M00];
+            float a01 = matrix[M01];
+            float a02 = matrix[M02];
+            float a03 = matrix[M03];
+            float a10 = matrix[M10];
+            float a11 = matrix[M11];
+            float a12 = matrix[M12];
+            float a13 = matrix[M13];
+            float a20 = matrix[M20];
+            float a21 = matrix[M21];
+            float a22 = matrix[M22];
+            float a23 = matrix[M23];
+            float a30 = matrix[M30];
+            float a31 = matrix[M31];
+            float a32 = matrix[M32];
+            float a33 = matrix[M33];
+            int in = pointsOffset;
+            int out = resultOffset;
+            for (int i = 0; i < count; i++) {
+                float x = points[in];
+                float y = points[in + 1];
+                float z = points[in + 2];
+                result[out] = a00 * x + a10 * y + a20 * z + a30;
+                result[out + 1] = a01 * x + a11 * y + a21 * z + a31;
+                result[out + 2] = a02 * x + a12 * y + a22 * z + a32;
+                result[out + 3] = a03 * x + a13 * y + a23 * z + a33;
+                in += 3;
+                out += 4;
+            }
+        }
+    }
 }
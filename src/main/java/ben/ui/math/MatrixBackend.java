@@ -0,0 +1,45 @@
+package ben.ui.math;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Matrix Backend.
+ * <p>
+ *     The matrix operations that have a vector API implementation as well as a scalar one. The matrices are the
+ *     elements of a {@link Matrix}, 16 floats in column major order.
+ * </p>
+ * <p>
+ *     The multiply and transform must give exactly the same results in every backend, so they add the products in the
+ *     same order and don't fuse the multiplies and adds; the inverse may differ in the last bits.
+ * </p>
+ */
+interface MatrixBackend {
+
+    /**
+     * Multiply two matrices.
+     * @param result the matrix that the product is stored in, may be one of the operands
+     * @param m0 the first matrix
+     * @param m1 the second matrix
+     */
+    void mul(@Nonnull float[] result, @Nonnull float[] m0, @Nonnull float[] m1);
+
+    /**
+     * Invert a matrix.
+     * @param result the matrix that the inverse is stored in, may be the matrix
+     * @param m the matrix
+     * @return true if the matrix has an inverse; if not the result isn't changed
+     */
+    boolean inverse(@Nonnull float[] result, @Nonnull float[] m);
+
+    /**
+     * Transform an array of 3D points (w = 1).
+     * @param matrix the matrix
+     * @param points the points, packed x, y, z
+     * @param pointsOffset the index of the first point's x coordinate
+     * @param result the array the transformed points are written to, packed x, y, z, w; may not be the points array
+     * @param resultOffset the index that the first transformed point is written to
+     * @param count the number of points
+     */
+    void transform(@Nonnull float[] matrix, @Nonnull float[] points, int pointsOffset, @Nonnull float[] result,
+            int resultOffset, int count);
+}
@@ -2,45 +2,93 @@ package ben.ui.math;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.Stack;
+
+import java.nio.FloatBuffer;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Perspective Model View Matrix.
+ * <p>
+ *     The stacks are arrays of preallocated matrices that grow as needed, push and pop copy into and out of them so
+ *     drawing the widget tree doesn't create any garbage once the stacks are deep enough.
+ * </p>
  */
 public final class PmvMatrix {
 
+    /**
+     * The initial depth of the stacks.
+     */
+    private static final int INITIAL_STACK_DEPTH = 16;
+
     /**
      * The perspective matrix stack.
      * For push and pop.
      */
     @Nonnull
-    private final Stack<Matrix> pMatrixStack = new Stack<>();
+    private Matrix[] pMatrixStack = createMatrices(INITIAL_STACK_DEPTH);
 
     /**
      * The model view matrix stack.
      * For push and pop.
      */
     @Nonnull
-    private final Stack<Matrix> mvMatrixStack = new Stack<>();
+    private Matrix[] mvMatrixStack = createMatrices(INITIAL_STACK_DEPTH);
 
     /**
      * The scissor box stack.
      * For push and pop.
      */
     @Nonnull
-    private final Stack<Rect> scissorBoxStack = new Stack<>();
+    private Rect[] scissorBoxStack = new Rect[INITIAL_STACK_DEPTH];
+
+    /**
+     * The version stack.
+     * For push and pop.
+     */
+    @Nonnull
+    private long[] versionStack = new long[INITIAL_STACK_DEPTH];
+
+    /**
+     * The number of entries on the stacks.
+     */
+    private int depth;
+
+    /**
+     * The version of the PMV matrix.
+     * <p>
+     *     Changes whenever the projection or model view matrix changes and is restored by pop, so two equal versions of
+     *     the same PMV matrix always have the same value.
+     * </p>
+     */
+    private long version;
+
+    /**
+     * The last version that was handed out.
+     */
+    private long lastVersion;
 
     /**
      * The projection matrix.
      */
     @Nonnull
-    private Matrix pMatrix = new Matrix();
+    private final Matrix pMatrix = new Matrix();
 
     /**
      * The model view matrix.
      */
     @Nonnull
-    private Matrix mvMatrix = new Matrix();
+    private final Matrix mvMatrix = new Matrix();
+
+    /**
+     * The product of the projection and model view matrices.
+     */
+    @Nonnull
+    private final Matrix pmvMatrix = new Matrix();
+
+    /**
+     * Is the PMV matrix up to date with the projection and model view matrices.
+     */
+    private boolean pmvMatrixValid;
 
     /**
      * The screen size.
@@ -56,12 +104,26 @@ public final class PmvMatrix {
     @Nullable
     private Rect scissorBox;
 
+    /**
+     * The array that batches of points are transformed into when they're projected.
+     */
+    @Nonnull
+    private final float[] projectionScratch =
+            new float[BatchProjection.CHUNK_POINTS * BatchProjection.TRANSFORMED_FLOATS];
+
+    /**
+     * The points of a float buffer that doesn't have an array, copied so they can be projected; grows as needed.
+     */
+    @Nonnull
+    private float[] bufferPoints = new float[0];
+
     /**
      * Set both the projection and model view matrix to identity.
      */
     public void identity() {
         pMatrix.identity();
         mvMatrix.identity();
+        changed();
     }
 
     /**
@@ -78,6 +140,7 @@ public final class PmvMatrix {
         float xScale = yScale / aspect;
         float frustrumLength = zFar - zNear;
         pMatrix.perspective(fovy, aspect, zNear, zFar, yScale, xScale, frustrumLength);
+        changed();
     }
 
     /**
@@ -92,10 +155,14 @@ public final class PmvMatrix {
         float zNear = -1.0f;
         float zFar = 1.0f;
         pMatrix.orthographic(left, right, bottom, top, zNear, zFar);
+        changed();
     }
 
     /**
      * Get the perspective matrix.
+     * <p>
+     *     The matrix must not be modified, use the methods of this class instead.
+     * </p>
      * @return the perspective matrix
      */
     @Nonnull
@@ -105,6 +172,9 @@ public final class PmvMatrix {
 
     /**
      * Get the model view matrix.
+     * <p>
+     *     The matrix must not be modified, use the methods of this class instead.
+     * </p>
      * @return the model view matrix
      */
     @Nonnull
@@ -114,11 +184,29 @@ public final class PmvMatrix {
 
     /**
      * Get the Projection Model View Matrix.
+     * <p>
+     *     The product is cached until the projection or model view matrix changes, it must not be modified.
+     * </p>
      * @return the PMV Matrix
      */
     @Nonnull
     public Matrix getPmvMatrix() {
-        return Matrix.mul(pMatrix, mvMatrix);
+        if (!pmvMatrixValid) {
+            Matrix.mul(pmvMatrix, pMatrix, mvMatrix);
+            pmvMatrixValid = true;
+        }
+        return pmvMatrix;
+    }
+
+    /**
+     * Get the version of the PMV matrix.
+     * <p>
+     *     Programs can compare it with the version they last uploaded to skip uploading the same matrix again.
+     * </p>
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
     }
 
     /**
@@ -142,30 +230,47 @@ public final class PmvMatrix {
      * Push the current model view matrix onto the stack.
      */
     public void push() {
-        pMatrixStack.push(pMatrix);
-        pMatrix = new Matrix(pMatrix);
-
-        mvMatrixStack.push(mvMatrix);
-        mvMatrix = new Matrix(mvMatrix);
-
-        scissorBoxStack.push(scissorBox);
+        if (depth == mvMatrixStack.length) {
+            growStacks();
+        }
+        pMatrixStack[depth].set(pMatrix);
+        mvMatrixStack[depth].set(mvMatrix);
+        scissorBoxStack[depth] = scissorBox;
+        versionStack[depth] = version;
+        depth++;
     }
 
     /**
      * Pop the top model view matrix off the stack.
      */
     public void pop() {
-        pMatrix = pMatrixStack.pop();
-        mvMatrix = mvMatrixStack.pop();
-        scissorBox = scissorBoxStack.pop();
+        assert depth > 0 : "Pop without a push";
+        depth--;
+        pMatrix.set(pMatrixStack[depth]);
+        mvMatrix.set(mvMatrixStack[depth]);
+        scissorBox = scissorBoxStack[depth];
+        scissorBoxStack[depth] = null;
+        version = versionStack[depth];
+        pmvMatrixValid = false;
     }
 
     /**
      * Translate the model view matrix.
      * @param translation the translation
      */
-    public void translate(Vec3f translation) {
-        mvMatrix.translate(translation);
+    public void translate(@Nonnull Vec3f translation) {
+        translate(translation.getX(), translation.getY(), translation.getZ());
+    }
+
+    /**
+     * Translate the model view matrix.
+     * @param x the X translation
+     * @param y the Y translation
+     * @param z the Z translation
+     */
+    public void translate(float x, float y, float z) {
+        mvMatrix.translate(x, y, z);
+        changed();
     }
 
     /**
@@ -174,6 +279,7 @@ public final class PmvMatrix {
      */
     public void rotateX(float phi) {
         mvMatrix.rotateX(phi);
+        changed();
     }
 
     /**
@@ -182,6 +288,7 @@ public final class PmvMatrix {
      */
     public void rotateY(float theta) {
         mvMatrix.rotateY(theta);
+        changed();
     }
 
     /**
@@ -206,6 +313,74 @@ public final class PmvMatrix {
         return screen;
     }
 
+    /**
+     * Project an array of world points to their screen positions.
+     * <p>
+     *     The PMV matrix is computed once for all of the points and nothing is created per point. Points that are
+     *     behind the camera don't have a screen position, both of their coordinates are set to NaN.
+     * </p>
+     * @param points the points, packed x, y, z
+     * @param pointsOffset the index of the first point's x coordinate
+     * @param screen the array that the screen positions are written to, packed x, y
+     * @param screenOffset the index that the first screen position is written to
+     * @param count the number of points
+     * @return the number of points that have a screen position
+     */
+    public int project(@Nonnull float[] points, int pointsOffset, @Nonnull float[] screen, int screenOffset,
+            int count) {
+        return new BatchProjection(getPmvMatrix(), screenSize, points, pointsOffset, screen, screenOffset, count)
+                .project(projectionScratch);
+    }
+
+    /**
+     * Project an array of world points to their screen positions, splitting large batches across a fork join pool.
+     * <p>
+     *     Only worth it for tens of thousands of points, smaller batches are projected on one thread of the pool. The
+     *     matrices must not be changed until this returns.
+     * </p>
+     * @param points the points, packed x, y, z
+     * @param pointsOffset the index of the first point's x coordinate
+     * @param screen the array that the screen positions are written to, packed x, y
+     * @param screenOffset the index that the first screen position is written to
+     * @param count the number of points
+     * @param pool the pool that projects the points
+     * @return the number of points that have a screen position
+     * @see #project(float[], int, float[], int, int)
+     */
+    public int project(@Nonnull float[] points, int pointsOffset, @Nonnull float[] screen, int screenOffset, int count,
+            @Nonnull ForkJoinPool pool) {
+        return pool.invoke(new BatchProjection(getPmvMatrix(), screenSize, points, pointsOffset, screen, screenOffset,
+                count));
+    }
+
+    /**
+     * Project a buffer of world points to their screen positions.
+     * <p>
+     *     The points are read from the position of the buffer, which isn't changed.
+     * </p>
+     * @param points the points, packed x, y, z
+     * @param screen the array that the screen positions are written to, packed x, y
+     * @param screenOffset the index that the first screen position is written to
+     * @param count the number of points
+     * @return the number of points that have a screen position
+     * @see #project(float[], int, float[], int, int)
+     */
+    public int project(@Nonnull FloatBuffer points, @Nonnull float[] screen, int screenOffset, int count) {
+        int projected;
+        if (points.hasArray()) {
+            projected = project(points.array(), points.arrayOffset() + points.position(), screen, screenOffset, count);
+        }
+        else {
+            int floats = count * 3;
+            if (bufferPoints.length < floats) {
+                bufferPoints = new float[floats];
+            }
+            points.duplicate().get(bufferPoints, 0, floats);
+            projected = project(bufferPoints, 0, screen, screenOffset, count);
+        }
+        return projected;
+    }
+
     /**
      * Set the current scissor box.
      * @param scissorBox the scissor box
@@ -240,4 +415,54 @@ public final class PmvMatrix {
 
         return this.scissorBox;
     }
+
+    /**
+     * Double the depth of the stacks.
+     */
+    private void growStacks() {
+        int newDepth = mvMatrixStack.length * 2;
+        pMatrixStack = growMatrices(pMatrixStack, newDepth);
+        mvMatrixStack = growMatrices(mvMatrixStack, newDepth);
+        Rect[] newScissorBoxStack = new Rect[newDepth];
+        System.arraycopy(scissorBoxStack, 0, newScissorBoxStack, 0, scissorBoxStack.length);
+        scissorBoxStack = newScissorBoxStack;
+        long[] newVersionStack = new long[newDepth];
+        System.arraycopy(versionStack, 0, newVersionStack, 0, versionStack.length);
+        versionStack = newVersionStack;
+    }
+
+    /**
+     * Called when the projection or model view matrix has changed.
+     */
+    private void changed() {
+        pmvMatrixValid = false;
+        lastVersion++;
+        version = lastVersion;
+    }
+
+    /**
+     * Create an array of identity matrices.
+     * @param count the number of matrices
+     * @return the matrices
+     */
+    @Nonnull
+    private static Matrix[] createMatrices(int count) {
+        return growMatrices(new Matrix[0], count);
+    }
+
+    /**
+     * Grow an array of matrices, the new entries are identity matrices.
+     * @param matrices the current matrices
+     * @param count the new number of matrices
+     * @return the grown array
+     */
+    @Nonnull
+    private static Matrix[] growMatrices(@Nonnull Matrix[] matrices, int count) {
+        Matrix[] newMatrices = new Matrix[count];
+        System.arraycopy(matrices, 0, newMatrices, 0, matrices.length);
+        for (int i = matrices.length; i < count; i++) {
+            newMatrices[i] = new Matrix();
+        }
+        return newMatrices;
+    }
 }
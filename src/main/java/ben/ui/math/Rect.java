@@ -50,6 +50,21 @@ public final class Rect {
         return "(" + pos + ", " + size + ")";
     }
 
+    @Override
+    public boolean equals(Object o) {
+        boolean equal = false;
+        if (o instanceof Rect) {
+            Rect r = (Rect) o;
+            equal = pos.equals(r.pos) && size.equals(r.size);
+        }
+        return equal;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * pos.hashCode() + size.hashCode();
+    }
+
     /**
      * Get the x position of the rectangle (left).
      * @return the x position of the rectangle
@@ -106,7 +121,17 @@ public final class Rect {
      * @return true if the point is inside the rectangle
      */
     public boolean contains(@Nonnull Vec2i pos) {
-        return pos.getX() >= getX() && pos.getY() >= getY() && pos.getX() <= getX() + getWidth() && pos.getY() <= getY() + getHeight();
+        return contains(pos.getX(), pos.getY());
+    }
+
+    /**
+     * Does the rectangle contain the point.
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @return true if the point is inside the rectangle
+     */
+    public boolean contains(int x, int y) {
+        return x >= getX() && y >= getY() && x <= getX() + getWidth() && y <= getY() + getHeight();
     }
 
     /**
@@ -131,6 +156,13 @@ public final class Rect {
         if (right1 < left2 || right2 < left1 || bottom1 < top2 || bottom2 < top1) {
             intersection = null;
         }
+        else if (left1 >= left2 && right1 <= right2 && top1 >= top2 && bottom1 <= bottom2) {
+            // Rects are immutable, so there is no need to create a new one when one contains the other.
+            intersection = this;
+        }
+        else if (left2 >= left1 && right2 <= right1 && top2 >= top1 && bottom2 <= bottom1) {
+            intersection = other;
+        }
         else {
             int x = Math.max(left1, left2);
             int width = Math.min(right1, right2) - x;
@@ -140,4 +172,18 @@ public final class Rect {
         }
         return intersection;
     }
+
+    /**
+     * Get the smallest rectangle that contains this rectangle and another rectangle.
+     * @param other the other rectangle
+     * @return the union of the two rectangles
+     */
+    @Nonnull
+    public Rect union(@Nonnull Rect other) {
+        int left = Math.min(getX(), other.getX());
+        int top = Math.min(getY(), other.getY());
+        int right = Math.max(getX() + getWidth(), other.getX() + other.getWidth());
+        int bottom = Math.max(getY() + getHeight(), other.getY() + other.getHeight());
+        return new Rect(left, top, right - left, bottom - top);
+    }
 }
@@ -35,6 +35,21 @@ public final class Vec2i {
         return "(" + x + ", " + y + ")";
     }
 
+    @Override
+    public boolean equals(Object o) {
+        boolean equal = false;
+        if (o instanceof Vec2i) {
+            Vec2i v = (Vec2i) o;
+            equal = x == v.x && y == v.y;
+        }
+        return equal;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * x + y;
+    }
+
     /**
      * Get the X coordinate.
      * @return the X coordinate
@@ -0,0 +1,323 @@
+package ben.ui.renderer;
+
+import ben.ui.resource.RenderStats;
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Buffer Arena.
+ * <p>
+ *     Sub-allocates vertex data from a few large vertex buffers, so creating and removing renderers doesn't create and
+ *     delete a buffer object each time. Each page of the arena is one buffer, with a free list of the ranges that are
+ *     not in use. A page is added when no page has room, and a page that becomes empty is deleted as long as another
+ *     page remains.
+ * </p>
+ * <p>
+ *     Data is uploaded from direct buffers, so the driver can read it without JOGL copying it first. Renderers that
+ *     update often keep their own direct buffer and fill it in place; arrays are copied into a staging buffer that
+ *     the arena reuses.
+ * </p>
+ * <p>
+ *     Only used on the OpenGL thread.
+ * </p>
+ */
+public final class BufferArena {
+
+    /**
+     * The size in bytes of a page.
+     */
+    private static final int PAGE_SIZE = 256 * 1024;
+
+    /**
+     * Ranges are rounded up to a multiple of this many bytes.
+     */
+    private static final int ALIGNMENT = 16;
+
+    /**
+     * The initial size in floats of the staging buffer.
+     */
+    private static final int INITIAL_STAGING_SIZE = 1024;
+
+    /**
+     * Counts the bytes that are uploaded.
+     */
+    @Nonnull
+    private final RenderStats renderStats;
+
+    /**
+     * The pages.
+     */
+    @Nonnull
+    private final List<Page> pages = new ArrayList<>();
+
+    /**
+     * The direct buffer that arrays are copied into to be uploaded.
+     */
+    @Nonnull
+    private FloatBuffer staging = Buffers.newDirectFloatBuffer(INITIAL_STAGING_SIZE);
+
+    /**
+     * The number of bytes in the ranges that are allocated.
+     */
+    private int allocatedBytes;
+
+    /**
+     * Constructor.
+     * @param renderStats counts the bytes that are uploaded
+     */
+    public BufferArena(@Nonnull RenderStats renderStats) {
+        this.renderStats = renderStats;
+    }
+
+    /**
+     * Allocate a range and fill it with data.
+     * @param gl the OpenGL interface
+     * @param data the data
+     * @return the allocation
+     */
+    @Nonnull
+    public Allocation allocate(@Nonnull GL2 gl, @Nonnull float[] data) {
+        return allocate(gl, stage(data));
+    }
+
+    /**
+     * Allocate a range and fill it with data.
+     * @param gl the OpenGL interface
+     * @param data the data, from its position to its limit; should be direct
+     * @return the allocation
+     */
+    @Nonnull
+    public Allocation allocate(@Nonnull GL2 gl, @Nonnull FloatBuffer data) {
+        int size = align(Math.max(data.remaining(), 1) * Buffers.SIZEOF_FLOAT);
+        Allocation allocation = null;
+        for (int i = 0; i < pages.size() && allocation == null; i++) {
+            Page page = pages.get(i);
+            int offset = page.ranges.allocate(size);
+            if (offset != -1) {
+                allocation = new Allocation(page, offset, size);
+            }
+        }
+        if (allocation == null) {
+            Page page = createPage(gl, Math.max(PAGE_SIZE, size));
+            allocation = new Allocation(page, page.ranges.allocate(size), size);
+        }
+        allocatedBytes += size;
+        upload(gl, allocation, data);
+        return allocation;
+    }
+
+    /**
+     * Upload data to an allocation, it must fit in the range.
+     * @param gl the OpenGL interface
+     * @param allocation the allocation
+     * @param data the data
+     */
+    public void upload(@Nonnull GL2 gl, @Nonnull Allocation allocation, @Nonnull float[] data) {
+        upload(gl, allocation, stage(data));
+    }
+
+    /**
+     * Upload data to an allocation, it must fit in the range.
+     * @param gl the OpenGL interface
+     * @param allocation the allocation
+     * @param data the data, from its position to its limit; should be direct
+     */
+    public void upload(@Nonnull GL2 gl, @Nonnull Allocation allocation, @Nonnull FloatBuffer data) {
+        assert allocation.page != null : "The allocation has been freed";
+        assert allocation.fits(data.remaining()) : "The data doesn't fit in the allocation";
+        if (data.hasRemaining()) {
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, allocation.page.id);
+            int bytes = data.remaining() * Buffers.SIZEOF_FLOAT;
+            gl.glBufferSubData(GL.GL_ARRAY_BUFFER, allocation.offset, bytes, data);
+            renderStats.upload(bytes);
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+        }
+    }
+
+    /**
+     * Free an allocation.
+     * @param gl the OpenGL interface
+     * @param allocation the allocation
+     */
+    public void free(@Nonnull GL2 gl, @Nonnull Allocation allocation) {
+        Page page = allocation.page;
+        assert page != null : "The allocation has already been freed";
+        page.ranges.free(allocation.offset, allocation.size);
+        allocation.page = null;
+        allocatedBytes -= allocation.size;
+
+        if (page.ranges.isEmpty() && pages.size() > 1) {
+            pages.remove(page);
+            gl.glDeleteBuffers(1, new int[] {page.id}, 0);
+        }
+    }
+
+    /**
+     * Get the number of pages, the number of buffer objects that the arena has.
+     * @return the number of pages
+     */
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * Get the number of bytes that are allocated, including the rounding up of each range.
+     * @return the number of bytes
+     */
+    public int getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Delete all of the pages.
+     * <p>
+     *     Everything allocated from the arena must have been freed or be abandoned with the context.
+     * </p>
+     * @param gl the OpenGL interface
+     */
+    public void remove(@Nonnull GL2 gl) {
+        for (Page page : pages) {
+            gl.glDeleteBuffers(1, new int[] {page.id}, 0);
+        }
+        pages.clear();
+        allocatedBytes = 0;
+    }
+
+    /**
+     * Create a page.
+     * @param gl the OpenGL interface
+     * @param size the size of the page in bytes
+     * @return the page
+     */
+    @Nonnull
+    private Page createPage(@Nonnull GL2 gl, int size) {
+        IntBuffer ids = IntBuffer.allocate(1);
+        gl.glGenBuffers(1, ids);
+        Page page = new Page(ids.get(0), size);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, page.id);
+        gl.glBufferData(GL.GL_ARRAY_BUFFER, size, null, GL.GL_DYNAMIC_DRAW);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+        pages.add(page);
+        return page;
+    }
+
+    /**
+     * Copy an array into the staging buffer, growing it if needed.
+     * @param data the array
+     * @return the staging buffer, flipped ready to be read
+     */
+    @Nonnull
+    private FloatBuffer stage(@Nonnull float[] data) {
+        if (staging.capacity() < data.length) {
+            staging = Buffers.newDirectFloatBuffer(Math.max(data.length, staging.capacity() * 2));
+        }
+        staging.clear();
+        staging.put(data);
+        staging.flip();
+        return staging;
+    }
+
+    /**
+     * Round a size up to the alignment.
+     * @param size the size in bytes
+     * @return the aligned size
+     */
+    private static int align(int size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * A page of the arena, one buffer object.
+     */
+    private static final class Page {
+
+        /**
+         * The ID of the buffer.
+         */
+        private final int id;
+
+        /**
+         * The free list of the buffer.
+         */
+        @Nonnull
+        private final RangeAllocator ranges;
+
+        /**
+         * Constructor.
+         * @param id the ID of the buffer
+         * @param size the size of the buffer in bytes
+         */
+        private Page(int id, int size) {
+            this.id = id;
+            ranges = new RangeAllocator(size);
+        }
+    }
+
+    /**
+     * A range of a buffer that has been allocated.
+     */
+    public static final class Allocation {
+
+        /**
+         * The page the range is in, null once it has been freed.
+         */
+        @Nullable
+        private Page page;
+
+        /**
+         * The offset of the range in bytes.
+         */
+        private final int offset;
+
+        /**
+         * The size of the range in bytes.
+         */
+        private final int size;
+
+        /**
+         * Constructor.
+         * @param page the page
+         * @param offset the offset in bytes
+         * @param size the size in bytes
+         */
+        private Allocation(@Nonnull Page page, int offset, int size) {
+            this.page = page;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        /**
+         * Get the ID of the buffer that the range is in.
+         * @return the buffer ID
+         */
+        public int getBuffer() {
+            assert page != null : "The allocation has been freed";
+            return page.id;
+        }
+
+        /**
+         * Get the offset of the range.
+         * @return the offset in bytes
+         */
+        public int getOffset() {
+            return offset;
+        }
+
+        /**
+         * Would data fit in the range.
+         * @param floats the number of floats
+         * @return true if they fit
+         */
+        public boolean fits(int floats) {
+            return floats * Buffers.SIZEOF_FLOAT <= size;
+        }
+    }
+}
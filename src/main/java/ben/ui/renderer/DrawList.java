@@ -0,0 +1,781 @@
+package ben.ui.renderer;
+
+import ben.ui.math.Matrix;
+import ben.ui.math.PmvMatrix;
+import ben.ui.math.Rect;
+import ben.ui.math.Vec2i;
+import ben.ui.resource.GlState;
+import ben.ui.resource.RenderStats;
+import ben.ui.resource.color.Color;
+import ben.ui.resource.shader.DrawListProgram;
+import ben.ui.resource.shader.InstancedFlatProgram;
+import ben.ui.resource.shader.ShaderManager;
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.util.texture.Texture;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Draw List.
+ * <p>
+ *     Collects the quads, glyphs and lines of a frame so that they can be drawn with a handful of draw calls instead of
+ *     a program change, uniform upload and VAO draw per renderer.
+ * </p>
+ * <p>
+ *     Vertices are transformed into screen space as they are added and grouped into batches by primitive type,
+ *     texture and scissor box. A primitive will join an earlier batch with the same state as long as it does not
+ *     overlap anything that was added after that batch, so overlapping widgets are still drawn in painter's order.
+ * </p>
+ * <p>
+ *     When instancing is turned on, solid axis aligned rectangles are batched as instances instead of triangles; each
+ *     rectangle is one record of x, y, width, height and colour, the same size as a vertex, and a batch of them is
+ *     drawn with one instanced draw of a unit quad.
+ * </p>
+ */
+public final class DrawList {
+
+    /**
+     * The number of floats per vertex; position (2), texture coordinate (2) and colour (4).
+     */
+    private static final int FLOATS_PER_VERTEX = 8;
+
+    /**
+     * The number of bytes between consecutive vertices.
+     */
+    private static final int STRIDE = FLOATS_PER_VERTEX * Buffers.SIZEOF_FLOAT;
+
+    /**
+     * The number of batches that are searched for a match before a new batch is started.
+     */
+    private static final int MAXIMUM_LOOKBACK = 32;
+
+    /**
+     * The initial number of vertices that a batch can hold.
+     */
+    private static final int INITIAL_BATCH_VERTICES = 256;
+
+    /**
+     * The primitive mode of batches of rectangle instances; not an OpenGL mode.
+     */
+    private static final int RECT_INSTANCES = -1;
+
+    /**
+     * The corners of the unit quad that rectangle instances are drawn with, as a triangle strip.
+     */
+    @Nonnull
+    private static final float[] UNIT_QUAD = {0, 0, 1, 0, 0, 1, 1, 1};
+
+    /**
+     * The shader manager, used to get the draw list program when the list is flushed.
+     */
+    @Nonnull
+    private final ShaderManager shaderManager;
+
+    /**
+     * The OpenGL state cache.
+     */
+    @Nonnull
+    private final GlState glState;
+
+    /**
+     * Counts the work that is sent to OpenGL.
+     */
+    @Nonnull
+    private final RenderStats renderStats;
+
+    /**
+     * The batches of the current frame, in the order that they will be drawn.
+     */
+    @Nonnull
+    private final List<Batch> batches = new ArrayList<>();
+
+    /**
+     * Batches from previous frames that can be reused.
+     */
+    @Nonnull
+    private final List<Batch> freeBatches = new ArrayList<>();
+
+    /**
+     * The projection matrix that the vertices are drawn with.
+     */
+    @Nonnull
+    private final Matrix projection = new Matrix();
+
+    /**
+     * The transformed corners of the quad that is being added.
+     */
+    @Nonnull
+    private final float[] corners = new float[8];
+
+    /**
+     * The screen space bounds (min x, min y, max x, max y) of the primitive that is being added.
+     */
+    @Nonnull
+    private final float[] bounds = new float[4];
+
+    /**
+     * The size of the screen.
+     */
+    @Nonnull
+    private Vec2i screenSize = new Vec2i(0, 0);
+
+    /**
+     * The current scissor box, null if nothing is scissored.
+     */
+    @Nullable
+    private Rect scissorBox;
+
+    /**
+     * Is the draw list recording.
+     */
+    private boolean recording;
+
+    /**
+     * The staging buffer that all the batches are copied into before they are uploaded.
+     */
+    @Nonnull
+    private FloatBuffer vertexBuffer = Buffers.newDirectFloatBuffer(INITIAL_BATCH_VERTICES * FLOATS_PER_VERTEX);
+
+    /**
+     * The ID of the VAO, 0 if it has not been created yet.
+     */
+    private int vertexArray;
+
+    /**
+     * The ID of the vertex buffer.
+     */
+    private int buffer;
+
+    /**
+     * Are rectangles drawn as instances.
+     */
+    private boolean instancing;
+
+    /**
+     * The ID of the VAO that rectangle instances are drawn with, 0 if it has not been created yet.
+     */
+    private int rectVertexArray;
+
+    /**
+     * The ID of the unit quad buffer.
+     */
+    private int unitQuadBuffer;
+
+    /**
+     * Constructor.
+     * @param shaderManager the shader manager
+     * @param glState the OpenGL state cache
+     * @param renderStats counts the work that is sent to OpenGL
+     */
+    public DrawList(@Nonnull ShaderManager shaderManager, @Nonnull GlState glState, @Nonnull RenderStats renderStats) {
+        this.shaderManager = shaderManager;
+        this.glState = glState;
+        this.renderStats = renderStats;
+    }
+
+    /**
+     * Start recording.
+     * <p>
+     *     Renderers will add to the list instead of drawing until the list is ended.
+     * </p>
+     * @param pmvMatrix the PMV matrix, the projection and scissor box are taken from it
+     */
+    public void begin(@Nonnull PmvMatrix pmvMatrix) {
+        assert !recording : "The draw list is already recording";
+        projection.set(pmvMatrix.getPMatrix());
+        screenSize = pmvMatrix.getScreenSize();
+        scissorBox = pmvMatrix.getScissorBox();
+        recording = true;
+    }
+
+    /**
+     * Flush the list and stop recording.
+     * @param gl the OpenGL interface
+     */
+    public void end(@Nonnull GL2 gl) {
+        flush(gl);
+        recording = false;
+    }
+
+    /**
+     * Is the draw list recording.
+     * @return true if renderers should add to the list rather than draw
+     */
+    public boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * Turn drawing rectangles as instances on or off.
+     * <p>
+     *     Needs instanced arrays, OpenGL 3.3 or ARB_instanced_arrays. Can only be changed while the list isn't recording.
+     * </p>
+     * @param instancing true to draw rectangles as instances
+     */
+    public void setInstancing(boolean instancing) {
+        assert !recording : "Instancing can't be changed while the draw list is recording";
+        this.instancing = instancing;
+    }
+
+    /**
+     * Are rectangles drawn as instances.
+     * @return true if rectangles are drawn as instances
+     */
+    public boolean isInstancing() {
+        return instancing;
+    }
+
+    /**
+     * Set the scissor box that primitives added from now on will be clipped to.
+     * @param scissorBox the scissor box, null to draw to the whole screen
+     */
+    public void setScissorBox(@Nullable Rect scissorBox) {
+        this.scissorBox = scissorBox;
+    }
+
+    /**
+     * Add a solid rectangle.
+     * @param mvMatrix the model view matrix of the renderer
+     * @param rect the rectangle
+     * @param color the colour of the rectangle
+     */
+    public void addRect(@Nonnull Matrix mvMatrix, @Nonnull Rect rect, @Nonnull Color color) {
+        setCorners(mvMatrix, rect.getX(), rect.getY(), rect.getX() + rect.getWidth(), rect.getY() + rect.getHeight());
+        boolean axisAligned = corners[1] == corners[3] && corners[0] == corners[6];
+        if (instancing && axisAligned) {
+            // An instance is laid out like a vertex; the size goes where the texture coordinates would.
+            Batch batch = getBatch(RECT_INSTANCES, null, false);
+            batch.ensureCapacity(1);
+            putVertex(batch, bounds[0], bounds[1], bounds[2] - bounds[0], bounds[3] - bounds[1], color);
+        }
+        else {
+            Batch batch = getBatch(GL.GL_TRIANGLES, null, false);
+            putQuad(batch, 0, 0, 0, 0, color);
+        }
+    }
+
+    /**
+     * Add a textured rectangle at the origin with the whole texture stretched over it.
+     * @param mvMatrix the model view matrix of the renderer
+     * @param texture the texture
+     * @param size the size of the rectangle
+     * @param color the colour that the texture is multiplied with
+     */
+    public void addTexturedRect(@Nonnull Matrix mvMatrix, @Nonnull Texture texture, @Nonnull Vec2i size, @Nonnull Color color) {
+        setCorners(mvMatrix, 0, 0, size.getX(), size.getY());
+        Batch batch = getBatch(GL.GL_TRIANGLES, texture, false);
+        putQuad(batch, 0, 1, 1, 0, color);
+    }
+
+    /**
+     * Add glyphs.
+     * <p>
+     *     The arrays have six vertices per glyph in the order that shaped text builds them; top left, bottom left,
+     *     top right, top right, bottom left and bottom right.
+     * </p>
+     * @param mvMatrix the model view matrix of the renderer
+     * @param texture the font texture
+     * @param positions the positions of the glyph vertices
+     * @param textureCoordinates the texture coordinates of the glyph vertices
+     * @param glyphs the number of glyphs
+     * @param color the colour of the text
+     * @param distanceField true if the font texture is a signed distance field rather than coverage
+     */
+    public void addGlyphs(@Nonnull Matrix mvMatrix, @Nonnull Texture texture, @Nonnull float[] positions,
+            @Nonnull float[] textureCoordinates, int glyphs, @Nonnull Color color, boolean distanceField) {
+        if (glyphs > 0) {
+            float minX = Float.MAX_VALUE;
+            float minY = Float.MAX_VALUE;
+            float maxX = -Float.MAX_VALUE;
+            float maxY = -Float.MAX_VALUE;
+            for (int i = 0; i < glyphs * 12; i += 2) {
+                minX = Math.min(minX, positions[i]);
+                minY = Math.min(minY, positions[i + 1]);
+                maxX = Math.max(maxX, positions[i]);
+                maxY = Math.max(maxY, positions[i + 1]);
+            }
+            setCorners(mvMatrix, minX, minY, maxX, maxY);
+            Batch batch = getBatch(GL.GL_TRIANGLES, texture, distanceField);
+            batch.ensureCapacity(glyphs * 6);
+
+            for (int i = 0; i < glyphs * 12; i += 12) {
+                setCorners(mvMatrix, positions[i], positions[i + 1], positions[i + 10], positions[i + 11]);
+                putQuad(batch, textureCoordinates[i], textureCoordinates[i + 1], textureCoordinates[i + 10],
+                        textureCoordinates[i + 11], color);
+            }
+        }
+    }
+
+    /**
+     * Add 2D lines.
+     * @param mvMatrix the model view matrix of the renderer
+     * @param positions the points of the line, two elements per point
+     * @param points the number of points
+     * @param lineType the line type, either GL_LINES, GL_LINE_STRIP or GL_LINE_LOOP
+     * @param color the colour of the line
+     */
+    public void addLines(@Nonnull Matrix mvMatrix, @Nonnull float[] positions, int points, int lineType, @Nonnull Color color) {
+        assert lineType == GL.GL_LINES || lineType == GL.GL_LINE_STRIP || lineType == GL.GL_LINE_LOOP;
+        if (points > 1) {
+            bounds[0] = Float.MAX_VALUE;
+            bounds[1] = Float.MAX_VALUE;
+            bounds[2] = -Float.MAX_VALUE;
+            bounds[3] = -Float.MAX_VALUE;
+            for (int i = 0; i < points * 2; i += 2) {
+                float x = mvMatrix.transformX(positions[i], positions[i + 1]);
+                float y = mvMatrix.transformY(positions[i], positions[i + 1]);
+                bounds[0] = Math.min(bounds[0], x);
+                bounds[1] = Math.min(bounds[1], y);
+                bounds[2] = Math.max(bounds[2], x);
+                bounds[3] = Math.max(bounds[3], y);
+            }
+            Batch batch = getBatch(GL.GL_LINES, null, false);
+
+            if (lineType == GL.GL_LINES) {
+                for (int i = 0; i < points - 1; i += 2) {
+                    putLine(batch, mvMatrix, positions, i, i + 1, color);
+                }
+            }
+            else {
+                for (int i = 0; i < points - 1; i++) {
+                    putLine(batch, mvMatrix, positions, i, i + 1, color);
+                }
+                if (lineType == GL.GL_LINE_LOOP) {
+                    putLine(batch, mvMatrix, positions, points - 1, 0, color);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draw everything that has been added to the list.
+     * <p>
+     *     The list keeps recording, this can be used to draw the list before something that can't be batched, like a
+     *     canvas.
+     * </p>
+     * @param gl the OpenGL interface
+     */
+    public void flush(@Nonnull GL2 gl) {
+        int floats = 0;
+        for (Batch batch : batches) {
+            floats += batch.vertexCount * FLOATS_PER_VERTEX;
+        }
+
+        if (floats > 0) {
+            if (vertexBuffer.capacity() < floats) {
+                vertexBuffer = Buffers.newDirectFloatBuffer(Math.max(floats, vertexBuffer.capacity() * 2));
+            }
+            vertexBuffer.clear();
+            for (Batch batch : batches) {
+                vertexBuffer.put(batch.vertices, 0, batch.vertexCount * FLOATS_PER_VERTEX);
+            }
+            vertexBuffer.flip();
+
+            if (vertexArray == 0) {
+                create(gl);
+            }
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffer);
+            gl.glBufferData(GL.GL_ARRAY_BUFFER, floats * Buffers.SIZEOF_FLOAT, vertexBuffer, GL2.GL_STREAM_DRAW);
+            renderStats.upload(floats * Buffers.SIZEOF_FLOAT);
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+
+            DrawListProgram program = shaderManager.getProgram(DrawListProgram.class);
+            program.use(gl);
+            program.setMatrix(gl, projection);
+            if (instancing) {
+                InstancedFlatProgram rectProgram = shaderManager.getProgram(InstancedFlatProgram.class);
+                rectProgram.use(gl);
+                rectProgram.setMatrix(gl, projection);
+            }
+
+            int first = 0;
+            boolean firstBatch = true;
+            Texture texture = null;
+            Rect batchScissorBox = null;
+            for (Batch batch : batches) {
+                if (firstBatch || !isSameScissorBox(batch.scissorBox, batchScissorBox)) {
+                    batchScissorBox = batch.scissorBox;
+                    applyScissorBox(gl, batchScissorBox);
+                }
+                if (batch.mode == RECT_INSTANCES) {
+                    drawRectInstances(gl, first, batch.vertexCount);
+                }
+                else {
+                    program.use(gl);
+                    if (firstBatch || batch.texture != texture) {
+                        texture = batch.texture;
+                        program.setTexture(gl, texture, batch.distanceField);
+                    }
+                    glState.bindVertexArray(gl, vertexArray);
+                    gl.glDrawArrays(batch.mode, first, batch.vertexCount);
+                    renderStats.drawCall(batch.vertexCount);
+                }
+                firstBatch = false;
+                first += batch.vertexCount;
+            }
+        }
+
+        // Leave the scissor how the widget that caused the flush expects it, even if nothing was drawn; a canvas draws
+        // straight after the flush without setting the scissor itself.
+        applyScissorBox(gl, scissorBox);
+
+        freeBatches.addAll(batches);
+        batches.clear();
+    }
+
+    /**
+     * Remove the VAO and buffer of the draw list.
+     * @param gl the OpenGL interface
+     */
+    public void remove(@Nonnull GL2 gl) {
+        if (vertexArray != 0) {
+            gl.glDeleteBuffers(1, new int[] {buffer}, 0);
+            gl.glDeleteVertexArrays(1, new int[] {vertexArray}, 0);
+            glState.vertexArrayDeleted(vertexArray);
+            vertexArray = 0;
+        }
+        if (rectVertexArray != 0) {
+            gl.glDeleteBuffers(1, new int[] {unitQuadBuffer}, 0);
+            gl.glDeleteVertexArrays(1, new int[] {rectVertexArray}, 0);
+            glState.vertexArrayDeleted(rectVertexArray);
+            rectVertexArray = 0;
+        }
+    }
+
+    /**
+     * Draw a batch of rectangle instances.
+     * <p>
+     *     The instance attributes are pointed at the batch within the shared buffer, as a base instance isn't
+     *     available in OpenGL 3.3.
+     * </p>
+     * @param gl the OpenGL interface
+     * @param first the index of the first instance in the buffer
+     * @param count the number of instances
+     */
+    private void drawRectInstances(@Nonnull GL2 gl, int first, int count) {
+        if (rectVertexArray == 0) {
+            createRectVertexArray(gl);
+        }
+        shaderManager.getProgram(InstancedFlatProgram.class).use(gl);
+        glState.bindVertexArray(gl, rectVertexArray);
+        long offset = (long) first * STRIDE;
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffer);
+        gl.glVertexAttribPointer(InstancedFlatProgram.RECT_LOCATION, 4, GL.GL_FLOAT, false, STRIDE, offset);
+        gl.glVertexAttribPointer(InstancedFlatProgram.COLOR_LOCATION, 4, GL.GL_FLOAT, false, STRIDE, offset + 4 * Buffers.SIZEOF_FLOAT);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+        gl.glDrawArraysInstanced(GL.GL_TRIANGLE_STRIP, 0, UNIT_QUAD.length / 2, count);
+        renderStats.drawCall((long) count * (UNIT_QUAD.length / 2));
+    }
+
+    /**
+     * Create the VAO that rectangle instances are drawn with, and the unit quad buffer.
+     * @param gl the OpenGL interface
+     */
+    private void createRectVertexArray(@Nonnull GL2 gl) {
+        IntBuffer ids = IntBuffer.allocate(1);
+        gl.glGenVertexArrays(1, ids);
+        rectVertexArray = ids.get(0);
+        gl.glGenBuffers(1, ids);
+        unitQuadBuffer = ids.get(0);
+
+        glState.bindVertexArray(gl, rectVertexArray);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, unitQuadBuffer);
+        gl.glBufferData(GL.GL_ARRAY_BUFFER, UNIT_QUAD.length * Buffers.SIZEOF_FLOAT, Buffers.newDirectFloatBuffer(UNIT_QUAD),
+                GL.GL_STATIC_DRAW);
+        gl.glEnableVertexAttribArray(InstancedFlatProgram.CORNER_LOCATION);
+        gl.glVertexAttribPointer(InstancedFlatProgram.CORNER_LOCATION, 2, GL.GL_FLOAT, false, 0, 0);
+        gl.glEnableVertexAttribArray(InstancedFlatProgram.RECT_LOCATION);
+        gl.glVertexAttribDivisor(InstancedFlatProgram.RECT_LOCATION, 1);
+        gl.glEnableVertexAttribArray(InstancedFlatProgram.COLOR_LOCATION);
+        gl.glVertexAttribDivisor(InstancedFlatProgram.COLOR_LOCATION, 1);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Create the VAO and the interleaved vertex buffer.
+     * @param gl the OpenGL interface
+     */
+    private void create(@Nonnull GL2 gl) {
+        IntBuffer ids = IntBuffer.allocate(1);
+        gl.glGenVertexArrays(1, ids);
+        vertexArray = ids.get(0);
+        gl.glGenBuffers(1, ids);
+        buffer = ids.get(0);
+
+        glState.bindVertexArray(gl, vertexArray);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffer);
+        gl.glEnableVertexAttribArray(DrawListProgram.POSITION_LOCATION);
+        gl.glVertexAttribPointer(DrawListProgram.POSITION_LOCATION, 2, GL.GL_FLOAT, false, STRIDE, 0);
+        gl.glEnableVertexAttribArray(DrawListProgram.TEXTURE_COORDINATE_LOCATION);
+        gl.glVertexAttribPointer(DrawListProgram.TEXTURE_COORDINATE_LOCATION, 2, GL.GL_FLOAT, false, STRIDE, 2 * Buffers.SIZEOF_FLOAT);
+        gl.glEnableVertexAttribArray(DrawListProgram.COLOR_LOCATION);
+        gl.glVertexAttribPointer(DrawListProgram.COLOR_LOCATION, 4, GL.GL_FLOAT, false, STRIDE, 4 * Buffers.SIZEOF_FLOAT);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Set the OpenGL scissor box.
+     * @param gl the OpenGL interface
+     * @param box the scissor box, null for the whole screen
+     */
+    private void applyScissorBox(@Nonnull GL2 gl, @Nullable Rect box) {
+        if (box == null) {
+            gl.glScissor(0, 0, screenSize.getX(), screenSize.getY());
+        }
+        else {
+            gl.glScissor(box.getX(), box.getY(), box.getWidth(), box.getHeight());
+        }
+    }
+
+    /**
+     * Transform the corners of a quad into screen space and calculate its bounds.
+     * @param mvMatrix the model view matrix
+     * @param x0 the left of the quad
+     * @param y0 the top of the quad
+     * @param x1 the right of the quad
+     * @param y1 the bottom of the quad
+     */
+    private void setCorners(@Nonnull Matrix mvMatrix, float x0, float y0, float x1, float y1) {
+        corners[0] = mvMatrix.transformX(x0, y0);
+        corners[1] = mvMatrix.transformY(x0, y0);
+        corners[2] = mvMatrix.transformX(x1, y0);
+        corners[3] = mvMatrix.transformY(x1, y0);
+        corners[4] = mvMatrix.transformX(x1, y1);
+        corners[5] = mvMatrix.transformY(x1, y1);
+        corners[6] = mvMatrix.transformX(x0, y1);
+        corners[7] = mvMatrix.transformY(x0, y1);
+
+        bounds[0] = Math.min(Math.min(corners[0], corners[2]), Math.min(corners[4], corners[6]));
+        bounds[1] = Math.min(Math.min(corners[1], corners[3]), Math.min(corners[5], corners[7]));
+        bounds[2] = Math.max(Math.max(corners[0], corners[2]), Math.max(corners[4], corners[6]));
+        bounds[3] = Math.max(Math.max(corners[1], corners[3]), Math.max(corners[5], corners[7]));
+    }
+
+    /**
+     * Get the batch that a primitive with the current bounds should be added to.
+     * @param mode the primitive mode of the batch
+     * @param texture the texture of the batch, null if it's untextured
+     * @param distanceField true if the texture is a signed distance field
+     * @return the batch
+     */
+    @Nonnull
+    private Batch getBatch(int mode, @Nullable Texture texture, boolean distanceField) {
+        assert recording : "Primitives can only be added while the draw list is recording";
+
+        Batch batch = null;
+        int lookback = Math.max(0, batches.size() - MAXIMUM_LOOKBACK);
+        for (int i = batches.size() - 1; i >= lookback; i--) {
+            Batch candidate = batches.get(i);
+            if (candidate.mode == mode && candidate.texture == texture && candidate.distanceField == distanceField
+                    && isSameScissorBox(candidate.scissorBox, scissorBox)) {
+                batch = candidate;
+                break;
+            }
+            if (candidate.overlaps(bounds)) {
+                // Moving the primitive before this batch would change what ends up on top.
+                break;
+            }
+        }
+
+        if (batch == null) {
+            batch = freeBatches.isEmpty() ? new Batch() : freeBatches.remove(freeBatches.size() - 1);
+            batch.reset(mode, texture, distanceField, scissorBox);
+            batches.add(batch);
+        }
+        batch.include(bounds);
+        return batch;
+    }
+
+    /**
+     * Add the current corners to a batch as two triangles.
+     * @param batch the batch
+     * @param u0 the left texture coordinate
+     * @param v0 the top texture coordinate
+     * @param u1 the right texture coordinate
+     * @param v1 the bottom texture coordinate
+     * @param color the colour
+     */
+    private void putQuad(@Nonnull Batch batch, float u0, float v0, float u1, float v1, @Nonnull Color color) {
+        batch.ensureCapacity(6);
+        putVertex(batch, corners[0], corners[1], u0, v0, color);
+        putVertex(batch, corners[2], corners[3], u1, v0, color);
+        putVertex(batch, corners[4], corners[5], u1, v1, color);
+        putVertex(batch, corners[0], corners[1], u0, v0, color);
+        putVertex(batch, corners[4], corners[5], u1, v1, color);
+        putVertex(batch, corners[6], corners[7], u0, v1, color);
+    }
+
+    /**
+     * Add a line segment to a batch.
+     * @param batch the batch
+     * @param mvMatrix the model view matrix
+     * @param positions the points of the line
+     * @param start the index of the start point
+     * @param end the index of the end point
+     * @param color the colour
+     */
+    private void putLine(@Nonnull Batch batch, @Nonnull Matrix mvMatrix, @Nonnull float[] positions, int start, int end,
+            @Nonnull Color color) {
+        batch.ensureCapacity(2);
+        float x = positions[start * 2];
+        float y = positions[start * 2 + 1];
+        putVertex(batch, mvMatrix.transformX(x, y), mvMatrix.transformY(x, y), 0, 0, color);
+        x = positions[end * 2];
+        y = positions[end * 2 + 1];
+        putVertex(batch, mvMatrix.transformX(x, y), mvMatrix.transformY(x, y), 0, 0, color);
+    }
+
+    /**
+     * Add a vertex to a batch.
+     * <p>
+     *     The batch must already have the capacity for it.
+     * </p>
+     * @param batch the batch
+     * @param x the screen X coordinate
+     * @param y the screen Y coordinate
+     * @param u the U texture coordinate
+     * @param v the V texture coordinate
+     * @param color the colour
+     */
+    private static void putVertex(@Nonnull Batch batch, float x, float y, float u, float v, @Nonnull Color color) {
+        float[] vertices = batch.vertices;
+        int i = batch.vertexCount * FLOATS_PER_VERTEX;
+        vertices[i++] = x;
+        vertices[i++] = y;
+        vertices[i++] = u;
+        vertices[i++] = v;
+        vertices[i++] = color.getRed();
+        vertices[i++] = color.getGreen();
+        vertices[i++] = color.getBlue();
+        vertices[i] = color.getAlpha();
+        batch.vertexCount++;
+    }
+
+    /**
+     * Are two scissor boxes the same.
+     * @param box1 the first scissor box
+     * @param box2 the second scissor box
+     * @return true if they clip to the same area
+     */
+    private static boolean isSameScissorBox(@Nullable Rect box1, @Nullable Rect box2) {
+        return box1 == null ? box2 == null : box1.equals(box2);
+    }
+
+    /**
+     * A batch of primitives that share the same state.
+     */
+    private static final class Batch {
+
+        /**
+         * The primitive mode.
+         */
+        private int mode;
+
+        /**
+         * The texture, null if the batch is untextured.
+         */
+        @Nullable
+        private Texture texture;
+
+        /**
+         * True if the texture is a signed distance field.
+         */
+        private boolean distanceField;
+
+        /**
+         * The scissor box, null for the whole screen.
+         */
+        @Nullable
+        private Rect scissorBox;
+
+        /**
+         * The interleaved vertices.
+         */
+        @Nonnull
+        private float[] vertices = new float[INITIAL_BATCH_VERTICES * FLOATS_PER_VERTEX];
+
+        /**
+         * The number of vertices in the batch, or rectangles in a batch of rectangle instances.
+         */
+        private int vertexCount;
+
+        /**
+         * The minimum X of everything in the batch.
+         */
+        private float minX;
+
+        /**
+         * The minimum Y of everything in the batch.
+         */
+        private float minY;
+
+        /**
+         * The maximum X of everything in the batch.
+         */
+        private float maxX;
+
+        /**
+         * The maximum Y of everything in the batch.
+         */
+        private float maxY;
+
+        /**
+         * Reset the batch so that it can be reused.
+         * @param mode the primitive mode
+         * @param texture the texture
+         * @param distanceField true if the texture is a signed distance field
+         * @param scissorBox the scissor box
+         */
+        private void reset(int mode, @Nullable Texture texture, boolean distanceField, @Nullable Rect scissorBox) {
+            this.mode = mode;
+            this.texture = texture;
+            this.distanceField = distanceField;
+            this.scissorBox = scissorBox;
+            vertexCount = 0;
+            minX = Float.MAX_VALUE;
+            minY = Float.MAX_VALUE;
+            maxX = -Float.MAX_VALUE;
+            maxY = -Float.MAX_VALUE;
+        }
+
+        /**
+         * Make sure that there is room for more vertices.
+         * @param extraVertices the number of vertices that are about to be added
+         */
+        private void ensureCapacity(int extraVertices) {
+            int required = (vertexCount + extraVertices) * FLOATS_PER_VERTEX;
+            if (required > vertices.length) {
+                float[] newVertices = new float[Math.max(required, vertices.length * 2)];
+                System.arraycopy(vertices, 0, newVertices, 0, vertexCount * FLOATS_PER_VERTEX);
+                vertices = newVertices;
+            }
+        }
+
+        /**
+         * Grow the bounds of the batch to include a primitive.
+         * @param primitiveBounds the bounds of the primitive
+         */
+        private void include(@Nonnull float[] primitiveBounds) {
+            minX = Math.min(minX, primitiveBounds[0]);
+            minY = Math.min(minY, primitiveBounds[1]);
+            maxX = Math.max(maxX, primitiveBounds[2]);
+            maxY = Math.max(maxY, primitiveBounds[3]);
+        }
+
+        /**
+         * Does a primitive overlap anything in the batch.
+         * @param primitiveBounds the bounds of the primitive
+         * @return true if they overlap
+         */
+        private boolean overlaps(@Nonnull float[] primitiveBounds) {
+            return primitiveBounds[0] <= maxX && minX <= primitiveBounds[2] && primitiveBounds[1] <= maxY && minY <= primitiveBounds[3];
+        }
+    }
+}
@@ -6,7 +6,11 @@ import ben.ui.resource.GlResourceManager;
 import ben.ui.resource.color.Color;
 import ben.ui.resource.shader.FlatProgram;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
+import java.nio.FloatBuffer;
+
+import com.jogamp.common.nio.Buffers;
 import com.jogamp.opengl.GL2;
 
 /**
@@ -14,6 +18,10 @@ import com.jogamp.opengl.GL2;
  * <p>
  *     Renders a 2D rectangle with a solid colour.
  * </p>
+ * <p>
+ *     While the draw list is recording the rectangle is added to it, where it is drawn as an instance along with every
+ *     other rectangle. The renderer only creates its own VAO the first time it's drawn without the draw list.
+ * </p>
  */
 public final class FlatRenderer {
 
@@ -28,20 +36,44 @@ public final class FlatRenderer {
     private final FlatProgram program;
 
     /**
-     * The VAO.
+     * The positions of the vertices, a direct buffer that is refilled in place when the rectangle changes.
+     */
+    @Nonnull
+    private final FloatBuffer positions = Buffers.newDirectFloatBuffer(NUMBER_OF_VERTICES * 2);
+
+    /**
+     * The resource manager, needed to create the VAO.
+     */
+    @Nonnull
+    private final GlResourceManager glResourceManager;
+
+    /**
+     * The VAO, null until the rectangle is drawn without the draw list.
+     */
+    @Nullable
+    private VertexArrayObject vertexArrayObject;
+
+    /**
+     * The draw list.
      */
     @Nonnull
-    private final VertexArrayObject vertexArrayObject;
+    private final DrawList drawList;
 
     /**
      * The colour.
      */
     private Color color;
 
+    /**
+     * The position and size of the rectangle.
+     */
+    @Nonnull
+    private Rect rect;
+
     /**
      * The position buffer of the vertices.
      */
-    private final int positionsBuffer;
+    private int positionsBuffer;
 
     /**
      * Constructor.
@@ -52,10 +84,10 @@ public final class FlatRenderer {
      */
     public FlatRenderer(@Nonnull GL2 gl, @Nonnull GlResourceManager glResourceManager, @Nonnull Rect rect, @Nonnull Color color) {
         program = glResourceManager.getShaderManager().getProgram(FlatProgram.class);
-        vertexArrayObject = new VertexArrayObject(gl);
+        drawList = glResourceManager.getDrawList();
+        this.glResourceManager = glResourceManager;
         this.color = color;
-        float[] positions = createPositions(rect);
-        positionsBuffer = vertexArrayObject.addBuffer(gl, FlatProgram.POSITION_LOCATION, positions, 2);
+        this.rect = rect;
     }
 
     /**
@@ -64,10 +96,19 @@ public final class FlatRenderer {
      * @param pmvMatrix the PMV matrix
      */
     public void draw(@Nonnull GL2 gl, @Nonnull PmvMatrix pmvMatrix) {
-        program.use(gl);
-        program.setPmvMatrix(gl, pmvMatrix);
-        program.setColor(gl, color);
-        vertexArrayObject.draw(gl, GL2.GL_TRIANGLE_FAN, NUMBER_OF_VERTICES);
+        if (drawList.isRecording()) {
+            drawList.addRect(pmvMatrix.getMvMatrix(), rect, color);
+        }
+        else {
+            if (vertexArrayObject == null) {
+                vertexArrayObject = new VertexArrayObject(gl, glResourceManager);
+                positionsBuffer = vertexArrayObject.addBuffer(gl, FlatProgram.POSITION_LOCATION, fillPositions(rect), 2);
+            }
+            program.use(gl);
+            program.setPmvMatrix(gl, pmvMatrix);
+            program.setColor(gl, color);
+            vertexArrayObject.draw(gl, GL2.GL_TRIANGLE_FAN, NUMBER_OF_VERTICES);
+        }
     }
 
     /**
@@ -84,21 +125,26 @@ public final class FlatRenderer {
      * @param rect the rectangle
      */
     public void setRect(@Nonnull GL2 gl, @Nonnull Rect rect) {
-        float[] positions = createPositions(rect);
-        vertexArrayObject.updateBuffer(gl, positionsBuffer, positions);
+        this.rect = rect;
+        if (vertexArrayObject != null) {
+            vertexArrayObject.updateBuffer(gl, positionsBuffer, fillPositions(rect));
+        }
     }
 
     /**
-     * Create the positions array of the verticies for the rectangle.
+     * Fill the positions buffer with the verticies of the rectangle.
      * @param rect the position and size of the rectangle
-     * @return the positions
+     * @return the positions buffer, ready to be uploaded
      */
     @Nonnull
-    private float[] createPositions(@Nonnull Rect rect) {
-        return new float[] {rect.getX(), rect.getY(),
-                rect.getX() + rect.getWidth(), rect.getY(),
-                rect.getX() + rect.getWidth(), rect.getY() + rect.getHeight(),
-                rect.getX(), rect.getY() + rect.getHeight()};
+    private FloatBuffer fillPositions(@Nonnull Rect rect) {
+        positions.clear();
+        positions.put(rect.getX()).put(rect.getY());
+        positions.put(rect.getX() + rect.getWidth()).put(rect.getY());
+        positions.put(rect.getX() + rect.getWidth()).put(rect.getY() + rect.getHeight());
+        positions.put(rect.getX()).put(rect.getY() + rect.getHeight());
+        positions.flip();
+        return positions;
     }
 
     /**
@@ -106,6 +152,9 @@ public final class FlatRenderer {
      * @param gl the OpenGL interface
      */
     public void remove(@Nonnull GL2 gl) {
-        vertexArrayObject.remove(gl);
+        if (vertexArrayObject != null) {
+            vertexArrayObject.remove(gl);
+            vertexArrayObject = null;
+        }
     }
 }
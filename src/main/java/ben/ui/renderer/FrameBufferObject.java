@@ -0,0 +1,185 @@
+package ben.ui.renderer;
+
+import ben.ui.math.Vec2i;
+import ben.ui.resource.GlResourceManager;
+import ben.ui.resource.GlState;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.util.texture.Texture;
+import javax.annotation.Nonnull;
+
+import java.nio.IntBuffer;
+
+/**
+ * Frame Buffer Object.
+ * <p>
+ *     An offscreen frame buffer with a single RGBA texture attached to it, so that something can be drawn once and
+ *     then drawn again as a textured rectangle.
+ * </p>
+ * <p>
+ *     The texture object stays the same when the frame buffer is resized, so renderers can keep using it.
+ * </p>
+ */
+public final class FrameBufferObject {
+
+    /**
+     * The OpenGL state cache.
+     */
+    @Nonnull
+    private final GlState glState;
+
+    /**
+     * The ID of the frame buffer.
+     */
+    private final int frameBuffer;
+
+    /**
+     * The texture that the frame buffer draws into.
+     */
+    @Nonnull
+    private final Texture texture;
+
+    /**
+     * The size of the frame buffer.
+     */
+    @Nonnull
+    private Vec2i size;
+
+    /**
+     * The frame buffer that was bound before this one.
+     */
+    private int previousFrameBuffer;
+
+    /**
+     * Receives the frame buffer binding when it's queried, reused so that binding doesn't create a buffer.
+     */
+    @Nonnull
+    private final int[] binding = new int[1];
+
+    /**
+     * Constructor.
+     * @param gl the OpenGL interface
+     * @param glResourceManager the resource manager
+     * @param size the size of the frame buffer, must not be empty
+     */
+    public FrameBufferObject(@Nonnull GL2 gl, @Nonnull GlResourceManager glResourceManager, @Nonnull Vec2i size) {
+        glState = glResourceManager.getGlState();
+        this.size = size;
+
+        IntBuffer ids = IntBuffer.allocate(1);
+        gl.glGenTextures(1, ids);
+        int textureId = ids.get(0);
+        gl.glBindTexture(GL.GL_TEXTURE_2D, textureId);
+        gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MIN_FILTER, GL.GL_NEAREST);
+        gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MAG_FILTER, GL.GL_NEAREST);
+        gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_WRAP_S, GL.GL_CLAMP_TO_EDGE);
+        gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_WRAP_T, GL.GL_CLAMP_TO_EDGE);
+        allocateTexture(gl);
+        texture = new Texture(textureId, GL.GL_TEXTURE_2D, size.getX(), size.getY(), size.getX(), size.getY(), false);
+
+        gl.glGenFramebuffers(1, ids);
+        frameBuffer = ids.get(0);
+        bind(gl);
+        gl.glFramebufferTexture2D(GL.GL_FRAMEBUFFER, GL.GL_COLOR_ATTACHMENT0, GL.GL_TEXTURE_2D, textureId, 0);
+        int status = gl.glCheckFramebufferStatus(GL.GL_FRAMEBUFFER);
+        unbind(gl);
+
+        // The texture was bound behind the back of the state cache.
+        glState.invalidate();
+
+        if (status != GL.GL_FRAMEBUFFER_COMPLETE) {
+            throw new GLException("Frame buffer is incomplete: " + status);
+        }
+    }
+
+    /**
+     * Set the size of the frame buffer.
+     * <p>
+     *     The contents are lost if the size changes.
+     * </p>
+     * @param gl the OpenGL interface
+     * @param newSize the new size, must not be empty
+     */
+    public void setSize(@Nonnull GL2 gl, @Nonnull Vec2i newSize) {
+        if (!newSize.equals(size)) {
+            size = newSize;
+            gl.glBindTexture(GL.GL_TEXTURE_2D, texture.getTextureObject());
+            allocateTexture(gl);
+            glState.invalidate();
+        }
+    }
+
+    /**
+     * Get the size of the frame buffer.
+     * @return the size
+     */
+    @Nonnull
+    public Vec2i getSize() {
+        return size;
+    }
+
+    /**
+     * Get the texture that the frame buffer draws into.
+     * @return the texture
+     */
+    @Nonnull
+    public Texture getTexture() {
+        return texture;
+    }
+
+    /**
+     * Bind the frame buffer so that everything is drawn into it.
+     * <p>
+     *     The frame buffer that was bound before is restored by unbind, so frame buffers can be nested.
+     * </p>
+     * @param gl the OpenGL interface
+     */
+    public void bind(@Nonnull GL2 gl) {
+        gl.glGetIntegerv(GL.GL_FRAMEBUFFER_BINDING, binding, 0);
+        previousFrameBuffer = binding[0];
+        gl.glBindFramebuffer(GL.GL_FRAMEBUFFER, frameBuffer);
+    }
+
+    /**
+     * Rebind the frame buffer that was bound before this one.
+     * @param gl the OpenGL interface
+     */
+    public void unbind(@Nonnull GL2 gl) {
+        gl.glBindFramebuffer(GL.GL_FRAMEBUFFER, previousFrameBuffer);
+    }
+
+    /**
+     * Copy the contents of the frame buffer into the frame buffer that is bound.
+     * <p>
+     *     The scissor test applies to the copy, so it should be disabled to copy everything.
+     * </p>
+     * @param gl the OpenGL interface
+     */
+    public void blit(@Nonnull GL2 gl) {
+        gl.glGetIntegerv(GL.GL_FRAMEBUFFER_BINDING, binding, 0);
+        int drawFrameBuffer = binding[0];
+        gl.glBindFramebuffer(GL2.GL_READ_FRAMEBUFFER, frameBuffer);
+        gl.glBlitFramebuffer(0, 0, size.getX(), size.getY(), 0, 0, size.getX(), size.getY(), GL.GL_COLOR_BUFFER_BIT,
+                GL.GL_NEAREST);
+        gl.glBindFramebuffer(GL.GL_FRAMEBUFFER, drawFrameBuffer);
+    }
+
+    /**
+     * Remove the frame buffer and its texture.
+     * @param gl the OpenGL interface
+     */
+    public void remove(@Nonnull GL2 gl) {
+        gl.glDeleteFramebuffers(1, new int[] {frameBuffer}, 0);
+        texture.destroy(gl);
+        glState.invalidate();
+    }
+
+    /**
+     * Allocate the storage of the bound texture for the current size.
+     * @param gl the OpenGL interface
+     */
+    private void allocateTexture(@Nonnull GL2 gl) {
+        gl.glTexImage2D(GL.GL_TEXTURE_2D, 0, GL.GL_RGBA8, size.getX(), size.getY(), 0, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, null);
+    }
+}
@@ -27,13 +27,25 @@ public final class LineRenderer {
      */
     private final FlatProgram program;
 
+    /**
+     * The draw list.
+     */
+    @Nonnull
+    private final DrawList drawList;
+
+    /**
+     * The positions of the points, kept for the draw list.
+     */
+    @Nonnull
+    private float[] positions;
+
     /**
      * The number of points in the line.
      */
     private int numberOfPoints;
 
     /**
-     * The buffer ID.
+     * The buffer index.
      */
     private final int buffer;
 
@@ -70,8 +82,10 @@ public final class LineRenderer {
         this.elementsPerVertex = elementsPerVertex;
         this.lineType = lineType;
         this.color = color;
+        this.positions = positions;
         program = glResourceManager.getShaderManager().getProgram(FlatProgram.class);
-        vertexArrayObject = new VertexArrayObject(gl);
+        drawList = glResourceManager.getDrawList();
+        vertexArrayObject = new VertexArrayObject(gl, glResourceManager);
         numberOfPoints = positions.length / this.elementsPerVertex;
         buffer = vertexArrayObject.addBuffer(gl, FlatProgram.POSITION_LOCATION, positions, this.elementsPerVertex);
     }
@@ -82,20 +96,29 @@ public final class LineRenderer {
      * @param positions the line
      */
     public void setPositions(@Nonnull GL2 gl, @Nonnull float[] positions) {
+        this.positions = positions;
         numberOfPoints = positions.length / elementsPerVertex;
         vertexArrayObject.updateBuffer(gl, buffer, positions);
     }
 
     /**
      * Draw.
+     * <p>
+     *     2D lines are added to the draw list if it is recording, 3D lines are always drawn straight away.
+     * </p>
      * @param gl the OpenGL interface
      * @param pmvMatrix the PMV matrix
      */
     public void draw(@Nonnull GL2 gl, @Nonnull PmvMatrix pmvMatrix) {
-        program.use(gl);
-        program.setPmvMatrix(gl, pmvMatrix);
-        program.setColor(gl, color);
-        vertexArrayObject.draw(gl, lineType, numberOfPoints);
+        if (elementsPerVertex == 2 && drawList.isRecording()) {
+            drawList.addLines(pmvMatrix.getMvMatrix(), positions, numberOfPoints, lineType, color);
+        }
+        else {
+            program.use(gl);
+            program.setPmvMatrix(gl, pmvMatrix);
+            program.setColor(gl, color);
+            vertexArrayObject.draw(gl, lineType, numberOfPoints);
+        }
     }
 
     /**
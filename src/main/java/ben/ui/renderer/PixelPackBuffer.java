@@ -0,0 +1,118 @@
+package ben.ui.renderer;
+
+import ben.ui.math.Vec2i;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GLException;
+import javax.annotation.Nonnull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Pixel Pack Buffer.
+ * <p>
+ *     Reads the pixels of the bound frame buffer without waiting for them. {@link #read(GL2, Vec2i)} starts the copy
+ *     into a buffer object and returns straight away; the pixels are copied out later by
+ *     {@link #copyTo(GL2, byte[])}, which only waits if the GPU hasn't finished. Using two of them in turn, reading a
+ *     frame while the last one is copied out, keeps the GPU and CPU busy.
+ * </p>
+ */
+public final class PixelPackBuffer {
+
+    /**
+     * The number of bytes in an RGBA pixel.
+     */
+    private static final int BYTES_PER_PIXEL = 4;
+
+    /**
+     * The ID of the buffer object.
+     */
+    private final int buffer;
+
+    /**
+     * The number of bytes of storage in the buffer object.
+     */
+    private int capacity;
+
+    /**
+     * The size of the image that was last read.
+     */
+    @Nonnull
+    private Vec2i size = new Vec2i(0, 0);
+
+    /**
+     * Constructor.
+     * @param gl the OpenGL interface
+     */
+    public PixelPackBuffer(@Nonnull GL2 gl) {
+        int[] ids = new int[1];
+        gl.glGenBuffers(1, ids, 0);
+        buffer = ids[0];
+    }
+
+    /**
+     * Start reading the pixels of the bound read frame buffer.
+     * @param gl the OpenGL interface
+     * @param newSize the size of the area to read, from the bottom left
+     */
+    public void read(@Nonnull GL2 gl, @Nonnull Vec2i newSize) {
+        size = newSize;
+        int bytes = getByteCount();
+        gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, buffer);
+        if (bytes > capacity) {
+            capacity = bytes;
+            gl.glBufferData(GL2.GL_PIXEL_PACK_BUFFER, capacity, null, GL2.GL_STREAM_READ);
+        }
+        gl.glPixelStorei(GL.GL_PACK_ALIGNMENT, 1);
+        gl.glReadPixels(0, 0, size.getX(), size.getY(), GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, 0);
+        gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, 0);
+    }
+
+    /**
+     * Get the size of the image that was last read.
+     * @return the size
+     */
+    @Nonnull
+    public Vec2i getSize() {
+        return size;
+    }
+
+    /**
+     * Get the number of bytes in the image that was last read.
+     * @return the number of bytes, 4 per pixel
+     */
+    public int getByteCount() {
+        return size.getX() * size.getY() * BYTES_PER_PIXEL;
+    }
+
+    /**
+     * Copy out the pixels that were last read, waiting for the GPU to finish reading them if it hasn't yet.
+     * <p>
+     *     The pixels are RGBA with the rows from the bottom up, as OpenGL reads them.
+     * </p>
+     * @param gl the OpenGL interface
+     * @param pixels the array to copy the pixels to, must hold at least {@link #getByteCount()} bytes
+     */
+    public void copyTo(@Nonnull GL2 gl, @Nonnull byte[] pixels) {
+        gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, buffer);
+        try {
+            ByteBuffer mapped = gl.glMapBuffer(GL2.GL_PIXEL_PACK_BUFFER, GL2.GL_READ_ONLY);
+            if (mapped == null) {
+                throw new GLException("Couldn't map the pixel pack buffer");
+            }
+            mapped.get(pixels, 0, getByteCount());
+            gl.glUnmapBuffer(GL2.GL_PIXEL_PACK_BUFFER);
+        }
+        finally {
+            gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, 0);
+        }
+    }
+
+    /**
+     * Remove the buffer object.
+     * @param gl the OpenGL interface
+     */
+    public void remove(@Nonnull GL2 gl) {
+        gl.glDeleteBuffers(1, new int[] {buffer}, 0);
+    }
+}
@@ -0,0 +1,112 @@
+package ben.ui.renderer;
+
+import javax.annotation.Nonnull;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Range Allocator.
+ * <p>
+ *     Hands out ranges of a fixed size space, such as a vertex buffer, from a free list ordered by offset. Allocation
+ *     is first fit, and a freed range is merged with the free ranges either side of it so the space doesn't fragment
+ *     into pieces too small to use.
+ * </p>
+ */
+final class RangeAllocator {
+
+    /**
+     * The size of the space.
+     */
+    private final int capacity;
+
+    /**
+     * The free ranges, size by offset.
+     */
+    @Nonnull
+    private final TreeMap<Integer, Integer> freeRanges = new TreeMap<>();
+
+    /**
+     * Constructor.
+     * @param capacity the size of the space
+     */
+    RangeAllocator(int capacity) {
+        this.capacity = capacity;
+        freeRanges.put(0, capacity);
+    }
+
+    /**
+     * Get the size of the space.
+     * @return the capacity
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Allocate a range.
+     * @param size the size of the range
+     * @return the offset of the range, -1 if there isn't a free range big enough
+     */
+    int allocate(int size) {
+        assert size > 0;
+        int offset = -1;
+        Iterator<Map.Entry<Integer, Integer>> iterator = freeRanges.entrySet().iterator();
+        while (offset == -1 && iterator.hasNext()) {
+            Map.Entry<Integer, Integer> freeRange = iterator.next();
+            if (freeRange.getValue() >= size) {
+                offset = freeRange.getKey();
+                int remaining = freeRange.getValue() - size;
+                iterator.remove();
+                if (remaining > 0) {
+                    freeRanges.put(offset + size, remaining);
+                }
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Free a range.
+     * @param offset the offset of the range
+     * @param size the size of the range
+     */
+    void free(int offset, int size) {
+        assert offset >= 0 && offset + size <= capacity;
+        int start = offset;
+        int end = offset + size;
+
+        Map.Entry<Integer, Integer> before = freeRanges.floorEntry(offset);
+        if (before != null && before.getKey() + before.getValue() == start) {
+            start = before.getKey();
+            freeRanges.remove(start);
+        }
+        assert before == null || before.getKey() + before.getValue() <= offset : "The range is already free";
+
+        Integer after = freeRanges.get(end);
+        if (after != null) {
+            freeRanges.remove(end);
+            end += after;
+        }
+
+        freeRanges.put(start, end - start);
+    }
+
+    /**
+     * Is nothing allocated.
+     * @return true if the whole space is free
+     */
+    boolean isEmpty() {
+        Integer size = freeRanges.get(0);
+        return size != null && size == capacity;
+    }
+
+    /**
+     * Get the number of free ranges, how fragmented the space is.
+     * @return the number of free ranges
+     */
+    int getFreeRangeCount() {
+        return freeRanges.size();
+    }
+}
@@ -6,10 +6,13 @@ import ben.ui.resource.color.Color;
 import ben.ui.resource.shader.TextProgram;
 import ben.ui.resource.shader.TextureProgram;
 import ben.ui.math.Vec2i;
+import com.jogamp.common.nio.Buffers;
 import com.jogamp.opengl.GL2;
 import com.jogamp.opengl.util.texture.Texture;
 import javax.annotation.Nonnull;
 
+import java.nio.FloatBuffer;
+
 /**
  * The Symbol Renderer.
  * <p>
@@ -29,6 +32,12 @@ public final class SymbolRenderer {
     @Nonnull
     private final TextProgram program;
 
+    /**
+     * The positions of the vertices, a direct buffer that is refilled in place when the rectangle changes.
+     */
+    @Nonnull
+    private final FloatBuffer positions = Buffers.newDirectFloatBuffer(NUMBER_OF_VERTICES * 2);
+
     /**
      * The VAO.
      */
@@ -52,6 +61,18 @@ public final class SymbolRenderer {
      */
     private final int positionsBuffer;
 
+    /**
+     * The draw list.
+     */
+    @Nonnull
+    private final DrawList drawList;
+
+    /**
+     * The size of the rectangle.
+     */
+    @Nonnull
+    private Vec2i size;
+
     /**
      * Constructor.
      * @param gl the OpenGL interface
@@ -64,10 +85,11 @@ public final class SymbolRenderer {
         this.color = color;
 
         program = glResourceManager.getShaderManager().getProgram(TextProgram.class);
-        vertexArrayObject = new VertexArrayObject(gl);
+        drawList = glResourceManager.getDrawList();
+        this.size = size;
+        vertexArrayObject = new VertexArrayObject(gl, glResourceManager);
         this.texture = glResourceManager.getTextureManager().getTexture(texture);
-        float[] positions = createPositions(size);
-        positionsBuffer = vertexArrayObject.addBuffer(gl, TextureProgram.POSITION_LOCATION, positions, 2);
+        positionsBuffer = vertexArrayObject.addBuffer(gl, TextureProgram.POSITION_LOCATION, fillPositions(size), 2);
 
         float[] textureCoordinates = createTextureCoordinates();
         vertexArrayObject.addBuffer(gl, TextureProgram.TEXTURE_COORDINATE_LOCATION, textureCoordinates, 2);
@@ -87,11 +109,16 @@ public final class SymbolRenderer {
      * @param pmvMatrix the PMV matrix
      */
     public void draw(@Nonnull GL2 gl, @Nonnull PmvMatrix pmvMatrix) {
-        program.use(gl);
-        program.setPmvMatrix(gl, pmvMatrix);
-        program.setTexture(gl, texture);
-        program.setColor(gl, color);
-        vertexArrayObject.draw(gl, GL2.GL_TRIANGLE_FAN, NUMBER_OF_VERTICES);
+        if (drawList.isRecording()) {
+            drawList.addTexturedRect(pmvMatrix.getMvMatrix(), texture, size, color);
+        }
+        else {
+            program.use(gl);
+            program.setPmvMatrix(gl, pmvMatrix);
+            program.setTexture(gl, texture);
+            program.setColor(gl, color);
+            vertexArrayObject.draw(gl, GL2.GL_TRIANGLE_FAN, NUMBER_OF_VERTICES);
+        }
     }
 
     /**
@@ -100,18 +127,21 @@ public final class SymbolRenderer {
      * @param size the size of the rectangle
      */
     public void setSize(@Nonnull GL2 gl, @Nonnull Vec2i size) {
-        float[] positions = createPositions(size);
-        vertexArrayObject.updateBuffer(gl, positionsBuffer, positions);
+        this.size = size;
+        vertexArrayObject.updateBuffer(gl, positionsBuffer, fillPositions(size));
     }
 
     /**
-     * Create the positions array of the verticies for the rectangle.
+     * Fill the positions buffer with the verticies of the rectangle.
      * @param size the size of the rectangle
-     * @return the positions
+     * @return the positions buffer, ready to be uploaded
      */
     @Nonnull
-    private float[] createPositions(@Nonnull Vec2i size) {
-        return new float[] {0, 0, size.getX(), 0, size.getX(), size.getY(), 0, size.getY()};
+    private FloatBuffer fillPositions(@Nonnull Vec2i size) {
+        positions.clear();
+        positions.put(0).put(0).put(size.getX()).put(0).put(size.getX()).put(size.getY()).put(0).put(size.getY());
+        positions.flip();
+        return positions;
     }
 
     /**
@@ -2,34 +2,43 @@ package ben.ui.renderer;
 
 import ben.ui.math.PmvMatrix;
 import ben.ui.resource.GlResourceManager;
+import ben.ui.resource.IRepaintListener;
 import ben.ui.resource.color.Color;
+import ben.ui.resource.font.GlyphAtlas;
+import ben.ui.resource.font.ShapedText;
+import ben.ui.resource.font.TextShaper;
 import ben.ui.resource.shader.TextProgram;
-import ben.ui.resource.texture.UiTextures;
 import ben.ui.math.Vec2i;
-import com.jogamp.opengl.util.texture.Texture;
 import javax.annotation.Nonnull;
 
 import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.util.texture.Texture;
+
+import java.awt.Font;
 
 /**
  * The text renderer.
+ * <p>
+ *     Draws a line of text from a glyph atlas. The text is shaped by the text shaper, so setting text that has been
+ *     shown before doesn't lay it out again, and the glyph quads of the shaped text are shared.
+ * </p>
+ * <p>
+ *     Text may instead be drawn from a signed distance field atlas, which is shared by every size of a font and stays
+ *     sharp when the text is scaled or zoomed, at the cost of the hinting that small coverage text gets.
+ * </p>
  */
 public final class TextRenderer {
 
     /**
-     * The size in pixels of a character.
-     */
-    public static final int CHARACTER_SIZE = 8;
-
-    /**
-     * The number of characters in a row of the font sheet.
+     * The font that widgets draw their text in.
      */
-    private static final int CHARACTERS_PER_ROW = 16;
+    @Nonnull
+    public static final Font DEFAULT_FONT = TextShaper.createFont(Font.SANS_SERIF, Font.PLAIN, 13);
 
     /**
-     * The number of vertices per character.
+     * The height in pixels of a line of text in the default font.
      */
-    private static final int VERTICES_PER_CHARACTER = 4;
+    public static final int LINE_HEIGHT = TextShaper.getLineHeight(DEFAULT_FONT);
 
     /**
      * The VAO.
@@ -38,20 +47,32 @@ public final class TextRenderer {
     private final VertexArrayObject vertexArrayObject;
 
     /**
-     * The positions buffer ID.
+     * The positions buffer index.
      */
     private final int positionsBuffer;
 
     /**
-     * The texture coordinates buffer ID.
+     * The texture coordinates buffer index.
      */
     private final int textureCoordinatesBuffer;
 
     /**
-     * The font sheet texture.
+     * The font.
+     */
+    @Nonnull
+    private final Font font;
+
+    /**
+     * The glyph atlas of the font.
+     */
+    @Nonnull
+    private final GlyphAtlas atlas;
+
+    /**
+     * The resource manager, needed to upload new glyphs to the atlas texture and to repaint when the atlas grows.
      */
     @Nonnull
-    private final Texture texture;
+    private final GlResourceManager glResourceManager;
 
     /**
      * The shader program.
@@ -59,6 +80,12 @@ public final class TextRenderer {
     @Nonnull
     private final TextProgram program;
 
+    /**
+     * The draw list.
+     */
+    @Nonnull
+    private final DrawList drawList;
+
     /**
      * The top left position of the text.
      */
@@ -72,13 +99,38 @@ public final class TextRenderer {
     private Color color;
 
     /**
-     * The text to be rendered.
+     * The shaped text.
+     */
+    @Nonnull
+    private ShapedText shapedText;
+
+    /**
+     * The positions of the glyph vertices, kept for the draw list.
      */
     @Nonnull
-    private String text;
+    private float[] positions;
+
+    /**
+     * The texture coordinates of the glyph vertices, kept for the draw list.
+     */
+    @Nonnull
+    private float[] textureCoordinates;
+
+    /**
+     * The number of glyph quads.
+     */
+    private int quadCount;
+
+    /**
+     * The generation of the atlas that the buffers were built for.
+     */
+    private int atlasGeneration;
 
     /**
      * Constructor.
+     * <p>
+     *     Draws the text in the default font.
+     * </p>
      * @param gl the OpenGL interface
      * @param glResourceManager the resource manager
      * @param text the text to be rendered
@@ -86,33 +138,87 @@ public final class TextRenderer {
      * @param color the colour of the text
      */
     public TextRenderer(@Nonnull GL2 gl, @Nonnull GlResourceManager glResourceManager, @Nonnull String text, @Nonnull Vec2i pos, @Nonnull Color color) {
-        this.text = text;
+        this(gl, glResourceManager, text, DEFAULT_FONT, pos, color);
+    }
+
+    /**
+     * Constructor.
+     * @param gl the OpenGL interface
+     * @param glResourceManager the resource manager
+     * @param text the text to be rendered
+     * @param font the font, create it with the text shaper to get kerning
+     * @param pos the top left position of the text
+     * @param color the colour of the text
+     */
+    public TextRenderer(@Nonnull GL2 gl, @Nonnull GlResourceManager glResourceManager, @Nonnull String text, @Nonnull Font font,
+            @Nonnull Vec2i pos, @Nonnull Color color) {
+        this(gl, glResourceManager, text, font, pos, color, false);
+    }
+
+    /**
+     * Constructor.
+     * @param gl the OpenGL interface
+     * @param glResourceManager the resource manager
+     * @param text the text to be rendered
+     * @param font the font, create it with the text shaper to get kerning
+     * @param pos the top left position of the text
+     * @param color the colour of the text
+     * @param distanceField true to draw from a signed distance field atlas
+     */
+    public TextRenderer(@Nonnull GL2 gl, @Nonnull GlResourceManager glResourceManager, @Nonnull String text, @Nonnull Font font,
+            @Nonnull Vec2i pos, @Nonnull Color color, boolean distanceField) {
         this.pos = pos;
         this.color = color;
+        this.font = font;
 
-        vertexArrayObject = new VertexArrayObject(gl);
-        texture = glResourceManager.getTextureManager().getTexture(UiTextures.FONT);
+        vertexArrayObject = new VertexArrayObject(gl, glResourceManager);
+        if (distanceField) {
+            atlas = glResourceManager.getFontManager().getDistanceFieldAtlas(font);
+        }
+        else {
+            atlas = glResourceManager.getFontManager().getAtlas(font);
+        }
+        this.glResourceManager = glResourceManager;
         program = glResourceManager.getShaderManager().getProgram(TextProgram.class);
+        drawList = glResourceManager.getDrawList();
 
-        float[] positions = createPositions();
-        float[] textureCoordinates = createTextureCoordinates();
+        shapedText = TextShaper.shape(font, text);
+        updateQuads();
 
         positionsBuffer = vertexArrayObject.addBuffer(gl, TextProgram.POSITION_LOCATION, positions, 2);
         textureCoordinatesBuffer = vertexArrayObject.addBuffer(gl, TextProgram.TEXTURE_COORDINATE_LOCATION, textureCoordinates, 2);
     }
 
+    /**
+     * Get the width of text in the default font.
+     * @param text the text
+     * @return the width in pixels, rounded up
+     */
+    public static int getTextWidth(@Nonnull String text) {
+        return (int) Math.ceil(TextShaper.shape(DEFAULT_FONT, text).getWidth());
+    }
+
+    /**
+     * Get the position of the caret before a character of text in the default font.
+     * @param text the text
+     * @param index the index of the character, the length of the text for the end
+     * @return the x position in pixels from the start of the text
+     */
+    public static int getCaretX(@Nonnull String text, int index) {
+        return Math.round(TextShaper.shape(DEFAULT_FONT, text).getCaretX(index));
+    }
+
     /**
      * Set the text to be rendered.
      * @param gl the OpenGL interface
      * @param text the text to be rendered
      */
     public void setText(@Nonnull GL2 gl, @Nonnull String text) {
-        this.text = text;
-        float[] positions = createPositions();
-        float[] textureCoordinates = createTextureCoordinates();
-
-        vertexArrayObject.updateBuffer(gl, positionsBuffer, positions);
-        vertexArrayObject.updateBuffer(gl, textureCoordinatesBuffer, textureCoordinates);
+        ShapedText newShapedText = TextShaper.shape(font, text);
+        if (newShapedText != shapedText) {
+            shapedText = newShapedText;
+            updateBuffers(gl);
+        }
     }
 
     /**
@@ -129,73 +235,60 @@ public final class TextRenderer {
      * @param pmvMatrix the PMV matrix
      */
     public void draw(@Nonnull GL2 gl, @Nonnull PmvMatrix pmvMatrix) {
-        program.use(gl);
-        program.setPmvMatrix(gl, pmvMatrix);
-        program.setTexture(gl, texture);
-        program.setColor(gl, color);
-        vertexArrayObject.draw(gl, GL2.GL_TRIANGLE_STRIP, text.length() * VERTICES_PER_CHARACTER);
+        if (atlas.getGeneration() != atlasGeneration) {
+            // The atlas has grown since the buffers were built, so the texture coordinates have changed.
+            updateBuffers(gl);
+        }
+
+        if (quadCount > 0) {
+            Texture texture = atlas.getTexture(gl, glResourceManager.getGlState());
+            pmvMatrix.push();
+            pmvMatrix.translate(pos.getX(), pos.getY(), 0);
+            if (drawList.isRecording()) {
+                drawList.addGlyphs(pmvMatrix.getMvMatrix(), texture, positions, textureCoordinates, quadCount, color,
+                        atlas.isDistanceField());
+            }
+            else {
+                program.use(gl);
+                program.setPmvMatrix(gl, pmvMatrix);
+                program.setTexture(gl, texture, atlas.isDistanceField());
+                program.setColor(gl, color);
+                vertexArrayObject.draw(gl, GL2.GL_TRIANGLES, quadCount * ShapedText.VERTICES_PER_GLYPH);
+            }
+            pmvMatrix.pop();
+        }
     }
 
     /**
-     * Create the positions array.
-     * <p>
-     *     There are two triangles per character.
-     * </p>
-     * @return the positions array
+     * Update the quads and upload them to the buffers.
+     * @param gl the OpenGL interface
      */
-    @Nonnull
-    private float[] createPositions() {
-        int numberOfVerticies = text.length() * VERTICES_PER_CHARACTER;
-        float[] positions = new float[numberOfVerticies * 2];
-
-        int j = 0;
-
-        for (int i = 0; i < text.length(); i++) {
-            positions[j++] = pos.getX() + i * CHARACTER_SIZE;
-            positions[j++] = pos.getY();
-
-            positions[j++] = pos.getX() + i * CHARACTER_SIZE;
-            positions[j++] = pos.getY() + CHARACTER_SIZE;
-
-            positions[j++] = pos.getX() + (i + 1) * CHARACTER_SIZE;
-            positions[j++] = pos.getY();
-
-            positions[j++] = pos.getX() + (i + 1) * CHARACTER_SIZE;
-            positions[j++] = pos.getY() + CHARACTER_SIZE;
-        }
-
-        return positions;
+    private void updateBuffers(@Nonnull GL2 gl) {
+        updateQuads();
+        vertexArrayObject.updateBuffer(gl, positionsBuffer, positions);
+        vertexArrayObject.updateBuffer(gl, textureCoordinatesBuffer, textureCoordinates);
     }
 
     /**
-     * Create the texture coordinates array.
-     * @return the texture coordinates array
+     * Get the quads of the shaped text for the atlas.
+     * <p>
+     *     New glyphs are rasterized into the atlas, which may grow.
+     * </p>
      */
-    @Nonnull
-    private float[] createTextureCoordinates() {
-        int numberOfVerticies = text.length() * VERTICES_PER_CHARACTER;
-        float[] textureCoordinates = new float[numberOfVerticies * 2];
-
-        int j = 0;
-
-        for (int i = 0; i < text.length(); i++) {
-            char code = text.charAt(i);
-            int x = code % CHARACTERS_PER_ROW;
-            int y = code / CHARACTERS_PER_ROW;
-
-            textureCoordinates[j++] = x / (float) CHARACTERS_PER_ROW;
-            textureCoordinates[j++] = 1 - y / (float) CHARACTERS_PER_ROW;
-
-            textureCoordinates[j++] = x / (float) CHARACTERS_PER_ROW;
-            textureCoordinates[j++] = 1 - (y + 1) / (float) CHARACTERS_PER_ROW;
-
-            textureCoordinates[j++] = (x + 1) / (float) CHARACTERS_PER_ROW;
-            textureCoordinates[j++] = 1 - y / (float) CHARACTERS_PER_ROW;
-
-            textureCoordinates[j++] = (x + 1) / (float) CHARACTERS_PER_ROW;
-            textureCoordinates[j++] = 1 - (y + 1) / (float) CHARACTERS_PER_ROW;
+    private void updateQuads() {
+        int previousGeneration = atlas.getGeneration();
+        positions = shapedText.getPositions(atlas);
+        textureCoordinates = shapedText.getTextureCoordinates(atlas);
+        quadCount = shapedText.getQuadCount(atlas);
+        atlasGeneration = atlas.getGeneration();
+
+        if (atlasGeneration != previousGeneration) {
+            // Text that has already been drawn this frame used the old texture coordinates.
+            IRepaintListener repaintListener = glResourceManager.getRepaintListener();
+            if (repaintListener != null) {
+                repaintListener.repaintRequested();
+            }
         }
-        return textureCoordinates;
     }
 
     /**
@@ -3,10 +3,14 @@ package ben.ui.renderer;
 import ben.ui.math.PmvMatrix;
 import ben.ui.math.Vec2i;
 import ben.ui.resource.GlResourceManager;
+import ben.ui.resource.color.Color;
 import ben.ui.resource.shader.TextureProgram;
 import com.jogamp.opengl.util.texture.Texture;
 import javax.annotation.Nonnull;
 
+import java.nio.FloatBuffer;
+
+import com.jogamp.common.nio.Buffers;
 import com.jogamp.opengl.GL2;
 
 /**
@@ -28,6 +32,12 @@ public final class TextureRenderer {
     @Nonnull
     private final TextureProgram program;
 
+    /**
+     * The positions of the vertices, a direct buffer that is refilled in place when the rectangle changes.
+     */
+    @Nonnull
+    private final FloatBuffer positions = Buffers.newDirectFloatBuffer(NUMBER_OF_VERTICES * 2);
+
     /**
      * The VAO.
      */
@@ -45,6 +55,18 @@ public final class TextureRenderer {
      */
     private final int positionsBuffer;
 
+    /**
+     * The draw list.
+     */
+    @Nonnull
+    private final DrawList drawList;
+
+    /**
+     * The size of the rectangle.
+     */
+    @Nonnull
+    private Vec2i size;
+
     /**
      * Constructor.
      * @param gl the OpenGL interface
@@ -53,11 +75,23 @@ public final class TextureRenderer {
      * @param texture the texture of the rectangle
      */
     public TextureRenderer(@Nonnull GL2 gl, @Nonnull GlResourceManager glResourceManager, @Nonnull Vec2i size, @Nonnull Enum<?> texture) {
+        this(gl, glResourceManager, size, glResourceManager.getTextureManager().getTexture(texture));
+    }
+
+    /**
+     * Constructor.
+     * @param gl the OpenGL interface
+     * @param glResourceManager the resource manager
+     * @param size the size of the rectangle
+     * @param texture the texture of the rectangle, e.g. the texture of a frame buffer object
+     */
+    public TextureRenderer(@Nonnull GL2 gl, @Nonnull GlResourceManager glResourceManager, @Nonnull Vec2i size, @Nonnull Texture texture) {
         program = glResourceManager.getShaderManager().getProgram(TextureProgram.class);
-        vertexArrayObject = new VertexArrayObject(gl);
-        this.texture = glResourceManager.getTextureManager().getTexture(texture);
-        float[] positions = createPositions(size);
-        positionsBuffer = vertexArrayObject.addBuffer(gl, TextureProgram.POSITION_LOCATION, positions, 2);
+        drawList = glResourceManager.getDrawList();
+        this.size = size;
+        vertexArrayObject = new VertexArrayObject(gl, glResourceManager);
+        this.texture = texture;
+        positionsBuffer = vertexArrayObject.addBuffer(gl, TextureProgram.POSITION_LOCATION, fillPositions(size), 2);
 
         float[] textureCoordinates = createTextureCoordinates();
         vertexArrayObject.addBuffer(gl, TextureProgram.TEXTURE_COORDINATE_LOCATION, textureCoordinates, 2);
@@ -69,10 +103,15 @@ public final class TextureRenderer {
      * @param pmvMatrix the PMV matrix
      */
     public void draw(@Nonnull GL2 gl, @Nonnull PmvMatrix pmvMatrix) {
-        program.use(gl);
-        program.setPmvMatrix(gl, pmvMatrix);
-        program.setTexture(gl, texture);
-        vertexArrayObject.draw(gl, GL2.GL_TRIANGLE_FAN, NUMBER_OF_VERTICES);
+        if (drawList.isRecording()) {
+            drawList.addTexturedRect(pmvMatrix.getMvMatrix(), texture, size, Color.WHITE);
+        }
+        else {
+            program.use(gl);
+            program.setPmvMatrix(gl, pmvMatrix);
+            program.setTexture(gl, texture);
+            vertexArrayObject.draw(gl, GL2.GL_TRIANGLE_FAN, NUMBER_OF_VERTICES);
+        }
     }
 
     /**
@@ -81,18 +120,29 @@ public final class TextureRenderer {
      * @param size the size of the rectangle
      */
     public void setSize(@Nonnull GL2 gl, @Nonnull Vec2i size) {
-        float[] positions = createPositions(size);
-        vertexArrayObject.updateBuffer(gl, positionsBuffer, positions);
+        this.size = size;
+        vertexArrayObject.updateBuffer(gl, positionsBuffer, fillPositions(size));
+    }
+
+    /**
+     * Remove the renderers VAO.
+     * @param gl the OpenGL interface
+     */
+    public void remove(@Nonnull GL2 gl) {
+        vertexArrayObject.remove(gl);
     }
 
     /**
-     * Create the positions array of the verticies for the rectangle.
+     * Fill the positions buffer with the verticies of the rectangle.
      * @param size the size of the rectangle
-     * @return the positions
+     * @return the positions buffer, ready to be uploaded
      */
     @Nonnull
-    private float[] createPositions(@Nonnull Vec2i size) {
-        return new float[] {0, 0, size.getX(), 0, size.getX(), size.getY(), 0, size.getY()};
+    private FloatBuffer fillPositions(@Nonnull Vec2i size) {
+        positions.clear();
+        positions.put(0).put(0).put(size.getX()).put(0).put(size.getX()).put(size.getY()).put(0).put(size.getY());
+        positions.flip();
+        return positions;
     }
 
     /**
@@ -1,24 +1,27 @@
 package ben.ui.renderer;
 
-import com.jogamp.common.nio.Buffers;
+import ben.ui.resource.GlResourceManager;
+import ben.ui.resource.GlState;
+import ben.ui.resource.RenderStats;
 import javax.annotation.Nonnull;
 
 import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2;
-import java.nio.Buffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Vertex Array Object.
+ * <p>
+ * Binds through the OpenGL state cache and leaves the VAO bound, so drawing the same VAO again doesn't rebind it.
+ * <p>
+ * The vertex data is sub-allocated from the buffer arena rather than each VAO having its own buffer objects. Updates
+ * that fit in the allocated range are written in place, only data that has grown moves to a new range.
  */
 public final class VertexArrayObject {
 
-    /**
-     * The maximum number of buffers allowed for a VAO.
-     */
-    private static final int MAXIMUM_BUFFERS = 10;
-
     /**
      * The ID of the VAO.
      */
@@ -27,15 +30,38 @@ public final class VertexArrayObject {
     /**
      * The buffers added to this VAO.
      */
-    private final IntBuffer buffers = IntBuffer.allocate(MAXIMUM_BUFFERS);
+    @Nonnull
+    private final List<VertexBuffer> buffers = new ArrayList<>();
+
+    /**
+     * The OpenGL state cache.
+     */
+    @Nonnull
+    private final GlState glState;
+
+    /**
+     * The buffer arena that the vertex data is allocated from.
+     */
+    @Nonnull
+    private final BufferArena bufferArena;
+
+    /**
+     * Counts the draw calls.
+     */
+    @Nonnull
+    private final RenderStats renderStats;
 
     /**
      * Constructor.
      * <p>
      * Creates the VAO.
      * @param gl the OpenGL interface
+     * @param glResourceManager the resource manager
      */
-    public VertexArrayObject(@Nonnull GL2 gl) {
+    public VertexArrayObject(@Nonnull GL2 gl, @Nonnull GlResourceManager glResourceManager) {
+        glState = glResourceManager.getGlState();
+        bufferArena = glResourceManager.getBufferArena();
+        renderStats = glResourceManager.getRenderStats();
         id = genVertexArray(gl);
         assert id != -1;
     }
@@ -46,38 +72,88 @@ public final class VertexArrayObject {
      * @param location the location of the attribute
      * @param data the data
      * @param size the number of elements per vertex
-     * @return the buffer ID
+     * @return the buffer index, used to update it
      */
     public int addBuffer(@Nonnull GL2 gl, int location, @Nonnull float[] data, int size) {
-        Buffer dataBuffer = FloatBuffer.wrap(data);
-        int buffer = genBuffer(gl);
-        assert buffers.position() < MAXIMUM_BUFFERS;
-        buffers.put(buffer);
-        gl.glBindVertexArray(id);
-        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffer);
-        gl.glBufferData(GL.GL_ARRAY_BUFFER, dataBuffer.limit() * Buffers.SIZEOF_FLOAT, dataBuffer, GL.GL_DYNAMIC_DRAW);
+        return addBuffer(gl, location, size, bufferArena.allocate(gl, data));
+    }
+
+    /**
+     * Add a buffer to this VAO.
+     * @param gl the OpenGL interface
+     * @param location the location of the attribute
+     * @param data the data, from its position to its limit; should be direct
+     * @param size the number of elements per vertex
+     * @return the buffer index, used to update it
+     */
+    public int addBuffer(@Nonnull GL2 gl, int location, @Nonnull FloatBuffer data, int size) {
+        return addBuffer(gl, location, size, bufferArena.allocate(gl, data));
+    }
+
+    /**
+     * Add a buffer that has been allocated to this VAO.
+     * @param gl the OpenGL interface
+     * @param location the location of the attribute
+     * @param size the number of elements per vertex
+     * @param allocation the range that holds the data
+     * @return the buffer index
+     */
+    private int addBuffer(@Nonnull GL2 gl, int location, int size, @Nonnull BufferArena.Allocation allocation) {
+        VertexBuffer buffer = new VertexBuffer(location, size, allocation);
+        buffers.add(buffer);
+        glState.bindVertexArray(gl, id);
         gl.glEnableVertexAttribArray(location);
-        gl.glVertexAttribPointer(location, size, GL.GL_FLOAT, false, 0, 0);
-        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
-        gl.glBindVertexArray(0);
-        return buffer;
+        setAttribPointer(gl, buffer);
+        return buffers.size() - 1;
     }
 
     /**
      * Update a buffer.
      * <p>
-     * Overwrites the entire buffer with new data.
+     * Overwrites the buffer with new data, in place if it fits.
      * @param gl the OpenGL interface
-     * @param buffer the buffer ID
+     * @param index the buffer index
      * @param data the data
      */
-    public void updateBuffer(@Nonnull GL2 gl, int buffer, @Nonnull float[] data) {
-        Buffer dataBuffer = FloatBuffer.wrap(data);
-        gl.glBindVertexArray(id);
-        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffer);
-        gl.glBufferData(GL.GL_ARRAY_BUFFER, dataBuffer.limit() * Buffers.SIZEOF_FLOAT, dataBuffer, GL.GL_DYNAMIC_DRAW);
-        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
-        gl.glBindVertexArray(0);
+    public void updateBuffer(@Nonnull GL2 gl, int index, @Nonnull float[] data) {
+        VertexBuffer buffer = buffers.get(index);
+        if (buffer.allocation.fits(data.length)) {
+            bufferArena.upload(gl, buffer.allocation, data);
+        }
+        else {
+            reallocate(gl, buffer, bufferArena.allocate(gl, data));
+        }
+    }
+
+    /**
+     * Update a buffer.
+     * <p>
+     * Overwrites the buffer with new data, in place if it fits.
+     * @param gl the OpenGL interface
+     * @param index the buffer index
+     * @param data the data, from its position to its limit; should be direct
+     */
+    public void updateBuffer(@Nonnull GL2 gl, int index, @Nonnull FloatBuffer data) {
+        VertexBuffer buffer = buffers.get(index);
+        if (buffer.allocation.fits(data.remaining())) {
+            bufferArena.upload(gl, buffer.allocation, data);
+        }
+        else {
+            reallocate(gl, buffer, bufferArena.allocate(gl, data));
+        }
+    }
+
+    /**
+     * Move a buffer to a new range, freeing the old one.
+     * @param gl the OpenGL interface
+     * @param buffer the buffer
+     * @param allocation the new range, already filled
+     */
+    private void reallocate(@Nonnull GL2 gl, @Nonnull VertexBuffer buffer, @Nonnull BufferArena.Allocation allocation) {
+        bufferArena.free(gl, buffer.allocation);
+        buffer.allocation = allocation;
+        glState.bindVertexArray(gl, id);
+        setAttribPointer(gl, buffer);
     }
 
     /**
@@ -87,9 +163,20 @@ public final class VertexArrayObject {
      * @param count the number of indicies to render
      */
     public void draw(@Nonnull GL2 gl, int mode, int count) {
-        gl.glBindVertexArray(id);
+        glState.bindVertexArray(gl, id);
         gl.glDrawArrays(mode, 0, count);
-        gl.glBindVertexArray(0);
+        renderStats.drawCall(count);
+    }
+
+    /**
+     * Point the attribute of a buffer at its range, the VAO must be bound.
+     * @param gl the OpenGL interface
+     * @param buffer the buffer
+     */
+    private static void setAttribPointer(@Nonnull GL2 gl, @Nonnull VertexBuffer buffer) {
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffer.allocation.getBuffer());
+        gl.glVertexAttribPointer(buffer.location, buffer.size, GL.GL_FLOAT, false, 0, buffer.allocation.getOffset());
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
     }
 
     /**
@@ -104,24 +191,49 @@ public final class VertexArrayObject {
     }
 
     /**
-     * Generate a buffer.
+     * Remove the VAO and free its buffers.
      * @param gl the OpenGL interface
-     * @return the buffer ID
      */
-    private static int genBuffer(@Nonnull GL2 gl) {
-        IntBuffer buffer = IntBuffer.allocate(1);
-        gl.glGenBuffers(1, buffer);
-        return buffer.get();
+    public void remove(GL2 gl) {
+        for (VertexBuffer buffer : buffers) {
+            bufferArena.free(gl, buffer.allocation);
+        }
+        buffers.clear();
+        gl.glDeleteVertexArrays(1, new int[]{id}, 0);
+        glState.vertexArrayDeleted(id);
     }
 
     /**
-     * Remove the VAO and its buffers.
-     * @param gl the OpenGL interface
+     * A buffer of the VAO; an attribute and the range of the arena that holds its data.
      */
-    public void remove(GL2 gl) {
-        int n = buffers.position();
-        buffers.rewind();
-        gl.glDeleteBuffers(n, buffers);
-        gl.glDeleteVertexArrays(1, new int[]{id}, 0);
+    private static final class VertexBuffer {
+
+        /**
+         * The location of the attribute.
+         */
+        private final int location;
+
+        /**
+         * The number of elements per vertex.
+         */
+        private final int size;
+
+        /**
+         * The range that holds the data.
+         */
+        @Nonnull
+        private BufferArena.Allocation allocation;
+
+        /**
+         * Constructor.
+         * @param location the location of the attribute
+         * @param size the number of elements per vertex
+         * @param allocation the range that holds the data
+         */
+        private VertexBuffer(int location, int size, @Nonnull BufferArena.Allocation allocation) {
+            this.location = location;
+            this.size = size;
+            this.allocation = allocation;
+        }
     }
 }
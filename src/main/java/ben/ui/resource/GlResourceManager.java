@@ -1,9 +1,13 @@
 package ben.ui.resource;
 
+import ben.ui.renderer.BufferArena;
+import ben.ui.renderer.DrawList;
 import ben.ui.resource.color.ColorManager;
+import ben.ui.resource.font.FontManager;
 import ben.ui.resource.shader.ShaderManager;
 import ben.ui.resource.texture.TextureManager;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * The resource manager.
@@ -12,6 +16,17 @@ import javax.annotation.Nonnull;
  */
 public class GlResourceManager {
 
+    /**
+     * The OpenGL state cache.
+     */
+    private final GlState glState = new GlState();
+
+    /**
+     * Counts the work that is sent to OpenGL.
+     */
+    @Nonnull
+    private final RenderStats renderStats = new RenderStats();
+
     /**
      * The texture manager.
      */
@@ -20,13 +35,67 @@ public class GlResourceManager {
     /**
      * The shader manager.
      */
-    private final ShaderManager shaderManager = new ShaderManager();
+    private final ShaderManager shaderManager = new ShaderManager(glState);
 
     /**
      * The color manager.
      */
     private final ColorManager colorManager = new ColorManager();
 
+    /**
+     * The font manager.
+     */
+    private final FontManager fontManager = new FontManager();
+
+    /**
+     * The buffer arena that vertex data is allocated from.
+     */
+    private final BufferArena bufferArena = new BufferArena(renderStats);
+
+    /**
+     * The draw list that the 2D renderers batch into.
+     */
+    private final DrawList drawList = new DrawList(shaderManager, glState, renderStats);
+
+    /**
+     * Measures the GPU time of each widget.
+     */
+    @Nonnull
+    private final GpuProfiler gpuProfiler = new GpuProfiler(drawList);
+
+    /**
+     * The listener that is told when a repaint is needed, null if nothing is listening.
+     */
+    @Nullable
+    private volatile IRepaintListener repaintListener;
+
+    /**
+     * Get the OpenGL state cache.
+     * @return the state cache
+     */
+    @Nonnull
+    public final GlState getGlState() {
+        return glState;
+    }
+
+    /**
+     * Get the render stats.
+     * @return the render stats
+     */
+    @Nonnull
+    public final RenderStats getRenderStats() {
+        return renderStats;
+    }
+
+    /**
+     * Get the buffer arena.
+     * @return the buffer arena
+     */
+    @Nonnull
+    public final BufferArena getBufferArena() {
+        return bufferArena;
+    }
+
     /**
      * Get the texture manager.
      * @return the texture manager
@@ -53,4 +122,52 @@ public class GlResourceManager {
     public final ColorManager getColorManager() {
         return colorManager;
     }
+
+    /**
+     * Get the font manager.
+     * @return the font manager
+     */
+    @Nonnull
+    public final FontManager getFontManager() {
+        return fontManager;
+    }
+
+    /**
+     * Get the draw list.
+     * @return the draw list
+     */
+    @Nonnull
+    public final DrawList getDrawList() {
+        return drawList;
+    }
+
+    /**
+     * Get the GPU profiler.
+     * @return the GPU profiler
+     */
+    @Nonnull
+    public final GpuProfiler getGpuProfiler() {
+        return gpuProfiler;
+    }
+
+    /**
+     * Get the listener that is told when a repaint is needed.
+     * <p>
+     *     Widgets take the listener when they are drawn, so a pane can intercept the requests of its children by
+     *     swapping the listener while it draws them.
+     * </p>
+     * @return the listener, null if nothing is listening
+     */
+    @Nullable
+    public final IRepaintListener getRepaintListener() {
+        return repaintListener;
+    }
+
+    /**
+     * Set the listener that is told when a repaint is needed.
+     * @param repaintListener the listener, null if nothing is listening
+     */
+    public final void setRepaintListener(@Nullable IRepaintListener repaintListener) {
+        this.repaintListener = repaintListener;
+    }
 }
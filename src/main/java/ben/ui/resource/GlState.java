@@ -0,0 +1,167 @@
+package ben.ui.resource;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.util.texture.Texture;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * OpenGL State Cache.
+ * <p>
+ *     Remembers the program, texture and VAO that are bound in a context so that binding the same one again can be
+ *     skipped. Everything that changes these bindings must go through the cache, or call {@link #invalidate()}
+ *     afterwards.
+ * </p>
+ * <p>
+ *     Counts the binds that were issued and skipped, so the saving can be measured.
+ * </p>
+ */
+public final class GlState {
+
+    /**
+     * The texture unit that textures are bound to.
+     */
+    private static final int TEXTURE_UNIT = GL.GL_TEXTURE0;
+
+    /**
+     * Marks a cached ID as unknown.
+     */
+    private static final int UNKNOWN = -1;
+
+    /**
+     * The program in use.
+     */
+    private int program = UNKNOWN;
+
+    /**
+     * The bound VAO.
+     */
+    private int vertexArray = UNKNOWN;
+
+    /**
+     * Is the texture unit known to be active.
+     */
+    private boolean textureUnitActive;
+
+    /**
+     * The bound texture, null if unknown.
+     */
+    @Nullable
+    private Texture texture;
+
+    /**
+     * The number of binds that were issued.
+     */
+    private long issuedBinds;
+
+    /**
+     * The number of binds that were skipped.
+     */
+    private long skippedBinds;
+
+    /**
+     * Use a program.
+     * @param gl the OpenGL interface
+     * @param programId the ID of the program
+     */
+    public void useProgram(@Nonnull GL2 gl, int programId) {
+        if (program == programId) {
+            skippedBinds++;
+        }
+        else {
+            gl.glUseProgram(programId);
+            program = programId;
+            issuedBinds++;
+        }
+    }
+
+    /**
+     * Bind a texture to the first texture unit.
+     * @param gl the OpenGL interface
+     * @param newTexture the texture
+     */
+    public void bindTexture(@Nonnull GL2 gl, @Nonnull Texture newTexture) {
+        if (textureUnitActive) {
+            skippedBinds++;
+        }
+        else {
+            gl.glActiveTexture(TEXTURE_UNIT);
+            textureUnitActive = true;
+            issuedBinds++;
+        }
+
+        if (texture == newTexture) {
+            skippedBinds++;
+        }
+        else {
+            newTexture.enable(gl);
+            newTexture.bind(gl);
+            texture = newTexture;
+            issuedBinds++;
+        }
+    }
+
+    /**
+     * Bind a VAO.
+     * @param gl the OpenGL interface
+     * @param vertexArrayId the ID of the VAO
+     */
+    public void bindVertexArray(@Nonnull GL2 gl, int vertexArrayId) {
+        if (vertexArray == vertexArrayId) {
+            skippedBinds++;
+        }
+        else {
+            gl.glBindVertexArray(vertexArrayId);
+            vertexArray = vertexArrayId;
+            issuedBinds++;
+        }
+    }
+
+    /**
+     * Forget a VAO that is being deleted, so that a new VAO that reuses its ID gets bound.
+     * @param vertexArrayId the ID of the VAO
+     */
+    public void vertexArrayDeleted(int vertexArrayId) {
+        if (vertexArray == vertexArrayId) {
+            vertexArray = UNKNOWN;
+        }
+    }
+
+    /**
+     * Forget everything that is bound.
+     * <p>
+     *     Call this when something outside of the cache may have changed the bindings, e.g. at the start of a frame.
+     * </p>
+     */
+    public void invalidate() {
+        program = UNKNOWN;
+        vertexArray = UNKNOWN;
+        textureUnitActive = false;
+        texture = null;
+    }
+
+    /**
+     * Get the number of binds that were issued to OpenGL.
+     * @return the number of issued binds
+     */
+    public long getIssuedBinds() {
+        return issuedBinds;
+    }
+
+    /**
+     * Get the number of binds that were skipped because the state was already set.
+     * @return the number of skipped binds
+     */
+    public long getSkippedBinds() {
+        return skippedBinds;
+    }
+
+    /**
+     * Reset the issued and skipped counters.
+     */
+    public void resetCounters() {
+        issuedBinds = 0;
+        skippedBinds = 0;
+    }
+}
@@ -0,0 +1,154 @@
+package ben.ui.resource;
+
+import javax.annotation.Nonnull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GPU Profile.
+ * <p>
+ *     The GPU time of a section of a frame, e.g. a widget and its descendants, and of the sections inside it. Sections
+ *     with the same name and parent are merged, so a list of buttons with no names is one section with many calls.
+ * </p>
+ * <p>
+ *     Built by the profiler before it is published, never changed after.
+ * </p>
+ */
+public final class GpuProfile {
+
+    /**
+     * The number of nanoseconds in a millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    /**
+     * The name of the section.
+     */
+    @Nonnull
+    private final String name;
+
+    /**
+     * The sections inside this one, by name in the order they were first drawn.
+     */
+    @Nonnull
+    private final Map<String, GpuProfile> children = new LinkedHashMap<>();
+
+    /**
+     * The total GPU time of the section in nanoseconds, including the sections inside it.
+     */
+    private long nanos;
+
+    /**
+     * The number of times the section was drawn.
+     */
+    private int calls;
+
+    /**
+     * Constructor.
+     * @param name the name of the section
+     */
+    GpuProfile(@Nonnull String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get a section inside this one, adding it if needed.
+     * @param childName the name of the section
+     * @return the section
+     */
+    @Nonnull
+    GpuProfile child(@Nonnull String childName) {
+        GpuProfile child = children.get(childName);
+        if (child == null) {
+            child = new GpuProfile(childName);
+            children.put(childName, child);
+        }
+        return child;
+    }
+
+    /**
+     * Add a call to the section.
+     * @param callNanos the GPU time of the call in nanoseconds
+     */
+    void add(long callNanos) {
+        nanos += callNanos;
+        calls++;
+    }
+
+    /**
+     * Get the name of the section.
+     * @return the name
+     */
+    @Nonnull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the total GPU time of the section, including the sections inside it.
+     * @return the time in nanoseconds
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Get the GPU time of the section that isn't in any of the sections inside it.
+     * @return the time in nanoseconds
+     */
+    public long getSelfNanos() {
+        long self = nanos;
+        for (GpuProfile child : children.values()) {
+            self -= child.nanos;
+        }
+        return Math.max(self, 0);
+    }
+
+    /**
+     * Get the number of times the section was drawn.
+     * @return the number of calls
+     */
+    public int getCalls() {
+        return calls;
+    }
+
+    /**
+     * Get the sections inside this one.
+     * @return the sections in the order they were first drawn
+     */
+    @Nonnull
+    public Collection<GpuProfile> getChildren() {
+        return Collections.unmodifiableCollection(children.values());
+    }
+
+    /**
+     * Get the profile as an indented tree, one section per line.
+     * @return the tree
+     */
+    @Nonnull
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        append(builder, 0);
+        return builder.toString();
+    }
+
+    /**
+     * Append the section and the sections inside it to a tree.
+     * @param builder the tree
+     * @param depth the depth of the section
+     */
+    private void append(@Nonnull StringBuilder builder, int depth) {
+        for (int i = 0; i < depth; i++) {
+            builder.append("  ");
+        }
+        builder.append(String.format("%s %.3f ms (self %.3f ms) x%d%n", name, nanos / NANOS_PER_MILLI,
+                getSelfNanos() / NANOS_PER_MILLI, calls));
+        for (GpuProfile child : children.values()) {
+            child.append(builder, depth + 1);
+        }
+    }
+}
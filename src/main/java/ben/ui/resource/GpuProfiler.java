@@ -0,0 +1,368 @@
+package ben.ui.resource;
+
+import ben.ui.renderer.DrawList;
+import com.jogamp.opengl.GL2;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * GPU Profiler.
+ * <p>
+ *     Measures how long the GPU spends on each widget and its descendants. Each section of a frame is bracketed by
+ *     two timestamp queries; timestamps rather than elapsed time queries because the sections are nested, and only one
+ *     elapsed time query can be active at a time.
+ * </p>
+ * <p>
+ *     The results of a frame aren't read until the ring of frames comes back around to it, a few frames later, so
+ *     reading them doesn't stall the pipeline. A frame whose results still aren't ready by then is dropped rather than
+ *     waited for.
+ * </p>
+ * <p>
+ *     Batching would put all of the GPU work in the last section, so while profiling the draw list is flushed at the
+ *     start and end of each section. This adds draw calls, so the profile shows where the time goes rather than how
+ *     long the frame takes without the profiler.
+ * </p>
+ * <p>
+ *     Off by default. Does nothing if the context doesn't support timestamp queries, e.g. some software renderers.
+ *     Only used on the OpenGL thread, apart from enabling it and getting the profile.
+ * </p>
+ */
+public final class GpuProfiler {
+
+    /**
+     * The Logger.
+     */
+    @Nonnull
+    private static final Logger LOGGER = LogManager.getLogger(GpuProfiler.class);
+
+    /**
+     * The number of frames that can be waiting for their results.
+     */
+    private static final int FRAMES_IN_FLIGHT = 4;
+
+    /**
+     * The number of sections that there is room for before the arrays grow.
+     */
+    private static final int INITIAL_SECTIONS = 16;
+
+    /**
+     * The name of the section that contains the whole frame.
+     */
+    @Nonnull
+    private static final String FRAME_SECTION = "frame";
+
+    /**
+     * The draw list, flushed at the start and end of each section.
+     */
+    @Nonnull
+    private final DrawList drawList;
+
+    /**
+     * The ring of frames.
+     */
+    @Nonnull
+    private final Frame[] frames = new Frame[FRAMES_IN_FLIGHT];
+
+    /**
+     * The index of the next frame in the ring.
+     */
+    private int frameIndex;
+
+    /**
+     * The frame that is being recorded, null if not recording.
+     */
+    @Nullable
+    private Frame current;
+
+    /**
+     * The sections that have been started but not ended, innermost last.
+     */
+    @Nonnull
+    private int[] openSections = new int[INITIAL_SECTIONS];
+
+    /**
+     * The number of open sections.
+     */
+    private int depth;
+
+    /**
+     * Does the context support timestamp queries.
+     */
+    private boolean supported;
+
+    /**
+     * Is profiling enabled.
+     */
+    private volatile boolean enabled;
+
+    /**
+     * The profile of the last frame whose results have been read, null if there isn't one.
+     */
+    @Nullable
+    private volatile GpuProfile profile;
+
+    /**
+     * Constructor.
+     * @param drawList the draw list, flushed at the start and end of each section
+     */
+    public GpuProfiler(@Nonnull DrawList drawList) {
+        this.drawList = drawList;
+        for (int i = 0; i < FRAMES_IN_FLIGHT; i++) {
+            frames[i] = new Frame();
+        }
+    }
+
+    /**
+     * Check whether the context supports timestamp queries.
+     * @param gl the OpenGL interface
+     */
+    public void init(@Nonnull GL2 gl) {
+        supported = false;
+        if (gl.isFunctionAvailable("glQueryCounter") && gl.isFunctionAvailable("glGetQueryObjectui64v")) {
+            int[] counterBits = new int[1];
+            gl.glGetQueryiv(GL2.GL_TIMESTAMP, GL2.GL_QUERY_COUNTER_BITS, counterBits, 0);
+            supported = counterBits[0] > 0;
+        }
+        if (!supported) {
+            LOGGER.info("Timestamp queries are not supported, GPU profiling is disabled");
+        }
+    }
+
+    /**
+     * Does the context support GPU profiling.
+     * @return true if timestamp queries are supported
+     */
+    public boolean isSupported() {
+        return supported;
+    }
+
+    /**
+     * Enable or disable profiling.
+     * <p>
+     *     May be called from any thread, takes effect from the next frame.
+     * </p>
+     * @param enabled true to profile
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Is profiling enabled.
+     * @return true if enabled, even if it isn't supported
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get the profile of the most recent frame whose results are ready.
+     * <p>
+     *     May be called from any thread.
+     * </p>
+     * @return the profile, null if no frame has been profiled
+     */
+    @Nullable
+    public GpuProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Start a frame, reading the results of the frame that was recorded in its slot of the ring.
+     * @param gl the OpenGL interface
+     */
+    public void beginFrame(@Nonnull GL2 gl) {
+        assert current == null : "The last frame wasn't ended";
+        if (enabled && supported) {
+            Frame frame = frames[frameIndex];
+            if (frame.sectionCount > 0) {
+                readResults(gl, frame);
+            }
+            frame.sectionCount = 0;
+            depth = 0;
+            current = frame;
+            begin(gl, FRAME_SECTION);
+        }
+    }
+
+    /**
+     * End the frame.
+     * @param gl the OpenGL interface
+     */
+    public void endFrame(@Nonnull GL2 gl) {
+        if (current != null) {
+            end(gl);
+            assert depth == 0 : "A section wasn't ended";
+            current = null;
+            frameIndex = (frameIndex + 1) % FRAMES_IN_FLIGHT;
+        }
+    }
+
+    /**
+     * Start a section, inside the last section that was started.
+     * @param gl the OpenGL interface
+     * @param name the name of the section
+     */
+    public void begin(@Nonnull GL2 gl, @Nonnull String name) {
+        Frame frame = current;
+        if (frame != null) {
+            flushDrawList(gl);
+            int parent = depth > 0 ? openSections[depth - 1] : -1;
+            int section = frame.addSection(gl, name, parent);
+            if (depth == openSections.length) {
+                openSections = Arrays.copyOf(openSections, depth * 2);
+            }
+            openSections[depth++] = section;
+            gl.glQueryCounter(frame.queries[2 * section], GL2.GL_TIMESTAMP);
+        }
+    }
+
+    /**
+     * End the last section that was started.
+     * @param gl the OpenGL interface
+     */
+    public void end(@Nonnull GL2 gl) {
+        Frame frame = current;
+        if (frame != null) {
+            assert depth > 0 : "No section to end";
+            flushDrawList(gl);
+            int section = openSections[--depth];
+            gl.glQueryCounter(frame.queries[2 * section + 1], GL2.GL_TIMESTAMP);
+        }
+    }
+
+    /**
+     * Delete the queries.
+     * @param gl the OpenGL interface
+     */
+    public void remove(@Nonnull GL2 gl) {
+        for (Frame frame : frames) {
+            if (frame.queryCount > 0) {
+                gl.glDeleteQueries(frame.queryCount, frame.queries, 0);
+            }
+            frame.queryCount = 0;
+            frame.sectionCount = 0;
+        }
+        current = null;
+    }
+
+    /**
+     * Flush the draw list, if it's recording, so that the work batched so far is in the right section.
+     * @param gl the OpenGL interface
+     */
+    private void flushDrawList(@Nonnull GL2 gl) {
+        if (drawList.isRecording()) {
+            drawList.flush(gl);
+        }
+    }
+
+    /**
+     * Read the results of a frame and publish its profile, unless they aren't ready.
+     * @param gl the OpenGL interface
+     * @param frame the frame
+     */
+    private void readResults(@Nonnull GL2 gl, @Nonnull Frame frame) {
+        // Queries complete in order, so if the last one is ready they all are.
+        int[] available = new int[1];
+        gl.glGetQueryObjectiv(frame.queries[2 * frame.sectionCount - 1], GL2.GL_QUERY_RESULT_AVAILABLE, available, 0);
+        if (available[0] != 0) {
+            long[] timestamps = new long[2 * frame.sectionCount];
+            for (int i = 0; i < timestamps.length; i++) {
+                gl.glGetQueryObjectui64v(frame.queries[i], GL2.GL_QUERY_RESULT, timestamps, i);
+            }
+            profile = frame.buildProfile(timestamps);
+        }
+        else {
+            LOGGER.debug("GPU profile results not ready, dropping a frame");
+        }
+    }
+
+    /**
+     * A frame in the ring.
+     */
+    private static final class Frame {
+
+        /**
+         * The names of the sections.
+         */
+        @Nonnull
+        private final List<String> names = new ArrayList<>();
+
+        /**
+         * The parent of each section, -1 for the frame section.
+         */
+        @Nonnull
+        private int[] parents = new int[INITIAL_SECTIONS];
+
+        /**
+         * The query objects, a start and end query for each section.
+         */
+        @Nonnull
+        private int[] queries = new int[2 * INITIAL_SECTIONS];
+
+        /**
+         * The number of query objects that have been created.
+         */
+        private int queryCount;
+
+        /**
+         * The number of sections that have been recorded.
+         */
+        private int sectionCount;
+
+        /**
+         * Add a section, creating its queries if needed.
+         * @param gl the OpenGL interface
+         * @param name the name of the section
+         * @param parent the index of the parent section, -1 for none
+         * @return the index of the section
+         */
+        private int addSection(@Nonnull GL2 gl, @Nonnull String name, int parent) {
+            int section = sectionCount++;
+            if (section == parents.length) {
+                parents = Arrays.copyOf(parents, section * 2);
+            }
+            if (2 * section + 2 > queryCount) {
+                if (queries.length < 2 * section + 2) {
+                    queries = Arrays.copyOf(queries, queries.length * 2);
+                }
+                // The queries are kept for the next time round the ring.
+                gl.glGenQueries(queries.length - queryCount, queries, queryCount);
+                queryCount = queries.length;
+            }
+            if (section < names.size()) {
+                names.set(section, name);
+            }
+            else {
+                names.add(name);
+            }
+            parents[section] = parent;
+            return section;
+        }
+
+        /**
+         * Build the profile of the frame.
+         * @param timestamps the start and end timestamps of each section
+         * @return the profile
+         */
+        @Nonnull
+        private GpuProfile buildProfile(@Nonnull long[] timestamps) {
+            GpuProfile root = new GpuProfile(names.get(0));
+            GpuProfile[] nodes = new GpuProfile[sectionCount];
+            nodes[0] = root;
+            root.add(timestamps[1] - timestamps[0]);
+            for (int i = 1; i < sectionCount; i++) {
+                nodes[i] = nodes[parents[i]].child(names.get(i));
+                nodes[i].add(timestamps[2 * i + 1] - timestamps[2 * i]);
+            }
+            return root;
+        }
+    }
+}
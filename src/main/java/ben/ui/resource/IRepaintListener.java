@@ -0,0 +1,30 @@
+package ben.ui.resource;
+
+import ben.ui.math.Rect;
+import javax.annotation.Nonnull;
+
+/**
+ * Repaint Listener.
+ * <p>
+ *     Told when something has changed that needs the window to be drawn again.
+ * </p>
+ */
+public interface IRepaintListener {
+
+    /**
+     * A repaint of the whole window has been requested.
+     * <p>
+     *     May be called from any thread.
+     * </p>
+     */
+    void repaintRequested();
+
+    /**
+     * A repaint of part of the window has been requested.
+     * <p>
+     *     May be called from any thread.
+     * </p>
+     * @param damage the area that has changed, in screen coordinates (top left origin)
+     */
+    void repaintRequested(@Nonnull Rect damage);
+}
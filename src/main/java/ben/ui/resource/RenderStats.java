@@ -0,0 +1,77 @@
+package ben.ui.resource;
+
+/**
+ * Render Stats.
+ * <p>
+ *     Counts the work that is sent to OpenGL; draw calls, vertices and bytes uploaded to buffers. The counters are
+ *     updated by the renderers as they draw, and read and reset by the window once per frame. Only used on the OpenGL
+ *     thread.
+ * </p>
+ */
+public final class RenderStats {
+
+    /**
+     * The number of draw calls.
+     */
+    private long drawCalls;
+
+    /**
+     * The number of vertices drawn, each instance of an instanced draw counts its vertices.
+     */
+    private long vertices;
+
+    /**
+     * The number of bytes uploaded to buffers.
+     */
+    private long uploadBytes;
+
+    /**
+     * Count a draw call.
+     * @param vertexCount the number of vertices drawn
+     */
+    public void drawCall(long vertexCount) {
+        drawCalls++;
+        vertices += vertexCount;
+    }
+
+    /**
+     * Count an upload to a buffer.
+     * @param bytes the number of bytes uploaded
+     */
+    public void upload(long bytes) {
+        uploadBytes += bytes;
+    }
+
+    /**
+     * Get the number of draw calls.
+     * @return the number of draw calls
+     */
+    public long getDrawCalls() {
+        return drawCalls;
+    }
+
+    /**
+     * Get the number of vertices drawn.
+     * @return the number of vertices
+     */
+    public long getVertices() {
+        return vertices;
+    }
+
+    /**
+     * Get the number of bytes uploaded to buffers.
+     * @return the number of bytes
+     */
+    public long getUploadBytes() {
+        return uploadBytes;
+    }
+
+    /**
+     * Reset the counters.
+     */
+    public void resetCounters() {
+        drawCalls = 0;
+        vertices = 0;
+        uploadBytes = 0;
+    }
+}
@@ -0,0 +1,133 @@
+package ben.ui.resource.font;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Distance Field.
+ * <p>
+ *     Calculates exact Euclidean distance transforms of binary masks, using the separable algorithm of Felzenszwalb and
+ *     Huttenlocher; a pass down every column and then along every row, each linear in the number of pixels.
+ * </p>
+ */
+final class DistanceField {
+
+    /**
+     * Larger than any squared distance in a mask.
+     */
+    private static final float INFINITY = 1e20f;
+
+    /**
+     * Hidden constructor.
+     */
+    private DistanceField() { }
+
+    /**
+     * Calculate the signed distance from the centre of each pixel to the edge of the mask.
+     * @param mask true for pixels that are inside, row by row
+     * @param width the width of the mask
+     * @param height the height of the mask
+     * @return the signed distances in pixels, positive inside and negative outside
+     */
+    @Nonnull
+    static float[] signedDistance(@Nonnull boolean[] mask, int width, int height) {
+        assert mask.length == width * height;
+        float[] toInside = squaredDistance(mask, true, width, height);
+        float[] toOutside = squaredDistance(mask, false, width, height);
+
+        // The edge is half way between an inside pixel and the nearest outside pixel.
+        float[] distance = new float[mask.length];
+        for (int i = 0; i < mask.length; i++) {
+            if (mask[i]) {
+                distance[i] = (float) Math.sqrt(toOutside[i]) - 0.5f;
+            }
+            else {
+                distance[i] = 0.5f - (float) Math.sqrt(toInside[i]);
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Calculate the squared distance from each pixel to the nearest pixel with a value.
+     * @param mask the mask
+     * @param value the value of the pixels to find
+     * @param width the width of the mask
+     * @param height the height of the mask
+     * @return the squared distances
+     */
+    @Nonnull
+    private static float[] squaredDistance(@Nonnull boolean[] mask, boolean value, int width, int height) {
+        float[] grid = new float[mask.length];
+        for (int i = 0; i < mask.length; i++) {
+            grid[i] = mask[i] == value ? 0 : INFINITY;
+        }
+
+        int length = Math.max(width, height);
+        float[] f = new float[length];
+        float[] d = new float[length];
+        int[] v = new int[length];
+        float[] z = new float[length + 1];
+
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                f[y] = grid[y * width + x];
+            }
+            transform(f, d, v, z, height);
+            for (int y = 0; y < height; y++) {
+                grid[y * width + x] = d[y];
+            }
+        }
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(grid, y * width, f, 0, width);
+            transform(f, d, v, z, width);
+            System.arraycopy(d, 0, grid, y * width, width);
+        }
+        return grid;
+    }
+
+    /**
+     * One dimensional squared distance transform; the lower envelope of the parabolas rooted at each sample.
+     * @param f the input samples
+     * @param d the output distances
+     * @param v the positions of the parabolas in the envelope, scratch space
+     * @param z the boundaries between the parabolas in the envelope, scratch space
+     * @param n the number of samples
+     */
+    private static void transform(@Nonnull float[] f, @Nonnull float[] d, @Nonnull int[] v, @Nonnull float[] z, int n) {
+        int k = 0;
+        v[0] = 0;
+        z[0] = -INFINITY;
+        z[1] = INFINITY;
+        for (int q = 1; q < n; q++) {
+            float s = intersection(f, q, v[k]);
+            while (s <= z[k]) {
+                k--;
+                s = intersection(f, q, v[k]);
+            }
+            k++;
+            v[k] = q;
+            z[k] = s;
+            z[k + 1] = INFINITY;
+        }
+
+        k = 0;
+        for (int q = 0; q < n; q++) {
+            while (z[k + 1] < q) {
+                k++;
+            }
+            float dq = q - v[k];
+            d[q] = dq * dq + f[v[k]];
+        }
+    }
+
+    /**
+     * Get where the parabolas rooted at two samples intersect.
+     * @param f the samples
+     * @param q the first sample
+     * @param p the second sample
+     * @return the position of the intersection
+     */
+    private static float intersection(@Nonnull float[] f, int q, int p) {
+        return ((f[q] + q * q) - (f[p] + p * p)) / (2 * q - 2 * p);
+    }
+}
@@ -0,0 +1,84 @@
+package ben.ui.resource.font;
+
+import com.jogamp.opengl.GL2;
+import javax.annotation.Nonnull;
+
+import java.awt.Font;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Font Manager.
+ * <p>
+ *     Holds a glyph atlas for each font that has been drawn in the OpenGL context, and a distance field atlas for each
+ *     font family and style.
+ * </p>
+ */
+public class FontManager {
+
+    /**
+     * The size that distance field glyphs are generated at; large enough to keep corners sharp when drawn bigger.
+     */
+    private static final float DISTANCE_FIELD_SIZE = 48;
+
+    /**
+     * The glyph atlases by font.
+     */
+    @Nonnull
+    private final Map<Font, GlyphAtlas> atlases = new HashMap<>();
+
+    /**
+     * The distance field atlases, by font at the distance field size.
+     */
+    @Nonnull
+    private final Map<Font, GlyphAtlas> distanceFieldAtlases = new HashMap<>();
+
+    /**
+     * Get the glyph atlas of a font, creating it if it doesn't exist yet.
+     * @param font the font
+     * @return the glyph atlas
+     */
+    @Nonnull
+    public final GlyphAtlas getAtlas(@Nonnull Font font) {
+        GlyphAtlas atlas = atlases.get(font);
+        if (atlas == null) {
+            atlas = new GlyphAtlas(font);
+            atlases.put(font, atlas);
+        }
+        return atlas;
+    }
+
+    /**
+     * Get the distance field atlas of a font, creating it if it doesn't exist yet.
+     * <p>
+     *     The same atlas is shared by every size of the font.
+     * </p>
+     * @param font the font
+     * @return the distance field atlas
+     */
+    @Nonnull
+    public final GlyphAtlas getDistanceFieldAtlas(@Nonnull Font font) {
+        Font atlasFont = font.deriveFont(DISTANCE_FIELD_SIZE);
+        GlyphAtlas atlas = distanceFieldAtlases.get(atlasFont);
+        if (atlas == null) {
+            atlas = new GlyphAtlas(atlasFont, true);
+            distanceFieldAtlases.put(atlasFont, atlas);
+        }
+        return atlas;
+    }
+
+    /**
+     * Remove the textures of all the atlases.
+     * @param gl the OpenGL interface
+     */
+    public final void remove(@Nonnull GL2 gl) {
+        for (GlyphAtlas atlas : atlases.values()) {
+            atlas.remove(gl);
+        }
+        atlases.clear();
+        for (GlyphAtlas atlas : distanceFieldAtlases.values()) {
+            atlas.remove(gl);
+        }
+        distanceFieldAtlases.clear();
+    }
+}
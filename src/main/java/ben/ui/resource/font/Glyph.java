@@ -0,0 +1,118 @@
+package ben.ui.resource.font;
+
+import net.jcip.annotations.Immutable;
+
+/**
+ * Glyph.
+ * <p>
+ *     Where a rasterized glyph is in a glyph atlas, and where its image goes relative to the pen position on the
+ *     baseline.
+ * </p>
+ */
+@Immutable
+public final class Glyph {
+
+    /**
+     * The x position of the glyph image in the atlas, in pixels.
+     */
+    private final int x;
+
+    /**
+     * The y position of the glyph image in the atlas, in pixels.
+     */
+    private final int y;
+
+    /**
+     * The width of the glyph image in pixels.
+     */
+    private final int width;
+
+    /**
+     * The height of the glyph image in pixels.
+     */
+    private final int height;
+
+    /**
+     * The x offset from the pen position to the left of the glyph image.
+     */
+    private final int bearingX;
+
+    /**
+     * The y offset from the baseline to the top of the glyph image, negative above the baseline.
+     */
+    private final int bearingY;
+
+    /**
+     * Constructor.
+     * @param x the x position of the glyph image in the atlas
+     * @param y the y position of the glyph image in the atlas
+     * @param width the width of the glyph image
+     * @param height the height of the glyph image
+     * @param bearingX the x offset from the pen position to the left of the glyph image
+     * @param bearingY the y offset from the baseline to the top of the glyph image
+     */
+    public Glyph(int x, int y, int width, int height, int bearingX, int bearingY) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.bearingX = bearingX;
+        this.bearingY = bearingY;
+    }
+
+    /**
+     * Get the x position of the glyph image in the atlas.
+     * @return the x position in pixels
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Get the y position of the glyph image in the atlas.
+     * @return the y position in pixels
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Get the width of the glyph image.
+     * @return the width in pixels
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the height of the glyph image.
+     * @return the height in pixels
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the x offset from the pen position to the left of the glyph image.
+     * @return the offset in pixels
+     */
+    public int getBearingX() {
+        return bearingX;
+    }
+
+    /**
+     * Get the y offset from the baseline to the top of the glyph image.
+     * @return the offset in pixels, negative above the baseline
+     */
+    public int getBearingY() {
+        return bearingY;
+    }
+
+    /**
+     * Does the glyph have an image, spaces don't.
+     * @return true if the glyph has no image
+     */
+    public boolean isEmpty() {
+        return width == 0 || height == 0;
+    }
+}
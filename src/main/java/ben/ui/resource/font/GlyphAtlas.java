@@ -0,0 +1,427 @@
+package ben.ui.resource.font;
+
+import ben.ui.resource.GlState;
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.util.texture.Texture;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.font.GlyphVector;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Glyph Atlas.
+ * <p>
+ *     Rasterizes the glyphs of a font on the CPU as they are first needed, and packs them into rows of a single texture.
+ *     The atlas grows when it is full; glyphs keep their pixel positions but their texture coordinates change, so the
+ *     generation is incremented and anything that holds texture coordinates should rebuild them.
+ * </p>
+ * <p>
+ *     A distance field atlas stores the signed distance to the outline of each glyph instead of its coverage, so the
+ *     glyphs can be drawn crisply at any size with the distance field text program. One distance field atlas serves
+ *     every size of its font.
+ * </p>
+ * <p>
+ *     Only used on the OpenGL thread.
+ * </p>
+ */
+public final class GlyphAtlas {
+
+    /**
+     * The initial width and height of the atlas in pixels.
+     */
+    private static final int INITIAL_SIZE = 256;
+
+    /**
+     * The number of empty pixels around each glyph, so that filtering doesn't pick up the neighbours.
+     */
+    private static final int PADDING = 1;
+
+    /**
+     * The number of bytes per pixel in the texture, luminance and alpha.
+     */
+    private static final int BYTES_PER_PIXEL = 2;
+
+    /**
+     * The value of a fully set byte.
+     */
+    private static final byte FULL = (byte) 0xFF;
+
+    /**
+     * How many times larger distance field glyphs are rasterized before their distances are sampled.
+     */
+    private static final int OVERSAMPLE = 4;
+
+    /**
+     * The distance in pixels from the outline of a distance field glyph to where the distance is clamped.
+     */
+    private static final int SPREAD = 6;
+
+    /**
+     * The maximum value of a byte in the image.
+     */
+    private static final int MAXIMUM_VALUE = 255;
+
+    /**
+     * The font.
+     */
+    @Nonnull
+    private final Font font;
+
+    /**
+     * Does the atlas hold signed distance fields rather than coverage.
+     */
+    private final boolean distanceField;
+
+    /**
+     * The rasterized glyphs by glyph code.
+     */
+    @Nonnull
+    private final Map<Integer, Glyph> glyphs = new HashMap<>();
+
+    /**
+     * The glyph images, a single grey channel that becomes the alpha of the texture.
+     */
+    @Nonnull
+    private BufferedImage image;
+
+    /**
+     * The x position of the next glyph in the current row.
+     */
+    private int rowX = PADDING;
+
+    /**
+     * The y position of the current row.
+     */
+    private int rowY = PADDING;
+
+    /**
+     * The height of the tallest glyph in the current row.
+     */
+    private int rowHeight;
+
+    /**
+     * Incremented when the atlas grows and texture coordinates change.
+     */
+    private int generation;
+
+    /**
+     * The first row of the image that hasn't been uploaded to the texture.
+     */
+    private int dirtyTop;
+
+    /**
+     * The row after the last row of the image that hasn't been uploaded to the texture.
+     */
+    private int dirtyBottom;
+
+    /**
+     * Does the texture need to be reallocated because the atlas has grown.
+     */
+    private boolean resized = true;
+
+    /**
+     * The texture, null until it is first needed.
+     */
+    @Nullable
+    private Texture texture;
+
+    /**
+     * Constructor.
+     * @param font the font
+     */
+    public GlyphAtlas(@Nonnull Font font) {
+        this(font, false);
+    }
+
+    /**
+     * Constructor.
+     * @param font the font, distance field glyphs are generated at its size
+     * @param distanceField true to store signed distance fields rather than coverage
+     */
+    public GlyphAtlas(@Nonnull Font font, boolean distanceField) {
+        this.font = font;
+        this.distanceField = distanceField;
+        image = new BufferedImage(INITIAL_SIZE, INITIAL_SIZE, BufferedImage.TYPE_BYTE_GRAY);
+    }
+
+    /**
+     * Get the font.
+     * @return the font
+     */
+    @Nonnull
+    public Font getFont() {
+        return font;
+    }
+
+    /**
+     * Does the atlas hold signed distance fields.
+     * @return true for distance fields, false for coverage
+     */
+    public boolean isDistanceField() {
+        return distanceField;
+    }
+
+    /**
+     * Get a glyph, rasterizing it if it isn't in the atlas yet.
+     * @param glyphCode the glyph code in the font
+     * @return the glyph
+     */
+    @Nonnull
+    public Glyph getGlyph(int glyphCode) {
+        Glyph glyph = glyphs.get(glyphCode);
+        if (glyph == null) {
+            glyph = distanceField ? rasterizeDistanceField(glyphCode) : rasterize(glyphCode);
+            glyphs.put(glyphCode, glyph);
+        }
+        return glyph;
+    }
+
+    /**
+     * Get the width of the atlas.
+     * @return the width in pixels
+     */
+    public int getWidth() {
+        return image.getWidth();
+    }
+
+    /**
+     * Get the height of the atlas.
+     * @return the height in pixels
+     */
+    public int getHeight() {
+        return image.getHeight();
+    }
+
+    /**
+     * Get the generation of the atlas, which changes when the texture coordinates of the glyphs change.
+     * @return the generation
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Get the texture, uploading any glyphs that have been rasterized since the last call.
+     * @param gl the OpenGL interface
+     * @param glState the OpenGL state cache
+     * @return the texture
+     */
+    @Nonnull
+    public Texture getTexture(@Nonnull GL2 gl, @Nonnull GlState glState) {
+        if (texture == null) {
+            int[] ids = new int[1];
+            gl.glGenTextures(1, ids, 0);
+            texture = new Texture(ids[0], GL.GL_TEXTURE_2D, getWidth(), getHeight(), getWidth(), getHeight(), false);
+            gl.glBindTexture(GL.GL_TEXTURE_2D, ids[0]);
+            gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MIN_FILTER, GL.GL_LINEAR);
+            gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_MAG_FILTER, GL.GL_LINEAR);
+            gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_WRAP_S, GL.GL_CLAMP_TO_EDGE);
+            gl.glTexParameteri(GL.GL_TEXTURE_2D, GL.GL_TEXTURE_WRAP_T, GL.GL_CLAMP_TO_EDGE);
+            glState.invalidate();
+        }
+
+        if (resized) {
+            int id = texture.getTextureObject();
+            texture = new Texture(id, GL.GL_TEXTURE_2D, getWidth(), getHeight(), getWidth(), getHeight(), false);
+            gl.glBindTexture(GL.GL_TEXTURE_2D, id);
+            gl.glTexImage2D(GL.GL_TEXTURE_2D, 0, GL.GL_LUMINANCE_ALPHA, getWidth(), getHeight(), 0, GL.GL_LUMINANCE_ALPHA,
+                    GL.GL_UNSIGNED_BYTE, getPixels(0, getHeight()));
+            glState.invalidate();
+            resized = false;
+            dirtyTop = 0;
+            dirtyBottom = 0;
+        }
+        else if (dirtyBottom > dirtyTop) {
+            gl.glBindTexture(GL.GL_TEXTURE_2D, texture.getTextureObject());
+            gl.glTexSubImage2D(GL.GL_TEXTURE_2D, 0, 0, dirtyTop, getWidth(), dirtyBottom - dirtyTop, GL.GL_LUMINANCE_ALPHA,
+                    GL.GL_UNSIGNED_BYTE, getPixels(dirtyTop, dirtyBottom));
+            glState.invalidate();
+            dirtyTop = 0;
+            dirtyBottom = 0;
+        }
+
+        return texture;
+    }
+
+    /**
+     * Remove the texture.
+     * @param gl the OpenGL interface
+     */
+    public void remove(@Nonnull GL2 gl) {
+        if (texture != null) {
+            texture.destroy(gl);
+            texture = null;
+            resized = true;
+        }
+    }
+
+    /**
+     * Rasterize a glyph into the atlas.
+     * @param glyphCode the glyph code in the font
+     * @return the glyph
+     */
+    @Nonnull
+    private Glyph rasterize(int glyphCode) {
+        GlyphVector glyphVector = font.createGlyphVector(TextShaper.FONT_RENDER_CONTEXT, new int[] {glyphCode});
+        Rectangle bounds = glyphVector.getGlyphPixelBounds(0, TextShaper.FONT_RENDER_CONTEXT, 0, 0);
+
+        Glyph glyph;
+        if (bounds.isEmpty()) {
+            glyph = new Glyph(0, 0, 0, 0, bounds.x, bounds.y);
+        }
+        else {
+            allocate(bounds.width, bounds.height);
+
+            Graphics2D graphics = image.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            graphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+            graphics.setColor(Color.WHITE);
+            graphics.drawGlyphVector(glyphVector, rowX - bounds.x, rowY - bounds.y);
+            graphics.dispose();
+
+            glyph = new Glyph(rowX, rowY, bounds.width, bounds.height, bounds.x, bounds.y);
+            markDirty(rowY, rowY + bounds.height);
+            rowX += bounds.width + PADDING;
+        }
+        return glyph;
+    }
+
+    /**
+     * Rasterize the signed distance field of a glyph into the atlas.
+     * <p>
+     *     The glyph is rasterized without anti-aliasing at a larger size, and the distance to its outline is sampled at
+     *     the centre of each pixel of the atlas. Distances are mapped so that the outline is at half intensity and the
+     *     spread either side covers the rest of the range.
+     * </p>
+     * @param glyphCode the glyph code in the font
+     * @return the glyph
+     */
+    @Nonnull
+    private Glyph rasterizeDistanceField(int glyphCode) {
+        Font largeFont = font.deriveFont(font.getSize2D() * OVERSAMPLE);
+        GlyphVector glyphVector = largeFont.createGlyphVector(TextShaper.FONT_RENDER_CONTEXT, new int[] {glyphCode});
+        Rectangle bounds = glyphVector.getGlyphPixelBounds(0, TextShaper.FONT_RENDER_CONTEXT, 0, 0);
+
+        Glyph glyph;
+        if (bounds.isEmpty()) {
+            glyph = new Glyph(0, 0, 0, 0, 0, 0);
+        }
+        else {
+            int left = Math.floorDiv(bounds.x, OVERSAMPLE) - SPREAD;
+            int top = Math.floorDiv(bounds.y, OVERSAMPLE) - SPREAD;
+            int width = -Math.floorDiv(-(bounds.x + bounds.width), OVERSAMPLE) + SPREAD - left;
+            int height = -Math.floorDiv(-(bounds.y + bounds.height), OVERSAMPLE) + SPREAD - top;
+
+            int maskWidth = width * OVERSAMPLE;
+            int maskHeight = height * OVERSAMPLE;
+            BufferedImage maskImage = new BufferedImage(maskWidth, maskHeight, BufferedImage.TYPE_BYTE_BINARY);
+            Graphics2D graphics = maskImage.createGraphics();
+            graphics.setColor(Color.WHITE);
+            graphics.drawGlyphVector(glyphVector, -left * OVERSAMPLE, -top * OVERSAMPLE);
+            graphics.dispose();
+
+            boolean[] mask = new boolean[maskWidth * maskHeight];
+            for (int y = 0; y < maskHeight; y++) {
+                for (int x = 0; x < maskWidth; x++) {
+                    mask[y * maskWidth + x] = maskImage.getRaster().getSample(x, y, 0) != 0;
+                }
+            }
+            float[] distance = DistanceField.signedDistance(mask, maskWidth, maskHeight);
+
+            allocate(width, height);
+            byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int sample = (y * OVERSAMPLE + OVERSAMPLE / 2) * maskWidth + x * OVERSAMPLE + OVERSAMPLE / 2;
+                    float value = 0.5f + distance[sample] / OVERSAMPLE / (2 * SPREAD);
+                    value = Math.max(0, Math.min(1, value));
+                    pixels[(rowY + y) * getWidth() + rowX + x] = (byte) Math.round(value * MAXIMUM_VALUE);
+                }
+            }
+
+            glyph = new Glyph(rowX, rowY, width, height, left, top);
+            markDirty(rowY, rowY + height);
+            rowX += width + PADDING;
+        }
+        return glyph;
+    }
+
+    /**
+     * Move to a place in the atlas for a glyph image, starting a new row or growing the atlas if needed.
+     * @param width the width of the glyph image
+     * @param height the height of the glyph image
+     */
+    private void allocate(int width, int height) {
+        if (rowX + width + PADDING > getWidth()) {
+            rowY += rowHeight + PADDING;
+            rowX = PADDING;
+            rowHeight = 0;
+        }
+        while (rowX + width + PADDING > getWidth() || rowY + height + PADDING > getHeight()) {
+            grow();
+        }
+        rowHeight = Math.max(rowHeight, height);
+    }
+
+    /**
+     * Double the size of the atlas, keeping the glyphs where they are.
+     */
+    private void grow() {
+        BufferedImage newImage = new BufferedImage(getWidth() * 2, getHeight() * 2, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = newImage.createGraphics();
+        graphics.drawImage(image, 0, 0, null);
+        graphics.dispose();
+        image = newImage;
+        generation++;
+        resized = true;
+    }
+
+    /**
+     * Mark rows of the image as needing to be uploaded.
+     * @param top the first row
+     * @param bottom the row after the last row
+     */
+    private void markDirty(int top, int bottom) {
+        if (dirtyBottom > dirtyTop) {
+            dirtyTop = Math.min(dirtyTop, top);
+            dirtyBottom = Math.max(dirtyBottom, bottom);
+        }
+        else {
+            dirtyTop = top;
+            dirtyBottom = bottom;
+        }
+    }
+
+    /**
+     * Get rows of the image as luminance and alpha pixels; the luminance is always full so the text colour comes from
+     * the colour uniform.
+     * @param top the first row
+     * @param bottom the row after the last row
+     * @return the pixels
+     */
+    @Nonnull
+    private ByteBuffer getPixels(int top, int bottom) {
+        byte[] grey = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        int start = top * getWidth();
+        int end = bottom * getWidth();
+        ByteBuffer pixels = Buffers.newDirectByteBuffer((end - start) * BYTES_PER_PIXEL);
+        for (int i = start; i < end; i++) {
+            pixels.put(FULL);
+            pixels.put(grey[i]);
+        }
+        pixels.rewind();
+        return pixels;
+    }
+}
@@ -0,0 +1,312 @@
+package ben.ui.resource.font;
+
+import net.jcip.annotations.GuardedBy;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import java.awt.Font;
+
+/**
+ * Shaped Text.
+ * <p>
+ *     A single line of text that has been laid out in a font; the glyphs, where they go with kerning applied, and the
+ *     metrics of the line. Shaped text is shared by everything that draws the same string in the same font, so it
+ *     never changes after it is created, apart from the quads which are built for a glyph atlas the first time they
+ *     are needed.
+ * </p>
+ * <p>
+ *     The origin is the top left of the line, the baseline is at the ascent. Quads built for a coverage atlas are on
+ *     whole pixels, quads built for a distance field atlas are scaled from the size of the atlas to the size of the font.
+ * </p>
+ */
+public final class ShapedText {
+
+    /**
+     * The number of vertices in a glyph quad, two triangles.
+     */
+    public static final int VERTICES_PER_GLYPH = 6;
+
+    /**
+     * The font.
+     */
+    @Nonnull
+    private final Font font;
+
+    /**
+     * The glyph codes.
+     */
+    @Nonnull
+    private final int[] glyphCodes;
+
+    /**
+     * The x position of the pen for each glyph.
+     */
+    @Nonnull
+    private final float[] glyphX;
+
+    /**
+     * The x position of the caret before each character, and after the last one.
+     */
+    @Nonnull
+    private final float[] caretX;
+
+    /**
+     * The width of the text, the advance of the pen.
+     */
+    private final float width;
+
+    /**
+     * The distance from the top of the line to the baseline.
+     */
+    private final float ascent;
+
+    /**
+     * The distance from the baseline to the bottom of the line.
+     */
+    private final float descent;
+
+    /**
+     * The atlas that the quads were built for.
+     */
+    @GuardedBy("this")
+    @Nullable
+    private GlyphAtlas quadAtlas;
+
+    /**
+     * The generation of the atlas that the quads were built for.
+     */
+    @GuardedBy("this")
+    private int quadGeneration;
+
+    /**
+     * The positions of the glyph quad vertices.
+     */
+    @GuardedBy("this")
+    @Nonnull
+    private float[] positions = new float[0];
+
+    /**
+     * The texture coordinates of the glyph quad vertices.
+     */
+    @GuardedBy("this")
+    @Nonnull
+    private float[] textureCoordinates = new float[0];
+
+    /**
+     * The number of glyph quads, glyphs without images like spaces don't have one.
+     */
+    @GuardedBy("this")
+    private int quadCount;
+
+    /**
+     * Constructor.
+     * @param font the font
+     * @param glyphCodes the glyph codes
+     * @param glyphX the x position of the pen for each glyph
+     * @param caretX the x position of the caret before each character, and after the last one
+     * @param width the width of the text
+     * @param ascent the distance from the top of the line to the baseline
+     * @param descent the distance from the baseline to the bottom of the line
+     */
+    ShapedText(@Nonnull Font font, @Nonnull int[] glyphCodes, @Nonnull float[] glyphX, @Nonnull float[] caretX, float width,
+            float ascent, float descent) {
+        assert glyphCodes.length == glyphX.length;
+        this.font = font;
+        this.glyphCodes = glyphCodes;
+        this.glyphX = glyphX;
+        this.caretX = caretX;
+        this.width = width;
+        this.ascent = ascent;
+        this.descent = descent;
+    }
+
+    /**
+     * Get the font.
+     * @return the font
+     */
+    @Nonnull
+    public Font getFont() {
+        return font;
+    }
+
+    /**
+     * Get the number of glyphs.
+     * @return the number of glyphs
+     */
+    public int getGlyphCount() {
+        return glyphCodes.length;
+    }
+
+    /**
+     * Get the width of the text.
+     * @return the width in pixels
+     */
+    public float getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the distance from the top of the line to the baseline.
+     * @return the ascent in pixels
+     */
+    public float getAscent() {
+        return ascent;
+    }
+
+    /**
+     * Get the height of the line.
+     * @return the height in pixels
+     */
+    public float getHeight() {
+        return ascent + descent;
+    }
+
+    /**
+     * Get the x position of the caret before a character.
+     * @param index the index of the character, the length of the text for the end
+     * @return the x position in pixels
+     */
+    public float getCaretX(int index) {
+        return caretX[index];
+    }
+
+    /**
+     * Get the positions of the glyph quad vertices, building the quads for the atlas if needed.
+     * <p>
+     *     Six vertices per quad, two floats per vertex.
+     * </p>
+     * @param atlas the glyph atlas of the font
+     * @return the positions, shared so must not be changed
+     */
+    @Nonnull
+    public synchronized float[] getPositions(@Nonnull GlyphAtlas atlas) {
+        buildQuads(atlas);
+        return positions;
+    }
+
+    /**
+     * Get the texture coordinates of the glyph quad vertices, building the quads for the atlas if needed.
+     * @param atlas the glyph atlas of the font
+     * @return the texture coordinates, shared so must not be changed
+     */
+    @Nonnull
+    public synchronized float[] getTextureCoordinates(@Nonnull GlyphAtlas atlas) {
+        buildQuads(atlas);
+        return textureCoordinates;
+    }
+
+    /**
+     * Get the number of glyph quads, building the quads for the atlas if needed.
+     * @param atlas the glyph atlas of the font
+     * @return the number of quads
+     */
+    public synchronized int getQuadCount(@Nonnull GlyphAtlas atlas) {
+        buildQuads(atlas);
+        return quadCount;
+    }
+
+    /**
+     * Build the glyph quads, unless they were built for the same generation of the atlas.
+     * @param atlas the glyph atlas of the font
+     */
+    @GuardedBy("this")
+    private void buildQuads(@Nonnull GlyphAtlas atlas) {
+        assert atlas.isDistanceField() ? atlas.getFont().getName().equals(font.getName()) : atlas.getFont().equals(font)
+                : "The atlas is for a different font";
+
+        // Rasterize first, the atlas may grow and change the texture coordinates.
+        Glyph[] glyphs = new Glyph[glyphCodes.length];
+        for (int i = 0; i < glyphCodes.length; i++) {
+            glyphs[i] = atlas.getGlyph(glyphCodes[i]);
+        }
+
+        if (atlas != quadAtlas || atlas.getGeneration() != quadGeneration) {
+            quadCount = 0;
+            for (Glyph glyph : glyphs) {
+                if (!glyph.isEmpty()) {
+                    quadCount++;
+                }
+            }
+            positions = new float[quadCount * VERTICES_PER_GLYPH * 2];
+            textureCoordinates = new float[quadCount * VERTICES_PER_GLYPH * 2];
+
+            float atlasWidth = atlas.getWidth();
+            float atlasHeight = atlas.getHeight();
+            int j = 0;
+            if (atlas.isDistanceField()) {
+                // Distance fields are scaled from the size of the atlas, and don't need to be on whole pixels.
+                float scale = font.getSize2D() / atlas.getFont().getSize2D();
+                for (int i = 0; i < glyphs.length; i++) {
+                    Glyph glyph = glyphs[i];
+                    if (!glyph.isEmpty()) {
+                        float left = glyphX[i] + glyph.getBearingX() * scale;
+                        float top = ascent + glyph.getBearingY() * scale;
+                        j = putQuad(j, glyph, left, top, scale, atlasWidth, atlasHeight);
+                    }
+                }
+            }
+            else {
+                int baseline = Math.round(ascent);
+                for (int i = 0; i < glyphs.length; i++) {
+                    Glyph glyph = glyphs[i];
+                    if (!glyph.isEmpty()) {
+                        // Whole pixels, so the glyph images aren't blurred by filtering.
+                        int left = Math.round(glyphX[i]) + glyph.getBearingX();
+                        int top = baseline + glyph.getBearingY();
+                        j = putQuad(j, glyph, left, top, 1, atlasWidth, atlasHeight);
+                    }
+                }
+            }
+
+            quadAtlas = atlas;
+            quadGeneration = atlas.getGeneration();
+        }
+    }
+
+    /**
+     * Put a glyph quad into the arrays; top left, bottom left, top right, top right, bottom left, bottom right.
+     * @param index the index of the first float
+     * @param glyph the glyph
+     * @param left the left of the quad
+     * @param top the top of the quad
+     * @param scale the size of the quad relative to the glyph image
+     * @param atlasWidth the width of the atlas
+     * @param atlasHeight the height of the atlas
+     * @return the index after the quad
+     */
+    @GuardedBy("this")
+    private int putQuad(int index, @Nonnull Glyph glyph, float left, float top, float scale, float atlasWidth, float atlasHeight) {
+        float right = left + glyph.getWidth() * scale;
+        float bottom = top + glyph.getHeight() * scale;
+        float u0 = glyph.getX() / atlasWidth;
+        float v0 = glyph.getY() / atlasHeight;
+        float u1 = (glyph.getX() + glyph.getWidth()) / atlasWidth;
+        float v1 = (glyph.getY() + glyph.getHeight()) / atlasHeight;
+
+        int j = index;
+        j = putVertex(j, left, top, u0, v0);
+        j = putVertex(j, left, bottom, u0, v1);
+        j = putVertex(j, right, top, u1, v0);
+        j = putVertex(j, right, top, u1, v0);
+        j = putVertex(j, left, bottom, u0, v1);
+        return putVertex(j, right, bottom, u1, v1);
+    }
+
+    /**
+     * Put a vertex into the arrays.
+     * @param index the index of the first float
+     * @param x the x position
+     * @param y the y position
+     * @param u the u texture coordinate
+     * @param v the v texture coordinate
+     * @return the index after the vertex
+     */
+    @GuardedBy("this")
+    private int putVertex(int index, float x, float y, float u, float v) {
+        positions[index] = x;
+        positions[index + 1] = y;
+        textureCoordinates[index] = u;
+        textureCoordinates[index + 1] = v;
+        return index + 2;
+    }
+}
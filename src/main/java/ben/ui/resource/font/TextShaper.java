@@ -0,0 +1,187 @@
+package ben.ui.resource.font;
+
+import net.jcip.annotations.GuardedBy;
+import javax.annotation.Nonnull;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.LineMetrics;
+import java.awt.font.TextAttribute;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Text Shaper.
+ * <p>
+ *     Lays out text in a font on the CPU, using the Java 2D layout engine for proportional metrics and kerning. The most
+ *     recently used runs are cached by font and string, so labels that are drawn or measured again aren't laid out
+ *     again.
+ * </p>
+ * <p>
+ *     Doesn't need an OpenGL context, so widgets can measure their text before they are drawn. May be used from any
+ *     thread.
+ * </p>
+ */
+public final class TextShaper {
+
+    /**
+     * The render context that text is laid out and rasterized with; anti-aliased with fractional metrics.
+     */
+    @Nonnull
+    static final FontRenderContext FONT_RENDER_CONTEXT = new FontRenderContext(null, true, true);
+
+    /**
+     * The maximum number of runs in the cache.
+     */
+    private static final int CACHE_SIZE = 1024;
+
+    /**
+     * The shaped runs, in order of use.
+     */
+    @GuardedBy("CACHE")
+    @Nonnull
+    private static final Map<Key, ShapedText> CACHE = new LinkedHashMap<Key, ShapedText>(CACHE_SIZE, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, ShapedText> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Hidden constructor.
+     */
+    private TextShaper() { }
+
+    /**
+     * Create a font with kerning turned on.
+     * @param name the name of the font, e.g. Font.SANS_SERIF
+     * @param style the style of the font, e.g. Font.PLAIN
+     * @param size the size of the font in pixels
+     * @return the font
+     */
+    @Nonnull
+    public static Font createFont(@Nonnull String name, int style, int size) {
+        return new Font(name, style, size).deriveFont(Collections.singletonMap(TextAttribute.KERNING, TextAttribute.KERNING_ON));
+    }
+
+    /**
+     * Shape a line of text.
+     * @param font the font
+     * @param text the text
+     * @return the shaped text, shared with everything else that shapes the same text in the same font
+     */
+    @Nonnull
+    public static ShapedText shape(@Nonnull Font font, @Nonnull String text) {
+        Key key = new Key(font, text);
+        ShapedText shapedText;
+        synchronized (CACHE) {
+            shapedText = CACHE.get(key);
+        }
+        if (shapedText == null) {
+            // Shaping twice in a race is harmless, the results are the same.
+            shapedText = layout(font, text);
+            synchronized (CACHE) {
+                CACHE.put(key, shapedText);
+            }
+        }
+        return shapedText;
+    }
+
+    /**
+     * Get the height of a line of text in a font.
+     * @param font the font
+     * @return the height in pixels, rounded up
+     */
+    public static int getLineHeight(@Nonnull Font font) {
+        return (int) Math.ceil(shape(font, "").getHeight());
+    }
+
+    /**
+     * Lay out a line of text.
+     * @param font the font
+     * @param text the text
+     * @return the shaped text
+     */
+    @Nonnull
+    private static ShapedText layout(@Nonnull Font font, @Nonnull String text) {
+        char[] chars = text.toCharArray();
+        GlyphVector glyphVector = font.layoutGlyphVector(FONT_RENDER_CONTEXT, chars, 0, chars.length, Font.LAYOUT_LEFT_TO_RIGHT);
+
+        int glyphCount = glyphVector.getNumGlyphs();
+        int[] glyphCodes = glyphVector.getGlyphCodes(0, glyphCount, null);
+        float[] glyphPositions = glyphVector.getGlyphPositions(0, glyphCount + 1, null);
+        float[] glyphX = new float[glyphCount];
+        for (int i = 0; i < glyphCount; i++) {
+            glyphX[i] = glyphPositions[i * 2];
+        }
+        float width = glyphPositions[glyphCount * 2];
+
+        // The caret goes before the first glyph of each character; characters without their own glyph share the
+        // position of the previous one.
+        float[] caretX = new float[chars.length + 1];
+        Arrays.fill(caretX, Float.NaN);
+        for (int i = 0; i < glyphCount; i++) {
+            int charIndex = glyphVector.getGlyphCharIndex(i);
+            if (Float.isNaN(caretX[charIndex])) {
+                caretX[charIndex] = glyphX[i];
+            }
+        }
+        caretX[chars.length] = width;
+        for (int i = 0; i < chars.length; i++) {
+            if (Float.isNaN(caretX[i])) {
+                caretX[i] = i == 0 ? 0 : caretX[i - 1];
+            }
+        }
+
+        LineMetrics lineMetrics = font.getLineMetrics(chars, 0, chars.length, FONT_RENDER_CONTEXT);
+        return new ShapedText(font, glyphCodes, glyphX, caretX, width, lineMetrics.getAscent(), lineMetrics.getDescent());
+    }
+
+    /**
+     * The key of a shaped run in the cache.
+     */
+    private static final class Key {
+
+        /**
+         * The font.
+         */
+        @Nonnull
+        private final Font font;
+
+        /**
+         * The text.
+         */
+        @Nonnull
+        private final String text;
+
+        /**
+         * Constructor.
+         * @param font the font
+         * @param text the text
+         */
+        private Key(@Nonnull Font font, @Nonnull String text) {
+            this.font = font;
+            this.text = text;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            boolean equal = false;
+            if (o instanceof Key) {
+                Key k = (Key) o;
+                equal = font.equals(k.font) && text.equals(k.text);
+            }
+            return equal;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(font, text);
+        }
+    }
+}
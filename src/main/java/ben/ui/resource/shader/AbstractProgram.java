@@ -14,10 +14,13 @@ import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2;
 import com.jogamp.opengl.GLException;
 
+import ben.ui.resource.GlState;
 import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.util.texture.Texture;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * Abstract shader program.
@@ -40,6 +43,12 @@ public abstract class AbstractProgram {
      */
     private final int id;
 
+    /**
+     * The OpenGL state cache, null until the program is added to a shader manager.
+     */
+    @Nullable
+    private GlState glState;
+
     /**
      * Constructor.
      * @param gl the OpenGL interface
@@ -52,6 +61,11 @@ public abstract class AbstractProgram {
         for (Entry<Integer, String> sourceFileEntry : sourceFiles.entrySet()) {
             addShader(gl, sourceFileEntry.getKey(), sourceFileEntry.getValue());
         }
+        Map<Integer, String> attributeLocations = new HashMap<>();
+        getAttributeLocations(attributeLocations);
+        for (Entry<Integer, String> attributeLocationEntry : attributeLocations.entrySet()) {
+            gl.glBindAttribLocation(id, attributeLocationEntry.getKey(), attributeLocationEntry.getValue());
+        }
         gl.glLinkProgram(id);
         checkProgram(gl);
     }
@@ -63,12 +77,49 @@ public abstract class AbstractProgram {
      */
     protected abstract void getSourceFiles(Map<Integer, String> sourceFiles);
 
+    /**
+     * Get the attribute locations that should be bound before the program is linked.
+     * <p>
+     * Programs with more than a couple of attributes should bind them explicitly rather than rely on the driver.
+     * @param attributeLocations a map of attribute names, keyed by the location
+     */
+    protected void getAttributeLocations(@Nonnull Map<Integer, String> attributeLocations) { }
+
     /**
      * Use the program.
      * @param gl the OpenGL interface
      */
     public final void use(@Nonnull GL2 gl) {
-        gl.glUseProgram(getId());
+        if (glState == null) {
+            gl.glUseProgram(getId());
+        }
+        else {
+            glState.useProgram(gl, getId());
+        }
+    }
+
+    /**
+     * Bind a texture to the first texture unit.
+     * @param gl the OpenGL interface
+     * @param texture the texture
+     */
+    protected final void bindTexture(@Nonnull GL2 gl, @Nonnull Texture texture) {
+        if (glState == null) {
+            gl.glActiveTexture(GL.GL_TEXTURE0);
+            texture.enable(gl);
+            texture.bind(gl);
+        }
+        else {
+            glState.bindTexture(gl, texture);
+        }
+    }
+
+    /**
+     * Set the OpenGL state cache that the program binds through.
+     * @param glState the state cache
+     */
+    final void setGlState(@Nonnull GlState glState) {
+        this.glState = glState;
     }
 
     /**
@@ -0,0 +1,70 @@
+package ben.ui.resource.shader;
+
+import com.jogamp.opengl.GL2;
+
+import ben.ui.resource.color.Color;
+import javax.annotation.Nonnull;
+
+/**
+ * Colour Uniform.
+ * <p>
+ * A vec4 colour uniform of a program that is only uploaded when the colour changes.
+ */
+final class ColorUniform {
+
+    /**
+     * The location of the uniform.
+     */
+    private final int location;
+
+    /**
+     * Has a colour been uploaded yet.
+     */
+    private boolean set;
+
+    /**
+     * The red component that was last uploaded.
+     */
+    private float red;
+
+    /**
+     * The green component that was last uploaded.
+     */
+    private float green;
+
+    /**
+     * The blue component that was last uploaded.
+     */
+    private float blue;
+
+    /**
+     * The alpha component that was last uploaded.
+     */
+    private float alpha;
+
+    /**
+     * Constructor.
+     * @param location the location of the uniform
+     */
+    ColorUniform(int location) {
+        this.location = location;
+    }
+
+    /**
+     * Set the uniform.
+     * <p>
+     * The program must be in use.
+     * @param gl the OpenGL interface
+     * @param color the colour
+     */
+    void set(@Nonnull GL2 gl, @Nonnull Color color) {
+        if (!set || color.getRed() != red || color.getGreen() != green || color.getBlue() != blue || color.getAlpha() != alpha) {
+            red = color.getRed();
+            green = color.getGreen();
+            blue = color.getBlue();
+            alpha = color.getAlpha();
+            gl.glUniform4f(location, red, green, blue, alpha);
+            set = true;
+        }
+    }
+}
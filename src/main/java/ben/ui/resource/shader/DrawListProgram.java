@@ -0,0 +1,111 @@
+package ben.ui.resource.shader;
+
+import java.util.Map;
+
+import com.jogamp.opengl.GL2;
+
+import ben.ui.math.Matrix;
+
+import com.jogamp.opengl.util.texture.Texture;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The Draw List AbstractProgram.
+ * <p>
+ * Renders batches of pre-transformed vertices that carry their own colour. Textured batches multiply the colour with
+ * the texture, untextured batches use the colour alone. Distance field textures are thresholded at the edge of the
+ * glyphs and anti-aliased over a pixel.
+ */
+public class DrawListProgram extends AbstractProgram {
+
+    /**
+     * The location of the position attribute.
+     */
+    public static final int POSITION_LOCATION = 0;
+
+    /**
+     * The location of the texture coordinate attribute.
+     */
+    public static final int TEXTURE_COORDINATE_LOCATION = 1;
+
+    /**
+     * The location of the colour attribute.
+     */
+    public static final int COLOR_LOCATION = 2;
+
+    /**
+     * The projection matrix uniform.
+     */
+    @Nonnull
+    private final MatrixUniform pmvUniform;
+
+    /**
+     * The location of the texture uniform.
+     */
+    private final int textureLocation;
+
+    /**
+     * The location of the textured flag uniform.
+     */
+    private final int texturedLocation;
+
+    /**
+     * The location of the distance field flag uniform.
+     */
+    private final int distanceFieldLocation;
+
+    /**
+     * Constructor.
+     * @param gl the OpenGL interface
+     */
+    public DrawListProgram(@Nonnull GL2 gl) {
+        super(gl);
+        pmvUniform = new MatrixUniform(gl.glGetUniformLocation(getId(), "pmv"));
+        textureLocation = gl.glGetUniformLocation(getId(), "tex");
+        texturedLocation = gl.glGetUniformLocation(getId(), "textured");
+        distanceFieldLocation = gl.glGetUniformLocation(getId(), "distanceField");
+    }
+
+    @Override
+    protected final void getSourceFiles(@Nonnull Map<Integer, String> sourceFiles) {
+        sourceFiles.put(GL2.GL_VERTEX_SHADER, "/shaders/drawlist.vert");
+        sourceFiles.put(GL2.GL_FRAGMENT_SHADER, "/shaders/drawlist.frag");
+    }
+
+    @Override
+    protected final void getAttributeLocations(@Nonnull Map<Integer, String> attributeLocations) {
+        attributeLocations.put(POSITION_LOCATION, "position");
+        attributeLocations.put(TEXTURE_COORDINATE_LOCATION, "texCoord");
+        attributeLocations.put(COLOR_LOCATION, "color");
+    }
+
+    /**
+     * Set the matrix uniform.
+     * <p>
+     * The vertices in a draw list are already in screen space, so this is just the projection matrix.
+     * @param gl the OpenGL interface
+     * @param matrix the matrix to set
+     */
+    public final void setMatrix(@Nonnull GL2 gl, @Nonnull Matrix matrix) {
+        pmvUniform.set(gl, matrix);
+    }
+
+    /**
+     * Set the texture uniform.
+     * @param gl the OpenGL interface
+     * @param texture the texture to set, null for an untextured batch
+     * @param distanceField true if the texture is a signed distance field
+     */
+    public final void setTexture(@Nonnull GL2 gl, @Nullable Texture texture, boolean distanceField) {
+        if (texture == null) {
+            gl.glUniform1i(texturedLocation, 0);
+        }
+        else {
+            bindTexture(gl, texture);
+            gl.glUniform1i(textureLocation, 0);
+            gl.glUniform1i(texturedLocation, 1);
+            gl.glUniform1i(distanceFieldLocation, distanceField ? 1 : 0);
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package ben.ui.resource.shader;
 
-import java.nio.FloatBuffer;
 import java.util.Map;
 
 import com.jogamp.opengl.GL2;
@@ -22,14 +21,16 @@ public class FlatProgram extends AbstractProgram {
     public static final int POSITION_LOCATION = 0;
 
     /**
-     * The location of the colour uniform.
+     * The colour uniform.
      */
-    private final int colorLocation;
+    @Nonnull
+    private final ColorUniform colorUniform;
 
     /**
-     * The location of the PMV matrix uniform.
+     * The PMV matrix uniform.
      */
-    private final int pmvLocation;
+    @Nonnull
+    private final MatrixUniform pmvUniform;
 
     /**
      * Constructor.
@@ -37,8 +38,8 @@ public class FlatProgram extends AbstractProgram {
      */
     public FlatProgram(@Nonnull GL2 gl) {
         super(gl);
-        colorLocation = gl.glGetUniformLocation(getId(), "color");
-        pmvLocation = gl.glGetUniformLocation(getId(), "pmv");
+        colorUniform = new ColorUniform(gl.glGetUniformLocation(getId(), "color"));
+        pmvUniform = new MatrixUniform(gl.glGetUniformLocation(getId(), "pmv"));
     }
 
     @Override
@@ -49,12 +50,13 @@ public class FlatProgram extends AbstractProgram {
 
     /**
      * Set the PMV matrix.
+     * <p>
+     * Nothing is uploaded if this program already has the same version of the PMV matrix.
      * @param gl the OpenGL interface
      * @param pmvMatrix the PMV matrix to set
      */
     public final void setPmvMatrix(@Nonnull GL2 gl, @Nonnull PmvMatrix pmvMatrix) {
-        FloatBuffer buffer = pmvMatrix.getPmvMatrix().getBuffer();
-        gl.glUniformMatrix4fv(pmvLocation, 1, false, buffer);
+        pmvUniform.set(gl, pmvMatrix);
     }
 
     /**
@@ -63,6 +65,6 @@ public class FlatProgram extends AbstractProgram {
      * @param color the colour to set
      */
     public final void setColor(@Nonnull GL2 gl, @Nonnull Color color) {
-        gl.glUniform4f(colorLocation, color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha());
+        colorUniform.set(gl, color);
     }
 }
@@ -0,0 +1,72 @@
+package ben.ui.resource.shader;
+
+import java.util.Map;
+
+import com.jogamp.opengl.GL2;
+
+import ben.ui.math.Matrix;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The Instanced Flat AbstractProgram.
+ * <p>
+ * Renders solid rectangles as instances of a unit quad. Each instance carries its screen space rectangle and colour,
+ * so any number of rectangles can be drawn with a single draw call.
+ */
+public class InstancedFlatProgram extends AbstractProgram {
+
+    /**
+     * The location of the corner attribute, the per vertex position in the unit quad.
+     */
+    public static final int CORNER_LOCATION = 0;
+
+    /**
+     * The location of the rectangle attribute, the per instance x, y, width and height.
+     */
+    public static final int RECT_LOCATION = 1;
+
+    /**
+     * The location of the colour attribute, the per instance colour.
+     */
+    public static final int COLOR_LOCATION = 2;
+
+    /**
+     * The projection matrix uniform.
+     */
+    @Nonnull
+    private final MatrixUniform pmvUniform;
+
+    /**
+     * Constructor.
+     * @param gl the OpenGL interface
+     */
+    public InstancedFlatProgram(@Nonnull GL2 gl) {
+        super(gl);
+        pmvUniform = new MatrixUniform(gl.glGetUniformLocation(getId(), "pmv"));
+    }
+
+    @Override
+    protected final void getSourceFiles(@Nonnull Map<Integer, String> sourceFiles) {
+        sourceFiles.put(GL2.GL_VERTEX_SHADER, "/shaders/instancedflat.vert");
+        sourceFiles.put(GL2.GL_FRAGMENT_SHADER, "/shaders/instancedflat.frag");
+    }
+
+    @Override
+    protected final void getAttributeLocations(@Nonnull Map<Integer, String> attributeLocations) {
+        attributeLocations.put(CORNER_LOCATION, "corner");
+        attributeLocations.put(RECT_LOCATION, "rect");
+        attributeLocations.put(COLOR_LOCATION, "color");
+    }
+
+    /**
+     * Set the matrix uniform.
+     * <p>
+     * The rectangles are already in screen space, so this is just the projection matrix.
+     * @param gl the OpenGL interface
+     * @param matrix the matrix to set
+     */
+    public final void setMatrix(@Nonnull GL2 gl, @Nonnull Matrix matrix) {
+        pmvUniform.set(gl, matrix);
+    }
+}
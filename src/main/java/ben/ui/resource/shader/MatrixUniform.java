@@ -0,0 +1,79 @@
+package ben.ui.resource.shader;
+
+import java.nio.FloatBuffer;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL2;
+
+import ben.ui.math.Matrix;
+import ben.ui.math.PmvMatrix;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Matrix Uniform.
+ * <p>
+ * A 4x4 matrix uniform of a program that remembers what it last uploaded. A PMV matrix is only uploaded again if it is
+ * a different PMV matrix or its version has changed, and the upload reuses a direct buffer.
+ */
+final class MatrixUniform {
+
+    /**
+     * The location of the uniform.
+     */
+    private final int location;
+
+    /**
+     * The buffer that the matrix is put into before it is uploaded.
+     */
+    @Nonnull
+    private final FloatBuffer buffer = Buffers.newDirectFloatBuffer(16);
+
+    /**
+     * The PMV matrix that was last uploaded, null if a plain matrix was last uploaded.
+     */
+    @Nullable
+    private PmvMatrix lastPmvMatrix;
+
+    /**
+     * The version of the PMV matrix that was last uploaded.
+     */
+    private long lastVersion;
+
+    /**
+     * Constructor.
+     * @param location the location of the uniform
+     */
+    MatrixUniform(int location) {
+        this.location = location;
+    }
+
+    /**
+     * Set the uniform to a PMV matrix.
+     * <p>
+     * The program must be in use.
+     * @param gl the OpenGL interface
+     * @param pmvMatrix the PMV matrix
+     */
+    void set(@Nonnull GL2 gl, @Nonnull PmvMatrix pmvMatrix) {
+        if (pmvMatrix != lastPmvMatrix || pmvMatrix.getVersion() != lastVersion) {
+            pmvMatrix.getPmvMatrix().get(buffer);
+            gl.glUniformMatrix4fv(location, 1, false, buffer);
+            lastPmvMatrix = pmvMatrix;
+            lastVersion = pmvMatrix.getVersion();
+        }
+    }
+
+    /**
+     * Set the uniform to a matrix.
+     * <p>
+     * The program must be in use. A plain matrix has no version so it is always uploaded.
+     * @param gl the OpenGL interface
+     * @param matrix the matrix
+     */
+    void set(@Nonnull GL2 gl, @Nonnull Matrix matrix) {
+        matrix.get(buffer);
+        gl.glUniformMatrix4fv(location, 1, false, buffer);
+        lastPmvMatrix = null;
+    }
+}
@@ -1,5 +1,6 @@
 package ben.ui.resource.shader;
 
+import ben.ui.resource.GlState;
 import javax.annotation.Nonnull;
 
 import java.util.HashMap;
@@ -15,11 +16,26 @@ public class ShaderManager {
      */
     private final Map<Class<? extends AbstractProgram>, AbstractProgram> programs = new HashMap<>();
 
+    /**
+     * The OpenGL state cache that the programs bind through.
+     */
+    @Nonnull
+    private final GlState glState;
+
+    /**
+     * Constructor.
+     * @param glState the OpenGL state cache
+     */
+    public ShaderManager(@Nonnull GlState glState) {
+        this.glState = glState;
+    }
+
     /**
      * Add a new program to the shader manager.
      * @param program the program to add
      */
     public final void addProgram(@Nonnull AbstractProgram program) {
+        program.setGlState(glState);
         programs.put(program.getClass(), program);
     }
 
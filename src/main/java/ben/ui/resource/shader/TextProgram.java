@@ -1,9 +1,7 @@
 package ben.ui.resource.shader;
 
-import java.nio.FloatBuffer;
 import java.util.Map;
 
-import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2;
 
 import ben.ui.math.PmvMatrix;
@@ -15,7 +13,8 @@ import javax.annotation.Nonnull;
 /**
  * The Text AbstractProgram.
  * <p>
- * AbstractProgram to render text; uses the alpha from the font sheet with the RGB of the colour uniform.
+ * AbstractProgram to render text; uses the alpha from the font sheet with the RGB of the colour uniform. The font sheet
+ * may instead be a signed distance field, which stays sharp when text is scaled.
  */
 public class TextProgram extends AbstractProgram {
 
@@ -30,9 +29,10 @@ public class TextProgram extends AbstractProgram {
     public static final int TEXTURE_COORDINATE_LOCATION = 1;
 
     /**
-     * The location of the PMV matrix uniform.
+     * The PMV matrix uniform.
      */
-    private final int pmvLocation;
+    @Nonnull
+    private final MatrixUniform pmvUniform;
 
     /**
      * The location of the texture uniform.
@@ -40,9 +40,15 @@ public class TextProgram extends AbstractProgram {
     private final int textureLocation;
 
     /**
-     * The location of the colour uniform.
+     * The colour uniform.
      */
-    private final int colorLocation;
+    @Nonnull
+    private final ColorUniform colorUniform;
+
+    /**
+     * The location of the distance field flag uniform.
+     */
+    private final int distanceFieldLocation;
 
     /**
      * Constructor.
@@ -50,9 +56,10 @@ public class TextProgram extends AbstractProgram {
      */
     public TextProgram(@Nonnull GL2 gl) {
         super(gl);
-        pmvLocation = gl.glGetUniformLocation(getId(), "pmv");
+        pmvUniform = new MatrixUniform(gl.glGetUniformLocation(getId(), "pmv"));
         textureLocation = gl.glGetUniformLocation(getId(), "tex");
-        colorLocation = gl.glGetUniformLocation(getId(), "color");
+        colorUniform = new ColorUniform(gl.glGetUniformLocation(getId(), "color"));
+        distanceFieldLocation = gl.glGetUniformLocation(getId(), "distanceField");
     }
 
     @Override
@@ -63,12 +70,13 @@ public class TextProgram extends AbstractProgram {
 
     /**
      * Set the PMV matrix uniform.
+     * <p>
+     * Nothing is uploaded if this program already has the same version of the PMV matrix.
      * @param gl the OpenGL interface
      * @param pmvMatrix the PMV matrix to set
      */
     public final void setPmvMatrix(@Nonnull GL2 gl, @Nonnull PmvMatrix pmvMatrix) {
-        FloatBuffer buffer = pmvMatrix.getPmvMatrix().getBuffer();
-        gl.glUniformMatrix4fv(pmvLocation, 1, false, buffer);
+        pmvUniform.set(gl, pmvMatrix);
     }
 
     /**
@@ -77,10 +85,19 @@ public class TextProgram extends AbstractProgram {
      * @param texture the texture to set
      */
     public final void setTexture(@Nonnull GL2 gl, @Nonnull Texture texture) {
-        gl.glActiveTexture(GL.GL_TEXTURE0);
-        texture.enable(gl);
-        texture.bind(gl);
+        setTexture(gl, texture, false);
+    }
+
+    /**
+     * Set the texture uniform.
+     * @param gl the OpenGL interface
+     * @param texture the texture to set
+     * @param distanceField true if the texture is a signed distance field rather than coverage
+     */
+    public final void setTexture(@Nonnull GL2 gl, @Nonnull Texture texture, boolean distanceField) {
+        bindTexture(gl, texture);
         gl.glUniform1i(textureLocation, 0);
+        gl.glUniform1i(distanceFieldLocation, distanceField ? 1 : 0);
     }
 
     /**
@@ -91,6 +108,6 @@ public class TextProgram extends AbstractProgram {
      * @param color the colour
      */
     public final void setColor(@Nonnull GL2 gl, @Nonnull Color color) {
-        gl.glUniform4f(colorLocation, color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha());
+        colorUniform.set(gl, color);
     }
 }
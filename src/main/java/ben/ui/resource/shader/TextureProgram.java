@@ -1,9 +1,7 @@
 package ben.ui.resource.shader;
 
-import java.nio.FloatBuffer;
 import java.util.Map;
 
-import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2;
 
 import ben.ui.math.PmvMatrix;
@@ -27,9 +25,10 @@ public class TextureProgram extends AbstractProgram {
     public static final int TEXTURE_COORDINATE_LOCATION = 1;
 
     /**
-     * The location of the PMV matrix uniform.
+     * The PMV matrix uniform.
      */
-    private final int pmvLocation;
+    @Nonnull
+    private final MatrixUniform pmvUniform;
 
     /**
      * The location of the texture uniform.
@@ -42,7 +41,7 @@ public class TextureProgram extends AbstractProgram {
      */
     public TextureProgram(@Nonnull GL2 gl) {
         super(gl);
-        pmvLocation = gl.glGetUniformLocation(getId(), "pmv");
+        pmvUniform = new MatrixUniform(gl.glGetUniformLocation(getId(), "pmv"));
         texureLocation = gl.glGetUniformLocation(getId(), "tex");
     }
 
@@ -54,12 +53,13 @@ public class TextureProgram extends AbstractProgram {
 
     /**
      * Set the PMV matrix uniform.
+     * <p>
+     * Nothing is uploaded if this program already has the same version of the PMV matrix.
      * @param gl the OpenGL interface
      * @param pmvMatrix the PMV matrix to set
      */
     public final void setPmvMatrix(@Nonnull GL2 gl, @Nonnull PmvMatrix pmvMatrix) {
-        FloatBuffer buffer = pmvMatrix.getPmvMatrix().getBuffer();
-        gl.glUniformMatrix4fv(pmvLocation, 1, false, buffer);
+        pmvUniform.set(gl, pmvMatrix);
     }
 
     /**
@@ -68,9 +68,7 @@ public class TextureProgram extends AbstractProgram {
      * @param texture the texture to set
      */
     public final void setTexture(@Nonnull GL2 gl, @Nonnull Texture texture) {
-        gl.glActiveTexture(GL.GL_TEXTURE0);
-        texture.enable(gl);
-        texture.bind(gl);
+        bindTexture(gl, texture);
         gl.glUniform1i(texureLocation, 0);
     }
 }
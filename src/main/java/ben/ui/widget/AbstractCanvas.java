@@ -8,8 +8,10 @@ import ben.ui.math.Matrix;
 import ben.ui.math.PmvMatrix;
 import ben.ui.math.Rect;
 import ben.ui.math.Vec2i;
-import ben.ui.math.Vec4f;
+import ben.ui.renderer.DrawList;
 import ben.ui.resource.GlResourceManager;
+import ben.ui.resource.GpuProfiler;
+import ben.ui.resource.IRepaintListener;
 import ben.ui.graphic.IGraphic;
 import ben.ui.resource.color.Color;
 import net.jcip.annotations.GuardedBy;
@@ -77,6 +79,34 @@ public abstract class AbstractCanvas implements IWidget {
     @Nonnull
     private Vec2i size = new Vec2i(0, 0);
 
+    /**
+     * The repaint listener from the last draw, told when the canvas changes.
+     */
+    @Nullable
+    private IRepaintListener repaintListener;
+
+    /**
+     * The pane that the canvas is in, null if it hasn't been added.
+     */
+    @Nullable
+    private volatile IPane parent;
+
+    /**
+     * The screen position of the parent from the last draw, used to work out which part of the screen has changed.
+     */
+    private volatile int parentScreenX;
+
+    /**
+     * The screen position of the parent from the last draw, used to work out which part of the screen has changed.
+     */
+    private volatile int parentScreenY;
+
+    /**
+     * The repaint listener that the graphics are given, so that their changes redraw the area of the canvas.
+     */
+    @Nonnull
+    private final IRepaintListener graphicRepaintListener = new GraphicRepaintListener();
+
     /**
      * Constructor.
      * @param name the name of the canvas.
@@ -93,27 +123,72 @@ public abstract class AbstractCanvas implements IWidget {
 
     @Override
     public final void draw(@Nonnull GL2 gl, @Nonnull PmvMatrix pmvMatrix, @Nonnull GlResourceManager glResourceManager) {
+        repaintListener = glResourceManager.getRepaintListener();
+        parentScreenX = (int) pmvMatrix.getMvMatrix().transformX(0, 0);
+        parentScreenY = (int) pmvMatrix.getMvMatrix().transformY(0, 0);
+        GpuProfiler gpuProfiler = glResourceManager.getGpuProfiler();
+        gpuProfiler.begin(gl, name != null ? name : getClass().getSimpleName());
         // Remove the old graphics.
         for (IGraphic graphic : removedGraphics) {
             graphic.remove(gl);
         }
         removedGraphics.clear();
 
+        // The canvas has its own viewport and projection, so anything batched before it must be drawn first.
+        DrawList drawList = glResourceManager.getDrawList();
+        boolean batching = drawList.isRecording();
+        if (batching) {
+            drawList.end(gl);
+        }
+
         // Setup the canvas viewport
-        Vec4f canvasPosition = Matrix.mul(pmvMatrix.getMvMatrix(), new Vec4f(position.getX(), position.getY(), 0, 1));
-        gl.glViewport((int) canvasPosition.getX(), (int) canvasPosition.getY(), getSize().getX(), getSize().getY());
+        Matrix mvMatrix = pmvMatrix.getMvMatrix();
+        int canvasX = (int) mvMatrix.transformX(position.getX(), position.getY());
+        int canvasY = (int) mvMatrix.transformY(position.getX(), position.getY());
+        gl.glViewport(canvasX, canvasY, getSize().getX(), getSize().getY());
 
         gl.glClearColor(BACKGROUND_COLOR.getRed(), BACKGROUND_COLOR.getGreen(), BACKGROUND_COLOR.getBlue(), BACKGROUND_COLOR.getAlpha());
         gl.glClear(GL2.GL_COLOR_BUFFER_BIT);
 
         // Draw the graphics.
+        IRepaintListener previousRepaintListener = glResourceManager.getRepaintListener();
+        glResourceManager.setRepaintListener(graphicRepaintListener);
         for (IGraphic graphic : graphics) {
             graphic.draw(gl, getPmvMatrix(), glResourceManager);
         }
+        glResourceManager.setRepaintListener(previousRepaintListener);
 
         // Reset the viewport.
         Vec2i screenSize = pmvMatrix.getScreenSize();
         gl.glViewport(0, 0, screenSize.getX(), screenSize.getY());
+
+        if (batching) {
+            drawList.begin(pmvMatrix);
+        }
+        gpuProfiler.end(gl);
+    }
+
+    /**
+     * Tell the parent that the canvas has moved or changed size.
+     */
+    private void notifyMoved() {
+        IPane currentParent = parent;
+        if (currentParent != null) {
+            currentParent.childMoved(this);
+        }
+    }
+
+    /**
+     * Request that the window is drawn again.
+     * <p>
+     *     Canvases should call this when their camera moves. Does nothing until the canvas has been drawn once.
+     * </p>
+     */
+    protected final void requestRepaint() {
+        if (repaintListener != null) {
+            repaintListener.repaintRequested(new Rect(parentScreenX + position.getX(), parentScreenY + position.getY(),
+                    size.getX(), size.getY()));
+        }
     }
 
     /**
@@ -125,7 +200,10 @@ public abstract class AbstractCanvas implements IWidget {
 
     @Override
     public final void setPosition(@Nonnull Vec2i position) {
+        requestRepaint();
         this.position = position;
+        requestRepaint();
+        notifyMoved();
     }
 
     @Nonnull
@@ -138,7 +216,19 @@ public abstract class AbstractCanvas implements IWidget {
     public final void setSize(@Nonnull Vec2i size) {
 //        assert size.getX() >= 0 : "AbstractCanvas size must not be negative";
 //        assert size.getY() >= 0 : "AbstractCanvas size must not be negative";
-        this.size = size;
+        if (!size.equals(this.size)) {
+            requestRepaint();
+            this.size = size;
+            requestRepaint();
+            notifyMoved();
+        }
+    }
+
+    @Override
+    public final void setParent(@Nullable IPane parent) {
+        // The preferred size of a canvas is its size, which is set by the parent, so the parent is only told when the
+        // canvas moves.
+        this.parent = parent;
     }
 
     @Nonnull
@@ -154,7 +244,15 @@ public abstract class AbstractCanvas implements IWidget {
 
     @Override
     public final boolean contains(@Nonnull Vec2i pos) {
-        return new Rect(position, size).contains(pos);
+        return contains(pos.getX(), pos.getY());
+    }
+
+    @Override
+    public final boolean contains(int x, int y) {
+        // Called for every mouse move, so nothing is created.
+        int relativeX = x - position.getX();
+        int relativeY = y - position.getY();
+        return relativeX >= 0 && relativeY >= 0 && relativeX <= size.getX() && relativeY <= size.getY();
     }
 
     @Override
@@ -187,6 +285,7 @@ public abstract class AbstractCanvas implements IWidget {
 
         graphics.add(graphic);
         removedGraphics.remove(graphic);
+        requestRepaint();
     }
 
     /**
@@ -199,6 +298,7 @@ public abstract class AbstractCanvas implements IWidget {
 
         graphics.remove(graphic);
         removedGraphics.add(graphic);
+        requestRepaint();
     }
 
     @Override
@@ -207,4 +307,23 @@ public abstract class AbstractCanvas implements IWidget {
             graphic.remove(gl);
         }
     }
+
+    /**
+     * The repaint listener of the graphics.
+     * <p>
+     *     The graphics don't know where the canvas is on the screen, so any change redraws the whole canvas.
+     * </p>
+     */
+    private class GraphicRepaintListener implements IRepaintListener {
+
+        @Override
+        public void repaintRequested() {
+            requestRepaint();
+        }
+
+        @Override
+        public void repaintRequested(@Nonnull Rect damage) {
+            requestRepaint();
+        }
+    }
 }
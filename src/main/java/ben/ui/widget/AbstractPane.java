@@ -9,14 +9,18 @@ import ben.ui.math.Matrix;
 import ben.ui.math.PmvMatrix;
 import ben.ui.math.Rect;
 import ben.ui.math.Vec2i;
-import ben.ui.math.Vec3f;
-import ben.ui.math.Vec4f;
+import ben.ui.renderer.DrawList;
 import ben.ui.renderer.FlatRenderer;
+import ben.ui.renderer.FrameBufferObject;
+import ben.ui.renderer.TextureRenderer;
 import ben.ui.resource.GlResourceManager;
+import ben.ui.resource.GpuProfiler;
+import ben.ui.resource.IRepaintListener;
 import ben.ui.resource.color.Color;
 import net.jcip.annotations.GuardedBy;
 import javax.annotation.Nonnull;
 
+import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2;
 import javax.annotation.Nullable;
 
@@ -25,6 +29,12 @@ import java.util.List;
 
 /**
  * Abstract Pane.
+ * <p>
+ *     Subclasses measure their preferred size in {@link #measure()} and arrange their children in
+ *     {@link #updateLayout()}. The preferred size is cached until a child's preferred size changes, and arranging is
+ *     deferred until the pane is validated before the next frame, so a change that affects many panes is only laid
+ *     out once.
+ * </p>
  */
 public abstract class AbstractPane implements IPane {
 
@@ -34,6 +44,11 @@ public abstract class AbstractPane implements IPane {
     @Nonnull
     private static final Color BACKGROUND_COLOR = new Color(0.235f, 0.247f, 0.254f);
 
+    /**
+     * The number of pixels that children are grown by when checking whether they are in the scissor box.
+     */
+    private static final int CULL_MARGIN = 1;
+
     /**
      * The child widgets in the pane.
      */
@@ -105,6 +120,99 @@ public abstract class AbstractPane implements IPane {
     @Nullable
     private FlatRenderer backgroundRenderer;
 
+    /**
+     * The repaint listener from the last draw, told when the pane changes.
+     */
+    @Nullable
+    private IRepaintListener repaintListener;
+
+    /**
+     * The screen position of the parent from the last draw, used to work out which part of the screen has changed.
+     */
+    private volatile int parentScreenX;
+
+    /**
+     * The screen position of the parent from the last draw, used to work out which part of the screen has changed.
+     */
+    private volatile int parentScreenY;
+
+    /**
+     * Is the pane drawn into a texture that is only redrawn when something in the pane changes.
+     */
+    private boolean cached;
+
+    /**
+     * Is the cached texture up to date.
+     * <p>
+     *     Cleared by the pane and its descendants when they change, which may be on the input thread.
+     * </p>
+     */
+    private volatile boolean cacheValid;
+
+    /**
+     * The frame buffer that the pane is cached in.
+     */
+    @Nullable
+    private FrameBufferObject cacheFrameBuffer;
+
+    /**
+     * Draws the cached texture.
+     */
+    @Nullable
+    private TextureRenderer cacheRenderer;
+
+    /**
+     * The repaint listener that the descendants of a cached pane are given, so their changes invalidate the cache.
+     */
+    @Nonnull
+    private final IRepaintListener cacheRepaintListener = new CacheRepaintListener();
+
+    /**
+     * The pane that lays this pane out, null for the root pane or a pane that hasn't been added.
+     */
+    @Nullable
+    private volatile IPane parent;
+
+    /**
+     * The cached preferred size, null if the pane needs to be measured.
+     */
+    @Nullable
+    private volatile Vec2i preferredSize;
+
+    /**
+     * Are the children of the pane arranged for its current size and their preferred sizes.
+     */
+    private volatile boolean layoutValid;
+
+    /**
+     * Are the pane and all of its descendants arranged; if not the pane needs to be validated.
+     */
+    private volatile boolean subtreeLayoutValid;
+
+    /**
+     * The scissor box of the pane from the last draw, reused while the pane doesn't move on the screen.
+     */
+    @Nullable
+    private Rect paneScissorBox;
+
+    /**
+     * The scissor box of the parent from the last draw, that the pane's scissor box was intersected with.
+     */
+    @Nullable
+    private Rect parentScissorBox;
+
+    /**
+     * The scissor box of the pane that the last intersection was for, null if there hasn't been one.
+     */
+    @Nullable
+    private Rect intersectedPaneScissorBox;
+
+    /**
+     * The intersection of the pane's and the parent's scissor boxes from the last draw.
+     */
+    @Nullable
+    private Rect intersectedScissorBox;
+
     /**
      * Constructor.
      * @param name the name of the pane
@@ -127,6 +235,11 @@ public abstract class AbstractPane implements IPane {
 
     @Override
     public final void draw(@Nonnull GL2 gl, @Nonnull PmvMatrix pmvMatrix, @Nonnull GlResourceManager glResourceManager) {
+        repaintListener = glResourceManager.getRepaintListener();
+        parentScreenX = (int) pmvMatrix.getMvMatrix().transformX(0, 0);
+        parentScreenY = (int) pmvMatrix.getMvMatrix().transformY(0, 0);
+        GpuProfiler gpuProfiler = glResourceManager.getGpuProfiler();
+        gpuProfiler.begin(gl, name != null ? name : getClass().getSimpleName());
         if (!isInitialised) {
             if (drawBackground) {
                 backgroundRenderer = new FlatRenderer(gl, glResourceManager, getRect(), BACKGROUND_COLOR);
@@ -150,31 +263,258 @@ public abstract class AbstractPane implements IPane {
 
         pmvMatrix.push();
 
-        pmvMatrix.translate(new Vec3f(position.getX(), position.getY(), 0));
+        pmvMatrix.translate(position.getX(), position.getY(), 0);
 
         // Scissor the viewport so that nothing is drawn outside the pane.
-        Vec4f panePosition = Matrix.mul(pmvMatrix.getMvMatrix(), new Vec4f(0, 0, 0, 1));
         Vec2i screenSize = pmvMatrix.getScreenSize();
-        Rect scissorBox = new Rect((int) panePosition.getX(), screenSize.getY() - (int) panePosition.getY() - size.getY(), size.getX(), size.getY());
-        scissorBox = pmvMatrix.scissor(scissorBox);
+        Rect scissorBox = scissorPane(pmvMatrix, screenSize);
 
         if (scissorBox != null) {
-            gl.glScissor(scissorBox.getX(), scissorBox.getY(), scissorBox.getWidth(), scissorBox.getHeight());
+            applyScissorBox(gl, glResourceManager, screenSize, scissorBox);
 
-            if (drawBackground) {
-                assert backgroundRenderer != null;
-                backgroundRenderer.draw(gl, pmvMatrix);
+            if (cached) {
+                drawCached(gl, pmvMatrix, glResourceManager);
             }
-            doDraw(gl, pmvMatrix);
+            else {
+                drawContents(gl, pmvMatrix, glResourceManager);
+            }
+        }
 
-            for (IWidget widget : widgets) {
+        pmvMatrix.pop();
+        applyScissorBox(gl, glResourceManager, screenSize, pmvMatrix.getScissorBox());
+        gpuProfiler.end(gl);
+    }
+
+    /**
+     * Draw the background, the pane and its children.
+     * @param gl the OpenGL interface
+     * @param pmvMatrix the PMV matrix, translated to the pane
+     * @param glResourceManager the OpenGL resource manager
+     */
+    private void drawContents(@Nonnull GL2 gl, @Nonnull PmvMatrix pmvMatrix, @Nonnull GlResourceManager glResourceManager) {
+        if (drawBackground) {
+            assert backgroundRenderer != null;
+            backgroundRenderer.draw(gl, pmvMatrix);
+        }
+        doDraw(gl, pmvMatrix);
+
+        // Children that are outside the scissor box wouldn't change any pixels, so they aren't drawn at all.
+        Matrix mvMatrix = pmvMatrix.getMvMatrix();
+        int paneX = (int) mvMatrix.transformX(0, 0);
+        int paneY = (int) mvMatrix.transformY(0, 0);
+        Vec2i screenSize = pmvMatrix.getScreenSize();
+        Rect scissorBox = pmvMatrix.getScissorBox();
+        for (int i = 0; i < widgets.size(); i++) {
+            IWidget widget = widgets.get(i);
+            if (isInScissorBox(widget, paneX, paneY, screenSize, scissorBox)) {
                 widget.draw(gl, pmvMatrix, glResourceManager);
             }
         }
+    }
 
+    /**
+     * Does a child overlap the scissor box.
+     * <p>
+     *     The child is grown by a margin, as lines can be drawn on its far edges.
+     * </p>
+     * @param widget the child
+     * @param paneX the x coordinate of the pane on the screen
+     * @param paneY the y coordinate of the pane on the screen, from the top
+     * @param screenSize the size of the screen
+     * @param scissorBox the scissor box, from the bottom left; null for the whole screen
+     * @return true if the child may be visible
+     */
+    static boolean isInScissorBox(@Nonnull IWidget widget, int paneX, int paneY, @Nonnull Vec2i screenSize,
+            @Nullable Rect scissorBox) {
+        Vec2i childPosition = widget.getPosition();
+        Vec2i childSize = widget.getSize();
+        int left = paneX + childPosition.getX() - CULL_MARGIN;
+        int right = paneX + childPosition.getX() + childSize.getX() + CULL_MARGIN;
+        int bottom = screenSize.getY() - paneY - childPosition.getY() - childSize.getY() - CULL_MARGIN;
+        int top = screenSize.getY() - paneY - childPosition.getY() + CULL_MARGIN;
+        int boxX = 0;
+        int boxY = 0;
+        int boxWidth = screenSize.getX();
+        int boxHeight = screenSize.getY();
+        if (scissorBox != null) {
+            boxX = scissorBox.getX();
+            boxY = scissorBox.getY();
+            boxWidth = scissorBox.getWidth();
+            boxHeight = scissorBox.getHeight();
+        }
+        return right > boxX && left < boxX + boxWidth && top > boxY && bottom < boxY + boxHeight;
+    }
+
+    /**
+     * Draw the cached texture of the pane, redrawing it first if something has changed.
+     * @param gl the OpenGL interface
+     * @param pmvMatrix the PMV matrix, translated to the pane
+     * @param glResourceManager the OpenGL resource manager
+     */
+    private void drawCached(@Nonnull GL2 gl, @Nonnull PmvMatrix pmvMatrix, @Nonnull GlResourceManager glResourceManager) {
+        if (size.getX() > 0 && size.getY() > 0) {
+            DrawList drawList = glResourceManager.getDrawList();
+            boolean batching = drawList.isRecording();
+            if (batching) {
+                drawList.end(gl);
+            }
+
+            if (!cacheValid || cacheFrameBuffer == null) {
+                renderCache(gl, pmvMatrix, glResourceManager, batching);
+            }
+            assert cacheRenderer != null;
+
+            // The texture holds premultiplied colours.
+            applyScissorBox(gl, glResourceManager, pmvMatrix.getScreenSize(), pmvMatrix.getScissorBox());
+            gl.glBlendFunc(GL.GL_ONE, GL.GL_ONE_MINUS_SRC_ALPHA);
+            cacheRenderer.draw(gl, pmvMatrix);
+            gl.glBlendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
+
+            if (batching) {
+                drawList.begin(pmvMatrix);
+            }
+        }
+    }
+
+    /**
+     * Draw the pane and its children into the cache frame buffer.
+     * @param gl the OpenGL interface
+     * @param pmvMatrix the PMV matrix, translated to the pane
+     * @param glResourceManager the OpenGL resource manager
+     * @param batching true if the draw list should be used
+     */
+    private void renderCache(@Nonnull GL2 gl, @Nonnull PmvMatrix pmvMatrix, @Nonnull GlResourceManager glResourceManager,
+            boolean batching) {
+        if (cacheFrameBuffer == null) {
+            cacheFrameBuffer = new FrameBufferObject(gl, glResourceManager, size);
+            cacheRenderer = new TextureRenderer(gl, glResourceManager, size, cacheFrameBuffer.getTexture());
+        }
+        else if (!size.equals(cacheFrameBuffer.getSize())) {
+            assert cacheRenderer != null;
+            cacheFrameBuffer.setSize(gl, size);
+            cacheRenderer.setSize(gl, size);
+        }
+
+        Vec2i screenSize = pmvMatrix.getScreenSize();
+        cacheFrameBuffer.bind(gl);
+        gl.glViewport(0, 0, size.getX(), size.getY());
+        gl.glScissor(0, 0, size.getX(), size.getY());
+        gl.glClearColor(0, 0, 0, 0);
+        gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+        gl.glBlendFuncSeparate(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA, GL.GL_ONE, GL.GL_ONE_MINUS_SRC_ALPHA);
+
+        // Draw the pane as if it was the whole screen.
+        pmvMatrix.push();
+        pmvMatrix.identity();
+        pmvMatrix.orthographic(new Rect(0, 0, size.getX(), size.getY()));
+        pmvMatrix.setScreenSize(size);
+        pmvMatrix.setScissorBox(null);
+
+        // Descendants take the cache listener when they are drawn, so that their changes invalidate the cache.
+        IRepaintListener previousRepaintListener = glResourceManager.getRepaintListener();
+        glResourceManager.setRepaintListener(cacheRepaintListener);
+        cacheValid = true;
+
+        DrawList drawList = glResourceManager.getDrawList();
+        if (batching) {
+            drawList.begin(pmvMatrix);
+        }
+        drawContents(gl, pmvMatrix, glResourceManager);
+        if (batching) {
+            drawList.end(gl);
+        }
+
+        glResourceManager.setRepaintListener(previousRepaintListener);
         pmvMatrix.pop();
-        scissorBox = pmvMatrix.getScissorBox();
-        if (scissorBox == null) {
+        pmvMatrix.setScreenSize(screenSize);
+
+        gl.glBlendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
+        cacheFrameBuffer.unbind(gl);
+        gl.glViewport(0, 0, screenSize.getX(), screenSize.getY());
+    }
+
+    /**
+     * Set whether the pane is cached.
+     * <p>
+     *     A cached pane is drawn into a texture, which is drawn as a single rectangle until the pane or one of its
+     *     descendants changes. This suits large panes that rarely change, like forms; panes that change every frame
+     *     are better left uncached.
+     * </p>
+     * @param cached true to cache the pane
+     */
+    public final void setCached(boolean cached) {
+        this.cached = cached;
+        requestRepaint();
+    }
+
+    /**
+     * Is the pane cached.
+     * @return true if the pane is drawn into a texture
+     */
+    public final boolean isCached() {
+        return cached;
+    }
+
+    /**
+     * Get the scissor box that covers the pane.
+     * @param pmvMatrix the PMV matrix, translated to the pane
+     * @param screenSize the size of the screen
+     * @return the scissor box
+     */
+    @Nonnull
+    private Rect getPaneScissorBox(@Nonnull PmvMatrix pmvMatrix, @Nonnull Vec2i screenSize) {
+        Matrix mvMatrix = pmvMatrix.getMvMatrix();
+        int x = (int) mvMatrix.transformX(0, 0);
+        int y = screenSize.getY() - (int) mvMatrix.transformY(0, 0) - size.getY();
+        if (paneScissorBox == null || paneScissorBox.getX() != x || paneScissorBox.getY() != y
+                || paneScissorBox.getWidth() != size.getX() || paneScissorBox.getHeight() != size.getY()) {
+            paneScissorBox = new Rect(x, y, size.getX(), size.getY());
+        }
+        return paneScissorBox;
+    }
+
+    /**
+     * Intersect the current scissor box with the pane's scissor box.
+     * <p>
+     *     Neither the pane nor its parent usually move between frames, so the last intersection is reused while both
+     *     scissor boxes are the same, rather than creating a new one when they partly overlap.
+     * </p>
+     * @param pmvMatrix the PMV matrix, translated to the pane
+     * @param screenSize the size of the screen
+     * @return the new scissor box, null if the pane is outside the current one
+     */
+    @Nullable
+    private Rect scissorPane(@Nonnull PmvMatrix pmvMatrix, @Nonnull Vec2i screenSize) {
+        Rect parentBox = pmvMatrix.getScissorBox();
+        Rect paneBox = getPaneScissorBox(pmvMatrix, screenSize);
+        if (paneBox == intersectedPaneScissorBox && parentBox == parentScissorBox) {
+            pmvMatrix.setScissorBox(intersectedScissorBox);
+        }
+        else {
+            intersectedScissorBox = pmvMatrix.scissor(paneBox);
+            intersectedPaneScissorBox = paneBox;
+            parentScissorBox = parentBox;
+        }
+        return intersectedScissorBox;
+    }
+
+    /**
+     * Apply a scissor box.
+     * <p>
+     *     If the draw list is recording the scissor box is given to it, so that it's applied when the list is flushed.
+     * </p>
+     * @param gl the OpenGL interface
+     * @param glResourceManager the OpenGL resource manager
+     * @param screenSize the size of the screen
+     * @param scissorBox the scissor box, null for the whole screen
+     */
+    private static void applyScissorBox(@Nonnull GL2 gl, @Nonnull GlResourceManager glResourceManager, @Nonnull Vec2i screenSize,
+            @Nullable Rect scissorBox) {
+        DrawList drawList = glResourceManager.getDrawList();
+        if (drawList.isRecording()) {
+            drawList.setScissorBox(scissorBox);
+        }
+        else if (scissorBox == null) {
             gl.glScissor(0, 0, screenSize.getX(), screenSize.getY());
         }
         else {
@@ -206,7 +546,11 @@ public abstract class AbstractPane implements IPane {
 
     @Override
     public final void setPosition(@Nonnull Vec2i position) {
+        // Moving doesn't change what the pane looks like, so its cache is still valid.
+        repaintArea();
         this.position = position;
+        repaintArea();
+        notifyMoved();
     }
 
     @Nonnull
@@ -217,9 +561,18 @@ public abstract class AbstractPane implements IPane {
 
     @Override
     public final void setSize(@Nonnull Vec2i size) {
-        this.size = size;
-        isDirty = true;
-        updateLayout();
+        if (!size.equals(this.size)) {
+            repaintArea();
+            this.size = size;
+            isDirty = true;
+            // Some panes prefer whatever size they are given, so the size is measured again; it's cheap as the
+            // children keep their cached sizes.
+            preferredSize = null;
+            layoutValid = false;
+            requestLayout();
+            requestRepaint();
+            notifyMoved();
+        }
     }
 
     @Nonnull
@@ -229,10 +582,104 @@ public abstract class AbstractPane implements IPane {
     }
 
     /**
-     * Update the layout.
+     * Arrange the children of the pane.
+     * <p>
+     *     Called when the pane is validated, if its size or the preferred size of a child has changed.
+     * </p>
      */
     protected abstract void updateLayout();
 
+    /**
+     * Measure the preferred size of the pane.
+     * <p>
+     *     Called when the cached preferred size is out of date. Must not change the children, only ask them for their
+     *     preferred sizes.
+     * </p>
+     * @return the preferred size
+     */
+    @Nonnull
+    protected abstract Vec2i measure();
+
+    @Nonnull
+    @Override
+    public final Vec2i getPreferredSize() {
+        Vec2i size = preferredSize;
+        if (size == null) {
+            size = measure();
+            preferredSize = size;
+        }
+        return size;
+    }
+
+    @Override
+    public final void setParent(@Nullable IPane parent) {
+        this.parent = parent;
+    }
+
+    @Override
+    public final void invalidateLayout() {
+        layoutValid = false;
+        requestLayout();
+        if (preferredSize != null) {
+            // Only a parent that has measured the pane depends on its preferred size.
+            preferredSize = null;
+            IPane currentParent = parent;
+            if (currentParent != null) {
+                currentParent.invalidateLayout();
+            }
+        }
+        requestRepaint();
+    }
+
+    /**
+     * Arrange the children again before the next frame, without measuring the pane again.
+     * <p>
+     *     For panes whose arrangement depends on something other than their size and their children, e.g. a scroll
+     *     offset.
+     * </p>
+     */
+    protected final void rearrange() {
+        layoutValid = false;
+        requestLayout();
+        requestRepaint();
+    }
+
+    @Override
+    public final void childMoved(@Nonnull IWidget child) {
+        mouseHandler.updateWidget(child);
+    }
+
+    @Override
+    public final void requestLayout() {
+        if (subtreeLayoutValid) {
+            subtreeLayoutValid = false;
+            IPane currentParent = parent;
+            if (currentParent != null) {
+                currentParent.requestLayout();
+            }
+        }
+    }
+
+    @Override
+    public final void validateLayout() {
+        if (!subtreeLayoutValid) {
+            if (!layoutValid) {
+                layoutValid = true;
+                updateLayout();
+                // The children may have moved, so anything drawn around them is out of date.
+                isDirty = true;
+                requestRepaint();
+            }
+            for (IWidget widget : widgets) {
+                if (widget instanceof IPane) {
+                    ((IPane) widget).validateLayout();
+                }
+            }
+            // Set last, so that requests from the children while they are arranged stop here.
+            subtreeLayoutValid = true;
+        }
+    }
+
     @Override
     public final boolean isVisible() {
         return true;
@@ -251,24 +698,83 @@ public abstract class AbstractPane implements IPane {
      * @param widget the widget to add
      */
     protected final void addWidget(@Nonnull IWidget widget) {
+        attachWidget(widget);
+        invalidateLayout();
+    }
+
+    /**
+     * Remove a widget.
+     * @param widget the widget to remove
+     */
+    protected final void removeWidget(@Nonnull IWidget widget) {
+        detachWidget(widget);
+        invalidateLayout();
+    }
+
+    /**
+     * Add a widget without invalidating the layout.
+     * <p>
+     *     For panes that add children while they are arranged, whose preferred size doesn't depend on them; the child
+     *     must be positioned by the same arrangement.
+     * </p>
+     * @param widget the widget to add
+     */
+    protected final void attachWidget(@Nonnull IWidget widget) {
         assert !widgets.contains(widget) : "Trying to add widget that is already added";
 
         widgets.add(widget);
         mouseHandler.addWidget(widget);
         removedWidgets.remove(widget);
+        widget.setParent(this);
     }
 
     /**
-     * Remove a widget.
+     * Remove a widget without invalidating the layout.
+     * <p>
+     *     For panes that remove children while they are arranged, whose preferred size doesn't depend on them.
+     * </p>
      * @param widget the widget to remove
      */
-    protected final void removeWidget(@Nonnull IWidget widget) {
+    protected final void detachWidget(@Nonnull IWidget widget) {
         assert widgets.contains(widget) : "Trying to remove widget that is not added";
         assert !removedWidgets.contains(widget) : "The widget should not already be in the removed widgets";
 
         mouseHandler.removeWidget(widget);
         widgets.remove(widget);
         removedWidgets.add(widget);
+        widget.setParent(null);
+    }
+
+    /**
+     * Tell the parent that the pane has moved or changed size.
+     */
+    private void notifyMoved() {
+        IPane currentParent = parent;
+        if (currentParent != null) {
+            currentParent.childMoved(this);
+        }
+    }
+
+    /**
+     * Request that the window is drawn again.
+     * <p>
+     *     Panes that change their layout without changing their size should call this. Only the area of the pane is
+     *     drawn again. Does nothing until the pane has been drawn once.
+     * </p>
+     */
+    protected final void requestRepaint() {
+        cacheValid = false;
+        repaintArea();
+    }
+
+    /**
+     * Tell the repaint listener that the area of the pane needs to be drawn again, without invalidating the cache.
+     */
+    private void repaintArea() {
+        if (repaintListener != null) {
+            repaintListener.repaintRequested(new Rect(parentScreenX + position.getX(), parentScreenY + position.getY(),
+                    size.getX(), size.getY()));
+        }
     }
 
     @Nonnull
@@ -297,7 +803,15 @@ public abstract class AbstractPane implements IPane {
 
     @Override
     public final boolean contains(@Nonnull Vec2i pos) {
-        return new Rect(position, size).contains(pos);
+        return contains(pos.getX(), pos.getY());
+    }
+
+    @Override
+    public final boolean contains(int x, int y) {
+        // Called for every mouse move, so nothing is created.
+        int relativeX = x - position.getX();
+        int relativeY = y - position.getY();
+        return relativeX >= 0 && relativeY >= 0 && relativeX <= size.getX() && relativeY <= size.getY();
     }
 
     @Override
@@ -312,10 +826,20 @@ public abstract class AbstractPane implements IPane {
 
     @Override
     public final void remove(@Nonnull GL2 gl) {
-        preRemove(gl);
-
-        if (backgroundRenderer != null) {
-            backgroundRenderer.remove(gl);
+        // A pane that was never drawn, or has already been removed, has nothing to free; its children may have been
+        // drawn since, e.g. a child that was added later.
+        if (isInitialised) {
+            preRemove(gl);
+            if (backgroundRenderer != null) {
+                backgroundRenderer.remove(gl);
+            }
+        }
+        if (cacheFrameBuffer != null) {
+            assert cacheRenderer != null;
+            cacheFrameBuffer.remove(gl);
+            cacheRenderer.remove(gl);
+            cacheFrameBuffer = null;
+            cacheRenderer = null;
         }
         isInitialised = false;
         isDirty = false;
@@ -329,4 +853,24 @@ public abstract class AbstractPane implements IPane {
      * @param gl the OpenGL interface
      */
     protected void preRemove(@Nonnull GL2 gl) { }
+
+    /**
+     * The repaint listener of the descendants of a cached pane.
+     * <p>
+     *     The descendants are drawn into the cache, not the screen, so any change invalidates the cache and redraws the
+     *     whole pane.
+     * </p>
+     */
+    private class CacheRepaintListener implements IRepaintListener {
+
+        @Override
+        public void repaintRequested() {
+            requestRepaint();
+        }
+
+        @Override
+        public void repaintRequested(@Nonnull Rect damage) {
+            requestRepaint();
+        }
+    }
 }
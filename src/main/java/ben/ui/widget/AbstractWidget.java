@@ -10,7 +10,7 @@ import ben.ui.math.PmvMatrix;
 import ben.ui.math.Rect;
 import ben.ui.math.Vec2i;
 import ben.ui.resource.GlResourceManager;
-import ben.ui.math.Vec3f;
+import ben.ui.resource.IRepaintListener;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -106,6 +106,28 @@ public abstract class AbstractWidget implements IWidget {
      */
     private boolean focused;
 
+    /**
+     * The pane that lays the widget out, null if it hasn't been added to one.
+     */
+    @Nullable
+    private volatile IPane parent;
+
+    /**
+     * The repaint listener from the last draw, told when the widget changes.
+     */
+    @Nullable
+    private IRepaintListener repaintListener;
+
+    /**
+     * The screen position of the parent from the last draw, used to work out which part of the screen has changed.
+     */
+    private volatile int parentScreenX;
+
+    /**
+     * The screen position of the parent from the last draw, used to work out which part of the screen has changed.
+     */
+    private volatile int parentScreenY;
+
     /**
      * Constructor.
      * @param name the name of the widget
@@ -116,7 +138,11 @@ public abstract class AbstractWidget implements IWidget {
 
     @Override
     public final void setPosition(@Nonnull Vec2i position) {
+        // Both where the widget was and where it is now need to be drawn again.
+        requestRepaint();
         this.position = position;
+        requestRepaint();
+        notifyMoved();
     }
 
     @Nonnull
@@ -129,8 +155,17 @@ public abstract class AbstractWidget implements IWidget {
     public final void setSize(@Nonnull Vec2i size) {
 //        assert size.getX() >= 0 : "AbstractCanvas size must not be negative";
 //        assert size.getY() >= 0 : "AbstractCanvas size must not be negative";
-        this.size = size;
-        setDirty();
+        if (!size.equals(this.size)) {
+            requestRepaint();
+            this.size = size;
+            setDirty();
+            notifyMoved();
+        }
+    }
+
+    @Override
+    public final void setParent(@Nullable IPane parent) {
+        this.parent = parent;
     }
 
     @Nonnull
@@ -147,6 +182,9 @@ public abstract class AbstractWidget implements IWidget {
 
     @Override
     public final void draw(@Nonnull GL2 gl, @Nonnull PmvMatrix pmvMatrix, @Nonnull GlResourceManager glResourceManager) {
+        repaintListener = glResourceManager.getRepaintListener();
+        parentScreenX = (int) pmvMatrix.getMvMatrix().transformX(0, 0);
+        parentScreenY = (int) pmvMatrix.getMvMatrix().transformY(0, 0);
         preDraw();
         if (isVisible) {
             if (!isInitialised) {
@@ -158,7 +196,7 @@ public abstract class AbstractWidget implements IWidget {
                 isDirty = false;
             }
             pmvMatrix.push();
-            pmvMatrix.translate(new Vec3f(position.getX(), position.getY(), 0));
+            pmvMatrix.translate(position.getX(), position.getY(), 0);
             doDraw(gl, pmvMatrix);
             pmvMatrix.pop();
         }
@@ -204,6 +242,41 @@ public abstract class AbstractWidget implements IWidget {
      */
     protected final void setDirty() {
         isDirty = true;
+        requestRepaint();
+    }
+
+    /**
+     * Tell the parent that the preferred size of the widget has changed, so that it's laid out again.
+     */
+    protected final void invalidateLayout() {
+        IPane currentParent = parent;
+        if (currentParent != null) {
+            currentParent.invalidateLayout();
+        }
+    }
+
+    /**
+     * Tell the parent that the widget has moved or changed size.
+     */
+    private void notifyMoved() {
+        IPane currentParent = parent;
+        if (currentParent != null) {
+            currentParent.childMoved(this);
+        }
+    }
+
+    /**
+     * Request that the window is drawn again.
+     * <p>
+     *     Widgets that change how they look without being dirty, e.g. by changing the colour of a renderer, should call
+     *     this. Only the area of the widget is drawn again. Does nothing until the widget has been drawn once.
+     * </p>
+     */
+    protected final void requestRepaint() {
+        if (repaintListener != null) {
+            repaintListener.repaintRequested(new Rect(parentScreenX + position.getX(), parentScreenY + position.getY(),
+                    size.getX(), size.getY()));
+        }
     }
 
     @Nonnull
@@ -220,7 +293,15 @@ public abstract class AbstractWidget implements IWidget {
 
     @Override
     public final boolean contains(@Nonnull Vec2i pos) {
-        return new Rect(position, size).contains(pos);
+        return contains(pos.getX(), pos.getY());
+    }
+
+    @Override
+    public final boolean contains(int x, int y) {
+        // Called for every mouse move, so nothing is created.
+        int relativeX = x - position.getX();
+        int relativeY = y - position.getY();
+        return relativeX >= 0 && relativeY >= 0 && relativeX <= size.getX() && relativeY <= size.getY();
     }
 
     @Override
@@ -245,6 +326,7 @@ public abstract class AbstractWidget implements IWidget {
      */
     public final void setVisible(boolean isVisible) {
         this.isVisible = isVisible;
+        requestRepaint();
     }
 
     @Override
@@ -308,7 +390,10 @@ public abstract class AbstractWidget implements IWidget {
 
     @Override
     public final void remove(@Nonnull GL2 gl) {
-        preRemove(gl);
+        // A widget that was never drawn, or has already been removed, has nothing to free.
+        if (isInitialised) {
+            preRemove(gl);
+        }
         isInitialised = false;
         isDirty = false;
     }
@@ -130,7 +130,6 @@ public final class BorderPane extends AbstractPane {
         if (this.top != null) {
             addWidget(this.top);
         }
-        updateLayout();
     }
 
     /**
@@ -146,7 +145,6 @@ public final class BorderPane extends AbstractPane {
         if (this.bottom != null) {
             addWidget(this.bottom);
         }
-        updateLayout();
     }
 
     /**
@@ -162,7 +160,6 @@ public final class BorderPane extends AbstractPane {
         if (this.left != null) {
             addWidget(this.left);
         }
-        updateLayout();
     }
 
     /**
@@ -178,7 +175,6 @@ public final class BorderPane extends AbstractPane {
         if (this.right != null) {
             addWidget(this.right);
         }
-        updateLayout();
     }
 
     /**
@@ -194,7 +190,6 @@ public final class BorderPane extends AbstractPane {
         if (this.center != null) {
             addWidget(this.center);
         }
-        updateLayout();
     }
 
     @Override
@@ -246,7 +241,7 @@ public final class BorderPane extends AbstractPane {
 
     @Nonnull
     @Override
-    public Vec2i getPreferredSize() {
+    protected Vec2i measure() {
         return getSize();
     }
 
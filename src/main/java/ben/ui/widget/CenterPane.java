@@ -67,7 +67,6 @@ public final class CenterPane extends AbstractPane {
         if (this.center != null) {
             addWidget(this.center);
         }
-        updateLayout();
     }
 
     @Override
@@ -81,7 +80,7 @@ public final class CenterPane extends AbstractPane {
 
     @Nonnull
     @Override
-    public Vec2i getPreferredSize() {
+    protected Vec2i measure() {
         return center == null ? new Vec2i(0, 0) : center.getPreferredSize();
     }
 }
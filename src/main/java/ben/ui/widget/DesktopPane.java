@@ -65,7 +65,7 @@ public final class DesktopPane extends AbstractPane {
 
     @Nonnull
     @Override
-    public Vec2i getPreferredSize() {
+    protected Vec2i measure() {
         return getSize();
     }
 
@@ -0,0 +1,230 @@
+package ben.ui.widget;
+
+import ben.ui.math.PmvMatrix;
+import ben.ui.math.Rect;
+import ben.ui.math.Vec2i;
+import ben.ui.renderer.FlatRenderer;
+import ben.ui.renderer.TextRenderer;
+import ben.ui.resource.GlResourceManager;
+import ben.ui.resource.color.Color;
+import ben.ui.window.FrameStats;
+import ben.ui.window.IFrameStatsListener;
+import com.jogamp.opengl.GL2;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The Frame Stats Overlay widget.
+ * <p>
+ *     Shows the frame stats of the window on a translucent background; the frame time, the time of each phase and the
+ *     work sent to OpenGL. Add it to the window as a frame stats listener and somewhere on top of the other widgets.
+ * </p>
+ * <p>
+ *     The text is only updated a couple of times a second, so that reading it is possible and so that the overlay
+ *     doesn't keep a window that renders on demand drawing every frame. The times are averaged over the update
+ *     interval, along with the slowest frame.
+ * </p>
+ */
+public final class FrameStatsOverlay extends AbstractWidget implements IFrameStatsListener {
+
+    /**
+     * The padding around the text in pixels.
+     */
+    private static final int PADDING = 5;
+
+    /**
+     * The number of lines of text.
+     */
+    private static final int LINES = 4;
+
+    /**
+     * The text that is used to work out how wide the overlay is.
+     */
+    @Nonnull
+    private static final String WIDEST_LINE = "input 00.00  layout 00.00  draw 00.00 ms";
+
+    /**
+     * The time between updates of the text in nanoseconds.
+     */
+    private static final long UPDATE_INTERVAL_NANOS = 500000000L;
+
+    /**
+     * The number of nanoseconds in a millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    /**
+     * The number of nanoseconds in a second.
+     */
+    private static final double NANOS_PER_SECOND = 1000000000.0;
+
+    /**
+     * The number of bytes in a kibibyte.
+     */
+    private static final double BYTES_PER_KIB = 1024.0;
+
+    /**
+     * The colour of the text.
+     */
+    @Nonnull
+    private static final Color TEXT_COLOR = new Color(0.73f, 0.73f, 0.73f);
+
+    /**
+     * The colour of the background.
+     */
+    @Nonnull
+    private static final Color BACKGROUND_COLOR = new Color(0, 0, 0, 0.6f);
+
+    /**
+     * The lines of text.
+     */
+    @Nonnull
+    private final String[] text = new String[LINES];
+
+    /**
+     * The text renderers, one per line.
+     */
+    @Nonnull
+    private final TextRenderer[] textRenderers = new TextRenderer[LINES];
+
+    /**
+     * The background renderer.
+     */
+    @Nullable
+    private FlatRenderer backgroundRenderer;
+
+    /**
+     * When the text was last updated, from {@link System#nanoTime()}.
+     */
+    private long lastUpdate;
+
+    /**
+     * The number of frames since the text was last updated.
+     */
+    private int frames;
+
+    /**
+     * The total frame time since the text was last updated.
+     */
+    private long totalFrameNanos;
+
+    /**
+     * The slowest frame since the text was last updated.
+     */
+    private long maximumFrameNanos;
+
+    /**
+     * The total input time since the text was last updated.
+     */
+    private long totalInputNanos;
+
+    /**
+     * The total layout time since the text was last updated.
+     */
+    private long totalLayoutNanos;
+
+    /**
+     * The total draw time since the text was last updated.
+     */
+    private long totalDrawNanos;
+
+    /**
+     * Constructor.
+     * @param name the name of the widget
+     */
+    public FrameStatsOverlay(@Nullable String name) {
+        super(name);
+        text[0] = "frame -";
+        for (int i = 1; i < LINES; i++) {
+            text[i] = "";
+        }
+        setSize(getPreferredSize());
+    }
+
+    @Override
+    public void frameFinished(@Nonnull FrameStats frameStats) {
+        frames++;
+        totalFrameNanos += frameStats.getFrameNanos();
+        maximumFrameNanos = Math.max(maximumFrameNanos, frameStats.getFrameNanos());
+        totalInputNanos += frameStats.getInputNanos();
+        totalLayoutNanos += frameStats.getLayoutNanos();
+        totalDrawNanos += frameStats.getDrawNanos();
+
+        long now = System.nanoTime();
+        if (now - lastUpdate >= UPDATE_INTERVAL_NANOS) {
+            double fps = frames * NANOS_PER_SECOND / (now - lastUpdate);
+            text[0] = String.format("frame %.2f ms  max %.2f ms  %.0f fps", averageMillis(totalFrameNanos),
+                    maximumFrameNanos / NANOS_PER_MILLI, lastUpdate == 0 ? 0 : fps);
+            text[1] = String.format("input %.2f  layout %.2f  draw %.2f ms", averageMillis(totalInputNanos),
+                    averageMillis(totalLayoutNanos), averageMillis(totalDrawNanos));
+            text[2] = String.format("%d draws  %d vertices", frameStats.getDrawCalls(), frameStats.getVertices());
+            text[3] = String.format("%.1f KiB uploaded  %d binds", frameStats.getUploadBytes() / BYTES_PER_KIB,
+                    frameStats.getIssuedBinds());
+            lastUpdate = now;
+            frames = 0;
+            totalFrameNanos = 0;
+            maximumFrameNanos = 0;
+            totalInputNanos = 0;
+            totalLayoutNanos = 0;
+            totalDrawNanos = 0;
+            setDirty();
+        }
+    }
+
+    /**
+     * Get the average of a total time over the frames since the last update.
+     * @param totalNanos the total time in nanoseconds
+     * @return the average in milliseconds
+     */
+    private double averageMillis(long totalNanos) {
+        return totalNanos / NANOS_PER_MILLI / frames;
+    }
+
+    @Override
+    protected void initDraw(@Nonnull GL2 gl, @Nonnull GlResourceManager glResourceManager) {
+        backgroundRenderer = new FlatRenderer(gl, glResourceManager, new Rect(new Vec2i(0, 0), getSize()),
+                BACKGROUND_COLOR);
+        for (int i = 0; i < LINES; i++) {
+            textRenderers[i] = new TextRenderer(gl, glResourceManager, text[i],
+                    new Vec2i(PADDING, PADDING + i * TextRenderer.LINE_HEIGHT), TEXT_COLOR);
+        }
+    }
+
+    @Override
+    protected void updateDraw(@Nonnull GL2 gl) {
+        assert backgroundRenderer != null : "Update draw should not be called before init draw";
+        backgroundRenderer.setRect(gl, new Rect(new Vec2i(0, 0), getSize()));
+        for (int i = 0; i < LINES; i++) {
+            textRenderers[i].setText(gl, text[i]);
+        }
+    }
+
+    @Override
+    protected void doDraw(@Nonnull GL2 gl, @Nonnull PmvMatrix pmvMatrix) {
+        assert backgroundRenderer != null : "Draw should not be called before init draw";
+        backgroundRenderer.draw(gl, pmvMatrix);
+        for (TextRenderer textRenderer : textRenderers) {
+            textRenderer.draw(gl, pmvMatrix);
+        }
+    }
+
+    @Nonnull
+    @Override
+    public Vec2i getPreferredSize() {
+        int width = TextRenderer.getTextWidth(WIDEST_LINE) + 2 * PADDING;
+        int height = LINES * TextRenderer.LINE_HEIGHT + 2 * PADDING;
+        return new Vec2i(width, height);
+    }
+
+    @Override
+    protected void preRemove(@Nonnull GL2 gl) {
+        if (backgroundRenderer != null) {
+            backgroundRenderer.remove(gl);
+        }
+        for (TextRenderer textRenderer : textRenderers) {
+            if (textRenderer != null) {
+                textRenderer.remove(gl);
+            }
+        }
+    }
+}
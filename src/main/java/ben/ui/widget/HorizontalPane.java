@@ -70,7 +70,6 @@ public final class HorizontalPane extends AbstractPane {
      */
     public void add(@Nonnull IWidget widget) {
         addWidget(widget);
-        updateLayout();
     }
 
     @Override
@@ -90,7 +89,7 @@ public final class HorizontalPane extends AbstractPane {
 
     @Nonnull
     @Override
-    public Vec2i getPreferredSize() {
+    protected Vec2i measure() {
         int height = 0;
         int width = 0;
 
@@ -101,7 +100,6 @@ public final class HorizontalPane extends AbstractPane {
         else {
             for (IWidget widget : getWidgets()) {
                 Vec2i preferredSize = widget.getPreferredSize();
-                widget.setSize(preferredSize);
                 width += preferredSize.getX() + SPACING;
 
                 if (preferredSize.getY() > height) {
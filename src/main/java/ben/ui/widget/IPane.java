@@ -9,6 +9,11 @@ import java.util.List;
  * <p>
  *     A pane is a widget that contains other widgets.
  * </p>
+ * <p>
+ *     Panes lay out their children in two passes; measuring gets the preferred size of the pane from the preferred
+ *     sizes of its children, arranging sets the positions and sizes of the children within the pane. Both are cached,
+ *     changes only mark them invalid and the pane and its descendants are laid out again once before the next frame.
+ * </p>
  */
 public interface IPane extends IWidget {
 
@@ -25,4 +30,32 @@ public interface IPane extends IWidget {
      */
     @Nonnull
     IFocusManager getFocusManager();
+
+    /**
+     * Invalidate the layout because the preferred size of a child has changed.
+     * <p>
+     *     The pane is measured and arranged again, and its parent is invalidated if it had measured the pane.
+     * </p>
+     */
+    void invalidateLayout();
+
+    /**
+     * Request that the pane is validated before the next frame because it, or one of its descendants, needs to be
+     * arranged.
+     */
+    void requestLayout();
+
+    /**
+     * Arrange the pane and any of its descendants that need it.
+     * <p>
+     *     Called on the root pane once before each frame is drawn.
+     * </p>
+     */
+    void validateLayout();
+
+    /**
+     * Tell the pane that a child has moved or changed size, so that it can find the child under the mouse.
+     * @param child the child
+     */
+    void childMoved(@Nonnull IWidget child);
 }
@@ -63,6 +63,16 @@ public interface IWidget {
     @Nonnull
     Vec2i getPreferredSize();
 
+    /**
+     * Set the pane that lays the widget out.
+     * <p>
+     *     Set by the pane when the widget is added to it, so that the pane can be told when the preferred size of the
+     *     widget changes.
+     * </p>
+     * @param parent the pane, null when the widget is removed
+     */
+    void setParent(@Nullable IPane parent);
+
     /**
      * Set if the widget is focused or not.
      * @param focused true if its focused
@@ -96,6 +106,19 @@ public interface IWidget {
      */
     boolean contains(@Nonnull Vec2i pos);
 
+    /**
+     * Does the widget contain the point.
+     * <p>
+     *     Creates a vector by default; widgets override it so that hit testing doesn't create one.
+     * </p>
+     * @param x the x coordinate of the point, in the parent's coordinates
+     * @param y the y coordinate of the point, in the parent's coordinates
+     * @return true if the point is inside the widget
+     */
+    default boolean contains(int x, int y) {
+        return contains(new Vec2i(x, y));
+    }
+
     /**
      * Remove the widget.
      * @param gl the OpenGL interface
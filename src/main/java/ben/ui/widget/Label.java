@@ -74,15 +74,18 @@ public final class Label extends AbstractWidget {
      * @param textTmp the new text
      */
     public void setText(@Nonnull String textTmp) {
-        text = textTmp;
-        setDirty();
+        if (!text.equals(textTmp)) {
+            text = textTmp;
+            setDirty();
+            invalidateLayout();
+        }
     }
 
     @Nonnull
     @Override
     public Vec2i getPreferredSize() {
-        int width = text.length() * TextRenderer.CHARACTER_SIZE + 2 * PADDING;
-        int height = TextRenderer.CHARACTER_SIZE + 2 * PADDING;
+        int width = TextRenderer.getTextWidth(text) + 2 * PADDING;
+        int height = TextRenderer.LINE_HEIGHT + 2 * PADDING;
         return new Vec2i(width, height);
     }
 
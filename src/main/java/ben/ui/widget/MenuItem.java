@@ -25,7 +25,7 @@ public final class MenuItem extends AbstractWidget {
     /**
      * The height of the menu item.
      */
-    private static final int HEIGHT = TextRenderer.CHARACTER_SIZE + 2 * PADDING;
+    private static final int HEIGHT = TextRenderer.LINE_HEIGHT + 2 * PADDING;
 
     /**
      * The text colour.
@@ -82,7 +82,7 @@ public final class MenuItem extends AbstractWidget {
     @Nonnull
     @Override
     public Vec2i getPreferredSize() {
-        int width = text.length() * TextRenderer.CHARACTER_SIZE + 2 * PADDING;
+        int width = TextRenderer.getTextWidth(text) + 2 * PADDING;
         return new Vec2i(width, HEIGHT);
     }
 
@@ -41,7 +41,6 @@ public final class StackPane extends AbstractPane {
      */
     public void add(@Nonnull IWidget widget) {
         addWidget(widget);
-        updateLayout();
     }
 
     @Override
@@ -53,7 +52,7 @@ public final class StackPane extends AbstractPane {
 
     @Nonnull
     @Override
-    public Vec2i getPreferredSize() {
+    protected Vec2i measure() {
         int width = 0;
         int height = 0;
         for (IWidget widget : getWidgets()) {
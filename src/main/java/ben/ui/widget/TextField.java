@@ -40,6 +40,12 @@ public final class TextField<V> extends AbstractWidget {
      */
     private static final int DEFAULT_LENGTH = 20;
 
+    /**
+     * A character that is at least as wide as most others, used to size the field for its length in characters.
+     */
+    @Nonnull
+    private static final String WIDE_CHARACTER = "M";
+
     /**
      * The background colour of the text field when it has an invalid value.
      */
@@ -171,11 +177,20 @@ public final class TextField<V> extends AbstractWidget {
 
         cursorRenderer.setRect(gl, getCursorRect());
 
+        textRenderer.setText(gl, getDisplayedText());
+    }
+
+    /**
+     * Get the part of the text that fits in the field.
+     * @return the displayed text
+     */
+    @Nonnull
+    private String getDisplayedText() {
         String displayedText = text.substring(textOffset, text.length());
         if (displayedText.length() > length) {
             displayedText = displayedText.substring(0, length);
         }
-        textRenderer.setText(gl, displayedText);
+        return displayedText;
     }
 
     /**
@@ -203,8 +218,11 @@ public final class TextField<V> extends AbstractWidget {
      * @return the rectangle
      */
     private Rect getCursorRect() {
-        Vec2i cursorPos = new Vec2i(PADDING + (cursor - textOffset) * TextRenderer.CHARACTER_SIZE - 2, PADDING - 1);
-        Vec2i cursorSize = new Vec2i(1, TextRenderer.CHARACTER_SIZE + 1);
+        String displayedText = getDisplayedText();
+        int displayedCursor = Math.max(0, Math.min(cursor - textOffset, displayedText.length()));
+        int cursorX = TextRenderer.getCaretX(displayedText, displayedCursor);
+        Vec2i cursorPos = new Vec2i(PADDING + cursorX - 1, PADDING - 1);
+        Vec2i cursorSize = new Vec2i(1, TextRenderer.LINE_HEIGHT + 1);
         return new Rect(cursorPos, cursorSize);
     }
 
@@ -226,8 +244,8 @@ public final class TextField<V> extends AbstractWidget {
     @Nonnull
     @Override
     public Vec2i getPreferredSize() {
-        int width = length * TextRenderer.CHARACTER_SIZE + 2 * PADDING;
-        int height = TextRenderer.CHARACTER_SIZE + 2 * PADDING;
+        int width = length * TextRenderer.getTextWidth(WIDE_CHARACTER) + 2 * PADDING;
+        int height = TextRenderer.LINE_HEIGHT + 2 * PADDING;
         return new Vec2i(width, height);
     }
 
@@ -71,7 +71,6 @@ public final class VerticalPane extends AbstractPane {
      */
     public void add(@Nonnull IWidget widget) {
         addWidget(widget);
-        updateLayout();
     }
 
     @Override
@@ -91,7 +90,7 @@ public final class VerticalPane extends AbstractPane {
 
     @Nonnull
     @Override
-    public Vec2i getPreferredSize() {
+    protected Vec2i measure() {
         int height = 0;
         int width = 0;
 
@@ -102,7 +101,6 @@ public final class VerticalPane extends AbstractPane {
         else {
             for (IWidget widget : getWidgets()) {
                 Vec2i preferredSize = widget.getPreferredSize();
-                widget.setSize(preferredSize);
                 height += preferredSize.getY() + SPACING;
 
                 if (preferredSize.getX() > width) {
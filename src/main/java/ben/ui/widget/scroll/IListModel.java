@@ -0,0 +1,43 @@
+package ben.ui.widget.scroll;
+
+import ben.ui.widget.IWidget;
+
+import javax.annotation.Nonnull;
+
+/**
+ * List Model Interface.
+ * <p>
+ *     Provides the rows of a {@link ListView}. The list only asks for the rows that are visible, and reuses the same
+ *     row widgets for different rows as it scrolls.
+ * </p>
+ * @param <W> the type of the row widgets
+ */
+public interface IListModel<W extends IWidget> {
+
+    /**
+     * Get the number of rows.
+     * @return the number of rows
+     */
+    int getRowCount();
+
+    /**
+     * Get the height of a row.
+     * @param row the row
+     * @return the height in pixels
+     */
+    int getRowHeight(int row);
+
+    /**
+     * Create a row widget, only called when there isn't a spare one to reuse.
+     * @return the row widget
+     */
+    @Nonnull
+    W createRow();
+
+    /**
+     * Show a row in a row widget, which may have shown another row before.
+     * @param widget the row widget
+     * @param row the row
+     */
+    void bindRow(@Nonnull W widget, int row);
+}
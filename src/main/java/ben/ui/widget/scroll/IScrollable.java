@@ -0,0 +1,24 @@
+package ben.ui.widget.scroll;
+
+/**
+ * Scrollable Interface.
+ * <p>
+ *     A widget that scrolls its own content. A {@link ScrollPane} sizes a scrollable content widget to the visible
+ *     area and tells it the scroll offset, instead of sizing it to its full height and moving it, so the widget only
+ *     needs to lay out and draw what is visible.
+ * </p>
+ */
+public interface IScrollable {
+
+    /**
+     * Get the full height of the content.
+     * @return the height in pixels
+     */
+    int getContentHeight();
+
+    /**
+     * Set the distance that the content is scrolled down by.
+     * @param offset the distance in pixels from the top of the content to the top of the visible area
+     */
+    void setScrollOffset(int offset);
+}
@@ -0,0 +1,268 @@
+package ben.ui.widget.scroll;
+
+import ben.ui.math.PmvMatrix;
+import ben.ui.math.Vec2i;
+import ben.ui.resource.GlResourceManager;
+import ben.ui.widget.AbstractPane;
+import ben.ui.widget.IWidget;
+import com.jogamp.opengl.GL2;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * List View.
+ *
+ * A list of rows that only has widgets for the rows that are visible, so it can show millions of rows. Put it in a
+ * {@link ScrollPane} to scroll it.
+ *
+ * <pre>
+ * +-----------------------+
+ * | Row 41                |
+ * +-----------------------+
+ * | Row 42                |
+ * |                       |
+ * +-----------------------+
+ * | Row 43                |
+ * +-----------------------+
+ * </pre>
+ *
+ * The rows come from a {@link IListModel} and can have different heights. As the list scrolls, the widgets of the rows
+ * that leave the visible area are reused for the rows that enter it, keeping their OpenGL resources; spare widgets
+ * are only removed when fewer rows are visible.
+ *
+ * The model must tell the list when its rows change, see {@link #rowsChanged()} and {@link #rowChanged(int)}.
+ *
+ * @param <W> the type of the row widgets
+ */
+public final class ListView<W extends IWidget> extends AbstractPane implements IScrollable {
+
+    /**
+     * The model that provides the rows.
+     */
+    @Nonnull
+    private final IListModel<W> model;
+
+    /**
+     * The heights of the rows.
+     */
+    @Nonnull
+    private final RowOffsets rowOffsets = new RowOffsets();
+
+    /**
+     * The widgets of the visible rows, in order from the first visible row.
+     */
+    @Nonnull
+    private final Deque<W> activeRows = new ArrayDeque<>();
+
+    /**
+     * The widgets that have scrolled out of view and can be reused.
+     */
+    @Nonnull
+    private final Deque<W> spareRows = new ArrayDeque<>();
+
+    /**
+     * The rows that have changed since the list was last laid out, may be added to from any thread.
+     */
+    @Nonnull
+    private final Queue<Integer> changedRows = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Have all of the rows changed since the list was last laid out.
+     */
+    private volatile boolean allRowsChanged = true;
+
+    /**
+     * The row of the first active row widget.
+     */
+    private int firstActiveRow;
+
+    /**
+     * The distance that the list is scrolled down by.
+     */
+    private int scrollOffset;
+
+    /**
+     * Constructor.
+     * @param name the name of the list
+     * @param model the model that provides the rows
+     */
+    public ListView(@Nullable String name, @Nonnull IListModel<W> model) {
+        super(name, true, true);
+        this.model = model;
+    }
+
+    @Override
+    protected void initDraw(@Nonnull GL2 gl, @Nonnull GlResourceManager glResourceManager) { }
+
+    @Override
+    protected void updateDraw(@Nonnull GL2 gl) { }
+
+    @Override
+    protected void doDraw(@Nonnull GL2 gl, @Nonnull PmvMatrix pmvMatrix) { }
+
+    /**
+     * Tell the list that the number of rows, or any of them, have changed.
+     * <p>
+     *     All of the row heights are read again, which takes time in proportion to the number of rows. May be called
+     *     from any thread.
+     * </p>
+     */
+    public void rowsChanged() {
+        allRowsChanged = true;
+        invalidateLayout();
+    }
+
+    /**
+     * Tell the list that a row has changed, its contents or its height.
+     * <p>
+     *     May be called from any thread.
+     * </p>
+     * @param row the row
+     */
+    public void rowChanged(int row) {
+        changedRows.add(row);
+        invalidateLayout();
+    }
+
+    @Override
+    public int getContentHeight() {
+        updateRowOffsets();
+        return (int) Math.min(rowOffsets.getTotalHeight(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void setScrollOffset(int offset) {
+        if (offset != scrollOffset) {
+            scrollOffset = offset;
+            rearrange();
+        }
+    }
+
+    @Override
+    protected void updateLayout() {
+        updateRowOffsets();
+
+        int first = rowOffsets.rowAt(scrollOffset);
+        int last = rowOffsets.rowAt((long) scrollOffset + getSize().getY() - 1);
+        if (rowOffsets.getRowCount() == 0 || getSize().getY() <= 0) {
+            last = first - 1;
+        }
+
+        // Keep the widgets of the rows that are still visible, the others are spare.
+        while (!activeRows.isEmpty() && (firstActiveRow < first || firstActiveRow > last)) {
+            spareRows.push(activeRows.removeFirst());
+            firstActiveRow++;
+        }
+        while (!activeRows.isEmpty() && firstActiveRow + activeRows.size() - 1 > last) {
+            spareRows.push(activeRows.removeLast());
+        }
+        if (activeRows.isEmpty()) {
+            firstActiveRow = first;
+        }
+        for (int row = firstActiveRow - 1; row >= first; row--) {
+            activeRows.addFirst(obtainRow(row));
+        }
+        firstActiveRow = Math.min(firstActiveRow, first);
+        for (int row = firstActiveRow + activeRows.size(); row <= last; row++) {
+            activeRows.addLast(obtainRow(row));
+        }
+
+        // Widgets that weren't reused are removed, releasing their OpenGL resources. The rows don't affect the
+        // preferred size of the list, so adding and removing them doesn't invalidate the layout that is being done.
+        while (!spareRows.isEmpty()) {
+            detachWidget(spareRows.pop());
+        }
+
+        int width = getSize().getX();
+        int row = firstActiveRow;
+        for (W widget : activeRows) {
+            int top = (int) (rowOffsets.getTop(row) - scrollOffset);
+            widget.setPosition(new Vec2i(0, top));
+            widget.setSize(new Vec2i(width, rowOffsets.getHeight(row)));
+            row++;
+        }
+    }
+
+    @Nonnull
+    @Override
+    protected Vec2i measure() {
+        return new Vec2i(0, getContentHeight());
+    }
+
+    /**
+     * Read the heights of the rows that have changed, and show their contents again if they are visible.
+     */
+    private void updateRowOffsets() {
+        if (allRowsChanged) {
+            allRowsChanged = false;
+            changedRows.clear();
+            rowOffsets.reset(model.getRowCount(), model::getRowHeight);
+            // Every visible row is bound again.
+            while (!activeRows.isEmpty()) {
+                spareRows.push(activeRows.removeLast());
+            }
+        }
+        Integer row = changedRows.poll();
+        while (row != null) {
+            if (row < rowOffsets.getRowCount()) {
+                rowOffsets.setHeight(row, model.getRowHeight(row));
+                int index = row - firstActiveRow;
+                if (index >= 0 && index < activeRows.size()) {
+                    bindActiveRow(index, row);
+                }
+            }
+            row = changedRows.poll();
+        }
+    }
+
+    /**
+     * Show a row again in its active widget.
+     * @param index the index of the widget in the active rows
+     * @param row the row
+     */
+    private void bindActiveRow(int index, int row) {
+        int i = 0;
+        for (W widget : activeRows) {
+            if (i++ == index) {
+                bindRow(widget, row);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Get a widget for a row that has come into view, reusing a spare one if there is one.
+     * @param row the row
+     * @return the widget, showing the row
+     */
+    @Nonnull
+    private W obtainRow(int row) {
+        W widget = spareRows.poll();
+        if (widget == null) {
+            widget = model.createRow();
+            attachWidget(widget);
+        }
+        bindRow(widget, row);
+        return widget;
+    }
+
+    /**
+     * Show a row in a widget.
+     * <p>
+     *     The height of a row comes from the model rather than the widget, so the widget is taken from the list while
+     *     it's bound; otherwise a change to its preferred size would invalidate the layout that is being done.
+     * </p>
+     * @param widget the widget
+     * @param row the row
+     */
+    private void bindRow(@Nonnull W widget, int row) {
+        widget.setParent(null);
+        model.bindRow(widget, row);
+        widget.setParent(this);
+    }
+}
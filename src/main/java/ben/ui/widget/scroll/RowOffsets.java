@@ -0,0 +1,133 @@
+package ben.ui.widget.scroll;
+
+import javax.annotation.Nonnull;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Row Offsets.
+ * <p>
+ *     The heights of the rows of a list, for finding the top of a row and the row at a distance from the top of the
+ *     list without adding up the heights of the rows above it. The heights are kept in a Fenwick tree, so both take
+ *     O(log n) and changing the height of one row doesn't touch the others.
+ * </p>
+ */
+final class RowOffsets {
+
+    /**
+     * The height of each row.
+     */
+    @Nonnull
+    private int[] heights = new int[0];
+
+    /**
+     * The Fenwick tree, one based; each entry is the sum of the heights of a power of two rows ending at its index.
+     */
+    @Nonnull
+    private long[] tree = new long[1];
+
+    /**
+     * The number of rows.
+     */
+    private int rowCount;
+
+    /**
+     * The largest power of two that isn't more than the number of rows, where searches start.
+     */
+    private int highestBit;
+
+    /**
+     * Set the number of rows and all of their heights.
+     * @param newRowCount the number of rows
+     * @param heightOfRow gives the height of each row
+     */
+    public void reset(int newRowCount, @Nonnull IntUnaryOperator heightOfRow) {
+        rowCount = newRowCount;
+        if (heights.length < rowCount) {
+            heights = new int[rowCount];
+            tree = new long[rowCount + 1];
+        }
+        for (int row = 0; row < rowCount; row++) {
+            heights[row] = heightOfRow.applyAsInt(row);
+            tree[row + 1] = heights[row];
+        }
+        // Build in linear time by pushing each sum up to its parent.
+        for (int i = 1; i <= rowCount; i++) {
+            int parent = i + (i & -i);
+            if (parent <= rowCount) {
+                tree[parent] += tree[i];
+            }
+        }
+        highestBit = rowCount == 0 ? 0 : Integer.highestOneBit(rowCount);
+    }
+
+    /**
+     * Get the number of rows.
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Get the height of a row.
+     * @param row the row
+     * @return the height in pixels
+     */
+    public int getHeight(int row) {
+        return heights[row];
+    }
+
+    /**
+     * Set the height of a row.
+     * @param row the row
+     * @param height the height in pixels
+     */
+    public void setHeight(int row, int height) {
+        long change = height - heights[row];
+        heights[row] = height;
+        for (int i = row + 1; i <= rowCount; i += i & -i) {
+            tree[i] += change;
+        }
+    }
+
+    /**
+     * Get the distance from the top of the list to the top of a row.
+     * @param row the row, may be the row count for the bottom of the list
+     * @return the distance in pixels
+     */
+    public long getTop(int row) {
+        long top = 0;
+        for (int i = row; i > 0; i -= i & -i) {
+            top += tree[i];
+        }
+        return top;
+    }
+
+    /**
+     * Get the total height of the rows.
+     * @return the height in pixels
+     */
+    public long getTotalHeight() {
+        return getTop(rowCount);
+    }
+
+    /**
+     * Find the row at a distance from the top of the list.
+     * @param y the distance in pixels
+     * @return the row that contains the distance, the last row if it's past the bottom, or -1 if there are no rows
+     */
+    public int rowAt(long y) {
+        // Walk down the tree, skipping every block of rows that ends above the distance.
+        int row = 0;
+        long remaining = y;
+        for (int bit = highestBit; bit > 0; bit >>= 1) {
+            int next = row + bit;
+            if (next <= rowCount && tree[next] <= remaining) {
+                row = next;
+                remaining -= tree[next];
+            }
+        }
+        return Math.min(row, rowCount - 1);
+    }
+}
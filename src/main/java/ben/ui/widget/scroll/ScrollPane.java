@@ -29,6 +29,9 @@ import javax.annotation.Nullable;
  *
  * If the preferred size of the pane is ignored then the content widget will be resized to the width of the pane (minus
  * width of scroll bar) and the height will take the height of the pane.
+ *
+ * Content that implements {@link IScrollable} is sized to the visible area and told the scroll offset instead, so it
+ * can lay out and draw only what is visible.
  */
 public final class ScrollPane extends AbstractPane {
 
@@ -56,7 +59,8 @@ public final class ScrollPane extends AbstractPane {
         addWidget(verticalScrollBar);
         addWidget(contentWidget);
 
-        verticalScrollBar.addValueListener(value -> updateLayout());
+        // The scroll bar moves on the input thread, so the content is moved when the pane is next validated.
+        verticalScrollBar.addValueListener(value -> rearrange());
 
         getMouseHandler().addMouseListener(new ScrollMouseListener());
     }
@@ -74,11 +78,22 @@ public final class ScrollPane extends AbstractPane {
     protected void updateLayout() {
         int scrollBarWidth = verticalScrollBar.getPreferredSize().getX();
         int contentWidth = getSize().getX() - scrollBarWidth;
-        int contentHeight = contentWidget.getPreferredSize().getY();
         int height = getSize().getY();
-
-        contentWidget.setPosition(new Vec2i(0, (int) -verticalScrollBar.getValue()));
-        contentWidget.setSize(new Vec2i(contentWidth, contentHeight));
+        int contentHeight;
+
+        if (contentWidget instanceof IScrollable) {
+            // The content scrolls itself, so it only needs to be as big as the visible area.
+            IScrollable scrollable = (IScrollable) contentWidget;
+            contentHeight = scrollable.getContentHeight();
+            contentWidget.setPosition(new Vec2i(0, 0));
+            contentWidget.setSize(new Vec2i(contentWidth, height));
+            scrollable.setScrollOffset((int) verticalScrollBar.getValue());
+        }
+        else {
+            contentHeight = contentWidget.getPreferredSize().getY();
+            contentWidget.setPosition(new Vec2i(0, (int) -verticalScrollBar.getValue()));
+            contentWidget.setSize(new Vec2i(contentWidth, contentHeight));
+        }
 
         verticalScrollBar.setMin(0);
         verticalScrollBar.setMax(contentHeight - height);
@@ -88,7 +103,7 @@ public final class ScrollPane extends AbstractPane {
 
     @Nonnull
     @Override
-    public Vec2i getPreferredSize() {
+    protected Vec2i measure() {
         int scrollBarWidth = verticalScrollBar.getPreferredSize().getX();
         Vec2i contentSize = contentWidget.getPreferredSize();
 
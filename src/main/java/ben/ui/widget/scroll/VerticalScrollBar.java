@@ -117,7 +117,7 @@ public final class VerticalScrollBar extends AbstractPane {
 
     @Nonnull
     @Override
-    public Vec2i getPreferredSize() {
+    protected Vec2i measure() {
         return bar.getPreferredSize();
     }
 
@@ -88,7 +88,6 @@ public final class TabBar extends AbstractPane {
      */
     public void add(@Nonnull IWidget widget) {
         addWidget(widget);
-        updateLayout();
     }
 
     @Override
@@ -108,14 +107,13 @@ public final class TabBar extends AbstractPane {
 
     @Nonnull
     @Override
-    public Vec2i getPreferredSize() {
+    protected Vec2i measure() {
         int height = 0;
         int width = 0;
 
         if (!getWidgets().isEmpty()) {
             for (IWidget widget : getWidgets()) {
                 Vec2i preferredSize = widget.getPreferredSize();
-                widget.setSize(preferredSize);
                 width += preferredSize.getX() + PADDING;
 
                 if (preferredSize.getY() > height) {
@@ -28,7 +28,7 @@ public final class TabButton extends AbstractWidget {
     /**
      * The height of the tab.
      */
-    private static final int HEIGHT = TextRenderer.CHARACTER_SIZE + 2 * PADDING;
+    private static final int HEIGHT = TextRenderer.LINE_HEIGHT + 2 * PADDING;
 
     /**
      * The background colour of the tab.
@@ -126,7 +126,7 @@ public final class TabButton extends AbstractWidget {
     @Nonnull
     @Override
     public Vec2i getPreferredSize() {
-        int width = text.length() * TextRenderer.CHARACTER_SIZE + 2 * PADDING;
+        int width = TextRenderer.getTextWidth(text) + 2 * PADDING;
         return new Vec2i(width, HEIGHT);
     }
 
@@ -116,7 +116,7 @@ public final class TabPane extends AbstractPane {
             setSelectedTab(tabIndex);
         }
 
-        updateLayout();
+        invalidateLayout();
     }
 
     /**
@@ -163,7 +163,7 @@ public final class TabPane extends AbstractPane {
 
     @Nonnull
     @Override
-    public Vec2i getPreferredSize() {
+    protected Vec2i measure() {
         Vec2i tabBarPrefSize = tabBar.getPreferredSize();
         int tabBarHeight = tabBarPrefSize.getY();
 
@@ -25,7 +25,7 @@ public final class TitleBar extends AbstractWidget {
     /**
      * The height of the button.
      */
-    private static final int HEIGHT = TextRenderer.CHARACTER_SIZE + 2 * PADDING;
+    private static final int HEIGHT = TextRenderer.LINE_HEIGHT + 2 * PADDING;
 
     /**
      * The background colour of the button.
@@ -109,7 +109,7 @@ public final class TitleBar extends AbstractWidget {
     @Nonnull
     @Override
     public Vec2i getPreferredSize() {
-        int width = text.length() * TextRenderer.CHARACTER_SIZE + 2 * PADDING;
+        int width = TextRenderer.getTextWidth(text) + 2 * PADDING;
         return new Vec2i(width, HEIGHT);
     }
 
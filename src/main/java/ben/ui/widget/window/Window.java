@@ -132,7 +132,7 @@ public final class Window extends AbstractPane implements IWindow {
 
     @Nonnull
     @Override
-    public Vec2i getPreferredSize() {
+    protected Vec2i measure() {
         Vec2i titlePrefSize = titleBar.getPreferredSize();
         Vec2i contentSize = contentWidget.getPreferredSize();
 
@@ -0,0 +1,105 @@
+package ben.ui.window;
+
+import ben.ui.math.Rect;
+import ben.ui.resource.IRepaintListener;
+import net.jcip.annotations.GuardedBy;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Damage Tracker.
+ * <p>
+ *     Collects the areas of the window that have changed since the last frame, so that only their union needs to be
+ *     drawn again. Requests are forwarded to another listener, e.g. a repaint scheduler, so it knows a frame is needed.
+ * </p>
+ */
+public final class DamageTracker implements IRepaintListener {
+
+    /**
+     * The number of pixels that damaged areas are grown by, to cover lines drawn on the edge of a widget.
+     */
+    private static final int MARGIN = 1;
+
+    /**
+     * The listener that requests are forwarded to, null if there isn't one.
+     */
+    @Nullable
+    private final IRepaintListener listener;
+
+    /**
+     * The lock.
+     */
+    @Nonnull
+    private final Object lock = new Object();
+
+    /**
+     * Has the whole window been damaged since the last frame.
+     */
+    @GuardedBy("lock")
+    private boolean allDamaged = true;
+
+    /**
+     * The union of the areas damaged since the last frame, null if nothing has been damaged.
+     */
+    @GuardedBy("lock")
+    @Nullable
+    private Rect damage;
+
+    /**
+     * Constructor.
+     * @param listener the listener to forward requests to, null if there isn't one
+     */
+    public DamageTracker(@Nullable IRepaintListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void repaintRequested() {
+        synchronized (lock) {
+            allDamaged = true;
+            damage = null;
+        }
+        if (listener != null) {
+            listener.repaintRequested();
+        }
+    }
+
+    @Override
+    public void repaintRequested(@Nonnull Rect newDamage) {
+        synchronized (lock) {
+            if (!allDamaged) {
+                Rect grown = new Rect(newDamage.getX() - MARGIN, newDamage.getY() - MARGIN,
+                        newDamage.getWidth() + 2 * MARGIN, newDamage.getHeight() + 2 * MARGIN);
+                damage = damage == null ? grown : damage.union(grown);
+            }
+        }
+        if (listener != null) {
+            listener.repaintRequested(newDamage);
+        }
+    }
+
+    /**
+     * Get the area that has been damaged since the last call, and start collecting again.
+     * @param screen the whole window
+     * @return the damaged area clipped to the window, null if nothing has been damaged
+     */
+    @Nullable
+    public Rect takeDamage(@Nonnull Rect screen) {
+        synchronized (lock) {
+            Rect taken;
+            if (allDamaged) {
+                taken = screen;
+            }
+            else if (damage == null) {
+                taken = null;
+            }
+            else {
+                taken = damage.intersect(screen);
+            }
+            allDamaged = false;
+            damage = null;
+            return taken;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package ben.ui.window;
+
+import ben.ui.resource.GlResourceManager;
+import ben.ui.resource.GlState;
+import ben.ui.resource.RenderStats;
+import net.jcip.annotations.Immutable;
+import javax.annotation.Nonnull;
+
+/**
+ * Frame Stats.
+ * <p>
+ *     The timing of a frame and the work that it sent to OpenGL. The times are CPU times measured on the OpenGL thread;
+ *     the GPU may still be drawing when the frame finishes.
+ * </p>
+ */
+@Immutable
+public final class FrameStats {
+
+    /**
+     * The number of nanoseconds in a millisecond.
+     */
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    /**
+     * The number of the frame, counting from 1.
+     */
+    private final long frameNumber;
+
+    /**
+     * The time since the previous frame started in nanoseconds, 0 for the first frame.
+     */
+    private final long intervalNanos;
+
+    /**
+     * The time to forward the input events in nanoseconds.
+     */
+    private final long inputNanos;
+
+    /**
+     * The time to lay out the widgets in nanoseconds.
+     */
+    private final long layoutNanos;
+
+    /**
+     * The time to draw the widgets in nanoseconds.
+     */
+    private final long drawNanos;
+
+    /**
+     * The time of the whole frame in nanoseconds.
+     */
+    private final long frameNanos;
+
+    /**
+     * The number of input events that were forwarded.
+     */
+    private final int inputEvents;
+
+    /**
+     * The number of draw calls.
+     */
+    private final long drawCalls;
+
+    /**
+     * The number of vertices drawn.
+     */
+    private final long vertices;
+
+    /**
+     * The number of bytes uploaded to buffers.
+     */
+    private final long uploadBytes;
+
+    /**
+     * The number of binds that were issued to OpenGL.
+     */
+    private final long issuedBinds;
+
+    /**
+     * The number of binds that were skipped because the state was already set.
+     */
+    private final long skippedBinds;
+
+    /**
+     * Constructor.
+     * <p>
+     *     The frame is the input, layout and draw phases, so its time is theirs added up.
+     * </p>
+     * @param frameNumber the number of the frame, counting from 1
+     * @param intervalNanos the time since the previous frame started, 0 for the first frame
+     * @param inputNanos the time to forward the input events
+     * @param layoutNanos the time to lay out the widgets
+     * @param drawNanos the time to draw the widgets
+     * @param inputEvents the number of input events that were forwarded
+     * @param glResourceManager the resource manager, whose counters were reset at the start of the frame
+     */
+    FrameStats(long frameNumber, long intervalNanos, long inputNanos, long layoutNanos, long drawNanos, int inputEvents,
+            @Nonnull GlResourceManager glResourceManager) {
+        this.frameNumber = frameNumber;
+        this.intervalNanos = intervalNanos;
+        this.inputNanos = inputNanos;
+        this.layoutNanos = layoutNanos;
+        this.drawNanos = drawNanos;
+        frameNanos = inputNanos + layoutNanos + drawNanos;
+        this.inputEvents = inputEvents;
+        RenderStats renderStats = glResourceManager.getRenderStats();
+        drawCalls = renderStats.getDrawCalls();
+        vertices = renderStats.getVertices();
+        uploadBytes = renderStats.getUploadBytes();
+        GlState glState = glResourceManager.getGlState();
+        issuedBinds = glState.getIssuedBinds();
+        skippedBinds = glState.getSkippedBinds();
+    }
+
+    /**
+     * Get the number of the frame.
+     * @return the frame number, counting from 1
+     */
+    public long getFrameNumber() {
+        return frameNumber;
+    }
+
+    /**
+     * Get the time since the previous frame started.
+     * @return the interval in nanoseconds, 0 for the first frame
+     */
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    /**
+     * Get the time to forward the input events.
+     * @return the time in nanoseconds
+     */
+    public long getInputNanos() {
+        return inputNanos;
+    }
+
+    /**
+     * Get the time to lay out the widgets.
+     * @return the time in nanoseconds
+     */
+    public long getLayoutNanos() {
+        return layoutNanos;
+    }
+
+    /**
+     * Get the time to draw the widgets, including flushing the draw list.
+     * @return the time in nanoseconds
+     */
+    public long getDrawNanos() {
+        return drawNanos;
+    }
+
+    /**
+     * Get the time of the whole frame.
+     * @return the time in nanoseconds
+     */
+    public long getFrameNanos() {
+        return frameNanos;
+    }
+
+    /**
+     * Get the number of input events that were forwarded.
+     * @return the number of events, after moves were coalesced
+     */
+    public int getInputEvents() {
+        return inputEvents;
+    }
+
+    /**
+     * Get the number of draw calls.
+     * @return the number of draw calls
+     */
+    public long getDrawCalls() {
+        return drawCalls;
+    }
+
+    /**
+     * Get the number of vertices drawn.
+     * @return the number of vertices
+     */
+    public long getVertices() {
+        return vertices;
+    }
+
+    /**
+     * Get the number of bytes uploaded to buffers.
+     * @return the number of bytes
+     */
+    public long getUploadBytes() {
+        return uploadBytes;
+    }
+
+    /**
+     * Get the number of binds that were issued to OpenGL.
+     * @return the number of binds
+     */
+    public long getIssuedBinds() {
+        return issuedBinds;
+    }
+
+    /**
+     * Get the number of binds that were skipped because the state was already set.
+     * @return the number of binds
+     */
+    public long getSkippedBinds() {
+        return skippedBinds;
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+        return String.format("Frame %d: %.2f ms (input %.2f, layout %.2f, draw %.2f), %d draws, %d vertices, "
+                + "%d bytes uploaded, %d binds (%d skipped)", frameNumber, frameNanos / NANOS_PER_MILLI,
+                inputNanos / NANOS_PER_MILLI, layoutNanos / NANOS_PER_MILLI, drawNanos / NANOS_PER_MILLI, drawCalls,
+                vertices, uploadBytes, issuedBinds, skippedBinds);
+    }
+}
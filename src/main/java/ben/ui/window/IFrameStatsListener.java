@@ -0,0 +1,21 @@
+package ben.ui.window;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Frame Stats Listener.
+ * <p>
+ *     Told the stats of each frame after it has been drawn, e.g. to log slow frames or send them to a metrics system.
+ * </p>
+ */
+public interface IFrameStatsListener {
+
+    /**
+     * A frame has been drawn.
+     * <p>
+     *     Called on the OpenGL thread, so should return quickly.
+     * </p>
+     * @param frameStats the stats of the frame
+     */
+    void frameFinished(@Nonnull FrameStats frameStats);
+}
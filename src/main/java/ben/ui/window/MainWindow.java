@@ -1,22 +1,10 @@
 package ben.ui.window;
 
 import ben.ui.input.mouse.MouseButton;
-import ben.ui.math.PmvMatrix;
-import ben.ui.math.Rect;
 import ben.ui.math.Vec2i;
-import ben.ui.resource.GlResourceManager;
-import ben.ui.resource.color.UiColors;
-import ben.ui.resource.shader.FlatProgram;
-import ben.ui.resource.shader.TextProgram;
-import ben.ui.resource.shader.TextureProgram;
-import ben.ui.resource.texture.UiTextures;
+import ben.ui.resource.GpuProfile;
 import ben.ui.widget.IWidget;
-import com.jogamp.opengl.GL;
-import com.jogamp.opengl.GL2;
-import com.jogamp.opengl.GLAutoDrawable;
 import com.jogamp.opengl.GLCapabilities;
-import com.jogamp.opengl.GLEventListener;
-import com.jogamp.opengl.GLPipelineFactory;
 import com.jogamp.opengl.GLProfile;
 import com.jogamp.opengl.awt.GLCanvas;
 import com.jogamp.opengl.util.FPSAnimator;
@@ -56,22 +44,22 @@ public final class MainWindow {
     private static final int FRAMES_PER_SECOND = 60;
 
     /**
-     * The animator.
+     * The animator, null if the window renders on demand.
      */
-    @Nonnull
+    @Nullable
     private final FPSAnimator animator;
 
     /**
-     * The PMV Matrix.
+     * The repaint scheduler, null if the window renders continuously.
      */
-    @Nonnull
-    private final PmvMatrix pmvMatrix = new PmvMatrix();
+    @Nullable
+    private final RepaintScheduler repaintScheduler;
 
     /**
-     * The OpenGL Resource Manager.
+     * Draws the widget tree into the canvas.
      */
     @Nonnull
-    private final GlResourceManager glResourceManager = new GlResourceManager();
+    private final WindowRenderer renderer;
 
     /**
      * The GL canvas.
@@ -98,22 +86,49 @@ public final class MainWindow {
     private final WindowKeyListener keyListener;
 
     /**
-     * The root widget.
+     * Constructor.
+     * <p>
+     *     The window is drawn continuously at 60 frames per second.
+     * </p>
+     * @param width the width of the window in pixels
+     * @param height the height of the window in pixels
      */
-    @Nullable
-    private IWidget rootWidget;
+    public MainWindow(int width, int height) {
+        this(width, height, false, FRAMES_PER_SECOND, 0);
+    }
 
     /**
      * Constructor.
+     * <p>
+     *     When rendering on demand the window is only drawn after something has changed; a widget or graphic is dirty,
+     *     the layout has changed or there was an input event. Only the damaged areas of the window are drawn again,
+     *     see {@link #setPartialRedraw(boolean)}.
+     * </p>
      * @param width the width of the window in pixels
      * @param height the height of the window in pixels
+     * @param renderOnDemand true to only draw when something has changed, false to draw continuously
+     * @param maximumFramesPerSecond the frame rate when drawing continuously, or the cap when rendering on demand (0 for
+     *                               no cap)
+     * @param idleIntervalMillis when rendering on demand, the longest time between frames in milliseconds even if
+     *                           nothing has changed (0 for no limit)
      */
-    public MainWindow(int width, int height) {
+    public MainWindow(int width, int height, boolean renderOnDemand, int maximumFramesPerSecond, long idleIntervalMillis) {
         GLProfile glp = GLProfile.get(GLProfile.GL2);
         GLCapabilities caps = new GLCapabilities(glp);
 
         canvas = new GLCanvas(caps);
 
+        if (renderOnDemand) {
+            animator = null;
+            repaintScheduler = new RepaintScheduler(canvas, maximumFramesPerSecond, idleIntervalMillis);
+        }
+        else {
+            animator = new FPSAnimator(canvas, maximumFramesPerSecond);
+            repaintScheduler = null;
+        }
+        renderer = new WindowRenderer(repaintScheduler);
+        renderer.setPartialRedraw(renderOnDemand);
+
         frame = new Frame();
         frame.setSize(width, height);
         frame.add(canvas);
@@ -131,14 +146,18 @@ public final class MainWindow {
         mouseListener = new WindowMouseListener();
         keyListener = new WindowKeyListener();
 
-        canvas.addGLEventListener(new GlEventHandler());
+        canvas.addGLEventListener(renderer);
         canvas.addMouseListener(mouseListener);
         canvas.addMouseMotionListener(mouseListener);
         canvas.addMouseWheelListener(mouseListener);
         canvas.addKeyListener(keyListener);
 
-        animator = new FPSAnimator(canvas, FRAMES_PER_SECOND);
-        animator.start();
+        if (repaintScheduler != null) {
+            repaintScheduler.start();
+        }
+        else {
+            animator.start();
+        }
     }
 
     /**
@@ -146,11 +165,12 @@ public final class MainWindow {
      * @param rootWidget the root widget
      */
     public void setRootWidget(@Nullable IWidget rootWidget) {
-        this.rootWidget = rootWidget;
+        renderer.setRootWidget(rootWidget);
         if (rootWidget != null) {
             Vec2i size = new Vec2i(canvas.getWidth(), canvas.getHeight());
             rootWidget.setSize(size);
         }
+        repaint();
     }
 
     /**
@@ -159,14 +179,67 @@ public final class MainWindow {
      */
     @Nullable
     public IWidget getRootWidget() {
-        return rootWidget;
+        return renderer.getRootWidget();
+    }
+
+    /**
+     * Set whether the 2D renderers are batched into a draw list.
+     * <p>
+     *     Batching is on by default, turning it off draws every renderer straight away which can help when debugging.
+     * </p>
+     * @param batching true to batch
+     */
+    public void setBatching(boolean batching) {
+        renderer.setBatching(batching);
+    }
+
+    /**
+     * Set whether only the damaged areas of the window are drawn again.
+     * <p>
+     *     The widgets report the areas that change, and the window is drawn into a frame buffer that keeps the rest of
+     *     the window between frames. Anything that changes without telling its widget must call {@link #repaint()}.
+     *     On by default when rendering on demand, off when drawing continuously.
+     * </p>
+     * @param partialRedraw true to only draw the damaged areas
+     */
+    public void setPartialRedraw(boolean partialRedraw) {
+        renderer.setPartialRedraw(partialRedraw);
+        repaint();
+    }
+
+    /**
+     * Request that the whole window is drawn again.
+     * <p>
+     *     Only needed when rendering on demand or drawing partially and something has changed that the widgets don't
+     *     know about, e.g. a canvas camera. May be called from any thread.
+     * </p>
+     */
+    public void repaint() {
+        renderer.repaint();
+    }
+
+    /**
+     * Request a frame without damaging the window.
+     * <p>
+     *     Input events may change widgets, which damage their own areas.
+     * </p>
+     */
+    private void requestFrame() {
+        if (repaintScheduler != null) {
+            repaintScheduler.repaintRequested();
+        }
     }
 
     /**
      * Exit the application.
      */
     public void stop() {
-        animator.stop();
+        if (animator != null) {
+            animator.stop();
+        }
+        if (repaintScheduler != null) {
+            repaintScheduler.stop();
+        }
         if (canvas.isVisible()) {
             canvas.destroy();
         }
@@ -182,6 +255,58 @@ public final class MainWindow {
         return new Vec2i(canvas.getX(), canvas.getY());
     }
 
+    /**
+     * Add a listener that is told the stats of each frame.
+     * @param frameStatsListener the listener, called on the OpenGL thread
+     */
+    public void addFrameStatsListener(@Nonnull IFrameStatsListener frameStatsListener) {
+        renderer.addFrameStatsListener(frameStatsListener);
+    }
+
+    /**
+     * Remove a frame stats listener.
+     * @param frameStatsListener the listener
+     */
+    public void removeFrameStatsListener(@Nonnull IFrameStatsListener frameStatsListener) {
+        renderer.removeFrameStatsListener(frameStatsListener);
+    }
+
+    /**
+     * Get the stats of the last frame.
+     * <p>
+     *     May be called from any thread.
+     * </p>
+     * @return the stats, null before the first frame
+     */
+    @Nullable
+    public FrameStats getFrameStats() {
+        return renderer.getFrameStats();
+    }
+
+    /**
+     * Set whether the GPU time of each pane and canvas is measured.
+     * <p>
+     *     Off by default. Does nothing if the graphics card doesn't support timestamp queries. When drawing partially
+     *     only the panes that are drawn again are measured. May be called from any thread.
+     * </p>
+     * @param gpuProfiling true to measure
+     */
+    public void setGpuProfiling(boolean gpuProfiling) {
+        renderer.getGlResourceManager().getGpuProfiler().setEnabled(gpuProfiling);
+    }
+
+    /**
+     * Get the GPU profile of a recent frame, a tree of the GPU time of each pane and canvas by name.
+     * <p>
+     *     May be called from any thread.
+     * </p>
+     * @return the profile, null if no frame has been profiled yet
+     */
+    @Nullable
+    public GpuProfile getGpuProfile() {
+        return renderer.getGlResourceManager().getGpuProfiler().getProfile();
+    }
+
     /**
      * Get the mouse listener.
      * @return the mouse listener
@@ -200,67 +325,10 @@ public final class MainWindow {
         return keyListener;
     }
 
-    /**
-     * The OpenGL Event Handler.
-     */
-    private class GlEventHandler implements GLEventListener {
-
-        @Override
-        public void init(@Nonnull GLAutoDrawable drawable) {
-            LOGGER.info("Initialising the Window");
-            GL2 gl = drawable.getGL().getGL2();
-            drawable.setGL(GLPipelineFactory.create("com.jogamp.opengl.Debug", GL2.class, gl, null));
-
-            glResourceManager.getTextureManager().loadTexture(UiTextures.FONT, "/textures/font.png");
-
-            glResourceManager.getShaderManager().addProgram(new FlatProgram(gl));
-            glResourceManager.getShaderManager().addProgram(new TextureProgram(gl));
-            glResourceManager.getShaderManager().addProgram(new TextProgram(gl));
-
-            glResourceManager.getColorManager().loadColors(UiColors.class, "/colors/colors.xml");
-        }
-
-        @Override
-        public void dispose(@Nonnull GLAutoDrawable drawable) {
-            LOGGER.info("Disposing the Window");
-        }
-
-        @Override
-        public void display(@Nonnull GLAutoDrawable drawable) {
-            GL2 gl = drawable.getGL().getGL2();
-
-            gl.glDisable(GL.GL_SCISSOR_TEST);
-            gl.glClear(GL2.GL_COLOR_BUFFER_BIT);
-            gl.glEnable(GL.GL_SCISSOR_TEST);
-
-            gl.glEnable(GL2.GL_BLEND);
-            gl.glDisable(GL2.GL_DEPTH_TEST);
-            gl.glBlendFunc(GL2.GL_SRC_ALPHA, GL2.GL_ONE_MINUS_SRC_ALPHA);
-
-            if (rootWidget != null) {
-                rootWidget.draw(gl, pmvMatrix, glResourceManager);
-            }
-        }
-
-        @Override
-        public void reshape(@Nonnull GLAutoDrawable drawable, int x, int y, int width, int height) {
-            LOGGER.info("Reshaping the Window - " + width + "x" + height);
-            GL2 gl = drawable.getGL().getGL2();
-            gl.glViewport(0, 0, width, height);
-            pmvMatrix.identity();
-            pmvMatrix.orthographic(new Rect(0, 0, width, height));
-            pmvMatrix.setScreenSize(new Vec2i(width, height));
-            pmvMatrix.setScissorBox(new Rect(0, 0, width, height));
-            if (rootWidget != null) {
-                rootWidget.setSize(new Vec2i(width, height));
-            }
-        }
-    }
-
     /**
      * The Window Mouse Listener.
      * <p>
-     *     Forwards events to the Root Widget.
+     *     Queues events for the Root Widget, they are forwarded on the OpenGL thread before the next frame.
      * </p>
      */
     private class WindowMouseListener implements MouseListener, MouseMotionListener, MouseWheelListener {
@@ -268,60 +336,58 @@ public final class MainWindow {
         @Override
         public void mouseClicked(@Nonnull MouseEvent e) {
             MouseButton button = newtToNotNewt(e.getButton());
-            if (rootWidget != null && button != null) {
-                rootWidget.getMouseHandler().mouseClicked(button, new Vec2i(e.getX(), e.getY()));
+            if (button != null) {
+                renderer.getInputQueue().mouseClicked(button, e.getX(), e.getY());
             }
+            requestFrame();
         }
 
         @Override
         public void mouseEntered(@Nonnull MouseEvent e) {
-            if (rootWidget != null) {
-                rootWidget.getMouseHandler().mouseEntered();
-            }
+            renderer.getInputQueue().mouseEntered();
+            requestFrame();
         }
 
         @Override
         public void mouseExited(@Nonnull MouseEvent e) {
-            if (rootWidget != null) {
-                rootWidget.getMouseHandler().mouseExited();
-            }
+            renderer.getInputQueue().mouseExited();
+            requestFrame();
         }
 
         @Override
         public void mousePressed(@Nonnull MouseEvent e) {
             MouseButton button = newtToNotNewt(e.getButton());
-            if (rootWidget != null && button != null) {
-                rootWidget.getMouseHandler().mousePressed(button, new Vec2i(e.getX(), e.getY()));
+            if (button != null) {
+                renderer.getInputQueue().mousePressed(button, e.getX(), e.getY());
             }
+            requestFrame();
         }
 
         @Override
         public void mouseReleased(@Nonnull MouseEvent e) {
             MouseButton button = newtToNotNewt(e.getButton());
-            if (rootWidget != null && button != null) {
-                rootWidget.getMouseHandler().mouseReleased(button, new Vec2i(e.getX(), e.getY()));
+            if (button != null) {
+                renderer.getInputQueue().mouseReleased(button, e.getX(), e.getY());
             }
+            requestFrame();
         }
 
         @Override
         public void mouseMoved(@Nonnull MouseEvent e) {
-            if (rootWidget != null) {
-                rootWidget.getMouseHandler().mouseMoved(new Vec2i(e.getX(), e.getY()));
-            }
+            renderer.getInputQueue().mouseMoved(e.getX(), e.getY());
+            requestFrame();
         }
 
         @Override
         public void mouseDragged(@Nonnull MouseEvent e) {
-            if (rootWidget != null) {
-                rootWidget.getMouseHandler().mouseDragged(new Vec2i(e.getX(), e.getY()));
-            }
+            renderer.getInputQueue().mouseDragged(e.getX(), e.getY());
+            requestFrame();
         }
 
         @Override
         public void mouseWheelMoved(MouseWheelEvent e) {
-            if (rootWidget != null) {
-                rootWidget.getMouseHandler().mouseWheelMoved(e.getWheelRotation(), new Vec2i(e.getX(), e.getY()));
-            }
+            renderer.getInputQueue().mouseWheelMoved(e.getWheelRotation(), e.getX(), e.getY());
+            requestFrame();
         }
 
         /**
@@ -351,7 +417,7 @@ public final class MainWindow {
     /**
      * Window Key Listener.
      * <p>
-     *     Forwards events to the Root Widget.
+     *     Queues events for the Root Widget, they are forwarded on the OpenGL thread before the next frame.
      * </p>
      */
     private class WindowKeyListener implements KeyListener {
@@ -363,16 +429,14 @@ public final class MainWindow {
 
         @Override
         public void keyPressed(@Nonnull KeyEvent e) {
-            if (rootWidget != null) {
-                rootWidget.getKeyHandler().keyPressed(e);
-            }
+            renderer.getInputQueue().keyPressed(e);
+            requestFrame();
         }
 
         @Override
         public void keyReleased(@Nonnull KeyEvent e) {
-            if (rootWidget != null) {
-                rootWidget.getKeyHandler().keyReleased(e);
-            }
+            renderer.getInputQueue().keyReleased(e);
+            requestFrame();
         }
     }
 }
@@ -0,0 +1,330 @@
+package ben.ui.window;
+
+import ben.ui.input.InputQueue;
+import ben.ui.math.Vec2i;
+import ben.ui.resource.GlResourceManager;
+import ben.ui.resource.GpuProfile;
+import ben.ui.widget.IWidget;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLContext;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+import net.jcip.annotations.NotThreadSafe;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Offscreen Window.
+ * <p>
+ *     Draws a widget tree like the {@link MainWindow}, but into a frame buffer object (or a pbuffer if frame buffer
+ *     objects aren't supported) instead of a window on the screen, so it works without a display, e.g. in CI or on a
+ *     render server. The pixels can be read back for golden image tests and a frame can be drawn whenever the caller
+ *     wants, for end to end frame benchmarks.
+ * </p>
+ * <p>
+ *     On a machine without a GPU, Mesa's software rasterizer can be used by setting {@code LIBGL_ALWAYS_SOFTWARE=1}.
+ * </p>
+ * <p>
+ *     Frames are drawn on the thread that calls {@link #render()}, so all of the methods that use OpenGL must be called
+ *     on that thread. Input events can be queued from any thread, they are forwarded before the next frame.
+ * </p>
+ */
+@NotThreadSafe
+public final class OffscreenWindow {
+
+    /**
+     * The number of bytes in an RGBA pixel.
+     */
+    private static final int BYTES_PER_PIXEL = 4;
+
+    /**
+     * The number of bits in a colour or alpha channel.
+     */
+    private static final int BITS_PER_CHANNEL = 8;
+
+    /**
+     * Draws the widget tree into the drawable.
+     */
+    @Nonnull
+    private final WindowRenderer renderer = new WindowRenderer(null);
+
+    /**
+     * The offscreen drawable.
+     */
+    @Nonnull
+    private final GLOffscreenAutoDrawable drawable;
+
+    /**
+     * Constructor.
+     * @param width the width of the window in pixels
+     * @param height the height of the window in pixels
+     */
+    public OffscreenWindow(int width, int height) {
+        GLProfile glp = GLProfile.get(GLProfile.GL2);
+        GLCapabilities caps = new GLCapabilities(glp);
+        caps.setOnscreen(false);
+        caps.setFBO(true);
+        caps.setPBuffer(true);
+        // Single buffered so that the pixels that were drawn are the ones that are read.
+        caps.setDoubleBuffered(false);
+        caps.setRedBits(BITS_PER_CHANNEL);
+        caps.setGreenBits(BITS_PER_CHANNEL);
+        caps.setBlueBits(BITS_PER_CHANNEL);
+        caps.setAlphaBits(BITS_PER_CHANNEL);
+
+        drawable = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, width, height);
+        drawable.addGLEventListener(renderer);
+    }
+
+    /**
+     * Set the root widget.
+     * @param rootWidget the root widget
+     */
+    public void setRootWidget(@Nullable IWidget rootWidget) {
+        renderer.setRootWidget(rootWidget);
+        if (rootWidget != null) {
+            rootWidget.setSize(getSize());
+        }
+        repaint();
+    }
+
+    /**
+     * Get the root widget.
+     * @return the root widget.
+     */
+    @Nullable
+    public IWidget getRootWidget() {
+        return renderer.getRootWidget();
+    }
+
+    /**
+     * Set the size of the window, the root widget is resized before the next frame.
+     * @param width the width in pixels
+     * @param height the height in pixels
+     */
+    public void setSize(int width, int height) {
+        drawable.setSurfaceSize(width, height);
+    }
+
+    /**
+     * Get the size of the window.
+     * @return the size in pixels
+     */
+    @Nonnull
+    public Vec2i getSize() {
+        return new Vec2i(drawable.getSurfaceWidth(), drawable.getSurfaceHeight());
+    }
+
+    /**
+     * Set whether the 2D renderers are batched into a draw list.
+     * <p>
+     *     Batching is on by default.
+     * </p>
+     * @param batching true to batch
+     */
+    public void setBatching(boolean batching) {
+        renderer.setBatching(batching);
+    }
+
+    /**
+     * Set whether only the damaged areas of the window are drawn again.
+     * <p>
+     *     Off by default, so that every frame draws the whole window.
+     * </p>
+     * @param partialRedraw true to only draw the damaged areas
+     */
+    public void setPartialRedraw(boolean partialRedraw) {
+        renderer.setPartialRedraw(partialRedraw);
+        repaint();
+    }
+
+    /**
+     * Request that the whole window is drawn again by the next frame.
+     */
+    public void repaint() {
+        renderer.repaint();
+    }
+
+    /**
+     * Draw a frame; forward the queued input, lay out the widgets and draw them.
+     * <p>
+     *     The first frame also creates the OpenGL resources.
+     * </p>
+     */
+    public void render() {
+        drawable.display();
+    }
+
+    /**
+     * Read the pixels of the last frame.
+     * <p>
+     *     The pixels are RGBA, one byte per channel, and the rows are from top to bottom like the widget coordinates.
+     *     They are written from the position of the buffer, which is then advanced past them.
+     * </p>
+     * @param pixels the buffer to write the pixels to, must have room for width * height * 4 bytes
+     */
+    public void readPixels(@Nonnull ByteBuffer pixels) {
+        int width = drawable.getSurfaceWidth();
+        int height = drawable.getSurfaceHeight();
+        int rowBytes = width * BYTES_PER_PIXEL;
+        if (pixels.remaining() < rowBytes * height) {
+            throw new IllegalArgumentException("Pixel buffer is too small: " + pixels.remaining() + " < "
+                    + rowBytes * height);
+        }
+
+        GL2 gl = makeCurrent();
+        try {
+            gl.glBindFramebuffer(GL2.GL_READ_FRAMEBUFFER, gl.getDefaultReadFramebuffer());
+            gl.glReadBuffer(gl.getDefaultReadBuffer());
+            gl.glPixelStorei(GL.GL_PACK_ALIGNMENT, 1);
+            ByteBuffer target = pixels.slice();
+            gl.glReadPixels(0, 0, width, height, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, target);
+            // OpenGL's rows are from the bottom up.
+            flipRows(target, rowBytes, height);
+        }
+        finally {
+            release();
+        }
+        pixels.position(pixels.position() + rowBytes * height);
+    }
+
+    /**
+     * Read the pixels of the last frame into a new buffer.
+     * @return the pixels, RGBA from the top left
+     * @see #readPixels(ByteBuffer)
+     */
+    @Nonnull
+    public ByteBuffer readPixels() {
+        Vec2i size = getSize();
+        ByteBuffer pixels = ByteBuffer.allocateDirect(size.getX() * size.getY() * BYTES_PER_PIXEL)
+                .order(ByteOrder.nativeOrder());
+        readPixels(pixels);
+        pixels.flip();
+        return pixels;
+    }
+
+    /**
+     * Get the queue of input events that are forwarded to the root widget before the next frame.
+     * @return the input queue, may be added to from any thread
+     */
+    @Nonnull
+    public InputQueue getInputQueue() {
+        return renderer.getInputQueue();
+    }
+
+    /**
+     * Add a listener that is told the stats of each frame.
+     * @param frameStatsListener the listener, called on the rendering thread
+     */
+    public void addFrameStatsListener(@Nonnull IFrameStatsListener frameStatsListener) {
+        renderer.addFrameStatsListener(frameStatsListener);
+    }
+
+    /**
+     * Remove a frame stats listener.
+     * @param frameStatsListener the listener
+     */
+    public void removeFrameStatsListener(@Nonnull IFrameStatsListener frameStatsListener) {
+        renderer.removeFrameStatsListener(frameStatsListener);
+    }
+
+    /**
+     * Get the stats of the last frame.
+     * @return the stats, null before the first frame
+     */
+    @Nullable
+    public FrameStats getFrameStats() {
+        return renderer.getFrameStats();
+    }
+
+    /**
+     * Set whether the GPU time of each pane and canvas is measured.
+     * <p>
+     *     Off by default. Does nothing if the renderer doesn't support timestamp queries.
+     * </p>
+     * @param gpuProfiling true to measure
+     */
+    public void setGpuProfiling(boolean gpuProfiling) {
+        renderer.getGlResourceManager().getGpuProfiler().setEnabled(gpuProfiling);
+    }
+
+    /**
+     * Get the GPU profile of a recent frame.
+     * @return the profile, null if no frame has been profiled yet
+     */
+    @Nullable
+    public GpuProfile getGpuProfile() {
+        return renderer.getGlResourceManager().getGpuProfiler().getProfile();
+    }
+
+    /**
+     * Get the OpenGL resource manager that the widgets are drawn with.
+     * @return the resource manager
+     */
+    @Nonnull
+    GlResourceManager getGlResourceManager() {
+        return renderer.getGlResourceManager();
+    }
+
+    /**
+     * Release the OpenGL resources and the drawable.
+     */
+    public void dispose() {
+        drawable.destroy();
+    }
+
+    /**
+     * Make the OpenGL context current on this thread, e.g. to read the pixels of the last frame.
+     * <p>
+     *     Must be followed by {@link #release()}, and not called during a frame.
+     * </p>
+     * @return the OpenGL interface
+     */
+    @Nonnull
+    GL2 makeCurrent() {
+        GLContext context = drawable.getContext();
+        if (context == null || context.makeCurrent() == GLContext.CONTEXT_NOT_CURRENT) {
+            throw new GLException("Couldn't make the offscreen context current");
+        }
+        return context.getGL().getGL2();
+    }
+
+    /**
+     * Release the OpenGL context that was made current by {@link #makeCurrent()}.
+     */
+    void release() {
+        drawable.getContext().release();
+    }
+
+    /**
+     * Reverse the order of the rows of an image, in place.
+     * @param pixels the image, from its position
+     * @param rowBytes the number of bytes in a row
+     * @param rows the number of rows
+     */
+    static void flipRows(@Nonnull ByteBuffer pixels, int rowBytes, int rows) {
+        int base = pixels.position();
+        byte[] top = new byte[rowBytes];
+        byte[] bottom = new byte[rowBytes];
+        for (int row = 0; row < rows / 2; row++) {
+            int topIndex = base + row * rowBytes;
+            int bottomIndex = base + (rows - 1 - row) * rowBytes;
+            pixels.position(topIndex);
+            pixels.get(top);
+            pixels.position(bottomIndex);
+            pixels.get(bottom);
+            pixels.position(topIndex);
+            pixels.put(bottom);
+            pixels.position(bottomIndex);
+            pixels.put(top);
+        }
+        pixels.position(base);
+    }
+}
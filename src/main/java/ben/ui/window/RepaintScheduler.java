@@ -0,0 +1,176 @@
+package ben.ui.window;
+
+import ben.ui.math.Rect;
+import ben.ui.resource.IRepaintListener;
+import com.jogamp.opengl.GLAutoDrawable;
+import net.jcip.annotations.GuardedBy;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Repaint Scheduler.
+ * <p>
+ *     Displays a drawable only when a repaint has been requested, instead of at a fixed frame rate. Requests that
+ *     arrive faster than the maximum frame rate are merged into one frame, and if the idle interval is set the drawable
+ *     is displayed at least that often even when nothing has been requested.
+ * </p>
+ */
+public final class RepaintScheduler implements IRepaintListener {
+
+    /**
+     * The Logger.
+     */
+    @Nonnull
+    private static final Logger LOGGER = LogManager.getLogger(RepaintScheduler.class);
+
+    /**
+     * The number of nanoseconds in a millisecond.
+     */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /**
+     * The number of nanoseconds in a second.
+     */
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    /**
+     * The drawable to display.
+     */
+    @Nonnull
+    private final GLAutoDrawable drawable;
+
+    /**
+     * The shortest time between two frames in nanoseconds.
+     */
+    private final long minimumFrameNanos;
+
+    /**
+     * The longest time between two frames in milliseconds, 0 to wait for a request however long it takes.
+     */
+    private final long idleIntervalMillis;
+
+    /**
+     * The lock.
+     */
+    @Nonnull
+    private final Object lock = new Object();
+
+    /**
+     * Has a repaint been requested since the last frame.
+     */
+    @GuardedBy("lock")
+    private boolean repaintRequested = true;
+
+    /**
+     * Is the scheduler running.
+     */
+    @GuardedBy("lock")
+    private boolean running;
+
+    /**
+     * The scheduler thread.
+     */
+    @GuardedBy("lock")
+    private Thread thread;
+
+    /**
+     * Constructor.
+     * @param drawable the drawable to display
+     * @param maximumFramesPerSecond the maximum frame rate, 0 for no cap
+     * @param idleIntervalMillis the longest time between two frames in milliseconds, 0 for no limit
+     */
+    public RepaintScheduler(@Nonnull GLAutoDrawable drawable, int maximumFramesPerSecond, long idleIntervalMillis) {
+        assert maximumFramesPerSecond >= 0;
+        assert idleIntervalMillis >= 0;
+        this.drawable = drawable;
+        this.minimumFrameNanos = maximumFramesPerSecond == 0 ? 0 : NANOS_PER_SECOND / maximumFramesPerSecond;
+        this.idleIntervalMillis = idleIntervalMillis;
+    }
+
+    /**
+     * Start the scheduler thread.
+     */
+    public void start() {
+        synchronized (lock) {
+            assert !running : "The scheduler is already running";
+            running = true;
+            thread = new Thread(this::run, "Repaint Scheduler");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Stop the scheduler thread.
+     * <p>
+     *     Doesn't wait for a frame that is being displayed to finish.
+     * </p>
+     */
+    public void stop() {
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+        }
+    }
+
+    @Override
+    public void repaintRequested() {
+        synchronized (lock) {
+            if (!repaintRequested) {
+                repaintRequested = true;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public void repaintRequested(@Nonnull Rect damage) {
+        repaintRequested();
+    }
+
+    /**
+     * The scheduler loop.
+     */
+    private void run() {
+        long lastFrameNanos = System.nanoTime() - minimumFrameNanos;
+        try {
+            while (waitForRepaint()) {
+                long sleepNanos = lastFrameNanos + minimumFrameNanos - System.nanoTime();
+                if (sleepNanos > 0) {
+                    // Requests that arrive while sleeping are drawn in this frame.
+                    Thread.sleep(sleepNanos / NANOS_PER_MILLI, (int) (sleepNanos % NANOS_PER_MILLI));
+                }
+                synchronized (lock) {
+                    repaintRequested = false;
+                }
+                lastFrameNanos = System.nanoTime();
+                drawable.display();
+            }
+        }
+        catch (InterruptedException e) {
+            LOGGER.warn("Repaint scheduler interrupted", e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Wait until a repaint has been requested, or the idle interval has passed.
+     * @return true if a frame should be displayed, false if the scheduler has been stopped
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    private boolean waitForRepaint() throws InterruptedException {
+        synchronized (lock) {
+            if (running && !repaintRequested) {
+                long deadline = System.currentTimeMillis() + idleIntervalMillis;
+                long waitMillis = idleIntervalMillis;
+                while (running && !repaintRequested && (idleIntervalMillis == 0 || waitMillis > 0)) {
+                    lock.wait(waitMillis);
+                    waitMillis = deadline - System.currentTimeMillis();
+                }
+            }
+            return running;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package ben.ui.window;
+
+import ben.ui.math.Vec2i;
+import ben.ui.renderer.PixelPackBuffer;
+import ben.ui.widget.IWidget;
+import com.jogamp.opengl.GL2;
+import net.jcip.annotations.NotThreadSafe;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot Renderer.
+ * <p>
+ *     Renders widget trees offscreen and writes them to PNG files, for rendering lots of snapshots on a server.
+ * </p>
+ * <p>
+ *     The pixels of each snapshot are read into one of two pixel pack buffers without waiting for the GPU, and copied
+ *     out while the next snapshot is drawn. Encoding PNGs is much slower than drawing, so it's done by a pool of
+ *     threads; only a few snapshots are allowed to wait for an encoder, after that rendering waits so that the memory
+ *     use is bounded.
+ * </p>
+ * <p>
+ *     All of the methods must be called on the same thread, which does the drawing.
+ * </p>
+ */
+@NotThreadSafe
+public final class SnapshotRenderer implements AutoCloseable {
+
+    /**
+     * The Logger.
+     */
+    @Nonnull
+    private static final Logger LOGGER = LogManager.getLogger(SnapshotRenderer.class);
+
+    /**
+     * The number of bytes in an RGBA pixel.
+     */
+    private static final int BYTES_PER_PIXEL = 4;
+
+    /**
+     * The number of snapshots per encoder thread that can wait to be encoded.
+     */
+    private static final int PENDING_PER_ENCODER = 2;
+
+    /**
+     * The offscreen window that the snapshots are drawn in.
+     */
+    @Nonnull
+    private final OffscreenWindow window;
+
+    /**
+     * The threads that encode the PNGs.
+     */
+    @Nonnull
+    private final ExecutorService encoders;
+
+    /**
+     * The permits for snapshots that have been read but not yet encoded.
+     */
+    @Nonnull
+    private final Semaphore pending;
+
+    /**
+     * The two pixel pack buffers, null until the first snapshot.
+     */
+    @Nullable
+    private PixelPackBuffer[] buffers;
+
+    /**
+     * The snapshots whose pixels are being read into each buffer, null if the buffer is free.
+     */
+    @Nonnull
+    private final Snapshot[] reading = new Snapshot[2];
+
+    /**
+     * The index of the buffer that the next snapshot is read into.
+     */
+    private int nextBuffer;
+
+    /**
+     * Constructor.
+     * @param encoderThreads the number of threads that encode PNGs
+     */
+    public SnapshotRenderer(int encoderThreads) {
+        window = new OffscreenWindow(1, 1);
+        encoders = Executors.newFixedThreadPool(encoderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "Snapshot Encoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        pending = new Semaphore(encoderThreads * PENDING_PER_ENCODER);
+    }
+
+    /**
+     * Render a widget tree to a PNG file.
+     * <p>
+     *     The widget is drawn straight away so it can be changed or reused as soon as this returns, but the file is
+     *     written later; the pixels are copied out by the next call or {@link #flush()}.
+     * </p>
+     * @param root the root widget, sized to the snapshot
+     * @param size the size of the snapshot in pixels, must not be empty
+     * @param file the file to write
+     * @return completes with the file when it has been written
+     * @throws InterruptedException if interrupted while waiting for an encoder
+     */
+    @Nonnull
+    public CompletableFuture<File> render(@Nonnull IWidget root, @Nonnull Vec2i size, @Nonnull File file)
+            throws InterruptedException {
+        if (!size.equals(window.getSize())) {
+            window.setSize(size.getX(), size.getY());
+        }
+        window.setRootWidget(root);
+        window.render();
+
+        Snapshot snapshot = new Snapshot(file);
+        GL2 gl = window.makeCurrent();
+        try {
+            if (buffers == null) {
+                buffers = new PixelPackBuffer[] {new PixelPackBuffer(gl), new PixelPackBuffer(gl)};
+            }
+            // Start reading this snapshot, then finish the last one while the GPU works on it.
+            int current = nextBuffer;
+            int previous = 1 - current;
+            if (reading[current] != null) {
+                finish(gl, current);
+            }
+            gl.glBindFramebuffer(GL2.GL_READ_FRAMEBUFFER, gl.getDefaultReadFramebuffer());
+            gl.glReadBuffer(gl.getDefaultReadBuffer());
+            buffers[current].read(gl, size);
+            reading[current] = snapshot;
+            nextBuffer = previous;
+            if (reading[previous] != null) {
+                finish(gl, previous);
+            }
+        }
+        finally {
+            // The tree isn't drawn again by this window, so its VAOs, buffer ranges and cached panes are freed while
+            // the context is current; if it's rendered again it creates them again.
+            try {
+                root.remove(gl);
+            }
+            finally {
+                window.release();
+            }
+        }
+        window.setRootWidget(null);
+        return snapshot.future;
+    }
+
+    /**
+     * Copy out the pixels of the snapshots that are still being read, and hand them to the encoders.
+     * @throws InterruptedException if interrupted while waiting for an encoder
+     */
+    public void flush() throws InterruptedException {
+        if (buffers != null) {
+            GL2 gl = window.makeCurrent();
+            try {
+                // The older snapshot is in the next buffer.
+                for (int i = 0; i < reading.length; i++) {
+                    int index = (nextBuffer + i) % reading.length;
+                    if (reading[index] != null) {
+                        finish(gl, index);
+                    }
+                }
+            }
+            finally {
+                window.release();
+            }
+        }
+    }
+
+    /**
+     * Flush, wait for the encoders to finish and release the OpenGL resources.
+     * <p>
+     *     If the thread is interrupted while waiting, the snapshots that haven't been written are completed
+     *     exceptionally and the interrupt flag is set again.
+     * </p>
+     */
+    @Override
+    public void close() {
+        try {
+            flush();
+            encoders.shutdown();
+            encoders.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Snapshot snapshot : reading) {
+                if (snapshot != null) {
+                    snapshot.future.completeExceptionally(e);
+                }
+            }
+            for (Runnable encode : encoders.shutdownNow()) {
+                ((Encode) encode).snapshot.future.completeExceptionally(e);
+            }
+        }
+        finally {
+            encoders.shutdownNow();
+            if (buffers != null) {
+                GL2 gl = window.makeCurrent();
+                try {
+                    for (PixelPackBuffer buffer : buffers) {
+                        buffer.remove(gl);
+                    }
+                }
+                finally {
+                    window.release();
+                }
+                buffers = null;
+            }
+            window.dispose();
+        }
+    }
+
+    /**
+     * Copy the pixels of a snapshot out of its buffer, waiting for the GPU if needed, and encode them.
+     * @param gl the OpenGL interface
+     * @param index the index of the buffer
+     * @throws InterruptedException if interrupted while waiting for an encoder
+     */
+    private void finish(@Nonnull GL2 gl, int index) throws InterruptedException {
+        assert buffers != null;
+        Snapshot snapshot = reading[index];
+        reading[index] = null;
+        PixelPackBuffer buffer = buffers[index];
+        Vec2i size = buffer.getSize();
+        byte[] pixels = new byte[buffer.getByteCount()];
+        buffer.copyTo(gl, pixels);
+
+        try {
+            pending.acquire();
+        }
+        catch (InterruptedException e) {
+            snapshot.future.completeExceptionally(e);
+            throw e;
+        }
+        try {
+            encoders.execute(new Encode(snapshot, pixels, size));
+        }
+        catch (RuntimeException e) {
+            pending.release();
+            snapshot.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Get the offscreen window that the snapshots are drawn in.
+     * @return the window
+     */
+    @Nonnull
+    OffscreenWindow getWindow() {
+        return window;
+    }
+
+    /**
+     * Convert the pixels read from OpenGL into an image.
+     * @param pixels the pixels, RGBA with the rows from the bottom up
+     * @param width the width of the image
+     * @param height the height of the image
+     * @return the image
+     */
+    @Nonnull
+    static BufferedImage toImage(@Nonnull byte[] pixels, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            int offset = (height - 1 - y) * width * BYTES_PER_PIXEL;
+            for (int x = 0; x < width; x++) {
+                int i = offset + x * BYTES_PER_PIXEL;
+                row[x] = (pixels[i + 3] & 0xFF) << 24 | (pixels[i] & 0xFF) << 16 | (pixels[i + 1] & 0xFF) << 8
+                        | (pixels[i + 2] & 0xFF);
+            }
+            image.setRGB(0, y, width, 1, row, 0, width);
+        }
+        return image;
+    }
+
+    /**
+     * Encodes a snapshot and writes it to its file.
+     */
+    private final class Encode implements Runnable {
+
+        /**
+         * The snapshot.
+         */
+        @Nonnull
+        private final Snapshot snapshot;
+
+        /**
+         * The pixels of the snapshot, RGBA with the rows from the bottom up.
+         */
+        @Nonnull
+        private final byte[] pixels;
+
+        /**
+         * The size of the snapshot.
+         */
+        @Nonnull
+        private final Vec2i size;
+
+        /**
+         * Constructor.
+         * @param snapshot the snapshot
+         * @param pixels the pixels of the snapshot, RGBA with the rows from the bottom up
+         * @param size the size of the snapshot
+         */
+        private Encode(@Nonnull Snapshot snapshot, @Nonnull byte[] pixels, @Nonnull Vec2i size) {
+            this.snapshot = snapshot;
+            this.pixels = pixels;
+            this.size = size;
+        }
+
+        @Override
+        public void run() {
+            try {
+                ImageIO.write(toImage(pixels, size.getX(), size.getY()), "png", snapshot.file);
+                snapshot.future.complete(snapshot.file);
+            }
+            catch (IOException | RuntimeException e) {
+                LOGGER.error("Couldn't write snapshot " + snapshot.file, e);
+                snapshot.future.completeExceptionally(e);
+            }
+            finally {
+                pending.release();
+            }
+        }
+    }
+
+    /**
+     * A snapshot that has been drawn but not yet written.
+     */
+    private static final class Snapshot {
+
+        /**
+         * The file to write.
+         */
+        @Nonnull
+        private final File file;
+
+        /**
+         * Completes when the file has been written.
+         */
+        @Nonnull
+        private final CompletableFuture<File> future = new CompletableFuture<>();
+
+        /**
+         * Constructor.
+         * @param file the file to write
+         */
+        private Snapshot(@Nonnull File file) {
+            this.file = file;
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package ben.ui.window;
+
+import ben.ui.input.InputQueue;
+import ben.ui.math.PmvMatrix;
+import ben.ui.math.Rect;
+import ben.ui.math.Vec2i;
+import ben.ui.renderer.DrawList;
+import ben.ui.renderer.FrameBufferObject;
+import ben.ui.resource.GlResourceManager;
+import ben.ui.resource.GlState;
+import ben.ui.resource.GpuProfiler;
+import ben.ui.resource.IRepaintListener;
+import ben.ui.resource.RenderStats;
+import ben.ui.resource.color.UiColors;
+import ben.ui.resource.shader.DrawListProgram;
+import ben.ui.resource.shader.FlatProgram;
+import ben.ui.resource.shader.InstancedFlatProgram;
+import ben.ui.resource.shader.TextProgram;
+import ben.ui.resource.shader.TextureProgram;
+import ben.ui.resource.texture.UiTextures;
+import ben.ui.widget.IPane;
+import ben.ui.widget.IWidget;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLPipelineFactory;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Window Renderer.
+ * <p>
+ *     Draws a widget tree into a drawable; forwards the queued input, lays out the widgets, draws the damaged areas and
+ *     records the stats of each frame. Doesn't care whether the drawable is on screen, so it's shared by the
+ *     {@link MainWindow} and the {@link OffscreenWindow}.
+ * </p>
+ */
+final class WindowRenderer implements GLEventListener {
+
+    /**
+     * The Logger.
+     */
+    @Nonnull
+    private static final Logger LOGGER = LogManager.getLogger(WindowRenderer.class);
+
+    /**
+     * The PMV Matrix.
+     */
+    @Nonnull
+    private final PmvMatrix pmvMatrix = new PmvMatrix();
+
+    /**
+     * The OpenGL Resource Manager.
+     */
+    @Nonnull
+    private final GlResourceManager glResourceManager = new GlResourceManager();
+
+    /**
+     * The input events waiting to be forwarded to the root widget on the OpenGL thread.
+     */
+    @Nonnull
+    private final InputQueue inputQueue = new InputQueue();
+
+    /**
+     * The listeners that are told the stats of each frame, may be changed from any thread.
+     */
+    @Nonnull
+    private final Set<IFrameStatsListener> frameStatsListeners = new CopyOnWriteArraySet<>();
+
+    /**
+     * Collects the areas of the window that need to be drawn again.
+     */
+    @Nonnull
+    private final DamageTracker damageTracker;
+
+    /**
+     * The stats of the last frame, null before the first frame.
+     */
+    @Nullable
+    private volatile FrameStats frameStats;
+
+    /**
+     * The root widget.
+     */
+    @Nullable
+    private volatile IWidget rootWidget;
+
+    /**
+     * Are the 2D renderers batched into the draw list.
+     */
+    private volatile boolean batching = true;
+
+    /**
+     * Are only the damaged areas of the window drawn again.
+     */
+    private volatile boolean partialRedraw;
+
+    /**
+     * The frame buffer that the window is drawn into when only the damaged areas are drawn, so that the rest of the
+     * window is kept between frames.
+     */
+    @Nullable
+    private FrameBufferObject backBuffer;
+
+    /**
+     * The number of the last frame.
+     */
+    private long frameNumber;
+
+    /**
+     * When the last frame started, from {@link System#nanoTime()}, 0 before the first frame.
+     */
+    private long lastFrameStart;
+
+    /**
+     * The area of the whole screen, reused while the screen size doesn't change.
+     */
+    @Nonnull
+    private Rect screen = new Rect(0, 0, 0, 0);
+
+    /**
+     * Constructor.
+     * @param repaintListener the listener that is told when a frame is needed, null if the window is drawn
+     *                        continuously or by its owner
+     */
+    WindowRenderer(@Nullable IRepaintListener repaintListener) {
+        damageTracker = new DamageTracker(repaintListener);
+        glResourceManager.setRepaintListener(damageTracker);
+    }
+
+    /**
+     * Get the OpenGL Resource Manager.
+     * @return the resource manager
+     */
+    @Nonnull
+    GlResourceManager getGlResourceManager() {
+        return glResourceManager;
+    }
+
+    /**
+     * Get the queue of input events that are forwarded to the root widget before each frame.
+     * @return the input queue
+     */
+    @Nonnull
+    InputQueue getInputQueue() {
+        return inputQueue;
+    }
+
+    /**
+     * Set the root widget.
+     * @param rootWidget the root widget, null for none
+     */
+    void setRootWidget(@Nullable IWidget rootWidget) {
+        this.rootWidget = rootWidget;
+    }
+
+    /**
+     * Get the root widget.
+     * @return the root widget, null if there isn't one
+     */
+    @Nullable
+    IWidget getRootWidget() {
+        return rootWidget;
+    }
+
+    /**
+     * Set whether the 2D renderers are batched into a draw list.
+     * @param batching true to batch
+     */
+    void setBatching(boolean batching) {
+        this.batching = batching;
+    }
+
+    /**
+     * Set whether only the damaged areas of the window are drawn again.
+     * @param partialRedraw true to only draw the damaged areas
+     */
+    void setPartialRedraw(boolean partialRedraw) {
+        this.partialRedraw = partialRedraw;
+    }
+
+    /**
+     * Request that the whole window is drawn again.
+     */
+    void repaint() {
+        damageTracker.repaintRequested();
+    }
+
+    /**
+     * Add a listener that is told the stats of each frame.
+     * @param frameStatsListener the listener, called on the OpenGL thread
+     */
+    void addFrameStatsListener(@Nonnull IFrameStatsListener frameStatsListener) {
+        assert !frameStatsListeners.contains(frameStatsListener);
+        frameStatsListeners.add(frameStatsListener);
+    }
+
+    /**
+     * Remove a frame stats listener.
+     * @param frameStatsListener the listener
+     */
+    void removeFrameStatsListener(@Nonnull IFrameStatsListener frameStatsListener) {
+        assert frameStatsListeners.contains(frameStatsListener);
+        frameStatsListeners.remove(frameStatsListener);
+    }
+
+    /**
+     * Get the stats of the last frame.
+     * @return the stats, null before the first frame
+     */
+    @Nullable
+    FrameStats getFrameStats() {
+        return frameStats;
+    }
+
+    @Override
+    public void init(@Nonnull GLAutoDrawable drawable) {
+        LOGGER.info("Initialising the Window");
+        GL2 gl = drawable.getGL().getGL2();
+        drawable.setGL(GLPipelineFactory.create("com.jogamp.opengl.Debug", GL2.class, gl, null));
+
+        glResourceManager.getTextureManager().loadTexture(UiTextures.FONT, "/textures/font.png");
+
+        glResourceManager.getShaderManager().addProgram(new FlatProgram(gl));
+        glResourceManager.getShaderManager().addProgram(new TextureProgram(gl));
+        glResourceManager.getShaderManager().addProgram(new TextProgram(gl));
+        glResourceManager.getShaderManager().addProgram(new DrawListProgram(gl));
+        if (gl.isFunctionAvailable("glDrawArraysInstanced") && gl.isFunctionAvailable("glVertexAttribDivisor")) {
+            glResourceManager.getShaderManager().addProgram(new InstancedFlatProgram(gl));
+            glResourceManager.getDrawList().setInstancing(true);
+        }
+
+        glResourceManager.getColorManager().loadColors(UiColors.class, "/colors/colors.xml");
+        glResourceManager.getGpuProfiler().init(gl);
+    }
+
+    @Override
+    public void dispose(@Nonnull GLAutoDrawable drawable) {
+        LOGGER.info("Disposing the Window");
+        GL2 gl = drawable.getGL().getGL2();
+        glResourceManager.getDrawList().remove(gl);
+        glResourceManager.getFontManager().remove(gl);
+        glResourceManager.getBufferArena().remove(gl);
+        glResourceManager.getGpuProfiler().remove(gl);
+        if (backBuffer != null) {
+            backBuffer.remove(gl);
+            backBuffer = null;
+        }
+    }
+
+    @Override
+    public void display(@Nonnull GLAutoDrawable drawable) {
+        long frameStart = System.nanoTime();
+        GL2 gl = drawable.getGL().getGL2();
+
+        // Textures may have been created or bound outside of the cache since the last frame.
+        GlState glState = glResourceManager.getGlState();
+        glState.invalidate();
+        glState.resetCounters();
+        RenderStats renderStats = glResourceManager.getRenderStats();
+        renderStats.resetCounters();
+
+        // Input first so that its changes are in this frame, then lay out; widgets that move damage where they
+        // were and where they are now.
+        IWidget root = rootWidget;
+        int inputEvents = 0;
+        if (root != null) {
+            inputEvents = inputQueue.drain(root.getMouseHandler(), root.getKeyHandler());
+        }
+        else {
+            inputQueue.clear();
+        }
+        long layoutStart = System.nanoTime();
+        if (root instanceof IPane) {
+            ((IPane) root).validateLayout();
+        }
+        long drawStart = System.nanoTime();
+        GpuProfiler gpuProfiler = glResourceManager.getGpuProfiler();
+        gpuProfiler.beginFrame(gl);
+
+        Vec2i screenSize = pmvMatrix.getScreenSize();
+        if (screen.getWidth() != screenSize.getX() || screen.getHeight() != screenSize.getY()) {
+            screen = new Rect(0, 0, screenSize.getX(), screenSize.getY());
+        }
+        Rect damage = damageTracker.takeDamage(screen);
+
+        if (partialRedraw && screenSize.getX() > 0 && screenSize.getY() > 0) {
+            if (backBuffer == null) {
+                backBuffer = new FrameBufferObject(gl, glResourceManager, screenSize);
+                damage = screen;
+            }
+            else if (!screenSize.equals(backBuffer.getSize())) {
+                backBuffer.setSize(gl, screenSize);
+                damage = screen;
+            }
+
+            if (damage != null) {
+                backBuffer.bind(gl);
+                drawWindow(gl, root, damage);
+                backBuffer.unbind(gl);
+            }
+
+            // The default frame buffer isn't kept between frames, so the back buffer is copied every frame.
+            gl.glDisable(GL.GL_SCISSOR_TEST);
+            backBuffer.blit(gl);
+        }
+        else {
+            if (backBuffer != null) {
+                backBuffer.remove(gl);
+                backBuffer = null;
+            }
+            drawWindow(gl, root, screen);
+        }
+
+        gpuProfiler.endFrame(gl);
+        long frameEnd = System.nanoTime();
+        FrameStats stats = new FrameStats(++frameNumber, lastFrameStart == 0 ? 0 : frameStart - lastFrameStart,
+                layoutStart - frameStart, drawStart - layoutStart, frameEnd - drawStart, inputEvents,
+                glResourceManager);
+        lastFrameStart = frameStart;
+        frameStats = stats;
+        for (IFrameStatsListener frameStatsListener : frameStatsListeners) {
+            frameStatsListener.frameFinished(stats);
+        }
+    }
+
+    /**
+     * Draw part of the window.
+     * @param gl the OpenGL interface
+     * @param root the root widget, null if there isn't one
+     * @param area the area to draw, in screen coordinates
+     */
+    private void drawWindow(@Nonnull GL2 gl, @Nullable IWidget root, @Nonnull Rect area) {
+        // Scissor boxes have their origin at the bottom left.
+        Vec2i screenSize = pmvMatrix.getScreenSize();
+        // The whole screen is the same either way up, and keeping the same box lets the panes reuse theirs.
+        if (area == screen) {
+            pmvMatrix.setScissorBox(screen);
+        }
+        else {
+            pmvMatrix.setScissorBox(new Rect(area.getX(), screenSize.getY() - area.getY() - area.getHeight(),
+                    area.getWidth(), area.getHeight()));
+        }
+        Rect scissorBox = pmvMatrix.getScissorBox();
+        assert scissorBox != null;
+        gl.glEnable(GL.GL_SCISSOR_TEST);
+        gl.glScissor(scissorBox.getX(), scissorBox.getY(), scissorBox.getWidth(), scissorBox.getHeight());
+
+        gl.glClearColor(0, 0, 0, 0);
+        gl.glClear(GL2.GL_COLOR_BUFFER_BIT);
+
+        gl.glEnable(GL2.GL_BLEND);
+        gl.glDisable(GL2.GL_DEPTH_TEST);
+        gl.glBlendFunc(GL2.GL_SRC_ALPHA, GL2.GL_ONE_MINUS_SRC_ALPHA);
+
+        if (root != null) {
+            boolean batched = batching;
+            DrawList drawList = glResourceManager.getDrawList();
+            if (batched) {
+                drawList.begin(pmvMatrix);
+            }
+            root.draw(gl, pmvMatrix, glResourceManager);
+            if (batched) {
+                drawList.end(gl);
+            }
+        }
+    }
+
+    @Override
+    public void reshape(@Nonnull GLAutoDrawable drawable, int x, int y, int width, int height) {
+        LOGGER.info("Reshaping the Window - " + width + "x" + height);
+        GL2 gl = drawable.getGL().getGL2();
+        gl.glViewport(0, 0, width, height);
+        pmvMatrix.identity();
+        pmvMatrix.orthographic(new Rect(0, 0, width, height));
+        pmvMatrix.setScreenSize(new Vec2i(width, height));
+        IWidget root = rootWidget;
+        if (root != null) {
+            root.setSize(new Vec2i(width, height));
+        }
+        repaint();
+    }
+}
@@ -0,0 +1,22 @@
+#version 120
+
+uniform sampler2D tex;
+uniform bool textured;
+uniform bool distanceField;
+
+varying vec2 texCoord2;
+varying vec4 color2;
+
+void main() {
+    if (textured) {
+        vec4 texel = texture2D(tex, texCoord2);
+        if (distanceField) {
+            float width = fwidth(texel.a);
+            texel = vec4(1.0, 1.0, 1.0, smoothstep(0.5 - width, 0.5 + width, texel.a));
+        }
+        gl_FragColor = color2 * texel;
+    }
+    else {
+        gl_FragColor = color2;
+    }
+}
@@ -0,0 +1,16 @@
+#version 120
+
+uniform mat4 pmv;
+
+attribute vec4 position;
+attribute vec2 texCoord;
+attribute vec4 color;
+
+varying vec2 texCoord2;
+varying vec4 color2;
+
+void main() {
+    texCoord2 = texCoord;
+    color2 = color;
+    gl_Position = pmv * position;
+}
@@ -0,0 +1,7 @@
+#version 120
+
+varying vec4 color2;
+
+void main() {
+    gl_FragColor = color2;
+}
@@ -0,0 +1,14 @@
+#version 120
+
+uniform mat4 pmv;
+
+attribute vec2 corner;
+attribute vec4 rect;
+attribute vec4 color;
+
+varying vec4 color2;
+
+void main() {
+    color2 = color;
+    gl_Position = pmv * vec4(rect.xy + corner * rect.zw, 0.0, 1.0);
+}
@@ -2,9 +2,16 @@
 
 uniform sampler2D tex;
 uniform vec4 color;
+uniform bool distanceField;
 
 varying vec2 texCoord2;
 
 void main() {
-    gl_FragColor = color * texture2D(tex, texCoord2);
+    vec4 texel = texture2D(tex, texCoord2);
+    if (distanceField) {
+        // The edge of the glyph is at half, anti-aliased over the width of a screen pixel at any scale.
+        float width = fwidth(texel.a);
+        texel = vec4(1.0, 1.0, 1.0, smoothstep(0.5 - width, 0.5 + width, texel.a));
+    }
+    gl_FragColor = color * texel;
 }
@@ -73,6 +73,10 @@ public class Main {
 
         borderPane.setCenter(desktopPane);
 
+        FrameStatsOverlay frameStatsOverlay = new FrameStatsOverlay(null);
+        mainWindow.addFrameStatsListener(frameStatsOverlay);
+        borderPane.setBottom(frameStatsOverlay);
+
         mainWindow.setRootWidget(borderPane);
     }
 
@@ -0,0 +1,121 @@
+package ben.ui.input;
+
+import ben.ui.input.key.BasicKeyHandler;
+import ben.ui.input.mouse.IMouseHandler;
+import ben.ui.input.mouse.IMouseListener;
+import ben.ui.input.mouse.MouseButton;
+import ben.ui.math.Vec2i;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Input Queue Test.
+ */
+public class InputQueueTest {
+
+    /**
+     * Test that consecutive moves are coalesced into the last one, and that other events keep their order.
+     */
+    @Test
+    public void testCoalesce() {
+        InputQueue queue = new InputQueue();
+        queue.mouseMoved(1, 2);
+        queue.mouseMoved(3, 4);
+        queue.mouseMoved(5, 6);
+        queue.mousePressed(MouseButton.RIGHT, 5, 6);
+        queue.mouseDragged(7, 8);
+        queue.mouseDragged(-9, -10);
+        queue.mouseReleased(MouseButton.RIGHT, -9, -10);
+        queue.mouseWheelMoved(-3, 11, 12);
+        assertThat(queue.size(), equalTo(5));
+
+        RecordingMouseHandler handler = new RecordingMouseHandler();
+        assertThat(queue.drain(handler, new BasicKeyHandler()), equalTo(5));
+        assertThat(handler.events, equalTo(Arrays.asList("moved (5, 6)", "pressed RIGHT (5, 6)", "dragged (-9, -10)",
+                "released RIGHT (-9, -10)", "wheel -3.0 (11, 12)")));
+        assertThat(queue.size(), equalTo(0));
+    }
+
+    /**
+     * Test that a move isn't coalesced into one that has already been drained.
+     */
+    @Test
+    public void testDrained() {
+        InputQueue queue = new InputQueue();
+        RecordingMouseHandler handler = new RecordingMouseHandler();
+        queue.mouseMoved(1, 2);
+        queue.drain(handler, new BasicKeyHandler());
+        queue.mouseMoved(3, 4);
+        queue.drain(handler, new BasicKeyHandler());
+        queue.mouseEntered();
+        queue.clear();
+        queue.mouseExited();
+        queue.drain(handler, new BasicKeyHandler());
+        assertThat(handler.events, equalTo(Arrays.asList("moved (1, 2)", "moved (3, 4)", "exited")));
+    }
+
+    /**
+     * A mouse handler that records the events that it gets.
+     */
+    private static final class RecordingMouseHandler implements IMouseHandler {
+
+        /**
+         * The events.
+         */
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void addMouseListener(@Nonnull IMouseListener mouseListener) { }
+
+        @Override
+        public void removeMouseListener(@Nonnull IMouseListener mouseListener) { }
+
+        @Override
+        public boolean mouseClicked(@Nonnull MouseButton button, @Nonnull Vec2i pos) {
+            return events.add("clicked " + button + " " + pos);
+        }
+
+        @Override
+        public boolean mouseEntered() {
+            return events.add("entered");
+        }
+
+        @Override
+        public boolean mouseExited() {
+            return events.add("exited");
+        }
+
+        @Override
+        public boolean mousePressed(@Nonnull MouseButton button, @Nonnull Vec2i pos) {
+            return events.add("pressed " + button + " " + pos);
+        }
+
+        @Override
+        public boolean mouseReleased(@Nonnull MouseButton button, @Nonnull Vec2i pos) {
+            return events.add("released " + button + " " + pos);
+        }
+
+        @Override
+        public boolean mouseMoved(@Nonnull Vec2i pos) {
+            return events.add("moved " + pos);
+        }
+
+        @Override
+        public boolean mouseDragged(@Nonnull Vec2i pos) {
+            return events.add("dragged " + pos);
+        }
+
+        @Override
+        public boolean mouseWheelMoved(float wheel, @Nonnull Vec2i pos) {
+            return events.add("wheel " + wheel + " " + pos);
+        }
+    }
+}
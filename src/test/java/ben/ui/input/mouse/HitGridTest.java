@@ -0,0 +1,121 @@
+package ben.ui.input.mouse;
+
+import ben.ui.math.Vec2i;
+import ben.ui.widget.IWidget;
+import ben.ui.widget.Label;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Hit Grid Test.
+ */
+public class HitGridTest {
+
+    /**
+     * Test that the widgets under a point are found from top to bottom.
+     */
+    @Test
+    public void testZOrder() {
+        HitGrid grid = new HitGrid();
+        IWidget bottom = createWidget(0, 0, 300, 300);
+        IWidget top = createWidget(100, 100, 100, 100);
+        IWidget away = createWidget(1000, 1000, 10, 10);
+        grid.add(bottom);
+        grid.add(top);
+        grid.add(away);
+
+        assertThat(hits(grid, 150, 150), equalTo(Arrays.asList(top, bottom)));
+        assertThat(hits(grid, 50, 50), equalTo(Arrays.<IWidget>asList(bottom)));
+        assertThat(hits(grid, 1005, 1005), equalTo(Arrays.<IWidget>asList(away)));
+        assertThat(hits(grid, 500, 500).isEmpty(), equalTo(true));
+    }
+
+    /**
+     * Test that a widget is found where it has moved to, and not where it was.
+     */
+    @Test
+    public void testUpdate() {
+        HitGrid grid = new HitGrid();
+        IWidget widget = createWidget(0, 0, 50, 50);
+        grid.add(widget);
+        assertThat(grid.getCellCount(), equalTo(1));
+
+        widget.setPosition(new Vec2i(-500, 700));
+        grid.update(widget);
+        assertThat(hits(grid, 10, 10).isEmpty(), equalTo(true));
+        assertThat(hits(grid, -480, 720), equalTo(Arrays.asList(widget)));
+        assertThat(grid.getCellCount(), equalTo(1));
+
+        widget.setSize(new Vec2i(400, 50));
+        grid.update(widget);
+        assertThat(hits(grid, -120, 720), equalTo(Arrays.asList(widget)));
+
+        grid.remove(widget);
+        assertThat(grid.getCellCount(), equalTo(0));
+        assertThat(grid.contains(widget), equalTo(false));
+    }
+
+    /**
+     * Test that widgets in many cells, some with negative coordinates, are still found after others are removed.
+     */
+    @Test
+    public void testManyCells() {
+        HitGrid grid = new HitGrid();
+        List<IWidget> widgets = new ArrayList<>();
+        for (int i = -50; i < 50; i++) {
+            IWidget widget = createWidget(i * 128 + 10, i * -256 + 10, 10, 10);
+            grid.add(widget);
+            widgets.add(widget);
+        }
+        assertThat(grid.getCellCount(), equalTo(100));
+
+        for (int i = 0; i < widgets.size(); i += 2) {
+            grid.remove(widgets.get(i));
+        }
+        assertThat(grid.getCellCount(), equalTo(50));
+        for (int i = 0; i < widgets.size(); i++) {
+            int x = (i - 50) * 128 + 15;
+            int y = (i - 50) * -256 + 15;
+            List<IWidget> expected = i % 2 == 0 ? new ArrayList<IWidget>() : Arrays.asList(widgets.get(i));
+            assertThat(hits(grid, x, y), equalTo(expected));
+        }
+    }
+
+    /**
+     * Create a widget.
+     * @param x the x position
+     * @param y the y position
+     * @param width the width
+     * @param height the height
+     * @return the widget
+     */
+    @Nonnull
+    private static IWidget createWidget(int x, int y, int width, int height) {
+        IWidget widget = new Label(null, "Widget");
+        widget.setPosition(new Vec2i(x, y));
+        widget.setSize(new Vec2i(width, height));
+        return widget;
+    }
+
+    /**
+     * Get the widgets under a point.
+     * @param grid the grid
+     * @param x the x position
+     * @param y the y position
+     * @return the widgets from top to bottom
+     */
+    @Nonnull
+    private static List<IWidget> hits(@Nonnull HitGrid grid, int x, int y) {
+        List<IWidget> hits = new ArrayList<>();
+        grid.hits(x, y, hits);
+        return hits;
+    }
+}
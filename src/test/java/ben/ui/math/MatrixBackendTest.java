@@ -0,0 +1,93 @@
+package ben.ui.math;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Matrix Backend Test.
+ */
+public class MatrixBackendTest {
+
+    /**
+     * The relative tolerance for comparing inverses.
+     */
+    private static final float EPSILON = 1e-4f;
+
+    /**
+     * Test that the vector API backend gives the same results as the scalar backend.
+     * <p>
+     *     Skipped if the vector API isn't available, it needs {@code --add-modules jdk.incubator.vector}.
+     * </p>
+     */
+    @Test
+    public void testVectorBackend() {
+        MatrixBackend vector = Matrix.createBackend(true);
+        Assume.assumeTrue(!(vector instanceof Matrix.ScalarBackend));
+        MatrixBackend scalar = Matrix.createBackend(false);
+
+        Random random = new Random(0);
+        for (int i = 0; i < 100; i++) {
+            float[] m0 = randomMatrix(random);
+            float[] m1 = randomMatrix(random);
+
+            float[] expected = new float[Matrix.ELEMENTS];
+            float[] actual = new float[Matrix.ELEMENTS];
+            scalar.mul(expected, m0, m1);
+            vector.mul(actual, m0, m1);
+            assertThat(actual, equalTo(expected));
+
+            // The result may be an operand.
+            float[] alias = m1.clone();
+            vector.mul(alias, m0, alias);
+            assertThat(alias, equalTo(expected));
+
+            assertThat(vector.inverse(actual, m0), equalTo(scalar.inverse(expected, m0)));
+            for (int j = 0; j < Matrix.ELEMENTS; j++) {
+                assertThat(Math.abs(actual[j] - expected[j]) <= EPSILON * Math.max(1, Math.abs(expected[j])),
+                        equalTo(true));
+            }
+
+            float[] points = new float[3 * 5];
+            for (int j = 0; j < points.length; j++) {
+                points[j] = random.nextFloat() * 100 - 50;
+            }
+            float[] expectedPoints = new float[1 + 4 * 4];
+            float[] actualPoints = new float[1 + 4 * 4];
+            scalar.transform(m0, points, 3, expectedPoints, 1, 4);
+            vector.transform(m0, points, 3, actualPoints, 1, 4);
+            assertThat(actualPoints, equalTo(expectedPoints));
+        }
+    }
+
+    /**
+     * Test that a singular matrix has no inverse and the result isn't changed.
+     */
+    @Test
+    public void testSingular() {
+        float[] singular = new float[Matrix.ELEMENTS];
+        for (MatrixBackend backend : new MatrixBackend[] {Matrix.createBackend(false), Matrix.createBackend(true)}) {
+            float[] result = new float[Matrix.ELEMENTS];
+            result[0] = 2;
+            assertThat(backend.inverse(result, singular), equalTo(false));
+            assertThat(result[0], equalTo(2.0f));
+        }
+    }
+
+    /**
+     * Create a random matrix.
+     * @param random the random number generator
+     * @return the matrix, column major
+     */
+    private static float[] randomMatrix(Random random) {
+        float[] m = new float[Matrix.ELEMENTS];
+        for (int i = 0; i < m.length; i++) {
+            m[i] = random.nextFloat() * 4 - 2;
+        }
+        return m;
+    }
+}
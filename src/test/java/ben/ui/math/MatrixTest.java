@@ -0,0 +1,39 @@
+package ben.ui.math;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Matrix Test.
+ */
+public class MatrixTest {
+
+    /**
+     * Test that transforming an array of points gives the same result as transforming each point.
+     */
+    @Test
+    public void testTransform() {
+        Matrix matrix = new Matrix();
+        matrix.perspective(1, 1, 1, 100, 2, 3, 99);
+        matrix.translate(1, 2, -10);
+        matrix.rotateX(0.5f);
+        matrix.rotateY(0.25f);
+
+        float[] points = {0, 0, 0, 1, 2, 3, -4, 5, -6};
+        float[] result = new float[2 + 3 * 4];
+        matrix.transform(points, 3, result, 2, 2);
+
+        for (int i = 0; i < 2; i++) {
+            Vec4f expected = Matrix.mul(matrix, new Vec4f(points[3 + i * 3], points[4 + i * 3], points[5 + i * 3], 1));
+            int offset = 2 + i * 4;
+            assertThat(result[offset], equalTo(expected.getX()));
+            assertThat(result[offset + 1], equalTo(expected.getY()));
+            assertThat(result[offset + 2], equalTo(expected.getZ()));
+            assertThat(result[offset + 3], equalTo(expected.getW()));
+        }
+        assertThat(result[0], equalTo(0.0f));
+        assertThat(result[2 + 2 * 4], equalTo(0.0f));
+    }
+}
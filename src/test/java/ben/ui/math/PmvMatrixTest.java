@@ -0,0 +1,168 @@
+package ben.ui.math;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * PMV Matrix Test.
+ */
+public class PmvMatrixTest {
+
+    /**
+     * The tolerance for comparing rotated coordinates.
+     */
+    private static final float EPSILON = 1e-6f;
+
+    /**
+     * Test that pop restores the matrices and scissor box from before the push, even when the stack has to grow.
+     */
+    @Test
+    public void testPushPop() {
+        PmvMatrix pmvMatrix = new PmvMatrix();
+        pmvMatrix.orthographic(new Rect(0, 0, 800, 600));
+
+        for (int i = 0; i < 100; i++) {
+            pmvMatrix.push();
+            pmvMatrix.translate(1, 2, 0);
+            pmvMatrix.scissor(new Rect(0, 0, 800 - i, 600));
+        }
+        assertThat(pmvMatrix.getMvMatrix().transformX(0, 0), equalTo(100.0f));
+        assertThat(pmvMatrix.getMvMatrix().transformY(0, 0), equalTo(200.0f));
+
+        for (int i = 0; i < 100; i++) {
+            pmvMatrix.pop();
+        }
+        assertThat(pmvMatrix.getMvMatrix().transformX(0, 0), equalTo(0.0f));
+        assertThat(pmvMatrix.getMvMatrix().transformY(0, 0), equalTo(0.0f));
+        assertThat(pmvMatrix.getScissorBox(), nullValue());
+    }
+
+    /**
+     * Test that the cached PMV matrix follows changes to the model view matrix.
+     */
+    @Test
+    public void testPmvMatrix() {
+        PmvMatrix pmvMatrix = new PmvMatrix();
+        pmvMatrix.orthographic(new Rect(0, 0, 800, 600));
+        Vec4f origin = new Vec4f(0, 0, 0, 1);
+
+        assertThat(Matrix.mul(pmvMatrix.getPmvMatrix(), origin).getX(), equalTo(-1.0f));
+
+        pmvMatrix.push();
+        pmvMatrix.translate(400, 300, 0);
+        assertThat(Matrix.mul(pmvMatrix.getPmvMatrix(), origin).getX(), equalTo(0.0f));
+        assertThat(Matrix.mul(pmvMatrix.getPmvMatrix(), origin).getY(), equalTo(0.0f));
+
+        pmvMatrix.pop();
+        assertThat(Matrix.mul(pmvMatrix.getPmvMatrix(), origin).getX(), equalTo(-1.0f));
+    }
+
+    /**
+     * Test that the version changes with the matrix and is restored by pop.
+     */
+    @Test
+    public void testVersion() {
+        PmvMatrix pmvMatrix = new PmvMatrix();
+        pmvMatrix.orthographic(new Rect(0, 0, 800, 600));
+        long version = pmvMatrix.getVersion();
+
+        pmvMatrix.push();
+        assertThat(pmvMatrix.getVersion(), equalTo(version));
+        pmvMatrix.translate(1, 1, 0);
+        long translatedVersion = pmvMatrix.getVersion();
+        assertThat(translatedVersion == version, equalTo(false));
+        pmvMatrix.pop();
+        assertThat(pmvMatrix.getVersion(), equalTo(version));
+
+        pmvMatrix.push();
+        pmvMatrix.translate(2, 2, 0);
+        assertThat(pmvMatrix.getVersion() == translatedVersion, equalTo(false));
+        pmvMatrix.pop();
+    }
+
+    /**
+     * Test that the in place translation and rotations are applied in model space.
+     */
+    @Test
+    public void testTranslateRotate() {
+        Matrix matrix = new Matrix();
+        matrix.translate(1, 2, 3);
+        matrix.rotateX((float) Math.PI / 2);
+
+        Vec4f point = Matrix.mul(matrix, new Vec4f(0, 1, 0, 1));
+        assertThat(point.getX(), equalTo(1.0f));
+        assertThat(Math.abs(point.getY() - 2) < EPSILON, equalTo(true));
+        assertThat(Math.abs(point.getZ() - 4) < EPSILON, equalTo(true));
+
+        matrix.rotateY((float) Math.PI / 2);
+        point = Matrix.mul(matrix, new Vec4f(1, 0, 0, 1));
+        assertThat(Math.abs(point.getX() - 1) < EPSILON, equalTo(true));
+        assertThat(Math.abs(point.getY() - 3) < EPSILON, equalTo(true));
+        assertThat(Math.abs(point.getZ() - 3) < EPSILON, equalTo(true));
+    }
+
+    /**
+     * Test that projecting a batch of points gives the same screen positions as projecting each point.
+     */
+    @Test
+    public void testProjectBatch() {
+        PmvMatrix pmvMatrix = new PmvMatrix();
+        pmvMatrix.perspective(new Vec2i(800, 600), 1, 100);
+        pmvMatrix.translate(0, 0, -10);
+
+        // The last point is behind the camera.
+        float[] points = {0, 0, 0, 1, 2, 3, -4, 5, -6, 0, 0, 20};
+        float[] screen = new float[1 + 8];
+        assertThat(pmvMatrix.project(points, 0, screen, 1, 4), equalTo(3));
+
+        for (int i = 0; i < 3; i++) {
+            Vec2i expected = pmvMatrix.project(new Vec3f(points[i * 3], points[i * 3 + 1], points[i * 3 + 2]));
+            assertThat((int) screen[1 + i * 2], equalTo(expected.getX()));
+            assertThat((int) screen[2 + i * 2], equalTo(expected.getY()));
+        }
+        assertThat(pmvMatrix.project(new Vec3f(0, 0, 20)), nullValue());
+        assertThat(Float.isNaN(screen[7]), equalTo(true));
+        assertThat(Float.isNaN(screen[8]), equalTo(true));
+        assertThat(screen[0], equalTo(0.0f));
+
+        FloatBuffer buffer = ByteBuffer.allocateDirect(points.length * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        buffer.put(points);
+        buffer.position(3);
+        float[] fromBuffer = new float[6];
+        assertThat(pmvMatrix.project(buffer, fromBuffer, 0, 3), equalTo(2));
+        assertThat(fromBuffer[0], equalTo(screen[3]));
+        assertThat(fromBuffer[3], equalTo(screen[6]));
+        assertThat(buffer.position(), equalTo(3));
+    }
+
+    /**
+     * Test that projecting a large batch in a fork join pool gives the same screen positions as on one thread.
+     */
+    @Test
+    public void testProjectParallel() {
+        PmvMatrix pmvMatrix = new PmvMatrix();
+        pmvMatrix.perspective(new Vec2i(800, 600), 1, 100);
+        pmvMatrix.translate(0, 0, -10);
+
+        int count = 100000;
+        float[] points = new float[count * 3];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = (i % 97) - 48;
+        }
+        float[] expected = new float[count * 2];
+        float[] screen = new float[count * 2];
+        int projected = pmvMatrix.project(points, 0, expected, 0, count);
+        assertThat(pmvMatrix.project(points, 0, screen, 0, count, ForkJoinPool.commonPool()), equalTo(projected));
+        for (int i = 0; i < screen.length; i++) {
+            assertThat(Float.floatToIntBits(screen[i]), equalTo(Float.floatToIntBits(expected[i])));
+        }
+    }
+}
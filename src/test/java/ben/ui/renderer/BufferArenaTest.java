@@ -0,0 +1,78 @@
+package ben.ui.renderer;
+
+import ben.ui.resource.RenderStats;
+import com.jogamp.opengl.DebugGL2;
+import org.junit.Test;
+import org.objenesis.ObjenesisStd;
+
+import java.nio.Buffer;
+import java.nio.IntBuffer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Buffer Arena Test.
+ */
+public class BufferArenaTest {
+
+    /**
+     * Test that the allocated bytes are the aligned sizes of the ranges, and go back to zero when they're freed.
+     */
+    @Test
+    public void testAllocatedBytes() {
+        BufferGl gl = (BufferGl) new ObjenesisStd().newInstance(BufferGl.class);
+        BufferArena bufferArena = new BufferArena(new RenderStats());
+        assertThat(bufferArena.getAllocatedBytes(), equalTo(0));
+
+        BufferArena.Allocation first = bufferArena.allocate(gl, new float[6]);
+        BufferArena.Allocation second = bufferArena.allocate(gl, new float[1]);
+        assertThat(bufferArena.getAllocatedBytes(), equalTo(32 + 16));
+
+        bufferArena.free(gl, first);
+        assertThat(bufferArena.getAllocatedBytes(), equalTo(16));
+        bufferArena.free(gl, second);
+        assertThat(bufferArena.getAllocatedBytes(), equalTo(0));
+    }
+
+    /**
+     * An OpenGL interface that only gives out buffer IDs and ignores their data.
+     * <p>
+     *     Created without calling the constructor, which needs a context; only the overridden methods may be called.
+     *     Extends the debug pipeline rather than the implementation, as the implementation's glBufferData is final.
+     * </p>
+     */
+    private static final class BufferGl extends DebugGL2 {
+
+        /**
+         * The last buffer ID that was given out.
+         */
+        private int lastId;
+
+        /**
+         * Constructor, not called.
+         */
+        private BufferGl() {
+            super(null);
+        }
+
+        @Override
+        public void glGenBuffers(int n, IntBuffer buffers) {
+            for (int i = 0; i < n; i++) {
+                buffers.put(buffers.position() + i, ++lastId);
+            }
+        }
+
+        @Override
+        public void glBindBuffer(int target, int buffer) { }
+
+        @Override
+        public void glBufferData(int target, long size, Buffer data, int usage) { }
+
+        @Override
+        public void glBufferSubData(int target, long offset, long size, Buffer data) { }
+
+        @Override
+        public void glDeleteBuffers(int n, int[] buffers, int offset) { }
+    }
+}
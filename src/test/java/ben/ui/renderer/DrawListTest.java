@@ -0,0 +1,68 @@
+package ben.ui.renderer;
+
+import ben.ui.math.PmvMatrix;
+import ben.ui.math.Rect;
+import ben.ui.math.Vec2i;
+import ben.ui.resource.GlState;
+import ben.ui.resource.RenderStats;
+import ben.ui.resource.shader.ShaderManager;
+import jogamp.opengl.gl4.GL4bcImpl;
+import org.junit.Test;
+import org.objenesis.ObjenesisStd;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Draw List Test.
+ */
+public class DrawListTest {
+
+    /**
+     * Test that flushing an empty list still sets the scissor box that the list was given.
+     */
+    @Test
+    public void testEmptyFlushRestoresScissor() {
+        GlState glState = new GlState();
+        DrawList drawList = new DrawList(new ShaderManager(glState), glState, new RenderStats());
+        PmvMatrix pmvMatrix = new PmvMatrix();
+        pmvMatrix.setScreenSize(new Vec2i(800, 600));
+        pmvMatrix.orthographic(new Rect(0, 0, 800, 600));
+        pmvMatrix.setScissorBox(new Rect(10, 20, 30, 40));
+        ScissorGl gl = (ScissorGl) new ObjenesisStd().newInstance(ScissorGl.class);
+
+        drawList.begin(pmvMatrix);
+        drawList.flush(gl);
+        assertThat(gl.scissor, equalTo(new Rect(10, 20, 30, 40)));
+
+        drawList.setScissorBox(null);
+        drawList.end(gl);
+        assertThat(gl.scissor, equalTo(new Rect(0, 0, 800, 600)));
+    }
+
+    /**
+     * An OpenGL interface that only records the scissor box.
+     * <p>
+     *     Created without calling the constructor, which needs a context; only the overridden method may be called.
+     * </p>
+     */
+    private static final class ScissorGl extends GL4bcImpl {
+
+        /**
+         * The last scissor box that was set.
+         */
+        private Rect scissor;
+
+        /**
+         * Constructor, not called.
+         */
+        private ScissorGl() {
+            super(null, null);
+        }
+
+        @Override
+        public void glScissor(int x, int y, int width, int height) {
+            scissor = new Rect(x, y, width, height);
+        }
+    }
+}
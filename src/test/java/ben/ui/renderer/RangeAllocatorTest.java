@@ -0,0 +1,48 @@
+package ben.ui.renderer;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Range Allocator Test.
+ */
+public class RangeAllocatorTest {
+
+    /**
+     * Test that ranges are allocated first fit, and that a full space refuses more.
+     */
+    @Test
+    public void testAllocate() {
+        RangeAllocator allocator = new RangeAllocator(100);
+
+        assertThat(allocator.allocate(40), equalTo(0));
+        assertThat(allocator.allocate(40), equalTo(40));
+        assertThat(allocator.allocate(40), equalTo(-1));
+        assertThat(allocator.allocate(20), equalTo(80));
+        assertThat(allocator.allocate(1), equalTo(-1));
+    }
+
+    /**
+     * Test that freed ranges are reused and merged with their neighbours.
+     */
+    @Test
+    public void testFree() {
+        RangeAllocator allocator = new RangeAllocator(100);
+        int a = allocator.allocate(20);
+        int b = allocator.allocate(20);
+        int c = allocator.allocate(20);
+
+        allocator.free(a, 20);
+        allocator.free(c, 20);
+        assertThat(allocator.getFreeRangeCount(), equalTo(2));
+        assertThat(allocator.allocate(10), equalTo(a));
+        allocator.free(a, 10);
+
+        allocator.free(b, 20);
+        assertThat(allocator.getFreeRangeCount(), equalTo(1));
+        assertThat(allocator.isEmpty(), equalTo(true));
+        assertThat(allocator.allocate(100), equalTo(0));
+    }
+}
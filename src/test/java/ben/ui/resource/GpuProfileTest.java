@@ -0,0 +1,36 @@
+package ben.ui.resource;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * GPU Profile Test.
+ */
+public class GpuProfileTest {
+
+    /**
+     * Test that sections with the same name are merged, and that the self time excludes the children.
+     */
+    @Test
+    public void testMerge() {
+        GpuProfile frame = new GpuProfile("frame");
+        frame.add(1000);
+        GpuProfile pane = frame.child("pane");
+        pane.add(600);
+        frame.child("Button").add(100);
+        frame.child("Button").add(150);
+
+        assertThat(frame.getChildren().size(), equalTo(2));
+        Iterator<GpuProfile> children = frame.getChildren().iterator();
+        assertThat(children.next(), equalTo(pane));
+        GpuProfile button = children.next();
+        assertThat(button.getCalls(), equalTo(2));
+        assertThat(button.getNanos(), equalTo(250L));
+        assertThat(frame.getSelfNanos(), equalTo(150L));
+        assertThat(frame.toString().split("\\R")[2].startsWith("  Button "), equalTo(true));
+    }
+}
@@ -0,0 +1,45 @@
+package ben.ui.resource.font;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Distance Field Test.
+ */
+public class DistanceFieldTest {
+
+    /**
+     * The size of the mask.
+     */
+    private static final int SIZE = 16;
+
+    /**
+     * Test the signed distances of a square.
+     */
+    @Test
+    public void testSquare() {
+        boolean[] mask = new boolean[SIZE * SIZE];
+        for (int y = 4; y < 12; y++) {
+            for (int x = 4; x < 12; x++) {
+                mask[y * SIZE + x] = true;
+            }
+        }
+
+        float[] distance = DistanceField.signedDistance(mask, SIZE, SIZE);
+
+        assertThat(distance.length, equalTo(SIZE * SIZE));
+        // Pixels either side of the edge are half a pixel from it.
+        assertThat((double) distance[8 * SIZE + 4], closeTo(0.5, 0.001));
+        assertThat((double) distance[8 * SIZE + 3], closeTo(-0.5, 0.001));
+        // The centre is furthest inside, the corner of the mask furthest outside.
+        assertThat((double) distance[8 * SIZE + 8], closeTo(3.5, 0.001));
+        assertThat((double) distance[0], closeTo(0.5 - Math.sqrt(32), 0.001));
+        assertThat(distance[8 * SIZE + 7], greaterThan(distance[8 * SIZE + 5]));
+        assertThat(distance[8 * SIZE + 1], lessThan(distance[8 * SIZE + 2]));
+    }
+}
@@ -0,0 +1,64 @@
+package ben.ui.resource.font;
+
+import org.junit.Test;
+
+import java.awt.Font;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Glyph Atlas Test.
+ */
+public class GlyphAtlasTest {
+
+    /**
+     * Test that glyphs are rasterized once, and don't overlap after the atlas has grown.
+     */
+    @Test
+    public void testPacking() {
+        Font font = TextShaper.createFont(Font.SANS_SERIF, Font.PLAIN, 60);
+        GlyphAtlas atlas = new GlyphAtlas(font);
+        ShapedText shapedText = TextShaper.shape(font, "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789");
+
+        Glyph first = atlas.getGlyph(1);
+        int quads = shapedText.getQuadCount(atlas);
+        assertThat(quads, equalTo(shapedText.getGlyphCount()));
+        assertThat(atlas.getGeneration() > 0, equalTo(true));
+        assertThat(atlas.getGlyph(1), sameInstance(first));
+
+        float[] uv = shapedText.getTextureCoordinates(atlas);
+        for (float coordinate : uv) {
+            assertThat(coordinate >= 0 && coordinate <= 1, equalTo(true));
+        }
+
+        // The top left and bottom right of each quad are the first and last vertices.
+        int stride = ShapedText.VERTICES_PER_GLYPH * 2;
+        for (int i = 0; i < quads * stride; i += stride) {
+            for (int j = i + stride; j < quads * stride; j += stride) {
+                boolean overlap = uv[i] < uv[j + 10] && uv[j] < uv[i + 10] && uv[i + 1] < uv[j + 11] && uv[j + 1] < uv[i + 11];
+                assertThat(overlap, equalTo(false));
+            }
+        }
+    }
+
+    /**
+     * Test that a distance field atlas serves other sizes of the font by scaling the quads.
+     */
+    @Test
+    public void testDistanceField() {
+        Font small = TextShaper.createFont(Font.SANS_SERIF, Font.PLAIN, 12);
+        Font large = TextShaper.createFont(Font.SANS_SERIF, Font.PLAIN, 24);
+        GlyphAtlas atlas = new GlyphAtlas(TextShaper.createFont(Font.SANS_SERIF, Font.PLAIN, 48), true);
+        ShapedText smallText = TextShaper.shape(small, "H");
+        ShapedText largeText = TextShaper.shape(large, "H");
+
+        float[] smallPositions = smallText.getPositions(atlas);
+        float[] largePositions = largeText.getPositions(atlas);
+        float smallWidth = smallPositions[10] - smallPositions[0];
+        float largeWidth = largePositions[10] - largePositions[0];
+        assertThat(atlas.isDistanceField(), equalTo(true));
+        assertThat(Math.abs(largeWidth - smallWidth * 2) < 0.001f, equalTo(true));
+    }
+}
@@ -0,0 +1,53 @@
+package ben.ui.resource.font;
+
+import org.junit.Test;
+
+import java.awt.Font;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Text Shaper Test.
+ */
+public class TextShaperTest {
+
+    /**
+     * The font.
+     */
+    private static final Font FONT = TextShaper.createFont(Font.SANS_SERIF, Font.PLAIN, 13);
+
+    /**
+     * Test that shaping the same text again returns the cached run.
+     */
+    @Test
+    public void testCache() {
+        ShapedText shapedText = TextShaper.shape(FONT, "Hello");
+        assertThat(TextShaper.shape(FONT, new String("Hello")), sameInstance(shapedText));
+        assertThat(TextShaper.shape(FONT, "Hello!") == shapedText, equalTo(false));
+    }
+
+    /**
+     * Test that the carets run from the start to the end of the text.
+     */
+    @Test
+    public void testCarets() {
+        ShapedText shapedText = TextShaper.shape(FONT, "Text");
+        assertThat(shapedText.getGlyphCount(), equalTo(4));
+        assertThat(shapedText.getCaretX(0), equalTo(0.0f));
+        assertThat(shapedText.getCaretX(4), equalTo(shapedText.getWidth()));
+        for (int i = 0; i < 4; i++) {
+            assertThat(shapedText.getCaretX(i) < shapedText.getCaretX(i + 1), equalTo(true));
+        }
+    }
+
+    /**
+     * Test that a proportional font has different widths for different characters.
+     */
+    @Test
+    public void testProportional() {
+        assertThat(TextShaper.shape(FONT, "iiii").getWidth() < TextShaper.shape(FONT, "MMMM").getWidth(), equalTo(true));
+        assertThat(TextShaper.getLineHeight(FONT) > 0, equalTo(true));
+    }
+}
@@ -0,0 +1,62 @@
+package ben.ui.widget;
+
+import ben.ui.math.Rect;
+import ben.ui.math.Vec2i;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Culling Test.
+ */
+public class CullingTest {
+
+    /**
+     * The size of the screen.
+     */
+    private static final Vec2i SCREEN_SIZE = new Vec2i(400, 300);
+
+    /**
+     * Test that only the children that overlap the scissor box, from the bottom left, are drawn.
+     */
+    @Test
+    public void testScissorBox() {
+        // A pane at 20, 30 from the top left, scissored to its 200 x 120 area.
+        Rect scissorBox = new Rect(20, 150, 200, 120);
+        assertThat(isDrawn(new Vec2i(10, 10), scissorBox), equalTo(true));
+        assertThat(isDrawn(new Vec2i(-40, 90), scissorBox), equalTo(true));
+        assertThat(isDrawn(new Vec2i(10, 150), scissorBox), equalTo(false));
+        assertThat(isDrawn(new Vec2i(250, 10), scissorBox), equalTo(false));
+        assertThat(isDrawn(new Vec2i(10, -60), scissorBox), equalTo(false));
+        // Lines on the far edge of a widget just above the pane can still be seen.
+        assertThat(isDrawn(new Vec2i(10, -50), scissorBox), equalTo(true));
+    }
+
+    /**
+     * Test that the whole screen is used when there is no scissor box.
+     */
+    @Test
+    public void testNoScissorBox() {
+        assertThat(isDrawn(new Vec2i(300, 200), null), equalTo(true));
+        assertThat(isDrawn(new Vec2i(400, 200), null), equalTo(false));
+    }
+
+    /**
+     * Is a 50 pixel square child of a pane at 20, 30 drawn.
+     * @param position the position of the child in the pane
+     * @param scissorBox the scissor box
+     * @return true if it's drawn
+     */
+    private static boolean isDrawn(@Nonnull Vec2i position, @Nullable Rect scissorBox) {
+        IWidget widget = mock(IWidget.class);
+        when(widget.getPosition()).thenReturn(position);
+        when(widget.getSize()).thenReturn(new Vec2i(50, 50));
+        return AbstractPane.isInScissorBox(widget, 20, 30, SCREEN_SIZE, scissorBox);
+    }
+}
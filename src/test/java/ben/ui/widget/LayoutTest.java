@@ -0,0 +1,134 @@
+package ben.ui.widget;
+
+import ben.ui.math.PmvMatrix;
+import ben.ui.math.Vec2i;
+import ben.ui.resource.GlResourceManager;
+import com.jogamp.opengl.GL2;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Layout Test.
+ */
+public class LayoutTest {
+
+    /**
+     * Test that the preferred size is measured once, and that children are only arranged when the pane is validated.
+     */
+    @Test
+    public void testDeferredLayout() {
+        CountingPane pane = new CountingPane();
+        Label label = new Label(null, "Label");
+        pane.add(label);
+
+        Vec2i preferredSize = pane.getPreferredSize();
+        assertThat(pane.getPreferredSize(), sameInstance(preferredSize));
+        assertThat(pane.measures, equalTo(1));
+
+        pane.setSize(new Vec2i(200, 100));
+        pane.setSize(new Vec2i(300, 100));
+        assertThat(pane.arranges, equalTo(0));
+
+        pane.validateLayout();
+        pane.validateLayout();
+        assertThat(pane.arranges, equalTo(1));
+        assertThat(label.getSize(), equalTo(new Vec2i(300, 100)));
+
+        // The same size isn't a change.
+        pane.setSize(new Vec2i(300, 100));
+        pane.validateLayout();
+        assertThat(pane.arranges, equalTo(1));
+    }
+
+    /**
+     * Test that a change in the preferred size of a widget bubbles up through the panes that measured it.
+     */
+    @Test
+    public void testInvalidation() {
+        CountingPane outer = new CountingPane();
+        VerticalPane inner = new VerticalPane(null, false);
+        Label label = new Label(null, "Short");
+        inner.add(label);
+        outer.add(inner);
+        outer.setSize(new Vec2i(400, 400));
+        outer.validateLayout();
+        Vec2i innerSize = inner.getPreferredSize();
+        outer.getPreferredSize();
+        int measures = outer.measures;
+        int arranges = outer.arranges;
+
+        label.setText("A much longer label");
+        assertThat(inner.getPreferredSize().getX() > innerSize.getX(), equalTo(true));
+        outer.getPreferredSize();
+        assertThat(outer.measures, equalTo(measures + 1));
+
+        outer.validateLayout();
+        assertThat(outer.arranges, equalTo(arranges + 1));
+        assertThat(label.getSize().getX(), equalTo(400));
+    }
+
+    /**
+     * A pane that stretches its children over itself and counts how often it is measured and arranged.
+     */
+    private static final class CountingPane extends AbstractPane {
+
+        /**
+         * The number of times the pane has been measured.
+         */
+        private int measures;
+
+        /**
+         * The number of times the pane has been arranged.
+         */
+        private int arranges;
+
+        /**
+         * Constructor.
+         */
+        private CountingPane() {
+            super(null, false, false);
+        }
+
+        /**
+         * Add a widget.
+         * @param widget the widget
+         */
+        private void add(@Nonnull IWidget widget) {
+            addWidget(widget);
+        }
+
+        @Override
+        protected void initDraw(@Nonnull GL2 gl, @Nonnull GlResourceManager glResourceManager) { }
+
+        @Override
+        protected void updateDraw(@Nonnull GL2 gl) { }
+
+        @Override
+        protected void doDraw(@Nonnull GL2 gl, @Nonnull PmvMatrix pmvMatrix) { }
+
+        @Override
+        protected void updateLayout() {
+            arranges++;
+            for (IWidget widget : getWidgets()) {
+                widget.setSize(getSize());
+            }
+        }
+
+        @Nonnull
+        @Override
+        protected Vec2i measure() {
+            measures++;
+            Vec2i size = new Vec2i(0, 0);
+            for (IWidget widget : getWidgets()) {
+                Vec2i widgetSize = widget.getPreferredSize();
+                size = new Vec2i(Math.max(size.getX(), widgetSize.getX()), Math.max(size.getY(), widgetSize.getY()));
+            }
+            return size;
+        }
+    }
+}
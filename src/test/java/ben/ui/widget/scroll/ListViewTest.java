@@ -0,0 +1,139 @@
+package ben.ui.widget.scroll;
+
+import ben.ui.math.Vec2i;
+import ben.ui.widget.Label;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * List View Test.
+ */
+public class ListViewTest {
+
+    /**
+     * Test that only the visible rows have widgets, and that they are reused as the list scrolls.
+     */
+    @Test
+    public void testRecycling() {
+        LabelModel model = new LabelModel(1000000);
+        ListView<Label> list = new ListView<>(null, model);
+        list.setSize(new Vec2i(200, 100));
+        list.validateLayout();
+        assertThat(list.getContentHeight(), equalTo(20000000));
+        assertThat(list.getWidgets().size(), equalTo(5));
+        assertThat(model.created, equalTo(5));
+
+        // Half way down a row, so one more row is partly visible.
+        list.setScrollOffset(5000010);
+        list.validateLayout();
+        assertThat(list.getWidgets().size(), equalTo(6));
+        assertThat(model.created, equalTo(6));
+        Label first = (Label) list.getWidgets().stream()
+                .filter(widget -> widget.getPosition().getY() == -10).findFirst().get();
+        assertThat(first.getSize(), equalTo(new Vec2i(200, 20)));
+
+        list.setScrollOffset(20);
+        list.validateLayout();
+        assertThat(list.getWidgets().size(), equalTo(5));
+        assertThat(model.created, equalTo(6));
+    }
+
+    /**
+     * Test that scrolling the list adds and removes rows without invalidating its preferred size.
+     */
+    @Test
+    public void testScrollKeepsPreferredSize() {
+        LabelModel model = new LabelModel(1000);
+        ListView<Label> list = new ListView<>(null, model);
+        list.setSize(new Vec2i(200, 100));
+        list.validateLayout();
+        Vec2i preferredSize = list.getPreferredSize();
+
+        list.setScrollOffset(10);
+        list.validateLayout();
+        assertThat(list.getWidgets().size(), equalTo(6));
+        list.setScrollOffset(400);
+        list.validateLayout();
+        assertThat(list.getWidgets().size(), equalTo(5));
+        assertThat(list.getPreferredSize(), sameInstance(preferredSize));
+    }
+
+    /**
+     * Test that a row that changes height moves the rows below it.
+     */
+    @Test
+    public void testRowChanged() {
+        LabelModel model = new LabelModel(10);
+        ListView<Label> list = new ListView<>(null, model);
+        list.setSize(new Vec2i(200, 100));
+        list.validateLayout();
+
+        model.tallRow = 0;
+        list.rowChanged(0);
+        list.validateLayout();
+        assertThat(list.getContentHeight(), equalTo(240));
+        assertThat(list.getWidgets().size(), equalTo(3));
+        assertThat(list.getWidgets().get(0).getSize(), equalTo(new Vec2i(200, 60)));
+
+        model.rowCount = 0;
+        list.rowsChanged();
+        list.validateLayout();
+        assertThat(list.getWidgets().size(), equalTo(0));
+    }
+
+    /**
+     * A model of labels that are 20 pixels high, apart from one tall row.
+     */
+    private static final class LabelModel implements IListModel<Label> {
+
+        /**
+         * The number of rows.
+         */
+        private int rowCount;
+
+        /**
+         * The row that is 60 pixels high, -1 for none.
+         */
+        private int tallRow = -1;
+
+        /**
+         * The number of labels that have been created.
+         */
+        private int created;
+
+        /**
+         * Constructor.
+         * @param rowCount the number of rows
+         */
+        private LabelModel(int rowCount) {
+            this.rowCount = rowCount;
+        }
+
+        @Override
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        @Override
+        public int getRowHeight(int row) {
+            return row == tallRow ? 60 : 20;
+        }
+
+        @Nonnull
+        @Override
+        public Label createRow() {
+            created++;
+            return new Label(null, "");
+        }
+
+        @Override
+        public void bindRow(@Nonnull Label widget, int row) {
+            widget.setText("Row " + row);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ben.ui.widget.scroll;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Row Offsets Test.
+ */
+public class RowOffsetsTest {
+
+    /**
+     * Test the tops of rows with different heights, and finding the row at a distance.
+     */
+    @Test
+    public void testVariableHeights() {
+        RowOffsets offsets = new RowOffsets();
+        offsets.reset(5, row -> 10 * (row + 1));
+        assertThat(offsets.getTop(0), equalTo(0L));
+        assertThat(offsets.getTop(3), equalTo(60L));
+        assertThat(offsets.getTotalHeight(), equalTo(150L));
+
+        assertThat(offsets.rowAt(-5), equalTo(0));
+        assertThat(offsets.rowAt(9), equalTo(0));
+        assertThat(offsets.rowAt(10), equalTo(1));
+        assertThat(offsets.rowAt(59), equalTo(2));
+        assertThat(offsets.rowAt(60), equalTo(3));
+        assertThat(offsets.rowAt(1000), equalTo(4));
+    }
+
+    /**
+     * Test that changing the height of a row moves the rows below it.
+     */
+    @Test
+    public void testSetHeight() {
+        RowOffsets offsets = new RowOffsets();
+        offsets.reset(1000, row -> 20);
+        offsets.setHeight(10, 120);
+        assertThat(offsets.getTop(10), equalTo(200L));
+        assertThat(offsets.getTop(11), equalTo(320L));
+        assertThat(offsets.rowAt(319), equalTo(10));
+        assertThat(offsets.rowAt(320), equalTo(11));
+        assertThat(offsets.getTotalHeight(), equalTo(20100L));
+
+        offsets.reset(0, row -> 20);
+        assertThat(offsets.rowAt(0), equalTo(-1));
+        assertThat(offsets.getTotalHeight(), equalTo(0L));
+    }
+}
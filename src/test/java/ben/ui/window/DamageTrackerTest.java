@@ -0,0 +1,60 @@
+package ben.ui.window;
+
+import ben.ui.math.Rect;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Damage Tracker Test.
+ */
+public class DamageTrackerTest {
+
+    /**
+     * The whole window.
+     */
+    private static final Rect SCREEN = new Rect(0, 0, 800, 600);
+
+    /**
+     * Test that the first frame draws the whole window, and nothing is damaged after that.
+     */
+    @Test
+    public void testFirstFrame() {
+        DamageTracker damageTracker = new DamageTracker(null);
+
+        assertThat(damageTracker.takeDamage(SCREEN), equalTo(SCREEN));
+        assertThat(damageTracker.takeDamage(SCREEN), nullValue());
+    }
+
+    /**
+     * Test that damaged areas are grown by a pixel and merged.
+     */
+    @Test
+    public void testUnion() {
+        DamageTracker damageTracker = new DamageTracker(null);
+        damageTracker.takeDamage(SCREEN);
+
+        damageTracker.repaintRequested(new Rect(10, 10, 10, 10));
+        damageTracker.repaintRequested(new Rect(100, 50, 20, 5));
+        assertThat(damageTracker.takeDamage(SCREEN), equalTo(new Rect(9, 9, 112, 47)));
+    }
+
+    /**
+     * Test that damaged areas are clipped to the window, and that a full repaint replaces them.
+     */
+    @Test
+    public void testClipAndFullRepaint() {
+        DamageTracker damageTracker = new DamageTracker(null);
+        damageTracker.takeDamage(SCREEN);
+
+        damageTracker.repaintRequested(new Rect(790, 590, 20, 20));
+        assertThat(damageTracker.takeDamage(SCREEN), equalTo(new Rect(789, 589, 11, 11)));
+
+        damageTracker.repaintRequested(new Rect(10, 10, 10, 10));
+        damageTracker.repaintRequested();
+        damageTracker.repaintRequested(new Rect(10, 10, 10, 10));
+        assertThat(damageTracker.takeDamage(SCREEN), equalTo(SCREEN));
+    }
+}
@@ -0,0 +1,26 @@
+package ben.ui.window;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Offscreen Window Test.
+ */
+public class OffscreenWindowTest {
+
+    /**
+     * Test that the rows read back from OpenGL are flipped from bottom up to top down, starting at the position.
+     */
+    @Test
+    public void testFlipRows() {
+        ByteBuffer pixels = ByteBuffer.wrap(new byte[] {9, 1, 2, 3, 4, 5, 6});
+        pixels.position(1);
+        OffscreenWindow.flipRows(pixels, 2, 3);
+        assertThat(pixels.position(), equalTo(1));
+        assertThat(pixels.array(), equalTo(new byte[] {9, 5, 6, 3, 4, 1, 2}));
+    }
+}
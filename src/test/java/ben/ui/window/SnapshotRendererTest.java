@@ -0,0 +1,86 @@
+package ben.ui.window;
+
+import ben.ui.math.Vec2i;
+import ben.ui.renderer.BufferArena;
+import ben.ui.widget.Button;
+import ben.ui.widget.Label;
+import ben.ui.widget.VerticalPane;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLProfile;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.awt.image.BufferedImage;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Snapshot Renderer Test.
+ */
+public class SnapshotRendererTest {
+
+    /**
+     * The folder that the snapshots are written to.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test that RGBA pixels from the bottom up are converted to an ARGB image from the top down.
+     */
+    @Test
+    public void testToImage() {
+        byte[] pixels = {
+                (byte) 0xFF, 0x00, 0x00, (byte) 0xFF, 0x00, (byte) 0xFF, 0x00, (byte) 0x80,
+                0x00, 0x00, (byte) 0xFF, 0x40, 0x12, 0x34, 0x56, 0x78
+        };
+        BufferedImage image = SnapshotRenderer.toImage(pixels, 2, 2);
+        assertThat(image.getRGB(0, 1), equalTo(0xFFFF0000));
+        assertThat(image.getRGB(1, 1), equalTo(0x8000FF00));
+        assertThat(image.getRGB(0, 0), equalTo(0x400000FF));
+        assertThat(image.getRGB(1, 0), equalTo(0x78123456));
+    }
+
+    /**
+     * Test that rendering the same widget tree twice frees its vertex data after each snapshot.
+     * <p>
+     *     Needs OpenGL, e.g. Mesa's software rasterizer; skipped if it isn't available.
+     * </p>
+     * @throws Exception if the snapshots couldn't be rendered
+     */
+    @Test
+    public void testRenderFreesWidgets() throws Exception {
+        Assume.assumeTrue("OpenGL isn't available", isOpenGlAvailable());
+        VerticalPane root = new VerticalPane(null, true);
+        root.add(new Label(null, "Label"));
+        root.add(new Button(null, "Button"));
+        Vec2i size = new Vec2i(200, 100);
+
+        try (SnapshotRenderer renderer = new SnapshotRenderer(1)) {
+            BufferArena bufferArena = renderer.getWindow().getGlResourceManager().getBufferArena();
+            int startBytes = bufferArena.getAllocatedBytes();
+            for (String name : new String[] {"first.png", "second.png"}) {
+                renderer.render(root, size, folder.newFile(name));
+                FrameStats frameStats = renderer.getWindow().getFrameStats();
+                assertThat(frameStats != null && frameStats.getUploadBytes() > 0, equalTo(true));
+                assertThat(bufferArena.getAllocatedBytes(), equalTo(startBytes));
+            }
+        }
+    }
+
+    /**
+     * Can an OpenGL 2 context be created.
+     * @return true if it can
+     */
+    private static boolean isOpenGlAvailable() {
+        try {
+            return GLProfile.isAvailable(GLProfile.GL2);
+        }
+        catch (GLException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package ben.ui.math;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Vector Matrix Backend.
+ * <p>
+ *     Uses the vector API so that a whole column of a matrix, one lane per row, is worked on by each instruction. Needs
+ *     JDK 16 or later and the {@code jdk.incubator.vector} module; {@link Matrix} only loads it if the module was added
+ *     to the JVM, e.g. {@code java --add-modules jdk.incubator.vector}.
+ * </p>
+ * <p>
+ *     The inverse loads the rows of the matrix rather than the columns, so that it works out a whole column of the
+ *     adjugate at a time and can store it without transposing.
+ * </p>
+ * <p>
+ *     Each operation is only here while {@code MatrixBackendBenchmark} shows it faster than the scalar one; one that
+ *     isn't should call the scalar backend instead.
+ * </p>
+ */
+final class VectorMatrixBackend implements MatrixBackend {
+
+    /**
+     * A vector of four floats, a column of a matrix.
+     */
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_128;
+
+    /**
+     * Swaps lanes 0 and 1, and lanes 2 and 3.
+     */
+    private static final VectorShuffle<Float> SWAP_PAIRS = VectorShuffle.fromValues(SPECIES, 1, 0, 3, 2);
+
+    /**
+     * Spreads lane 2 into lanes 0 and 1, and lane 0 into lanes 2 and 3.
+     */
+    private static final VectorShuffle<Float> SPREAD_EVEN = VectorShuffle.fromValues(SPECIES, 2, 2, 0, 0);
+
+    /**
+     * Spreads lane 3 into lanes 0 and 1, and lane 1 into lanes 2 and 3.
+     */
+    private static final VectorShuffle<Float> SPREAD_ODD = VectorShuffle.fromValues(SPECIES, 3, 3, 1, 1);
+
+    /**
+     * The offsets of the elements of a row of a matrix from its first element, for loading a row.
+     */
+    private static final int[] ROW_OFFSETS = {Matrix.M00, Matrix.M10, Matrix.M20, Matrix.M30};
+
+    /**
+     * Negates lanes 1 and 3.
+     */
+    private static final float[] ALTERNATE_SIGNS = {1, -1, 1, -1};
+
+    /**
+     * Constructor.
+     * @throws UnsupportedOperationException if the CPU doesn't have vectors of four floats, the vector API would be
+     *     much slower than scalar code
+     */
+    VectorMatrixBackend() {
+        if (VectorShape.preferredShape().vectorBitSize() < SPECIES.vectorBitSize()) {
+            throw new UnsupportedOperationException("The CPU doesn't have " + SPECIES.vectorBitSize() + " bit vectors");
+        }
+    }
+
+    @Override
+    public void mul(@Nonnull float[] result, @Nonnull float[] m0, @Nonnull float[] m1) {
+        FloatVector c0 = FloatVector.fromArray(SPECIES, m0, Matrix.M00);
+        FloatVector c1 = FloatVector.fromArray(SPECIES, m0, Matrix.M10);
+        FloatVector c2 = FloatVector.fromArray(SPECIES, m0, Matrix.M20);
+        FloatVector c3 = FloatVector.fromArray(SPECIES, m0, Matrix.M30);
+        // All of the columns are worked out before any are stored, as the result may be the second matrix. They're
+        // written out rather than in a method that takes and returns vectors, which boxes them if it isn't inlined.
+        FloatVector r0 = c0.mul(m1[Matrix.M00]).add(c1.mul(m1[Matrix.M01])).add(c2.mul(m1[Matrix.M02]))
+                .add(c3.mul(m1[Matrix.M03]));
+        FloatVector r1 = c0.mul(m1[Matrix.M10]).add(c1.mul(m1[Matrix.M11])).add(c2.mul(m1[Matrix.M12]))
+                .add(c3.mul(m1[Matrix.M13]));
+        FloatVector r2 = c0.mul(m1[Matrix.M20]).add(c1.mul(m1[Matrix.M21])).add(c2.mul(m1[Matrix.M22]))
+                .add(c3.mul(m1[Matrix.M23]));
+        FloatVector r3 = c0.mul(m1[Matrix.M30]).add(c1.mul(m1[Matrix.M31])).add(c2.mul(m1[Matrix.M32]))
+                .add(c3.mul(m1[Matrix.M33]));
+        r0.intoArray(result, Matrix.M00);
+        r1.intoArray(result, Matrix.M10);
+        r2.intoArray(result, Matrix.M20);
+        r3.intoArray(result, Matrix.M30);
+    }
+
+    @Override
+    public boolean inverse(@Nonnull float[] result, @Nonnull float[] m) {
+        FloatVector r0 = FloatVector.fromArray(SPECIES, m, Matrix.M00, ROW_OFFSETS, 0);
+        FloatVector r1 = FloatVector.fromArray(SPECIES, m, Matrix.M01, ROW_OFFSETS, 0);
+        FloatVector r2 = FloatVector.fromArray(SPECIES, m, Matrix.M02, ROW_OFFSETS, 0);
+        FloatVector r3 = FloatVector.fromArray(SPECIES, m, Matrix.M03, ROW_OFFSETS, 0);
+
+        // The 2x2 sub-determinants of each pair of rows, of the last two columns in lanes 0 and 1 and of the first two
+        // columns in lanes 2 and 3.
+        FloatVector even0 = r0.rearrange(SPREAD_EVEN);
+        FloatVector even1 = r1.rearrange(SPREAD_EVEN);
+        FloatVector even2 = r2.rearrange(SPREAD_EVEN);
+        FloatVector even3 = r3.rearrange(SPREAD_EVEN);
+        FloatVector odd0 = r0.rearrange(SPREAD_ODD);
+        FloatVector odd1 = r1.rearrange(SPREAD_ODD);
+        FloatVector odd2 = r2.rearrange(SPREAD_ODD);
+        FloatVector odd3 = r3.rearrange(SPREAD_ODD);
+        FloatVector d01 = even0.mul(odd1).sub(odd0.mul(even1));
+        FloatVector d02 = even0.mul(odd2).sub(odd0.mul(even2));
+        FloatVector d03 = even0.mul(odd3).sub(odd0.mul(even3));
+        FloatVector d12 = even1.mul(odd2).sub(odd1.mul(even2));
+        FloatVector d13 = even1.mul(odd3).sub(odd1.mul(even3));
+        FloatVector d23 = even2.mul(odd3).sub(odd2.mul(even3));
+
+        // The signs are loaded here rather than kept in a vector constant, which C2 can't use without boxing.
+        FloatVector signs = FloatVector.fromArray(SPECIES, ALTERNATE_SIGNS, 0);
+        FloatVector p0 = r0.rearrange(SWAP_PAIRS).mul(signs);
+        FloatVector p1 = r1.rearrange(SWAP_PAIRS).mul(signs);
+        FloatVector p2 = r2.rearrange(SWAP_PAIRS).mul(signs);
+        FloatVector p3 = r3.rearrange(SWAP_PAIRS).mul(signs);
+
+        // The columns of the adjugate.
+        FloatVector a0 = p1.mul(d23).sub(p2.mul(d13)).add(p3.mul(d12));
+        FloatVector a1 = p2.mul(d03).sub(p0.mul(d23)).sub(p3.mul(d02));
+        FloatVector a2 = p0.mul(d13).sub(p1.mul(d03)).add(p3.mul(d01));
+        FloatVector a3 = p1.mul(d02).sub(p0.mul(d12)).sub(p2.mul(d01));
+
+        // The first row of the matrix times the first column of the adjugate.
+        float determinant = r0.mul(a0).reduceLanes(VectorOperators.ADD);
+        if (determinant == 0.0f) {
+            return false;
+        }
+        float scale = 1.0f / determinant;
+        a0.mul(scale).intoArray(result, Matrix.M00);
+        a1.mul(scale).intoArray(result, Matrix.M10);
+        a2.mul(scale).intoArray(result, Matrix.M20);
+        a3.mul(scale).intoArray(result, Matrix.M30);
+        return true;
+    }
+
+    @Override
+    public void transform(@Nonnull float[] matrix, @Nonnull float[] points, int pointsOffset,
+            @Nonnull float[] result, int resultOffset, int count) {
+        FloatVector c0 = FloatVector.fromArray(SPECIES, matrix, Matrix.M00);
+        FloatVector c1 = FloatVector.fromArray(SPECIES, matrix, Matrix.M10);
+        FloatVector c2 = FloatVector.fromArray(SPECIES, matrix, Matrix.M20);
+        FloatVector c3 = FloatVector.fromArray(SPECIES, matrix, Matrix.M30);
+        int in = pointsOffset;
+        int out = resultOffset;
+        for (int i = 0; i < count; i++) {
+            c0.mul(points[in]).add(c1.mul(points[in + 1])).add(c2.mul(points[in + 2])).add(c3).intoArray(result, out);
+            in += 3;
+            out += SPECIES.length();
+        }
+    }
+}